@@ -5,6 +5,8 @@
  */
 package airline.reservation.system;
 
+import api.ApiServer;
+import config.AppConfig;
 import config.LoggingConfig;
 import dao.DBConnectionManager;
 import java.io.File;
@@ -13,6 +15,7 @@ import java.sql.DriverManager;
 import java.sql.Statement;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import metrics.MetricsRegistry;
 import org.sqlite.JDBC;
 import service.ServiceFactory;
 
@@ -35,12 +38,19 @@ public class AirlineReservationSystem {
     
     /**
      * Main entry point for the application
-     * @param args command line arguments
+     * @param args command line arguments; --headless starts the HTTP/JSON API instead of the UI
      */
     public static void main(String[] args) {
+        if (args.length > 0 && "--headless".equals(args[0])) {
+            LOGGER.info("Starting Airline Reservation System in headless mode");
+            ApiServer.main(args);
+            return;
+        }
         try {
             // Initialize logging
             LOGGER.info("Starting Airline Reservation System");
+            MetricsRegistry.getInstance().startReporting();
+            AppConfig.startWatching();
             
             // Initialize connection manager
             connectionManager = DBConnectionManager.getInstance();
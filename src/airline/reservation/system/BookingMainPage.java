@@ -403,7 +403,7 @@ public class BookingMainPage extends javax.swing.JFrame {
         if(testActionListenerActive){
             try {
                String query = "SELECT * FROM Flights WHERE FlightId ="+fIdCMBox1.getSelectedItem();
-               System.out.println(query);
+               Logger.getLogger(BookingMainPage.class.getName()).fine(query);
                rs = st.executeQuery(query);
                amountField.setText(rs.getString("price"));
              
@@ -436,11 +436,11 @@ public class BookingMainPage extends javax.swing.JFrame {
                 int seats = Integer.parseInt(rs.getString("Seats"));
                 if(seats > 0){
                     String reserveSeat = "UPDATE Flights SET Seats = Seats - 1 WHERE flightId =" + fIdCMBox1.getSelectedItem();
-                    System.out.println(reserveSeat);
+                    Logger.getLogger(BookingMainPage.class.getName()).fine(reserveSeat);
                     pst = connection.prepareStatement(reserveSeat);
                     pst.executeUpdate();
                     String updateQuery = "UPDATE Passengers SET status="+ '"' +"Paid"+ '"' + ", amountPaid = " + amountField.getText() + ", flightId =" + '"' + fIdCMBox1.getSelectedItem() + '"'  + " WHERE passID = "+ '"' +passIDField.getText()+ '"';
-                    System.out.println(updateQuery);
+                    Logger.getLogger(BookingMainPage.class.getName()).fine(updateQuery);
                     pst = connection.prepareStatement(updateQuery);
                     pst.executeUpdate();
                     displayBookingDetails();
@@ -460,11 +460,11 @@ public class BookingMainPage extends javax.swing.JFrame {
         // TODO add your handling code here:
         try{
             String cancelQuery = "UPDATE Passengers SET status = "+'"'+"Unpaid"+'"'+", flightId = NULL, amountPaid = NULL WHERE passID ="+'"'+passIDField.getText()+'"';
-            System.out.println(cancelQuery);
+            Logger.getLogger(BookingMainPage.class.getName()).fine(cancelQuery);
             pst = connection.prepareStatement(cancelQuery);
             pst.executeUpdate();
             String unreversveSeat = "UPDATE Flights SET Seats = Seats + 1 WHERE flightId =" + fIdCMBox1.getSelectedItem();
-            System.out.println(unreversveSeat);
+            Logger.getLogger(BookingMainPage.class.getName()).fine(unreversveSeat);
             pst = connection.prepareStatement(unreversveSeat);
             pst.executeUpdate();
             displayBookingDetails();
@@ -472,7 +472,7 @@ public class BookingMainPage extends javax.swing.JFrame {
             JOptionPane.showMessageDialog(null, "Flight booking is cancelled sussussfully..");   
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(BookingMainPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }//GEN-LAST:event_cancelBtnMouseClicked
 
@@ -513,7 +513,7 @@ public class BookingMainPage extends javax.swing.JFrame {
             }
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(BookingMainPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }
     
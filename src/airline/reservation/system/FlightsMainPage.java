@@ -13,11 +13,16 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.util.Collections;
 import java.util.Date;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JOptionPane;
 import javax.swing.table.DefaultTableModel;
+import model.ReaccommodationResult;
+import service.ReaccommodationService;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
 
 /**
  *
@@ -483,7 +488,7 @@ public class FlightsMainPage extends javax.swing.JFrame {
                                 deptTimeField.getText() + "','" +
                                 arrTimeField.getText() + "','" +
                                 Integer.parseInt(priceField.getText()) + "');";
-                System.out.println(addFlightQuery);
+                Logger.getLogger(FlightsMainPage.class.getName()).fine(addFlightQuery);
                 st.executeUpdate(addFlightQuery);
                 clearFields();
                 displayFlights();
@@ -531,14 +536,19 @@ public class FlightsMainPage extends javax.swing.JFrame {
         }   
         else{
             try {
+                // Move the booked passengers while the flight's route and date are still known
+                ReaccommodationResult moved = new ReaccommodationService(connection)
+                        .reaccommodate(Collections.singletonList(key));
                 String delQuery = "DELETE FROM Flights WHERE FlightID = " + key + ";";
                 pst = connection.prepareStatement(delQuery);
                 pst.executeUpdate();
                 displayFlights();
                 clearFields();
-                JOptionPane.showMessageDialog(null, "Record of flight deleted successfully.");
+                JOptionPane.showMessageDialog(null, "Record of flight deleted successfully. "
+                        + moved.getMoved().size() + " passengers moved to other flights, "
+                        + moved.getUnaccommodated().size() + " without an alternative.");
            
-            } catch (SQLException ex) {
+            } catch (SQLException | ServiceException | ValidationException ex) {
                 Logger.getLogger(FlightsMainPage.class.getName()).log(Level.SEVERE, null, ex);
             }
         }
@@ -579,7 +589,7 @@ public class FlightsMainPage extends javax.swing.JFrame {
                     String updateQuery = "UPDATE Flights SET FlightID ="+key+", FCode ="+ '"' +FCode.getText()+ '"' +", Ffrom ="+ '"' +fromField.getText()+ '"' +
                             ", Fto ="+ '"' + toField.getText()+ '"' +", deptDate ="+ '"' +date+ '"' +", Seats ="+Integer.parseInt(seatsField.getText())+
                             ", deptTime ="+ '"' +deptTimeField.getText()+ '"' +", arrTime ="+ '"' +arrTimeField.getText()+ '"' +", price ="+Integer.parseInt(priceField.getText())+" WHERE FlightID ="+key+";";
-                    System.out.println(updateQuery);
+                    Logger.getLogger(FlightsMainPage.class.getName()).fine(updateQuery);
 
                     pst = connection.prepareStatement(updateQuery);
                     pst.executeUpdate();
@@ -600,7 +610,7 @@ public class FlightsMainPage extends javax.swing.JFrame {
         // TODO add your handling code here:
         try{
             String searchQuery = "SELECT * FROM FLIGHTS WHERE FCode ="+ '"' +FCode.getText()+ '"' +";";
-              System.out.println(searchQuery);
+              Logger.getLogger(FlightsMainPage.class.getName()).fine(searchQuery);
             pst = connection.prepareStatement(searchQuery);
             rs = pst.executeQuery();
             if(!rs.next()){
@@ -639,7 +649,6 @@ public class FlightsMainPage extends javax.swing.JFrame {
     private Date convertStringToDate(String date) throws ParseException{
         SimpleDateFormat formatter = new SimpleDateFormat("MMM d, yyyy");
         Date ddate = formatter.parse(date);
-        System.out.println(ddate);
         return ddate;
     }
     
@@ -675,7 +684,7 @@ public class FlightsMainPage extends javax.swing.JFrame {
             }
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(FlightsMainPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }
     
@@ -684,14 +693,12 @@ public class FlightsMainPage extends javax.swing.JFrame {
         try{
             st = connection.createStatement();
             String query = "SELECT MAX(FlightID) FROM Flights";
-            System.out.println(currentFlightID);
             rs = st.executeQuery(query);
             rs.next();
             currentFlightID = rs.getInt(1) + 1;
-            System.out.println(currentFlightID);
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(FlightsMainPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }
     
@@ -483,15 +483,13 @@ public class PassengerMainPage extends javax.swing.JFrame {
         try{
             st = connection.createStatement();
             String query = "SELECT MAX(passID) FROM Passengers";
-            System.out.println(currentPassID);
             rs = st.executeQuery(query);
             rs.next();
             currentPassID = rs.getInt(1) + 1;
-            System.out.println(currentPassID);
             passIDField.setText(Integer.toString(currentPassID));
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(PassengerMainPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }
     
@@ -513,7 +511,7 @@ public class PassengerMainPage extends javax.swing.JFrame {
                                 fromCMBox.getSelectedItem()+ "','" +
                                 toCMBox.getSelectedItem()+ "','" +
                                 "Unpaid"+ "');";
-                System.out.println(addPassQuery);
+                Logger.getLogger(PassengerMainPage.class.getName()).fine(addPassQuery);
                 st.executeUpdate(addPassQuery);
                 clearFields();
                 displayPassengers();
@@ -598,7 +596,7 @@ public class PassengerMainPage extends javax.swing.JFrame {
                 try {
                     String updateQuery = "UPDATE Passengers SET pName ="+ '"' +PNameField.getText()+ '"' + ", Gender="+ '"' +genderCMBox.getSelectedItem()+ '"' +
                             ", nationality="+ '"' +nationalityField.getText()+ '"' +", Pfrom="+ '"' +fromCMBox.getSelectedItem()+ '"' +", Pto="+ '"' +toCMBox.getSelectedItem()+ '"' +", status="+ '"' +"Unpaid"+ '"' + ", passNum ="+ '"' + PNum.getText()+'"'+" WHERE passID ="+ '"' +key+ '"' +";";
-                    System.out.println(updateQuery);
+                    Logger.getLogger(PassengerMainPage.class.getName()).fine(updateQuery);
 
                     pst = connection.prepareStatement(updateQuery);
                     pst.executeUpdate();
@@ -621,7 +619,7 @@ public class PassengerMainPage extends javax.swing.JFrame {
         // TODO add your handling code here:
         try{
             String searchQuery = "SELECT * FROM Passengers WHERE passNum ="+ '"' +PNum.getText()+ '"' + " OR passID ="+ '"' +passIDField.getText()+ '"' +";";
-            System.out.println(searchQuery);
+            Logger.getLogger(PassengerMainPage.class.getName()).fine(searchQuery);
             pst = connection.prepareStatement(searchQuery);
             rs = pst.executeQuery();
             passIDField.setText(rs.getString(7));
@@ -685,7 +683,7 @@ public class PassengerMainPage extends javax.swing.JFrame {
             }
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(PassengerMainPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }                                           
 
@@ -5,11 +5,15 @@
  */
 package airline.reservation.system;
 
+import dao.FlightDao;
 import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.ResultSet;
 import java.sql.Statement;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.table.DefaultTableModel;
+import model.Flight;
+import model.FlightQuery;
+import util.DateCodec;
 
 /**
  *
@@ -21,9 +25,8 @@ public class SuggestionsPage extends javax.swing.JFrame {
      * Creates new form SuggestionsPage
      */
     
+    private static final int MAX_SUGGESTIONS = 100;
     private Connection connection = AirlineReservationSystem.connection;
-    ResultSet rs = null;
-    PreparedStatement pst = null;
     Statement st = AirlineReservationSystem.statement;
     
     public SuggestionsPage(){
@@ -193,27 +196,26 @@ public class SuggestionsPage extends javax.swing.JFrame {
             DefaultTableModel model = (DefaultTableModel) flightTable.getModel();
             model.setRowCount(0);
             if(connection != null){
-                String query = "SELECT * FROM FLIGHTS WHERE Ffrom ="+'"'+from+'"'+" AND Fto="+'"'+to+'"';
-                pst = connection.prepareStatement(query);
-                rs = pst.executeQuery();
-              
+                // Cheapest first; only the rows shown are read
+                FlightQuery query = new FlightQuery(from, FlightQuery.Order.PRICE, MAX_SUGGESTIONS);
+                query.setDestination(to);
                 Object[] data = new Object[9];
-                while(rs.next()){
-                    data[0] = rs.getString("FlightId");
-                    data[1] = rs.getString("FCode");
-                    data[2] = rs.getString("Ffrom");
-                    data[3] = rs.getString("Fto");
-                    data[4] = rs.getString("deptDate");
-                    data[5] = rs.getString("Seats");
-                    data[6] = rs.getString("price");
-                    data[7] = rs.getString("deptTime");
-                    data[8] = rs.getString("arrTime");
+                for (Flight f : new FlightDao(connection).findTopFlights(query)) {
+                    data[0] = f.getId();
+                    data[1] = f.getCode();
+                    data[2] = f.getFromCity();
+                    data[3] = f.getToCity();
+                    data[4] = DateCodec.format(f.getDepartureDate());
+                    data[5] = f.getSeatCount();
+                    data[6] = f.getPrice();
+                    data[7] = f.getDepartureTime();
+                    data[8] = f.getArrivalTime();
                     model.addRow(data);
                 }
             }
         }
         catch(Exception ex){
-            System.out.println(ex.getMessage());
+            Logger.getLogger(SuggestionsPage.class.getName()).log(Level.WARNING, ex.getMessage(), ex);
         }
     }
     
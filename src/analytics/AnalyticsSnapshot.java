@@ -0,0 +1,95 @@
+package analytics;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of one pass over all bookings: load factor per flight, revenue per
+ * route and departure day, and booking curves per route and for the network
+ */
+public class AnalyticsSnapshot {
+    private final List<FlightLoad> flightLoads;
+    private final List<RouteRevenue> routeRevenue;
+    private final List<BookingCurve> routeCurves;
+    private final BookingCurve overallCurve;
+    private final long bookingsScanned;
+    private final long unmatchedBookings;
+
+    AnalyticsSnapshot(List<FlightLoad> flightLoads, List<RouteRevenue> routeRevenue, List<BookingCurve> routeCurves,
+                      BookingCurve overallCurve, long bookingsScanned, long unmatchedBookings) {
+        this.flightLoads = Collections.unmodifiableList(flightLoads);
+        this.routeRevenue = Collections.unmodifiableList(routeRevenue);
+        this.routeCurves = Collections.unmodifiableList(routeCurves);
+        this.overallCurve = overallCurve;
+        this.bookingsScanned = bookingsScanned;
+        this.unmatchedBookings = unmatchedBookings;
+    }
+
+    /**
+     * @return every flight ordered by flight id, including flights without bookings
+     */
+    public List<FlightLoad> getFlightLoads() {
+        return flightLoads;
+    }
+
+    /**
+     * @return route and departure days with at least one booking, ordered by day and route
+     */
+    public List<RouteRevenue> getRouteRevenue() {
+        return routeRevenue;
+    }
+
+    /**
+     * @return booking curves of routes with at least one dated booking
+     */
+    public List<BookingCurve> getRouteCurves() {
+        return routeCurves;
+    }
+
+    public BookingCurve getOverallCurve() {
+        return overallCurve;
+    }
+
+    /**
+     * @return all bookings read, cancelled ones included
+     */
+    public long getBookingsScanned() {
+        return bookingsScanned;
+    }
+
+    /**
+     * @return bookings that are not cancelled but refer to a flight that does not exist
+     */
+    public long getUnmatchedBookings() {
+        return unmatchedBookings;
+    }
+
+    public long getTotalBooked() {
+        long total = 0;
+        for (FlightLoad load : flightLoads) {
+            total += load.getBooked();
+        }
+        return total;
+    }
+
+    public double getTotalRevenue() {
+        double total = 0;
+        for (FlightLoad load : flightLoads) {
+            total += load.getRevenue();
+        }
+        return total;
+    }
+
+    /**
+     * @return booked seats over capacity across all flights
+     */
+    public double getOverallLoadFactor() {
+        long booked = 0;
+        long capacity = 0;
+        for (FlightLoad load : flightLoads) {
+            booked += load.getBooked();
+            capacity += load.getCapacity();
+        }
+        return capacity == 0 ? 0 : (double) booked / capacity;
+    }
+}
@@ -0,0 +1,416 @@
+package analytics;
+
+import config.AppConfig;
+import dao.BookingDao;
+import dao.FlightDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.BookingBatch;
+import model.FlightBatch;
+import util.DateCodec;
+import util.StringDictionary;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.IntStream;
+
+/**
+ * Revenue, load factor and booking curve analytics over all bookings.
+ * <p>
+ * {@link #revenueByRouteAndDay} and {@link #loadFactors} push a single
+ * GROUP BY pass into the database and only hold one row per group.
+ * {@link #snapshot()} streams every booking once through
+ * {@link BookingDao#streamBookings} and aggregates the primitive columns on a
+ * fork/join pool; each worker thread adds into its own per-flight arrays, which
+ * are merged with parallel streams at the end. Neither path materializes
+ * Booking or Flight objects. Cancelled bookings are not counted.
+ */
+public class BookingAnalytics {
+    private static final Logger LOGGER = Logger.getLogger(BookingAnalytics.class.getName());
+    private static final LatencyHistogram REVENUE_BY_ROUTE_AND_DAY_TIME = MetricsRegistry.getInstance().histogram("BookingAnalytics.revenueByRouteAndDay");
+    private static final LatencyHistogram LOAD_FACTORS_TIME = MetricsRegistry.getInstance().histogram("BookingAnalytics.loadFactors");
+    private static final LatencyHistogram SNAPSHOT_TIME = MetricsRegistry.getInstance().histogram("BookingAnalytics.snapshot");
+
+    private static final String CANCELLED = "CANCELLED";
+    /** Bookings counted by the SQL path; matches {@link Aggregation#isCancelled} */
+    private static final String BOOKED = BookingDao.bookedSql("b.status");
+    private static final int CURVE_WIDTH = BookingCurve.MAX_DAYS + 1;
+
+    private final FlightDao flightDao;
+    private final BookingDao bookingDao;
+    private final Connection connection;
+
+    /**
+     * Constructs a BookingAnalytics with a database connection
+     *
+     * @param connection Database connection
+     */
+    public BookingAnalytics(Connection connection) {
+        this.connection = connection;
+        this.flightDao = new FlightDao(connection);
+        this.bookingDao = new BookingDao(connection);
+    }
+
+    /**
+     * Computes bookings and revenue per route and departure day with one aggregate query.
+     * Served by the deptDay index on Flights and the flightId index on Bookings.
+     *
+     * @param from First departure date, inclusive
+     * @param to Last departure date, inclusive
+     * @return route and departure days with at least one booking, ordered by day and route
+     * @throws SQLException if a database error occurs
+     */
+    public List<RouteRevenue> revenueByRouteAndDay(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT f.Ffrom, f.Fto, f.deptDay, COUNT(*), TOTAL(b.amountPaid) FROM Flights f "
+                + "JOIN Bookings b ON b.flightId = f.FlightId "
+                + "WHERE f.deptDay BETWEEN ? AND ? AND " + BOOKED + " "
+                + "GROUP BY f.Ffrom, f.Fto, f.deptDay ORDER BY f.deptDay, f.Ffrom, f.Fto";
+        List<RouteRevenue> result = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, DateCodec.toEpochDay(from));
+            pst.setInt(2, DateCodec.toEpochDay(to));
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new RouteRevenue(rs.getString(1), rs.getString(2),
+                            DateCodec.fromEpochDay(rs.getInt(3)), rs.getLong(4), rs.getDouble(5)));
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error computing revenue by route and day: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            REVENUE_BY_ROUTE_AND_DAY_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Computes bookings, revenue and load factor of every flight.
+     * Bookings are counted with one aggregate query and joined in memory with
+     * the streamed flights.
+     *
+     * @return every flight ordered by flight id, including flights without bookings
+     * @throws SQLException if a database error occurs
+     */
+    public List<FlightLoad> loadFactors() throws SQLException {
+        String sql = "SELECT b.flightId, COUNT(*), TOTAL(b.amountPaid) FROM Bookings b WHERE " + BOOKED
+                + " GROUP BY b.flightId";
+
+        long start = System.nanoTime();
+        try {
+            FlightIndex flights = FlightIndex.load(flightDao, batchSize());
+            int[] booked = new int[flights.size()];
+            double[] revenue = new double[flights.size()];
+            try (PreparedStatement pst = connection.prepareStatement(sql);
+                 ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    int index = flights.indexOf(rs.getInt(1));
+                    if (index >= 0) {
+                        booked[index] = rs.getInt(2);
+                        revenue[index] = rs.getDouble(3);
+                    }
+                }
+            }
+            return flightLoads(flights, booked, revenue);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error computing load factors: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            LOAD_FACTORS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Computes load factors, revenue per route and day and booking curves in a
+     * single parallel pass over all bookings.
+     * Worker threads are set by analytics.threads and rows per batch by analytics.batch.size.
+     *
+     * @return the snapshot
+     * @throws SQLException if a database error occurs
+     */
+    public AnalyticsSnapshot snapshot() throws SQLException {
+        int threads = AppConfig.getInt("analytics.threads", Runtime.getRuntime().availableProcessors(), 1, 256);
+        int batchSize = batchSize();
+
+        long start = System.nanoTime();
+        try {
+            FlightIndex flights = FlightIndex.load(flightDao, batchSize);
+            try (Aggregation aggregation = new Aggregation(flights, threads, batchSize)) {
+                bookingDao.streamBookings(batchSize, aggregation::accept);
+                AnalyticsSnapshot snapshot = aggregation.finish();
+                if (LOGGER.isLoggable(Level.FINE)) {
+                    LOGGER.fine("Aggregated " + snapshot.getBookingsScanned() + " bookings over " + flights.size()
+                            + " flights on " + threads + " threads in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+                }
+                return snapshot;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error computing booking analytics: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            SNAPSHOT_TIME.recordSince(start);
+        }
+    }
+
+    private static int batchSize() {
+        return AppConfig.getInt("analytics.batch.size", 4096, 64, 1_000_000);
+    }
+
+    private static List<FlightLoad> flightLoads(FlightIndex flights, int[] booked, double[] revenue) {
+        List<FlightLoad> loads = new ArrayList<>(flights.size());
+        for (int i = 0; i < flights.size(); i++) {
+            int route = flights.getRoute(i);
+            loads.add(new FlightLoad(flights.getId(i), flights.getCode(i), flights.getRouteFrom(route),
+                    flights.getRouteTo(route), flights.getDepartureDate(i),
+                    booked[i], flights.getSeatCount(i), revenue[i]));
+        }
+        return loads;
+    }
+
+    /**
+     * Bookings copied out of a streamed batch, which is reused by the DAO
+     */
+    private static final class Chunk {
+        final int[] flightIds;
+        final double[] amounts;
+        final int[] bookingDays;
+        int size;
+
+        Chunk(int capacity) {
+            flightIds = new int[capacity];
+            amounts = new double[capacity];
+            bookingDays = new int[capacity];
+        }
+    }
+
+    /**
+     * Sums of one worker thread, indexed like the FlightIndex
+     */
+    private static final class Partial {
+        final int[] booked;
+        final double[] revenue;
+        final int[] curves;
+        long unmatched;
+
+        Partial(FlightIndex flights) {
+            booked = new int[flights.size()];
+            revenue = new double[flights.size()];
+            curves = new int[flights.routeCount() * CURVE_WIDTH];
+        }
+
+        void add(Chunk chunk, FlightIndex flights) {
+            for (int i = 0; i < chunk.size; i++) {
+                int index = flights.indexOf(chunk.flightIds[i]);
+                if (index < 0) {
+                    unmatched++;
+                    continue;
+                }
+                booked[index]++;
+                double amount = chunk.amounts[i];
+                if (!Double.isNaN(amount)) {
+                    revenue[index] += amount;
+                }
+                int bookingDay = chunk.bookingDays[i];
+                int departureDay = flights.getDepartureDay(index);
+                if (bookingDay != BookingBatch.NO_DATE && departureDay != FlightBatch.NO_DATE) {
+                    int daysBefore = departureDay - bookingDay;
+                    daysBefore = Math.max(0, Math.min(BookingCurve.MAX_DAYS, daysBefore));
+                    curves[flights.getRoute(index) * CURVE_WIDTH + daysBefore]++;
+                }
+            }
+        }
+    }
+
+    /**
+     * One parallel pass. The streaming thread filters out cancelled bookings
+     * and copies the rest into a free chunk, waiting when every chunk is in
+     * use, so at most two chunks per worker are held in memory.
+     */
+    private static final class Aggregation implements AutoCloseable {
+        private final FlightIndex flights;
+        private final ForkJoinPool pool;
+        private final int chunkCount;
+        private final BlockingQueue<Chunk> freeChunks;
+        private final Queue<Partial> partials = new ConcurrentLinkedQueue<>();
+        private final ThreadLocal<Partial> workerPartial = ThreadLocal.withInitial(this::newPartial);
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // Per status code: 0 unknown, 1 cancelled, 2 booked; only used by the streaming thread
+        private final byte[] cancelledCodes = new byte[StringDictionary.STATUSES.getCapacity()];
+        private long scanned;
+
+        Aggregation(FlightIndex flights, int threads, int batchSize) {
+            this.flights = flights;
+            this.pool = new ForkJoinPool(threads);
+            this.chunkCount = threads * 2;
+            this.freeChunks = new ArrayBlockingQueue<>(chunkCount);
+            for (int i = 0; i < chunkCount; i++) {
+                freeChunks.add(new Chunk(batchSize));
+            }
+        }
+
+        private Partial newPartial() {
+            Partial partial = new Partial(flights);
+            partials.add(partial);
+            return partial;
+        }
+
+        void accept(BookingBatch batch) {
+            checkFailure();
+            Chunk chunk = takeChunk();
+            chunk.size = 0;
+            for (int i = 0; i < batch.size(); i++) {
+                scanned++;
+                if (isCancelled(batch, i)) {
+                    continue;
+                }
+                chunk.flightIds[chunk.size] = batch.getFlightId(i);
+                chunk.amounts[chunk.size] = batch.getAmountPaid(i);
+                chunk.bookingDays[chunk.size] = batch.getBookingDay(i);
+                chunk.size++;
+            }
+            pool.execute(() -> aggregate(chunk));
+        }
+
+        private void aggregate(Chunk chunk) {
+            try {
+                workerPartial.get().add(chunk, flights);
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+            } finally {
+                freeChunks.add(chunk);
+            }
+        }
+
+        private boolean isCancelled(BookingBatch batch, int index) {
+            int code = batch.getStatusCode(index);
+            if (code < 0 || code >= cancelledCodes.length) {
+                return CANCELLED.equalsIgnoreCase(batch.getStatus(index));
+            }
+            if (cancelledCodes[code] == 0) {
+                cancelledCodes[code] = CANCELLED.equalsIgnoreCase(batch.getStatus(index)) ? (byte) 1 : (byte) 2;
+            }
+            return cancelledCodes[code] == 1;
+        }
+
+        private Chunk takeChunk() {
+            try {
+                return freeChunks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while aggregating bookings", e);
+            }
+        }
+
+        private void checkFailure() {
+            RuntimeException e = failure.get();
+            if (e != null) {
+                throw e;
+            }
+        }
+
+        /**
+         * Waits for the workers and merges their sums
+         */
+        AnalyticsSnapshot finish() {
+            // Every chunk is back once all submitted work has completed
+            for (int i = 0; i < chunkCount; i++) {
+                takeChunk();
+            }
+            checkFailure();
+
+            Partial[] parts = partials.toArray(new Partial[0]);
+            int[] booked = new int[flights.size()];
+            double[] revenue = new double[flights.size()];
+            long[] curves = new long[flights.routeCount() * CURVE_WIDTH];
+            pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, booked.length).parallel().forEach(i -> {
+                for (Partial part : parts) {
+                    booked[i] += part.booked[i];
+                    revenue[i] += part.revenue[i];
+                }
+            })));
+            pool.invoke(ForkJoinTask.adapt(() -> IntStream.range(0, curves.length).parallel().forEach(i -> {
+                for (Partial part : parts) {
+                    curves[i] += part.curves[i];
+                }
+            })));
+            long unmatched = 0;
+            for (Partial part : parts) {
+                unmatched += part.unmatched;
+            }
+
+            return new AnalyticsSnapshot(flightLoads(flights, booked, revenue), routeRevenue(booked, revenue),
+                    routeCurves(curves), overallCurve(curves), scanned, unmatched);
+        }
+
+        private List<RouteRevenue> routeRevenue(int[] booked, double[] revenue) {
+            // A flight flies one route on one day, so route and day sums follow from the flight sums
+            Map<Long, double[]> sums = new HashMap<>();
+            for (int i = 0; i < flights.size(); i++) {
+                // Undated flights belong to no departure day
+                if (booked[i] == 0 || flights.getDepartureDay(i) == FlightBatch.NO_DATE) {
+                    continue;
+                }
+                long key = ((long) flights.getDepartureDay(i) << 32) | flights.getRoute(i);
+                double[] sum = sums.computeIfAbsent(key, k -> new double[2]);
+                sum[0] += booked[i];
+                sum[1] += revenue[i];
+            }
+            List<RouteRevenue> result = new ArrayList<>(sums.size());
+            for (Map.Entry<Long, double[]> entry : sums.entrySet()) {
+                int day = (int) (entry.getKey() >> 32);
+                int route = (int) (entry.getKey() & 0xFFFFFFFFL);
+                result.add(new RouteRevenue(flights.getRouteFrom(route), flights.getRouteTo(route),
+                        DateCodec.fromEpochDay(day), (long) entry.getValue()[0], entry.getValue()[1]));
+            }
+            result.sort(Comparator.comparing(RouteRevenue::getDepartureDate)
+                    .thenComparing(RouteRevenue::getFromCity)
+                    .thenComparing(RouteRevenue::getToCity));
+            return result;
+        }
+
+        private List<BookingCurve> routeCurves(long[] curves) {
+            List<BookingCurve> result = new ArrayList<>();
+            for (int route = 0; route < flights.routeCount(); route++) {
+                long[] days = Arrays.copyOfRange(curves, route * CURVE_WIDTH, (route + 1) * CURVE_WIDTH);
+                BookingCurve curve = new BookingCurve(flights.getRouteFrom(route), flights.getRouteTo(route), days);
+                if (curve.getTotal() > 0) {
+                    result.add(curve);
+                }
+            }
+            return result;
+        }
+
+        private BookingCurve overallCurve(long[] curves) {
+            long[] days = new long[CURVE_WIDTH];
+            for (int i = 0; i < curves.length; i++) {
+                days[i % CURVE_WIDTH] += curves[i];
+            }
+            return new BookingCurve(null, null, days);
+        }
+
+        @Override
+        public void close() {
+            pool.shutdownNow();
+        }
+    }
+}
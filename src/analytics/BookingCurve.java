@@ -0,0 +1,75 @@
+package analytics;
+
+/**
+ * How far ahead of departure a route's seats were booked.
+ * Bookings are counted by days before departure, from 0 (on the day) up to
+ * {@link #MAX_DAYS}; bookings made earlier are counted in the last bucket
+ * and bookings dated after departure in the first.
+ */
+public class BookingCurve {
+    /** Days before departure covered by the curve */
+    public static final int MAX_DAYS = 365;
+
+    private final String fromCity;
+    private final String toCity;
+    private final long[] bookingsByDaysBefore;
+    private final long total;
+
+    /**
+     * Constructs a BookingCurve
+     *
+     * @param fromCity Origin city, null for the whole network
+     * @param toCity Destination city, null for the whole network
+     * @param bookingsByDaysBefore Bookings per day before departure, MAX_DAYS + 1 entries
+     */
+    public BookingCurve(String fromCity, String toCity, long[] bookingsByDaysBefore) {
+        if (bookingsByDaysBefore.length != MAX_DAYS + 1) {
+            throw new IllegalArgumentException("Expected " + (MAX_DAYS + 1) + " days, got " + bookingsByDaysBefore.length);
+        }
+        this.fromCity = fromCity;
+        this.toCity = toCity;
+        this.bookingsByDaysBefore = bookingsByDaysBefore;
+        long sum = 0;
+        for (long count : bookingsByDaysBefore) {
+            sum += count;
+        }
+        this.total = sum;
+    }
+
+    public String getFromCity() {
+        return fromCity;
+    }
+
+    public String getToCity() {
+        return toCity;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    /**
+     * @param daysBefore Days before departure, 0 to MAX_DAYS
+     * @return bookings made that many days before departure
+     */
+    public long getBookings(int daysBefore) {
+        return bookingsByDaysBefore[daysBefore];
+    }
+
+    /**
+     * Gets the share of bookings that had been made by a number of days before departure
+     *
+     * @param daysBefore Days before departure, 0 to MAX_DAYS
+     * @return share of bookings made at least daysBefore days ahead, 0 to 1
+     */
+    public double getShareBookedBy(int daysBefore) {
+        if (total == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int d = daysBefore; d <= MAX_DAYS; d++) {
+            sum += bookingsByDaysBefore[d];
+        }
+        return (double) sum / total;
+    }
+}
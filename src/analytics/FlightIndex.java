@@ -0,0 +1,178 @@
+package analytics;
+
+import dao.FlightDao;
+import model.FlightBatch;
+import util.DateCodec;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flights held as parallel primitive arrays sorted by flight id, so bookings
+ * can be attributed to a flight with a binary search instead of a map lookup.
+ * Every flight is assigned a dense route number shared by flights with the
+ * same origin and destination. Flights without a departure date keep
+ * {@link FlightBatch#NO_DATE} as their departure day.
+ */
+final class FlightIndex {
+    private int size;
+    private int[] ids = new int[1024];
+    private String[] codes = new String[1024];
+    private int[] routes = new int[1024];
+    private int[] departureDays = new int[1024];
+    private int[] seatCounts = new int[1024];
+    private final List<String> routeFrom = new ArrayList<>();
+    private final List<String> routeTo = new ArrayList<>();
+    private final Map<String, Integer> routeIds = new HashMap<>();
+
+    private FlightIndex() {
+    }
+
+    /**
+     * Streams every flight into a new index
+     *
+     * @param flightDao Source of flights
+     * @param batchSize Rows per streamed batch
+     * @return the index
+     * @throws SQLException if a database error occurs
+     */
+    static FlightIndex load(FlightDao flightDao, int batchSize) throws SQLException {
+        FlightIndex index = new FlightIndex();
+        flightDao.streamFlights(batchSize, index::append);
+        index.sortById();
+        return index;
+    }
+
+    private void append(FlightBatch batch) {
+        ensureCapacity(size + batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            ids[size] = batch.getId(i);
+            codes[size] = batch.getCode(i);
+            routes[size] = route(batch.getFromCity(i), batch.getToCity(i));
+            departureDays[size] = batch.getDepartureDay(i);
+            seatCounts[size] = batch.getSeatCount(i);
+            size++;
+        }
+    }
+
+    private int route(String from, String to) {
+        String key = from + '\u0000' + to;
+        Integer route = routeIds.get(key);
+        if (route == null) {
+            route = routeFrom.size();
+            routeIds.put(key, route);
+            routeFrom.add(from);
+            routeTo.add(to);
+        }
+        return route;
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= ids.length) {
+            return;
+        }
+        int capacity = Math.max(required, ids.length * 2);
+        ids = Arrays.copyOf(ids, capacity);
+        codes = Arrays.copyOf(codes, capacity);
+        routes = Arrays.copyOf(routes, capacity);
+        departureDays = Arrays.copyOf(departureDays, capacity);
+        seatCounts = Arrays.copyOf(seatCounts, capacity);
+    }
+
+    private void sortById() {
+        boolean sorted = true;
+        for (int i = 1; i < size && sorted; i++) {
+            sorted = ids[i - 1] < ids[i];
+        }
+        if (sorted) {
+            return;
+        }
+        // Flights are normally scanned in primary key order; reorder otherwise
+        Integer[] order = new Integer[size];
+        for (int i = 0; i < size; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(ids[a], ids[b]));
+        int[] sortedIds = new int[size];
+        String[] sortedCodes = new String[size];
+        int[] sortedRoutes = new int[size];
+        int[] sortedDays = new int[size];
+        int[] sortedSeats = new int[size];
+        for (int i = 0; i < size; i++) {
+            int from = order[i];
+            sortedIds[i] = ids[from];
+            sortedCodes[i] = codes[from];
+            sortedRoutes[i] = routes[from];
+            sortedDays[i] = departureDays[from];
+            sortedSeats[i] = seatCounts[from];
+        }
+        ids = sortedIds;
+        codes = sortedCodes;
+        routes = sortedRoutes;
+        departureDays = sortedDays;
+        seatCounts = sortedSeats;
+    }
+
+    /**
+     * @param flightId Flight identifier
+     * @return position of the flight, or -1 if there is no such flight
+     */
+    int indexOf(int flightId) {
+        int index = Arrays.binarySearch(ids, 0, size, flightId);
+        return index < 0 ? -1 : index;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int routeCount() {
+        return routeFrom.size();
+    }
+
+    int getId(int index) {
+        return ids[index];
+    }
+
+    String getCode(int index) {
+        return codes[index];
+    }
+
+    int getRoute(int index) {
+        return routes[index];
+    }
+
+    /**
+     * @param index Position of the flight
+     * @return departure epoch day, or FlightBatch.NO_DATE for an undated flight
+     */
+    int getDepartureDay(int index) {
+        return departureDays[index];
+    }
+
+    /**
+     * @param index Position of the flight
+     * @return the departure date, or null for an undated flight
+     */
+    LocalDate getDepartureDate(int index) {
+        int day = departureDays[index];
+        return day != FlightBatch.NO_DATE ? DateCodec.fromEpochDay(day) : null;
+    }
+
+    int getSeatCount(int index) {
+        return seatCounts[index];
+    }
+
+    String getRouteFrom(int route) {
+        return routeFrom.get(route);
+    }
+
+    String getRouteTo(int route) {
+        return routeTo.get(route);
+    }
+}
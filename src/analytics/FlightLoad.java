@@ -0,0 +1,94 @@
+package analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Bookings, revenue and load factor of one flight.
+ * Flights.Seats holds the seats still available, since bookings decrement it,
+ * so capacity is the booked seats plus the available ones. An oversold flight
+ * has negative available seats and a load factor above 1.
+ */
+public class FlightLoad {
+    private final int flightId;
+    private final String code;
+    private final String fromCity;
+    private final String toCity;
+    private final LocalDate departureDate;
+    private final int booked;
+    private final int availableSeats;
+    private final double revenue;
+
+    /**
+     * Constructs a FlightLoad
+     *
+     * @param flightId Flight identifier
+     * @param code Flight code
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param departureDate Departure date, may be null
+     * @param booked Bookings that are not cancelled
+     * @param availableSeats Seats still available, negative when oversold
+     * @param revenue Amount paid over the booked seats
+     */
+    public FlightLoad(int flightId, String code, String fromCity, String toCity, LocalDate departureDate,
+                      int booked, int availableSeats, double revenue) {
+        this.flightId = flightId;
+        this.code = code;
+        this.fromCity = fromCity;
+        this.toCity = toCity;
+        this.departureDate = departureDate;
+        this.booked = booked;
+        this.availableSeats = availableSeats;
+        this.revenue = revenue;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public String getFromCity() {
+        return fromCity;
+    }
+
+    public String getToCity() {
+        return toCity;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public int getBooked() {
+        return booked;
+    }
+
+    public int getAvailableSeats() {
+        return availableSeats;
+    }
+
+    public int getCapacity() {
+        return booked + availableSeats;
+    }
+
+    /**
+     * @return booked seats over capacity, 0 for a flight without seats
+     */
+    public double getLoadFactor() {
+        int capacity = getCapacity();
+        return capacity <= 0 ? 0 : (double) booked / capacity;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s %s-%s %s: %d/%d seats (%.1f%%), revenue %.2f", code, fromCity, toCity,
+                departureDate, booked, getCapacity(), getLoadFactor() * 100, revenue);
+    }
+}
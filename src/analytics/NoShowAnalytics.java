@@ -0,0 +1,91 @@
+package analytics;
+
+import config.AppConfig;
+import dao.BookingDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Historical no-show rates per route, used to suggest overbooking limits.
+ * A booking of a departed flight counts as a no-show when its status is
+ * NO_SHOW; cancelled bookings are not counted at all, and denied boardings
+ * count as passengers who showed up.
+ * <p>
+ * The suggested limit is the expected no-shows of an average flight on the
+ * route, scaled down by overbooking.safety.percent and rounded down. Routes
+ * with fewer than overbooking.min.flights departed flights get no suggestion.
+ */
+public class NoShowAnalytics {
+    private static final Logger LOGGER = Logger.getLogger(NoShowAnalytics.class.getName());
+    private static final LatencyHistogram NO_SHOW_RATES_TIME = MetricsRegistry.getInstance().histogram("NoShowAnalytics.noShowRates");
+    private static final int DEFAULT_SAFETY_PERCENT = 80;
+    private static final int DEFAULT_MIN_FLIGHTS = 10;
+
+    private static final String BOOKED = BookingDao.bookedSql("b.status");
+
+    private final Connection connection;
+
+    /**
+     * Constructs a NoShowAnalytics with a database connection
+     *
+     * @param connection Database connection
+     */
+    public NoShowAnalytics(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Computes no-show rates per route with one aggregate query over the
+     * flights departed between the two dates.
+     * Served by the deptDay index on Flights and the flightId index on Bookings.
+     *
+     * @param from First departure date, inclusive
+     * @param to Last departure date, inclusive; should be before today
+     * @return routes with at least one booking, ordered by route
+     * @throws SQLException if a database error occurs
+     */
+    public List<NoShowRate> noShowRates(LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT f.Ffrom, f.Fto, COUNT(DISTINCT f.FlightId), COUNT(*), "
+                + "TOTAL(UPPER(b.status) = 'NO_SHOW') FROM Flights f "
+                + "JOIN Bookings b ON b.flightId = f.FlightId "
+                + "WHERE f.deptDay BETWEEN ? AND ? AND " + BOOKED + " "
+                + "GROUP BY f.Ffrom, f.Fto ORDER BY f.Ffrom, f.Fto";
+        int safetyPercent = AppConfig.getInt("overbooking.safety.percent", DEFAULT_SAFETY_PERCENT, 0, 100);
+        int minFlights = AppConfig.getInt("overbooking.min.flights", DEFAULT_MIN_FLIGHTS, 1, 1_000_000);
+        List<NoShowRate> result = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, DateCodec.toEpochDay(from));
+            pst.setInt(2, DateCodec.toEpochDay(to));
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    int flights = rs.getInt(3);
+                    long bookings = rs.getLong(4);
+                    long noShows = (long) rs.getDouble(5);
+                    int suggested = flights < minFlights ? 0
+                            : (int) (noShows * safetyPercent / (100.0 * flights));
+                    result.add(new NoShowRate(rs.getString(1), rs.getString(2), flights, bookings, noShows,
+                            suggested));
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error computing no-show rates: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            NO_SHOW_RATES_TIME.recordSince(start);
+        }
+    }
+}
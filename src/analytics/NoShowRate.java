@@ -0,0 +1,70 @@
+package analytics;
+
+/**
+ * Historical no-shows of one route and the overbooking limit they suggest
+ */
+public class NoShowRate {
+    private final String fromCity;
+    private final String toCity;
+    private final int flights;
+    private final long bookings;
+    private final long noShows;
+    private final int suggestedExtraSeats;
+
+    /**
+     * Constructs a NoShowRate
+     *
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param flights Departed flights with at least one booking
+     * @param bookings Bookings of those flights that are not cancelled
+     * @param noShows Bookings whose passenger did not show up
+     * @param suggestedExtraSeats Seats per flight that may be sold beyond capacity
+     */
+    public NoShowRate(String fromCity, String toCity, int flights, long bookings, long noShows,
+                      int suggestedExtraSeats) {
+        this.fromCity = fromCity;
+        this.toCity = toCity;
+        this.flights = flights;
+        this.bookings = bookings;
+        this.noShows = noShows;
+        this.suggestedExtraSeats = suggestedExtraSeats;
+    }
+
+    public String getFromCity() {
+        return fromCity;
+    }
+
+    public String getToCity() {
+        return toCity;
+    }
+
+    public int getFlights() {
+        return flights;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public long getNoShows() {
+        return noShows;
+    }
+
+    public int getSuggestedExtraSeats() {
+        return suggestedExtraSeats;
+    }
+
+    /**
+     * @return share of bookings whose passenger did not show up
+     */
+    public double getRate() {
+        return bookings == 0 ? 0 : (double) noShows / bookings;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s-%s: %d flights, %d bookings, %d no-shows (%.1f%%), suggest %d extra seats",
+                fromCity, toCity, flights, bookings, noShows, getRate() * 100, suggestedExtraSeats);
+    }
+}
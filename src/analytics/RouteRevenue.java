@@ -0,0 +1,56 @@
+package analytics;
+
+import java.time.LocalDate;
+
+/**
+ * Bookings and revenue of one route on one departure day
+ */
+public class RouteRevenue {
+    private final String fromCity;
+    private final String toCity;
+    private final LocalDate departureDate;
+    private final long bookings;
+    private final double revenue;
+
+    /**
+     * Constructs a RouteRevenue
+     *
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param departureDate Departure day, may be null for flights without a date
+     * @param bookings Bookings that are not cancelled
+     * @param revenue Amount paid over those bookings
+     */
+    public RouteRevenue(String fromCity, String toCity, LocalDate departureDate, long bookings, double revenue) {
+        this.fromCity = fromCity;
+        this.toCity = toCity;
+        this.departureDate = departureDate;
+        this.bookings = bookings;
+        this.revenue = revenue;
+    }
+
+    public String getFromCity() {
+        return fromCity;
+    }
+
+    public String getToCity() {
+        return toCity;
+    }
+
+    public LocalDate getDepartureDate() {
+        return departureDate;
+    }
+
+    public long getBookings() {
+        return bookings;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s-%s %s: %d bookings, revenue %.2f", fromCity, toCity, departureDate, bookings, revenue);
+    }
+}
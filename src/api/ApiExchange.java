@@ -0,0 +1,226 @@
+package api;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Request/response helper around an HttpExchange.
+ * Parameters are read from the query string and, for form-encoded requests,
+ * from the body; responses are streamed as JSON with chunked encoding.
+ */
+public class ApiExchange {
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    private final HttpExchange exchange;
+    private Map<String, String> params;
+    private boolean responded;
+
+    ApiExchange(HttpExchange exchange) {
+        this.exchange = exchange;
+    }
+
+    public String getMethod() {
+        return exchange.getRequestMethod();
+    }
+
+    public String getPath() {
+        return exchange.getRequestURI().getPath();
+    }
+
+    boolean hasResponded() {
+        return responded;
+    }
+
+    /**
+     * Gets a request header
+     *
+     * @param name Header name, case-insensitive
+     * @return the first value, or null if absent
+     */
+    public String header(String name) {
+        return exchange.getRequestHeaders().getFirst(name);
+    }
+
+    /**
+     * Gets a request parameter
+     *
+     * @param name Parameter name
+     * @return the value, or null if absent
+     * @throws IOException if the body cannot be read
+     */
+    public String param(String name) throws IOException {
+        if (params == null) {
+            params = new HashMap<>();
+            parseInto(exchange.getRequestURI().getRawQuery(), params);
+            String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+            if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+                parseInto(readBody(), params);
+            }
+        }
+        return params.get(name);
+    }
+
+    /**
+     * Gets a required parameter
+     *
+     * @param name Parameter name
+     * @return the value
+     * @throws IllegalArgumentException if the parameter is missing or empty
+     * @throws IOException if the body cannot be read
+     */
+    public String requiredParam(String name) throws IOException {
+        String value = param(name);
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter: " + name);
+        }
+        return value.trim();
+    }
+
+    public int intParam(String name) throws IOException {
+        String value = requiredParam(name);
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer");
+        }
+    }
+
+    public long longParam(String name) throws IOException {
+        String value = requiredParam(name);
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer");
+        }
+    }
+
+    public double doubleParam(String name) throws IOException {
+        String value = requiredParam(name);
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be a number");
+        }
+    }
+
+    /**
+     * Gets a required comma-separated list of integers
+     *
+     * @param name Parameter name
+     * @return the values in order
+     * @throws IllegalArgumentException if the parameter is missing or holds a non-integer
+     * @throws IOException if the body cannot be read
+     */
+    public List<Integer> intListParam(String name) throws IOException {
+        List<Integer> values = new ArrayList<>();
+        for (String part : requiredParam(name).split(",")) {
+            try {
+                values.add(Integer.parseInt(part.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parameter " + name + " must be a comma-separated list of integers");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Gets a required comma-separated list of numbers
+     *
+     * @param name Parameter name
+     * @return the values in order
+     * @throws IllegalArgumentException if the parameter is missing or holds a non-number
+     * @throws IOException if the body cannot be read
+     */
+    public List<Double> doubleListParam(String name) throws IOException {
+        List<Double> values = new ArrayList<>();
+        for (String part : requiredParam(name).split(",")) {
+            try {
+                values.add(Double.parseDouble(part.trim()));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Parameter " + name + " must be a comma-separated list of numbers");
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Streams a JSON response
+     *
+     * @param status HTTP status code
+     * @param body Writes the response body
+     * @throws IOException if writing fails
+     */
+    public void respond(int status, JsonBody body) throws IOException {
+        responded = true;
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, 0);
+        try (BufferedWriter out = new BufferedWriter(
+                new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8), 8192)) {
+            JsonWriter json = new JsonWriter(out);
+            body.write(json);
+            json.flush();
+        }
+    }
+
+    /**
+     * Sends a JSON error object
+     *
+     * @param status HTTP status code
+     * @param message Error message
+     * @throws IOException if writing fails
+     */
+    public void error(int status, String message) throws IOException {
+        respond(status, json -> json.beginObject().name("error").value(message).endObject());
+    }
+
+    void setHeader(String name, String value) {
+        exchange.getResponseHeaders().set(name, value);
+    }
+
+    private String readBody() throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                body.write(buffer, 0, read);
+                if (body.size() > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body too large");
+                }
+            }
+            return new String(body.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void parseInto(String query, Map<String, String> target) throws UnsupportedEncodingException {
+        if (query == null || query.isEmpty()) {
+            return;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            String key = eq >= 0 ? pair.substring(0, eq) : pair;
+            String value = eq >= 0 ? pair.substring(eq + 1) : "";
+            target.put(URLDecoder.decode(key, "UTF-8"), URLDecoder.decode(value, "UTF-8"));
+        }
+    }
+
+    /**
+     * Writes a JSON response body
+     */
+    @FunctionalInterface
+    public interface JsonBody {
+        void write(JsonWriter json) throws IOException;
+    }
+}
@@ -0,0 +1,204 @@
+package api;
+
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import config.AppConfig;
+import config.LoggingConfig;
+import dao.DBConnectionManager;
+import metrics.MetricsRegistry;
+import service.SeatHoldService;
+import service.exception.MethodNotAllowedException;
+import service.exception.ResourceNotFoundException;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
+import util.ResizableSemaphore;
+import util.ThreadPools;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Headless HTTP/JSON server exposing search, hold, book, group book, seat selection and cancel.
+ * Built on the JDK HttpServer; each request runs on a virtual thread when the
+ * JDK provides them and on a bounded pool otherwise. Every endpoint has its
+ * own concurrency limit and answers 503 when it is saturated.
+ * api.threads and the api.limit.* limits follow configuration reloads.
+ * Idempotency keys past booking.idempotency.retention.days are purged hourly.
+ */
+public class ApiServer {
+    private static final Logger LOGGER = Logger.getLogger(ApiServer.class.getName());
+    private static final long PERMIT_WAIT_MILLIS = 50;
+    private static final int DEFAULT_THREADS = 64;
+    private static final int DEFAULT_LIMIT = 32;
+    private static final long PURGE_PERIOD_MINUTES = 60;
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService maintenance;
+    private final BookingApi api;
+    private final Map<String, ResizableSemaphore> limits = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an ApiServer bound to the configured port
+     *
+     * @param connectionManager Connection pool used by the endpoints
+     * @throws IOException if the port cannot be bound
+     */
+    public ApiServer(DBConnectionManager connectionManager) throws IOException {
+        int port = Integer.parseInt(AppConfig.getProperty("api.port", "8080"));
+        int backlog = Integer.parseInt(AppConfig.getProperty("api.backlog", "1024"));
+        long holdMillis = Long.parseLong(AppConfig.getProperty("api.hold.millis", "600000"));
+
+        api = new BookingApi(connectionManager, new SeatHoldService(holdMillis));
+        server = HttpServer.create(new InetSocketAddress(port), backlog);
+        server.createContext("/api/flights", limited("search", api::search));
+        server.createContext("/api/fares", limited("calendar", api::fareCalendar));
+        server.createContext("/api/holds", limited("hold", api::hold));
+        server.createContext("/api/bookings", limited("book", api::booking));
+        server.createContext("/api/groups", limited("group", api::groupBooking));
+        server.createContext("/api/seats", limited("seats", api::seats));
+
+        executor = ThreadPools.newPerTaskExecutor(AppConfig.getInt("api.threads", DEFAULT_THREADS, 1, 10_000));
+        server.setExecutor(executor);
+        maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "api-maintenance");
+            t.setDaemon(true);
+            return t;
+        });
+        AppConfig.addListener(this::configurationChanged);
+    }
+
+    private void configurationChanged(Set<String> keys) {
+        if (keys.contains("api.threads")) {
+            int threads = AppConfig.getInt("api.threads", DEFAULT_THREADS, 1, 10_000);
+            if (ThreadPools.resize(executor, threads)) {
+                LOGGER.info("API executor resized to " + threads + " threads");
+            }
+        }
+        for (Map.Entry<String, ResizableSemaphore> entry : limits.entrySet()) {
+            if (keys.contains("api.limit." + entry.getKey())) {
+                int limit = limitFor(entry.getKey());
+                entry.getValue().setLimit(limit);
+                LOGGER.info("API " + entry.getKey() + " limit changed to " + limit);
+            }
+        }
+    }
+
+    private static int limitFor(String endpoint) {
+        return AppConfig.getInt("api.limit." + endpoint, DEFAULT_LIMIT, 1, 100_000);
+    }
+
+    public void start() {
+        server.start();
+        maintenance.scheduleWithFixedDelay(this::purgeIdempotencyKeys, 0, PURGE_PERIOD_MINUTES, TimeUnit.MINUTES);
+        LOGGER.info("API server listening on port " + server.getAddress().getPort());
+    }
+
+    /**
+     * Stops accepting requests and waits for in-flight ones
+     *
+     * @param delaySeconds Maximum time to wait for in-flight requests
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        maintenance.shutdown();
+        executor.shutdown();
+        LOGGER.info("API server stopped");
+    }
+
+    private void purgeIdempotencyKeys() {
+        try {
+            int purged = api.purgeIdempotencyKeys();
+            if (purged > 0) {
+                LOGGER.info("Purged " + purged + " expired idempotency keys");
+            }
+        } catch (ServiceException | SQLException | RuntimeException e) {
+            // A failed purge is retried on the next run
+            LOGGER.log(Level.WARNING, "Error purging idempotency keys: " + e.getMessage(), e);
+        }
+    }
+
+    private HttpHandler limited(String endpoint, Endpoint handler) {
+        ResizableSemaphore permits = new ResizableSemaphore(limitFor(endpoint));
+        limits.put(endpoint, permits);
+        return exchange -> {
+            ApiExchange ex = new ApiExchange(exchange);
+            try {
+                if (!permits.tryAcquire(PERMIT_WAIT_MILLIS, TimeUnit.MILLISECONDS)) {
+                    ex.setHeader("Retry-After", "1");
+                    ex.error(503, "Too many concurrent " + endpoint + " requests");
+                    return;
+                }
+                try {
+                    handler.handle(ex);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                respondError(ex, 503, "Interrupted");
+            } catch (ValidationException | IllegalArgumentException e) {
+                respondError(ex, 400, e.getMessage());
+            } catch (ResourceNotFoundException e) {
+                respondError(ex, 404, e.getMessage());
+            } catch (MethodNotAllowedException e) {
+                respondError(ex, 405, e.getMessage());
+            } catch (ServiceException | SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error handling " + endpoint + " request: " + e.getMessage(), e);
+                respondError(ex, 500, "Internal error");
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Unexpected error handling " + endpoint + " request", e);
+                respondError(ex, 500, "Internal error");
+            } finally {
+                exchange.close();
+            }
+        };
+    }
+
+    private static void respondError(ApiExchange ex, int status, String message) throws IOException {
+        if (!ex.hasResponded()) {
+            ex.error(status, message);
+        }
+    }
+
+    /**
+     * Runs the server until the JVM exits
+     *
+     * @param args command line arguments (unused)
+     */
+    public static void main(String[] args) {
+        LoggingConfig.initialize();
+        MetricsRegistry.getInstance().startReporting();
+        AppConfig.startWatching();
+        try {
+            DBConnectionManager connectionManager = DBConnectionManager.getInstance();
+            ApiServer server = new ApiServer(connectionManager);
+            server.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop(2);
+                connectionManager.closeAllConnections();
+            }));
+        } catch (IOException | SQLException e) {
+            LOGGER.log(Level.SEVERE, "Failed to start API server", e);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Handles one API request
+     */
+    @FunctionalInterface
+    interface Endpoint {
+        void handle(ApiExchange ex) throws IOException, ServiceException, SQLException;
+    }
+}
@@ -0,0 +1,358 @@
+package api;
+
+import dao.BookingCounterDao;
+import dao.BookingDao;
+import dao.DBConnectionManager;
+import dao.FlightDao;
+import dao.IdempotencyDao;
+import dao.PassengerDao;
+import model.Booking;
+import model.CabinZone;
+import model.FareDay;
+import model.Flight;
+import model.GroupLeg;
+import model.SeatHold;
+import model.SeatLayout;
+import model.SeatMap;
+import service.BookingService;
+import service.FareEngine;
+import service.FlightService;
+import service.IdempotencyCache;
+import service.SeatHoldService;
+import service.SeatMapService;
+import service.exception.MethodNotAllowedException;
+import service.exception.ResourceNotFoundException;
+import service.exception.ServiceException;
+import util.DateCodec;
+
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * HTTP endpoints for flight search, fare calendars, seat holds, booking, group booking,
+ * seat selection and cancellation.
+ * Each call borrows one pooled connection for its duration and builds the
+ * services on it, the same way the desktop pages do.
+ */
+public class BookingApi {
+    private static final int DEFAULT_CALENDAR_DAYS = 30;
+    private static final String IDEMPOTENCY_HEADER = "Idempotency-Key";
+    private final DBConnectionManager connectionManager;
+    private final SeatHoldService holdService;
+
+    /**
+     * Constructs a BookingApi
+     *
+     * @param connectionManager Connection pool
+     * @param holdService Shared seat hold service
+     */
+    public BookingApi(DBConnectionManager connectionManager, SeatHoldService holdService) {
+        this.connectionManager = connectionManager;
+        this.holdService = holdService;
+    }
+
+    /**
+     * GET /api/flights?from=&amp;to=&amp;date=yyyy-MM-dd
+     * returns each flight with its base price and its current fare
+     */
+    void search(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        requireMethod(ex, "GET");
+        String origin = ex.requiredParam("from");
+        String destination = ex.requiredParam("to");
+        LocalDate date = DateCodec.parse(ex.requiredParam("date"));
+
+        List<Flight> flights;
+        Map<Integer, Double> fares;
+        Connection connection = connectionManager.getConnection();
+        try {
+            flights = new FlightService(connection).searchFlights(origin, destination, date);
+            fares = new FareEngine(connection).quotes(flights);
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+
+        ex.respond(200, json -> {
+            json.beginArray();
+            for (Flight f : flights) {
+                writeFlight(json, f, fares.get(f.getId()));
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * GET /api/fares?from=&amp;to=[&amp;start=yyyy-MM-dd][&amp;days=]
+     * returns the lowest price and seats left per day, from today and for 30 days by default
+     */
+    void fareCalendar(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        requireMethod(ex, "GET");
+        String origin = ex.requiredParam("from");
+        String destination = ex.requiredParam("to");
+        String startParam = ex.param("start");
+        LocalDate start = startParam == null || startParam.isEmpty() ? LocalDate.now() : DateCodec.parse(startParam);
+        String daysParam = ex.param("days");
+        int days = daysParam == null || daysParam.isEmpty() ? DEFAULT_CALENDAR_DAYS : ex.intParam("days");
+
+        List<FareDay> calendar;
+        Connection connection = connectionManager.getConnection();
+        try {
+            calendar = new FlightService(connection).getFareCalendar(origin, destination, start, days);
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+
+        ex.respond(200, json -> {
+            json.beginArray();
+            for (FareDay day : calendar) {
+                json.beginObject()
+                        .name("date").value(DateCodec.format(day.getDate()))
+                        .name("lowestPrice").value(day.getLowestPrice())
+                        .name("flights").value(day.getFlights())
+                        .name("seats").value(day.getSeatsAvailable())
+                        .endObject();
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * POST /api/holds (flightId, passengerId) places a hold;
+     * DELETE /api/holds?id= releases it
+     */
+    void hold(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        if ("DELETE".equals(ex.getMethod())) {
+            long holdId = ex.longParam("id");
+            if (!holdService.releaseHold(holdId)) {
+                throw new ResourceNotFoundException("Hold " + holdId + " not found");
+            }
+            ex.respond(200, json -> json.beginObject().name("released").value(holdId).endObject());
+            return;
+        }
+        requireMethod(ex, "POST");
+        int flightId = ex.intParam("flightId");
+        int passengerId = ex.intParam("passengerId");
+
+        Flight flight;
+        Connection connection = connectionManager.getConnection();
+        try {
+            flight = new FlightService(connection).getFlightById(flightId);
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+
+        SeatHold hold = holdService.placeHold(flightId, passengerId, flight.getSeatCount());
+        ex.respond(201, json -> json.beginObject()
+                .name("holdId").value(hold.getId())
+                .name("flightId").value(hold.getFlightId())
+                .name("passengerId").value(hold.getPassengerId())
+                .name("expiresAt").value(hold.getExpiresAtMillis())
+                .endObject());
+    }
+
+    /**
+     * POST /api/bookings (passengerId, flightId, amountPaid[, holdId]) creates a booking;
+     * DELETE /api/bookings?id= cancels one.
+     * A POST carrying an Idempotency-Key header (or idempotencyKey parameter) that
+     * was already used answers 200 with the booking made the first time.
+     */
+    void booking(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        if ("DELETE".equals(ex.getMethod())) {
+            cancel(ex);
+            return;
+        }
+        requireMethod(ex, "POST");
+        int passengerId = ex.intParam("passengerId");
+        int flightId = ex.intParam("flightId");
+        double amountPaid = ex.doubleParam("amountPaid");
+        String idempotencyKey = ex.header(IDEMPOTENCY_HEADER);
+        if (idempotencyKey == null) {
+            idempotencyKey = ex.param("idempotencyKey");
+        }
+
+        Booking booking;
+        boolean replayed = false;
+        Connection connection = connectionManager.getConnection();
+        try {
+            BookingService service = bookingService(connection);
+            Booking existing = idempotencyKey == null ? null : service.findBookingByIdempotencyKey(idempotencyKey);
+            String holdParam = ex.param("holdId");
+            Long holdId = holdParam != null && !holdParam.isEmpty() ? ex.longParam("holdId") : null;
+            booking = service.createBooking(idempotencyKey, passengerId, flightId, amountPaid, holdId);
+            replayed = existing != null;
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+        ex.respond(replayed ? 200 : 201, json -> writeBooking(json, booking));
+    }
+
+    /**
+     * POST /api/groups (passengerIds, flightIds, amountPaid as comma-separated lists)
+     * books every passenger on every flight, or none of them;
+     * amountPaid holds the per-seat amount of each flight, in flight order
+     */
+    void groupBooking(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        requireMethod(ex, "POST");
+        List<Integer> passengerIds = ex.intListParam("passengerIds");
+        List<Integer> flightIds = ex.intListParam("flightIds");
+        List<Double> amounts = ex.doubleListParam("amountPaid");
+        if (amounts.size() != flightIds.size()) {
+            throw new IllegalArgumentException("amountPaid must list one amount per flight");
+        }
+        List<GroupLeg> legs = new ArrayList<>(flightIds.size());
+        for (int i = 0; i < flightIds.size(); i++) {
+            legs.add(new GroupLeg(flightIds.get(i), amounts.get(i)));
+        }
+
+        List<Booking> bookings;
+        Connection connection = connectionManager.getConnection();
+        try {
+            bookings = bookingService(connection).createGroupBooking(passengerIds, legs);
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+        ex.respond(201, json -> {
+            json.beginArray();
+            for (Booking b : bookings) {
+                writeBooking(json, b);
+            }
+            json.endArray();
+        });
+    }
+
+    /**
+     * GET /api/seats?flightId= returns the cabin zones and free seats of a flight;
+     * POST /api/seats (bookingId, seat) assigns a specific seat, and
+     * POST /api/seats (bookingIds[, zone]) seats several bookings of one flight side by side
+     */
+    void seats(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        if ("GET".equals(ex.getMethod())) {
+            int flightId = ex.intParam("flightId");
+            SeatMap map;
+            Connection connection = connectionManager.getConnection();
+            try {
+                map = new SeatMapService(connection).getSeatMap(flightId);
+            } finally {
+                connectionManager.releaseConnection(connection);
+            }
+            ex.respond(200, json -> writeSeatMap(json, flightId, map));
+            return;
+        }
+        requireMethod(ex, "POST");
+        String seat = ex.param("seat");
+        Map<Integer, String> assigned;
+        Connection connection = connectionManager.getConnection();
+        try {
+            SeatMapService service = new SeatMapService(connection);
+            if (seat != null && !seat.trim().isEmpty()) {
+                int bookingId = ex.intParam("bookingId");
+                assigned = Collections.singletonMap(bookingId, service.assignSeat(bookingId, seat));
+            } else {
+                assigned = service.assignAdjacentSeats(ex.intListParam("bookingIds"), ex.param("zone"));
+            }
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+        ex.respond(200, json -> {
+            json.beginArray();
+            for (Map.Entry<Integer, String> e : assigned.entrySet()) {
+                json.beginObject().name("bookingId").value(e.getKey()).name("seat").value(e.getValue()).endObject();
+            }
+            json.endArray();
+        });
+    }
+
+    private void cancel(ApiExchange ex) throws IOException, ServiceException, SQLException {
+        int bookingId = ex.intParam("id");
+        Booking booking;
+        Connection connection = connectionManager.getConnection();
+        try {
+            booking = bookingService(connection).cancelBooking(bookingId);
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+        ex.respond(200, json -> writeBooking(json, booking));
+    }
+
+    /**
+     * Deletes idempotency keys past their retention; the server runs this periodically
+     *
+     * @return number of keys deleted
+     */
+    int purgeIdempotencyKeys() throws ServiceException, SQLException {
+        Connection connection = connectionManager.getConnection();
+        try {
+            return bookingService(connection).purgeIdempotencyKeys();
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+    }
+
+    private BookingService bookingService(Connection connection) {
+        return new BookingService(new BookingDao(connection), new FlightDao(connection), new PassengerDao(connection),
+                new BookingCounterDao(connection), new IdempotencyDao(connection), IdempotencyCache.shared(),
+                holdService, connection);
+    }
+
+    private static void requireMethod(ApiExchange ex, String method) throws MethodNotAllowedException {
+        if (!method.equals(ex.getMethod())) {
+            throw new MethodNotAllowedException(ex.getMethod() + " not allowed on " + ex.getPath());
+        }
+    }
+
+    static void writeFlight(JsonWriter json, Flight f, double fare) throws IOException {
+        json.beginObject()
+                .name("id").value(f.getId())
+                .name("code").value(f.getCode())
+                .name("from").value(f.getFromCity())
+                .name("to").value(f.getToCity())
+                .name("date").value(DateCodec.format(f.getDepartureDate()))
+                .name("departureTime").value(f.getDepartureTime())
+                .name("arrivalTime").value(f.getArrivalTime())
+                .name("seats").value(Math.max(0, f.getSeatCount()))
+                .name("price").value(f.getPrice())
+                .name("fare").value(fare)
+                .endObject();
+    }
+
+    static void writeSeatMap(JsonWriter json, int flightId, SeatMap map) throws IOException {
+        SeatLayout layout = map.getLayout();
+        json.beginObject()
+                .name("flightId").value(flightId)
+                .name("capacity").value(layout.getCapacity())
+                .name("seatsPerRow").value(layout.getSeatsPerRow())
+                .name("available").value(map.getAvailable())
+                .name("zones").beginArray();
+        for (CabinZone zone : layout.getZones()) {
+            json.beginObject()
+                    .name("name").value(zone.getName())
+                    .name("firstRow").value(zone.getFirstRow())
+                    .name("lastRow").value(zone.getLastRow())
+                    .name("available").value(map.getAvailable(zone))
+                    .endObject();
+        }
+        json.endArray().name("free").beginArray();
+        for (int seat = 0; seat < layout.getCapacity(); seat++) {
+            if (!map.isTaken(seat)) {
+                json.value(layout.label(seat));
+            }
+        }
+        json.endArray().endObject();
+    }
+
+    static void writeBooking(JsonWriter json, Booking b) throws IOException {
+        json.beginObject()
+                .name("id").value(b.getId())
+                .name("passengerId").value(b.getPassengerId())
+                .name("flightId").value(b.getFlightId())
+                .name("amountPaid").value(b.getAmountPaid())
+                .name("status").value(b.getStatus())
+                .name("bookingDate").value(DateCodec.format(b.getBookingDate()))
+                .endObject();
+    }
+}
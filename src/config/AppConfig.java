@@ -3,7 +3,21 @@ package config;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -11,12 +25,22 @@ import java.util.logging.Logger;
  * Configuration manager for the application.
  * Handles loading properties from external configuration file
  * with proper fallback mechanisms and logging.
+ * <p>
+ * Typed getters validate values and fall back to the default, with a warning,
+ * when a value is malformed or out of range. {@link #startWatching()} reloads
+ * the file when it changes and notifies {@link ConfigListener}s of the keys
+ * that changed, so components can resize without a restart.
  */
 public class AppConfig {
     private static final Logger LOGGER = Logger.getLogger(AppConfig.class.getName());
     private static final String CONFIG_FILE = "application.properties";
     private static final String CONFIG_FILE_CLASSPATH = "/application.properties";
-    private static final Properties props = new Properties();
+    // Editors often save in several writes; wait for them to settle before reloading
+    private static final long RELOAD_DELAY_MILLIS = 200;
+    private static final List<ConfigListener> listeners = new CopyOnWriteArrayList<>();
+    private static final Set<String> warned = ConcurrentHashMap.newKeySet();
+    private static volatile Properties props;
+    private static Thread watcher;
     
     // Default configuration values
     private static final String DEFAULT_DB_PATH = "airlineDB.db";
@@ -24,32 +48,37 @@ public class AppConfig {
     private static final String DEFAULT_DB_PASSWORD = "";
     
     static {
-        loadProperties();
+        props = loadProperties();
     }
     
     /**
      * Loads properties from configuration file with fallback mechanisms.
      * First tries to load from file system, then from classpath,
      * and finally falls back to default values.
+     * 
+     * @return the loaded properties
      */
-    private static void loadProperties() {
-        boolean loaded = loadFromFileSystem() || loadFromClasspath();
+    private static Properties loadProperties() {
+        Properties props = new Properties();
+        boolean loaded = loadFromFileSystem(props) || loadFromClasspath(props);
         
         if (!loaded) {
             LOGGER.warning("Could not load configuration file. Using default values.");
-            setDefaultProperties();
+            setDefaultProperties(props);
         }
         
         // Remove sensitive information from memory if not needed
-        sanitizeProperties();
+        sanitizeProperties(props);
+        return props;
     }
     
     /**
      * Attempts to load properties from the file system.
      * 
+     * @param props Properties to load into
      * @return true if successful, false otherwise
      */
-    private static boolean loadFromFileSystem() {
+    private static boolean loadFromFileSystem(Properties props) {
         try (FileInputStream fis = new FileInputStream(CONFIG_FILE)) {
             props.load(fis);
             LOGGER.info("Configuration loaded from file system: " + CONFIG_FILE);
@@ -63,9 +92,10 @@ public class AppConfig {
     /**
      * Attempts to load properties from the classpath.
      * 
+     * @param props Properties to load into
      * @return true if successful, false otherwise
      */
-    private static boolean loadFromClasspath() {
+    private static boolean loadFromClasspath(Properties props) {
         try (InputStream is = AppConfig.class.getResourceAsStream(CONFIG_FILE_CLASSPATH)) {
             if (is != null) {
                 props.load(is);
@@ -81,8 +111,10 @@ public class AppConfig {
     
     /**
      * Sets default property values when configuration file cannot be loaded.
+     * 
+     * @param props Properties to fill
      */
-    private static void setDefaultProperties() {
+    private static void setDefaultProperties(Properties props) {
         props.setProperty("db.path", DEFAULT_DB_PATH);
         props.setProperty("db.user", DEFAULT_DB_USER);
         props.setProperty("db.password", DEFAULT_DB_PASSWORD);
@@ -91,8 +123,10 @@ public class AppConfig {
     
     /**
      * Removes sensitive information from properties if not needed.
+     * 
+     * @param props Loaded properties
      */
-    private static void sanitizeProperties() {
+    private static void sanitizeProperties(Properties props) {
         // In a real application, you might want to clear sensitive data
         // after it's been used for initial configuration
     }
@@ -103,7 +137,7 @@ public class AppConfig {
      * @return the database file path
      */
     public static String getDbPath() {
-        return props.getProperty("db.path", DEFAULT_DB_PATH);
+        return getProperty("db.path", DEFAULT_DB_PATH);
     }
     
     /**
@@ -126,12 +160,217 @@ public class AppConfig {
     
     /**
      * Gets any property from the configuration.
-     * 
+     * A JVM system property with the same key takes precedence,
+     * so tools can point the application at another database.
+     *
      * @param key the property key
      * @param defaultValue the default value if property is not found
      * @return the property value or default if not found
      */
     public static String getProperty(String key, String defaultValue) {
-        return props.getProperty(key, defaultValue);
+        return System.getProperty(key, props.getProperty(key, defaultValue));
+    }
+
+    /**
+     * Checks whether a property is set in the configuration or as a system property.
+     *
+     * @param key the property key
+     * @return true if the property has a value
+     */
+    public static boolean hasProperty(String key) {
+        return System.getProperty(key) != null || props.getProperty(key) != null;
+    }
+
+    /**
+     * Gets an integer property within a range.
+     *
+     * @param key the property key
+     * @param defaultValue the value used when the property is missing or invalid
+     * @param min smallest accepted value
+     * @param max largest accepted value
+     * @return the property value, or the default
+     */
+    public static int getInt(String key, int defaultValue, int min, int max) {
+        return (int) getLong(key, defaultValue, min, max);
+    }
+
+    /**
+     * Gets a long property within a range.
+     *
+     * @param key the property key
+     * @param defaultValue the value used when the property is missing or invalid
+     * @param min smallest accepted value
+     * @param max largest accepted value
+     * @return the property value, or the default
+     */
+    public static long getLong(String key, long defaultValue, long min, long max) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            long parsed = Long.parseLong(value.trim());
+            if (parsed >= min && parsed <= max) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        warnInvalid(key, value, "a number from " + min + " to " + max, defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * Gets a boolean property; only true and false are accepted.
+     *
+     * @param key the property key
+     * @param defaultValue the value used when the property is missing or invalid
+     * @return the property value, or the default
+     */
+    public static boolean getBoolean(String key, boolean defaultValue) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (value.trim().equalsIgnoreCase("true") || value.trim().equalsIgnoreCase("false")) {
+            return Boolean.parseBoolean(value.trim());
+        }
+        warnInvalid(key, value, "true or false", defaultValue);
+        return defaultValue;
+    }
+
+    /**
+     * Gets a property that must be one of a set of values, ignoring case.
+     *
+     * @param key the property key
+     * @param defaultValue the value used when the property is missing or invalid
+     * @param allowed accepted values
+     * @return the matching allowed value, or the default
+     */
+    public static String getChoice(String key, String defaultValue, String... allowed) {
+        String value = getProperty(key, null);
+        if (value == null) {
+            return defaultValue;
+        }
+        for (String choice : allowed) {
+            if (choice.equalsIgnoreCase(value.trim())) {
+                return choice;
+            }
+        }
+        warnInvalid(key, value, "one of " + String.join(", ", allowed), defaultValue);
+        return defaultValue;
+    }
+
+    private static void warnInvalid(String key, String value, String expected, Object defaultValue) {
+        // Components re-read settings on every use; report each bad value once
+        if (warned.add(key + "=" + value)) {
+            LOGGER.warning("Invalid value '" + value + "' for " + key + ", expected " + expected
+                    + "; using " + defaultValue);
+        }
+    }
+
+    /**
+     * Registers a listener notified after the configuration is reloaded.
+     *
+     * @param listener the listener
+     */
+    public static void addListener(ConfigListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener registered with {@link #addListener(ConfigListener)}.
+     *
+     * @param listener the listener
+     */
+    public static void removeListener(ConfigListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reloads the configuration and notifies listeners of the keys whose values changed.
+     *
+     * @return the changed keys, empty if nothing changed
+     */
+    public static synchronized Set<String> reload() {
+        Properties previous = props;
+        Properties current = loadProperties();
+        Set<String> changed = new TreeSet<>();
+        Set<String> keys = new HashSet<>(previous.stringPropertyNames());
+        keys.addAll(current.stringPropertyNames());
+        for (String key : keys) {
+            String before = previous.getProperty(key);
+            String after = current.getProperty(key);
+            if (before == null ? after != null : !before.equals(after)) {
+                changed.add(key);
+            }
+        }
+        if (changed.isEmpty()) {
+            return changed;
+        }
+        props = current;
+        warned.clear();
+        LOGGER.info("Configuration reloaded, changed: " + changed);
+        for (ConfigListener listener : listeners) {
+            try {
+                listener.configurationChanged(changed);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Error applying configuration change: " + e.getMessage(), e);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Starts a daemon thread that reloads the configuration whenever
+     * application.properties changes, unless config.watch is false.
+     * Safe to call more than once.
+     */
+    public static synchronized void startWatching() {
+        if (watcher != null || !getBoolean("config.watch", true)) {
+            return;
+        }
+        Path file = Paths.get(CONFIG_FILE).toAbsolutePath();
+        if (!Files.exists(file)) {
+            LOGGER.fine("No " + CONFIG_FILE + " in the working directory to watch");
+            return;
+        }
+        WatchService service;
+        try {
+            service = file.getFileSystem().newWatchService();
+            file.getParent().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                    StandardWatchEventKinds.ENTRY_MODIFY);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not watch " + file + ": " + e.getMessage(), e);
+            return;
+        }
+        watcher = new Thread(() -> watch(service, file.getFileName()), "config-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+        LOGGER.info("Watching " + file + " for changes");
+    }
+
+    private static void watch(WatchService service, Path fileName) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                boolean changed = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    changed |= fileName.equals(event.context());
+                }
+                key.reset();
+                if (!changed) {
+                    continue;
+                }
+                Thread.sleep(RELOAD_DELAY_MILLIS);
+                for (WatchKey pending = service.poll(); pending != null; pending = service.poll()) {
+                    pending.pollEvents();
+                    pending.reset();
+                }
+                reload();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            LOGGER.fine("Configuration watcher stopped");
+        }
     }
 }
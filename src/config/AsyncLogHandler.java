@@ -0,0 +1,209 @@
+package config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+/**
+ * Handler that hands records to a background writer through a bounded ring
+ * buffer, so logging threads never wait on console or file I/O.
+ * The writer drains records in batches, publishes them to the target handlers
+ * and flushes the targets once per batch.
+ * When the buffer is full the {@link OverflowPolicy} decides whether the
+ * logging thread drops the record or waits for space.
+ */
+public class AsyncLogHandler extends Handler {
+    private static final long POLL_MILLIS = 250;
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+
+    /**
+     * What a logging thread does when the buffer is full
+     */
+    public enum OverflowPolicy {
+        /**
+         * Never wait. Records below WARNING are dropped; WARNING and above
+         * take the place of the oldest buffered record.
+         */
+        DROP,
+        /**
+         * Wait for space, so no record is lost
+         */
+        BLOCK
+    }
+
+    private final ArrayBlockingQueue<LogRecord> buffer;
+    private final Handler[] targets;
+    private volatile int batchSize;
+    private final OverflowPolicy policy;
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread writer;
+    private volatile boolean closed = false;
+    // Only touched by the writer thread
+    private long droppedReported = 0;
+
+    /**
+     * Creates the handler and starts its writer thread
+     *
+     * @param capacity Maximum number of buffered records
+     * @param batchSize Maximum number of records written between flushes
+     * @param policy Behaviour when the buffer is full
+     * @param targets Handlers the records are written to
+     */
+    public AsyncLogHandler(int capacity, int batchSize, OverflowPolicy policy, Handler... targets) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = Math.max(1, batchSize);
+        this.policy = policy;
+        this.targets = targets.clone();
+        this.writer = new Thread(this::drain, "async-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @Override
+    public void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        // Report the logger as the source; inferring the calling method would
+        // walk this thread's stack, and the writer thread cannot do it later
+        record.setSourceClassName(record.getLoggerName());
+        record.setSourceMethodName(null);
+        if (buffer.offer(record)) {
+            return;
+        }
+        if (policy == OverflowPolicy.BLOCK) {
+            try {
+                buffer.put(record);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                dropped.incrementAndGet();
+            }
+        } else if (record.getLevel().intValue() >= Level.WARNING.intValue()) {
+            if (buffer.poll() != null) {
+                dropped.incrementAndGet();
+            }
+            if (!buffer.offer(record)) {
+                dropped.incrementAndGet();
+            }
+        } else {
+            dropped.incrementAndGet();
+        }
+    }
+
+    private void drain() {
+        List<LogRecord> batch = new ArrayList<>();
+        while (!closed || !buffer.isEmpty()) {
+            LogRecord first;
+            try {
+                first = buffer.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            batch.add(first);
+            buffer.drainTo(batch, batchSize - 1);
+            write(batch);
+            batch.clear();
+        }
+        buffer.drainTo(batch);
+        write(batch);
+    }
+
+    private void write(List<LogRecord> batch) {
+        long total = dropped.get();
+        if (total > droppedReported) {
+            LogRecord notice = new LogRecord(Level.WARNING,
+                    (total - droppedReported) + " log records dropped because the log buffer was full");
+            notice.setLoggerName(AsyncLogHandler.class.getName());
+            notice.setSourceClassName(AsyncLogHandler.class.getName());
+            batch.add(notice);
+            droppedReported = total;
+        }
+        for (LogRecord record : batch) {
+            for (Handler target : targets) {
+                try {
+                    target.publish(record);
+                } catch (RuntimeException e) {
+                    reportError(null, e, ErrorManager.WRITE_FAILURE);
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            flushTargets();
+        }
+    }
+
+    private void flushTargets() {
+        for (Handler target : targets) {
+            try {
+                target.flush();
+            } catch (RuntimeException e) {
+                reportError(null, e, ErrorManager.FLUSH_FAILURE);
+            }
+        }
+    }
+
+    /**
+     * Does not wait for buffered records; the writer flushes after every batch
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Stops accepting records, writes everything still buffered and closes the targets
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            writer.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        for (Handler target : targets) {
+            target.close();
+        }
+    }
+
+    /**
+     * Changes the number of records written between flushes
+     *
+     * @param batchSize Maximum records per batch
+     */
+    public void setBatchSize(int batchSize) {
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * @return number of records dropped because the buffer was full
+     */
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the handlers records are written to
+     */
+    public Handler[] getTargets() {
+        return targets.clone();
+    }
+
+    /**
+     * @return number of records waiting for the writer
+     */
+    public int getQueuedCount() {
+        return buffer.size();
+    }
+}
@@ -0,0 +1,154 @@
+package config;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.logging.ErrorManager;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+
+/**
+ * Rotating file handler that only writes to disk on {@link #flush()}.
+ * Unlike {@link java.util.logging.FileHandler}, which flushes every record,
+ * records are buffered so {@link AsyncLogHandler} can write a whole batch at once.
+ * Files are named like FileHandler's: name.0 is the current file and older
+ * generations are shifted to name.1, name.2 and so on. If a file cannot be
+ * reopened after rotation, the next record tries again.
+ */
+public class BufferedFileHandler extends Handler {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final File[] generations;
+    private final long limit;
+    private Writer out;
+    /** UTF-8 bytes in the current file */
+    private long written;
+    private boolean closed;
+
+    /**
+     * Opens the current log file for appending
+     *
+     * @param name Log file name
+     * @param limit Size in bytes a file may not exceed unless a single record does; 0 for no limit
+     * @param count Number of files to keep
+     * @throws IOException if the file cannot be opened
+     */
+    public BufferedFileHandler(String name, long limit, int count) throws IOException {
+        this.limit = limit;
+        this.generations = new File[Math.max(1, count)];
+        for (int i = 0; i < generations.length; i++) {
+            generations[i] = new File(generations.length == 1 ? name : name + "." + i);
+        }
+        setFormatter(new SimpleFormatter());
+        open(true);
+    }
+
+    private void open(boolean append) throws IOException {
+        File file = generations[0];
+        written = append ? file.length() : 0;
+        out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, append),
+                StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private void rotate() throws IOException {
+        // Dropped first, so a failed reopen leaves no closed writer behind
+        Writer old = out;
+        out = null;
+        old.close();
+        for (int i = generations.length - 2; i >= 0; i--) {
+            if (generations[i].exists()) {
+                generations[i + 1].delete();
+                generations[i].renameTo(generations[i + 1]);
+            }
+        }
+        open(false);
+    }
+
+    @Override
+    public synchronized void publish(LogRecord record) {
+        if (closed || !isLoggable(record)) {
+            return;
+        }
+        String message;
+        try {
+            message = getFormatter().format(record);
+        } catch (RuntimeException e) {
+            reportError(null, e, ErrorManager.FORMAT_FAILURE);
+            return;
+        }
+        try {
+            if (out == null) {
+                open(true);
+            }
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.OPEN_FAILURE);
+            return;
+        }
+        try {
+            long bytes = utf8Length(message);
+            if (limit > 0 && written > 0 && written + bytes > limit) {
+                rotate();
+            }
+            out.write(message);
+            written += bytes;
+        } catch (IOException e) {
+            reportError(null, e, out == null ? ErrorManager.OPEN_FAILURE : ErrorManager.WRITE_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void flush() {
+        if (out == null) {
+            return;
+        }
+        try {
+            out.flush();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.FLUSH_FAILURE);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        if (out == null) {
+            return;
+        }
+        try {
+            out.close();
+        } catch (IOException e) {
+            reportError(null, e, ErrorManager.CLOSE_FAILURE);
+        }
+        out = null;
+    }
+
+    /**
+     * Counts the bytes a string encodes to in UTF-8 without encoding it
+     */
+    static long utf8Length(String text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                // An unpaired surrogate is written as '?'
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+}
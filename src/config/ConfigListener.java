@@ -0,0 +1,19 @@
+package config;
+
+import java.util.Set;
+
+/**
+ * Receives configuration changes picked up by {@link AppConfig#reload()}.
+ * Listeners run on the thread that reloaded the configuration and should
+ * re-read the settings they use through AppConfig's typed getters.
+ */
+@FunctionalInterface
+public interface ConfigListener {
+
+    /**
+     * Called after the configuration has been reloaded
+     *
+     * @param changedKeys keys that were added, removed or given a new value
+     */
+    void configurationChanged(Set<String> changedKeys);
+}
@@ -1,6 +1,7 @@
 package config;
 
 import java.io.IOException;
+import java.util.Set;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
 import java.util.logging.Handler;
@@ -11,13 +12,19 @@ import java.util.logging.SimpleFormatter;
 /**
  * Centralized logging configuration for the application.
  * Configures loggers with appropriate handlers and formatting.
+ * By default records are written asynchronously through {@link AsyncLogHandler},
+ * so application threads never block on log I/O; set log.async=false to write
+ * on the calling thread.
  */
 public class LoggingConfig {
     private static final String LOG_FILE = "airline_reservation.log";
     private static final int LOG_FILE_SIZE = 1000000; // ~1MB
     private static final int LOG_FILE_COUNT = 3;
     private static final Level DEFAULT_LEVEL = Level.INFO;
+    private static final int DEFAULT_ASYNC_CAPACITY = 8192;
+    private static final int DEFAULT_ASYNC_BATCH = 256;
     private static boolean initialized = false;
+    private static volatile AsyncLogHandler asyncHandler;
     
     /**
      * Initializes the logging configuration for the application.
@@ -37,25 +44,41 @@ public class LoggingConfig {
                 rootLogger.removeHandler(handler);
             }
             
+            Level level = configuredLevel();
+            String logFile = AppConfig.getProperty("log.file", LOG_FILE);
+
             // Configure console handler
             ConsoleHandler consoleHandler = new ConsoleHandler();
-            consoleHandler.setLevel(DEFAULT_LEVEL);
-            rootLogger.addHandler(consoleHandler);
-            
-            // Configure file handler
-            FileHandler fileHandler = new FileHandler(LOG_FILE, LOG_FILE_SIZE, LOG_FILE_COUNT, true);
-            fileHandler.setFormatter(new SimpleFormatter());
-            fileHandler.setLevel(DEFAULT_LEVEL);
-            rootLogger.addHandler(fileHandler);
-            
-            // Set default level
-            rootLogger.setLevel(DEFAULT_LEVEL);
-            
-            // Set specific levels for application packages
-            Logger.getLogger("dao").setLevel(Level.FINE);
-            Logger.getLogger("service").setLevel(Level.FINE);
+            consoleHandler.setLevel(level);
+
+            if (AppConfig.getBoolean("log.async", true)) {
+                // Configure file handler; the async writer flushes it once per batch
+                BufferedFileHandler fileHandler = new BufferedFileHandler(logFile, LOG_FILE_SIZE, LOG_FILE_COUNT);
+                fileHandler.setLevel(level);
+
+                int capacity = AppConfig.getInt("log.async.capacity", DEFAULT_ASYNC_CAPACITY, 1, 1 << 20);
+                int batch = AppConfig.getInt("log.async.batch", DEFAULT_ASYNC_BATCH, 1, 1 << 16);
+                AsyncLogHandler.OverflowPolicy policy = AsyncLogHandler.OverflowPolicy.valueOf(
+                        AppConfig.getChoice("log.async.policy", "DROP", "DROP", "BLOCK"));
+                asyncHandler = new AsyncLogHandler(capacity, batch, policy, consoleHandler, fileHandler);
+                asyncHandler.setLevel(level);
+                rootLogger.addHandler(asyncHandler);
+            } else {
+                rootLogger.addHandler(consoleHandler);
+
+                // Configure file handler
+                FileHandler fileHandler = new FileHandler(logFile, LOG_FILE_SIZE, LOG_FILE_COUNT, true);
+                fileHandler.setFormatter(new SimpleFormatter());
+                fileHandler.setLevel(level);
+                rootLogger.addHandler(fileHandler);
+            }
+
+            // Set default level; application packages inherit it, so FINE
+            // messages are not built only to be discarded by the handlers
+            rootLogger.setLevel(level);
             Logger.getLogger("ui").setLevel(Level.INFO);
             
+            AppConfig.addListener(LoggingConfig::configurationChanged);
             initialized = true;
             
             Logger.getLogger(LoggingConfig.class.getName()).info("Logging initialized");
@@ -65,6 +88,57 @@ public class LoggingConfig {
         }
     }
     
+    private static Level configuredLevel() {
+        return Level.parse(AppConfig.getChoice("log.level", DEFAULT_LEVEL.getName(),
+                "ALL", "FINEST", "FINER", "FINE", "CONFIG", "INFO", "WARNING", "SEVERE", "OFF"));
+    }
+
+    /**
+     * Applies reloaded log.level and log.async.batch settings
+     *
+     * @param keys changed configuration keys
+     */
+    private static void configurationChanged(Set<String> keys) {
+        if (keys.contains("log.level")) {
+            Level level = configuredLevel();
+            Logger rootLogger = Logger.getLogger("");
+            rootLogger.setLevel(level);
+            for (Handler handler : rootLogger.getHandlers()) {
+                handler.setLevel(level);
+            }
+            if (asyncHandler != null) {
+                // The async handler's targets filter records as well
+                for (Handler handler : asyncHandler.getTargets()) {
+                    handler.setLevel(level);
+                }
+            }
+            Logger.getLogger(LoggingConfig.class.getName()).info("Log level changed to " + level);
+        }
+        if (keys.contains("log.async.batch") && asyncHandler != null) {
+            asyncHandler.setBatchSize(AppConfig.getInt("log.async.batch", DEFAULT_ASYNC_BATCH, 1, 1 << 16));
+        }
+    }
+
+    /**
+     * Gets the number of log records dropped because the async buffer was full.
+     *
+     * @return dropped records, or 0 when logging is synchronous
+     */
+    public static long getDroppedRecords() {
+        AsyncLogHandler handler = asyncHandler;
+        return handler == null ? 0 : handler.getDroppedCount();
+    }
+
+    /**
+     * Gets the number of log records waiting to be written.
+     *
+     * @return queued records, or 0 when logging is synchronous
+     */
+    public static long getQueuedRecords() {
+        AsyncLogHandler handler = asyncHandler;
+        return handler == null ? 0 : handler.getQueuedCount();
+    }
+
     /**
      * Gets a configured logger for the specified class.
      * 
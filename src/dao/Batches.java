@@ -0,0 +1,43 @@
+package dao;
+
+import config.AppConfig;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+/**
+ * Helpers for the DAOs' batched inserts.
+ * Large inserts are sent to the driver in batches of db.batch.size rows, so
+ * the driver never buffers a whole list of parameter sets at once.
+ */
+final class Batches {
+    private static final int DEFAULT_BATCH_SIZE = 1000;
+
+    private Batches() {
+    }
+
+    /**
+     * Gets the configured number of rows per executeBatch call; read on every
+     * insert so configuration reloads apply to the next one
+     *
+     * @return rows per batch
+     */
+    static int size() {
+        return AppConfig.getInt("db.batch.size", DEFAULT_BATCH_SIZE, 1, 1_000_000);
+    }
+
+    /**
+     * Executes the pending batch
+     *
+     * @param pst Statement with added batches
+     * @return number of rows inserted
+     * @throws SQLException if the batch fails
+     */
+    static int execute(PreparedStatement pst) throws SQLException {
+        int inserted = 0;
+        for (int count : pst.executeBatch()) {
+            inserted += Math.max(count, 0);
+        }
+        return inserted;
+    }
+}
@@ -0,0 +1,333 @@
+package dao;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.BookingCounter;
+import model.CounterMismatch;
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for the materialized booking counters.
+ * FlightBookingCounts holds the bookings and revenue of every flight and
+ * RouteBookingCounts those of every route per booking day, so dashboards and
+ * availability checks read one row instead of scanning Bookings. Cancelled
+ * bookings are not counted (see {@link BookingDao#bookedSql(String)}).
+ * <p>
+ * The counters are only as current as their writers: BookingService updates
+ * them in the transaction that creates or cancels a booking, and bulk loaders
+ * call {@link #rebuild()} afterwards.
+ */
+public class BookingCounterDao {
+    private static final Logger LOGGER = Logger.getLogger(BookingCounterDao.class.getName());
+    private static final LatencyHistogram RECORD_TIME = MetricsRegistry.getInstance().histogram("BookingCounterDao.record");
+    private static final LatencyHistogram GET_FLIGHT_COUNTER_TIME = MetricsRegistry.getInstance().histogram("BookingCounterDao.getFlightCounter");
+    private static final LatencyHistogram GET_BOOKED_COUNTS_TIME = MetricsRegistry.getInstance().histogram("BookingCounterDao.getBookedCounts");
+    private static final LatencyHistogram GET_ROUTE_COUNTER_TIME = MetricsRegistry.getInstance().histogram("BookingCounterDao.getRouteCounter");
+    private static final LatencyHistogram REBUILD_TIME = MetricsRegistry.getInstance().histogram("BookingCounterDao.rebuild");
+    private static final LatencyHistogram FIND_MISMATCHES_TIME = MetricsRegistry.getInstance().histogram("BookingCounterDao.findMismatches");
+
+    private static final int MAX_IN_LIST = 500;
+
+    /** Revenue differences below this are rounding, not drift */
+    private static final double REVENUE_TOLERANCE = 0.005;
+
+    private static final String EXPECTED_FLIGHT_COUNTS = "SELECT b.flightId AS flightId, COUNT(*) AS booked, "
+            + "TOTAL(b.amountPaid) AS revenue FROM Bookings b WHERE " + BookingDao.bookedSql("b.status")
+            + " GROUP BY b.flightId";
+    private static final String EXPECTED_ROUTE_COUNTS = "SELECT f.Ffrom AS Ffrom, f.Fto AS Fto, "
+            + "b.bookingDay AS bookingDay, COUNT(*) AS booked, TOTAL(b.amountPaid) AS revenue "
+            + "FROM Bookings b JOIN Flights f ON f.FlightId = b.flightId WHERE b.bookingDay IS NOT NULL AND "
+            + BookingDao.bookedSql("b.status") + " GROUP BY f.Ffrom, f.Fto, b.bookingDay";
+
+    private final Connection connection;
+
+    /**
+     * Constructs a BookingCounterDao with a database connection
+     *
+     * @param connection Database connection
+     */
+    public BookingCounterDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Statements that create the counter tables filled from the current bookings.
+     * Used by the schema migration and by {@link #rebuild()}.
+     *
+     * @return SQL statements in execution order
+     */
+    static String[] rebuildStatements() {
+        return new String[]{
+                "DELETE FROM FlightBookingCounts",
+                "DELETE FROM RouteBookingCounts",
+                "INSERT INTO FlightBookingCounts (flightId, booked, revenue) " + EXPECTED_FLIGHT_COUNTS,
+                "INSERT INTO RouteBookingCounts (Ffrom, Fto, bookingDay, booked, revenue) " + EXPECTED_ROUTE_COUNTS
+        };
+    }
+
+    /**
+     * Counts a new booking. Runs in the caller's transaction.
+     *
+     * @param flightId Booked flight ID
+     * @param fromCity Origin of the flight, null to skip the route counter
+     * @param toCity Destination of the flight, null to skip the route counter
+     * @param bookingDate Booking date, null to skip the route counter
+     * @param amountPaid Amount paid, may be null
+     * @throws SQLException if a database error occurs
+     */
+    public void recordBooking(int flightId, String fromCity, String toCity, LocalDate bookingDate, Double amountPaid)
+            throws SQLException {
+        record(flightId, fromCity, toCity, bookingDate, 1, amountPaid == null ? 0 : amountPaid);
+    }
+
+    /**
+     * Counts several bookings of one flight made on the same day with one update per counter.
+     * Runs in the caller's transaction.
+     *
+     * @param flightId Booked flight ID
+     * @param fromCity Origin of the flight, null to skip the route counter
+     * @param toCity Destination of the flight, null to skip the route counter
+     * @param bookingDate Booking date, null to skip the route counter
+     * @param count Number of bookings
+     * @param revenue Total amount paid
+     * @throws SQLException if a database error occurs
+     */
+    public void recordBookings(int flightId, String fromCity, String toCity, LocalDate bookingDate, int count,
+                               double revenue) throws SQLException {
+        record(flightId, fromCity, toCity, bookingDate, count, revenue);
+    }
+
+    /**
+     * Uncounts a cancelled booking. Takes the values the booking was counted with; runs in the caller's transaction.
+     *
+     * @param flightId Booked flight ID
+     * @param fromCity Origin of the flight, null to skip the route counter
+     * @param toCity Destination of the flight, null to skip the route counter
+     * @param bookingDate Booking date, null to skip the route counter
+     * @param amountPaid Amount paid, may be null
+     * @throws SQLException if a database error occurs
+     */
+    public void recordCancellation(int flightId, String fromCity, String toCity, LocalDate bookingDate, Double amountPaid)
+            throws SQLException {
+        record(flightId, fromCity, toCity, bookingDate, -1, amountPaid == null ? 0 : -amountPaid);
+    }
+
+    private void record(int flightId, String fromCity, String toCity, LocalDate bookingDate, int booked, double revenue)
+            throws SQLException {
+        String flightSql = "INSERT INTO FlightBookingCounts (flightId, booked, revenue) VALUES (?, ?, ?) "
+                + "ON CONFLICT (flightId) DO UPDATE SET booked = booked + excluded.booked, revenue = revenue + excluded.revenue";
+        String routeSql = "INSERT INTO RouteBookingCounts (Ffrom, Fto, bookingDay, booked, revenue) VALUES (?, ?, ?, ?, ?) "
+                + "ON CONFLICT (Ffrom, Fto, bookingDay) DO UPDATE SET booked = booked + excluded.booked, revenue = revenue + excluded.revenue";
+        long start = System.nanoTime();
+        try {
+            try (PreparedStatement pst = connection.prepareStatement(flightSql)) {
+                pst.setInt(1, flightId);
+                pst.setInt(2, booked);
+                pst.setDouble(3, revenue);
+                pst.executeUpdate();
+            }
+            if (fromCity != null && toCity != null && bookingDate != null) {
+                try (PreparedStatement pst = connection.prepareStatement(routeSql)) {
+                    pst.setString(1, fromCity);
+                    pst.setString(2, toCity);
+                    pst.setInt(3, DateCodec.toEpochDay(bookingDate));
+                    pst.setInt(4, booked);
+                    pst.setDouble(5, revenue);
+                    pst.executeUpdate();
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating booking counters of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            RECORD_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Gets the bookings and revenue of a flight
+     *
+     * @param flightId Flight ID
+     * @return the counter, {@link BookingCounter#EMPTY} if the flight has no bookings
+     * @throws SQLException if a database error occurs
+     */
+    public BookingCounter getFlightCounter(int flightId) throws SQLException {
+        String sql = "SELECT booked, revenue FROM FlightBookingCounts WHERE flightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? new BookingCounter(rs.getLong(1), rs.getDouble(2)) : BookingCounter.EMPTY;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving booking counter of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_FLIGHT_COUNTER_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Gets the booked seats of several flights, with one IN query per 500 IDs
+     *
+     * @param flightIds Flight IDs
+     * @return booked seats by flight ID; flights without bookings are absent
+     * @throws SQLException if a database error occurs
+     */
+    public Map<Integer, Integer> getBookedCounts(List<Integer> flightIds) throws SQLException {
+        Map<Integer, Integer> counts = new HashMap<>(flightIds.size() * 2);
+        long start = System.nanoTime();
+        try {
+            for (int from = 0; from < flightIds.size(); from += MAX_IN_LIST) {
+                List<Integer> chunk = flightIds.subList(from, Math.min(from + MAX_IN_LIST, flightIds.size()));
+                StringBuilder sql = new StringBuilder("SELECT flightId, booked FROM FlightBookingCounts WHERE flightId IN (?");
+                for (int i = 1; i < chunk.size(); i++) {
+                    sql.append(", ?");
+                }
+                sql.append(')');
+                try (PreparedStatement pst = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pst.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) {
+                            counts.put(rs.getInt(1), rs.getInt(2));
+                        }
+                    }
+                }
+            }
+            return counts;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving booked counts: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_BOOKED_COUNTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Gets the bookings made on one day for flights of a route
+     *
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param bookingDate Day the bookings were made
+     * @return the counter, {@link BookingCounter#EMPTY} if there were no bookings
+     * @throws SQLException if a database error occurs
+     */
+    public BookingCounter getRouteCounter(String fromCity, String toCity, LocalDate bookingDate) throws SQLException {
+        String sql = "SELECT booked, revenue FROM RouteBookingCounts WHERE Ffrom = ? AND Fto = ? AND bookingDay = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, fromCity);
+            pst.setString(2, toCity);
+            pst.setInt(3, DateCodec.toEpochDay(bookingDate));
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? new BookingCounter(rs.getLong(1), rs.getDouble(2)) : BookingCounter.EMPTY;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving booking counter of route " + fromCity + "-" + toCity + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_ROUTE_COUNTER_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Recomputes every counter from the Bookings table.
+     * Commits unless the caller has a transaction open.
+     *
+     * @throws SQLException if a database error occurs
+     */
+    public void rebuild() throws SQLException {
+        long start = System.nanoTime();
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            try (Statement st = connection.createStatement()) {
+                for (String sql : rebuildStatements()) {
+                    st.executeUpdate(sql);
+                }
+            }
+            if (autoCommit) {
+                connection.commit();
+            }
+        } catch (SQLException e) {
+            if (autoCommit) {
+                connection.rollback();
+            }
+            LOGGER.log(Level.SEVERE, "Error rebuilding booking counters: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+            REBUILD_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Recomputes every counter from the Bookings table and compares it with the stored one.
+     * Stored counters of zero count as absent.
+     *
+     * @return counters that differ, flights first
+     * @throws SQLException if a database error occurs
+     */
+    public List<CounterMismatch> findMismatches() throws SQLException {
+        String flightSql = "WITH expected AS (" + EXPECTED_FLIGHT_COUNTS + ") "
+                + "SELECT e.flightId, e.booked, e.revenue, s.booked, s.revenue FROM expected e "
+                + "LEFT JOIN FlightBookingCounts s ON s.flightId = e.flightId "
+                + "WHERE s.flightId IS NULL OR s.booked <> e.booked OR ABS(s.revenue - e.revenue) > " + REVENUE_TOLERANCE
+                + " UNION ALL "
+                + "SELECT s.flightId, 0, 0, s.booked, s.revenue FROM FlightBookingCounts s "
+                + "WHERE (s.booked <> 0 OR ABS(s.revenue) > " + REVENUE_TOLERANCE + ") "
+                + "AND NOT EXISTS (SELECT 1 FROM expected e WHERE e.flightId = s.flightId) "
+                + "ORDER BY 1";
+        String routeSql = "WITH expected AS (" + EXPECTED_ROUTE_COUNTS + ") "
+                + "SELECT e.Ffrom, e.Fto, e.bookingDay, e.booked, e.revenue, s.booked, s.revenue FROM expected e "
+                + "LEFT JOIN RouteBookingCounts s ON s.Ffrom = e.Ffrom AND s.Fto = e.Fto AND s.bookingDay = e.bookingDay "
+                + "WHERE s.Ffrom IS NULL OR s.booked <> e.booked OR ABS(s.revenue - e.revenue) > " + REVENUE_TOLERANCE
+                + " UNION ALL "
+                + "SELECT s.Ffrom, s.Fto, s.bookingDay, 0, 0, s.booked, s.revenue FROM RouteBookingCounts s "
+                + "WHERE (s.booked <> 0 OR ABS(s.revenue) > " + REVENUE_TOLERANCE + ") "
+                + "AND NOT EXISTS (SELECT 1 FROM expected e WHERE e.Ffrom = s.Ffrom AND e.Fto = s.Fto "
+                + "AND e.bookingDay = s.bookingDay) "
+                + "ORDER BY 3, 1, 2";
+        List<CounterMismatch> mismatches = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (Statement st = connection.createStatement()) {
+            try (ResultSet rs = st.executeQuery(flightSql)) {
+                while (rs.next()) {
+                    mismatches.add(new CounterMismatch("flight " + rs.getInt(1),
+                            new BookingCounter(rs.getLong(2), rs.getDouble(3)),
+                            new BookingCounter(rs.getLong(4), rs.getDouble(5))));
+                }
+            }
+            try (ResultSet rs = st.executeQuery(routeSql)) {
+                while (rs.next()) {
+                    mismatches.add(new CounterMismatch(rs.getString(1) + "-" + rs.getString(2) + " booked on "
+                            + DateCodec.fromEpochDay(rs.getInt(3)),
+                            new BookingCounter(rs.getLong(4), rs.getDouble(5)),
+                            new BookingCounter(rs.getLong(6), rs.getDouble(7))));
+                }
+            }
+            return mismatches;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error checking booking counters: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            FIND_MISMATCHES_TIME.recordSince(start);
+        }
+    }
+}
@@ -1,10 +1,17 @@
 package dao;
 
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Booking;
+import model.BookingBatch;
+import model.Reaccommodation;
+import util.DateCodec;
+import util.StringDictionary;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -14,6 +21,30 @@ import java.util.logging.Logger;
  */
 public class BookingDao {
     private static final Logger LOGGER = Logger.getLogger(BookingDao.class.getName());
+    private static final LatencyHistogram ADD_BOOKING_TIME = MetricsRegistry.getInstance().histogram("BookingDao.addBooking");
+    private static final LatencyHistogram ADD_BOOKINGS_TIME = MetricsRegistry.getInstance().histogram("BookingDao.addBookings");
+    private static final LatencyHistogram GET_BOOKING_BY_ID_TIME = MetricsRegistry.getInstance().histogram("BookingDao.getBookingById");
+    private static final LatencyHistogram GET_BOOKINGS_BY_PASSENGER_ID_TIME = MetricsRegistry.getInstance().histogram("BookingDao.getBookingsByPassengerId");
+    private static final LatencyHistogram UPDATE_BOOKING_STATUS_TIME = MetricsRegistry.getInstance().histogram("BookingDao.updateBookingStatus");
+    private static final LatencyHistogram GET_BOOKED_BY_FLIGHT_ID_TIME = MetricsRegistry.getInstance().histogram("BookingDao.getBookedByFlightId");
+    private static final LatencyHistogram CANCEL_BOOKINGS_TIME = MetricsRegistry.getInstance().histogram("BookingDao.cancelBookings");
+    private static final LatencyHistogram GET_ORPHANED_FLIGHT_IDS_TIME = MetricsRegistry.getInstance().histogram("BookingDao.getOrphanedFlightIds");
+    private static final LatencyHistogram MOVE_BOOKINGS_TIME = MetricsRegistry.getInstance().histogram("BookingDao.moveBookings");
+    private static final LatencyHistogram STREAM_BOOKINGS_TIME = MetricsRegistry.getInstance().histogram("BookingDao.streamBookings");
+
+    /** Column projection read by {@link #ROW_MAPPER}, in column index order */
+    public static final String COLUMNS = "id, passengerId, flightId, amountPaid, status, bookingDate, bookingDay";
+    private static final int COL_ID = 1;
+    private static final int COL_PASSENGER_ID = 2;
+    private static final int COL_FLIGHT_ID = 3;
+    private static final int COL_AMOUNT_PAID = 4;
+    private static final int COL_STATUS = 5;
+    private static final int COL_BOOKING_DATE = 6;
+    private static final int COL_BOOKING_DAY = 7;
+
+    /** Maps a row selected with {@link #COLUMNS} to a Booking */
+    public static final RowMapper<Booking> ROW_MAPPER = BookingDao::mapRow;
+
     private final Connection connection;
     
     /**
@@ -26,29 +57,108 @@ public class BookingDao {
     }
     
     /**
-     * Adds a new booking to the database
+     * Adds a new booking to the database.
+     * A booking without an ID gets the generated key assigned.
      * 
      * @param b Booking to be added
      * @throws SQLException if a database error occurs
      */
     public boolean addBooking(Booking b) throws SQLException {
-        String sql = "INSERT INTO Bookings (id, passengerId, flightId, amountPaid, status, bookingDate) VALUES (?, ?, ?, ?, ?, ?)";
-        try (PreparedStatement pst = connection.prepareStatement(sql)) {
-            pst.setInt(1, b.getId());
+        String sql = "INSERT INTO Bookings (id, passengerId, flightId, amountPaid, status, bookingDate, bookingDay) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            if (b.getId() != null) pst.setInt(1, b.getId());
+            else pst.setNull(1, Types.INTEGER);
             pst.setInt(2, b.getPassengerId());
             pst.setInt(3, b.getFlightId());
             if(b.getAmountPaid() != null) pst.setDouble(4, b.getAmountPaid());
             else pst.setNull(4, Types.REAL);
             pst.setString(5, b.getStatus());
-            pst.setString(6, b.getBookingDate() != null ? b.getBookingDate().toString() : null);
+            pst.setString(6, DateCodec.format(b.getBookingDate()));
+            if (b.getBookingDate() != null) pst.setInt(7, DateCodec.toEpochDay(b.getBookingDate()));
+            else pst.setNull(7, Types.INTEGER);
             int rowsAffected = pst.executeUpdate();
+            if (rowsAffected > 0 && b.getId() == null) {
+                try (ResultSet keys = pst.getGeneratedKeys()) {
+                    if (keys.next()) b.setId(keys.getInt(1));
+                }
+            }
             return rowsAffected > 0;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error adding booking: " + e.getMessage(), e);
             throw e;
+        } finally {
+            ADD_BOOKING_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Adds bookings with a batched INSERT sent every db.batch.size rows, for bulk loading.
+     * Generated keys are not read back, so bookings without an ID keep a null ID.
+     * The caller controls the transaction; wrap large loads in one.
+     *
+     * @param bookings Bookings to be added
+     * @return number of rows inserted
+     * @throws SQLException if a database error occurs
+     */
+    public int addBookings(List<Booking> bookings) throws SQLException {
+        String sql = "INSERT INTO Bookings (id, passengerId, flightId, amountPaid, status, bookingDate, bookingDay) VALUES (?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int inserted = 0;
+            int pending = 0;
+            for (Booking b : bookings) {
+                if (b.getId() != null) pst.setInt(1, b.getId());
+                else pst.setNull(1, Types.INTEGER);
+                pst.setInt(2, b.getPassengerId());
+                pst.setInt(3, b.getFlightId());
+                if (b.getAmountPaid() != null) pst.setDouble(4, b.getAmountPaid());
+                else pst.setNull(4, Types.REAL);
+                pst.setString(5, b.getStatus());
+                pst.setString(6, DateCodec.format(b.getBookingDate()));
+                if (b.getBookingDate() != null) pst.setInt(7, DateCodec.toEpochDay(b.getBookingDate()));
+                else pst.setNull(7, Types.INTEGER);
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    inserted += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += Batches.execute(pst);
+            }
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding bookings: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_BOOKINGS_TIME.recordSince(start);
         }
     }
     
+    /**
+     * Gets the ID the next generated booking key would take. Bookings.id is an
+     * AUTOINCREMENT key, so this is one past both the highest ID ever issued and the
+     * highest ID present. Inside a transaction that already holds the write lock
+     * no other writer can take IDs, so the caller can assign a block of IDs from
+     * here to bookings inserted with {@link #addBookings(List)}.
+     *
+     * @return the next booking ID
+     * @throws SQLException if a database error occurs
+     */
+    public int nextId() throws SQLException {
+        String sql = "SELECT MAX(COALESCE((SELECT seq FROM sqlite_sequence WHERE name = 'Bookings'), 0), "
+                + "COALESCE((SELECT MAX(id) FROM Bookings), 0)) + 1";
+        try (PreparedStatement pst = connection.prepareStatement(sql);
+             ResultSet rs = pst.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 1;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error reading next booking ID: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
     /**
      * Retrieves a booking by ID
      * 
@@ -57,7 +167,8 @@ public class BookingDao {
      * @throws SQLException if a database error occurs
      */
     public Booking getBookingById(int id) throws SQLException {
-        String sql = "SELECT * FROM Bookings WHERE id = ?";
+        String sql = "SELECT " + COLUMNS + " FROM Bookings WHERE id = ?";
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql)) {
             pst.setInt(1, id);
             try (ResultSet rs = pst.executeQuery()) {
@@ -67,6 +178,8 @@ public class BookingDao {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving booking with ID " + id + ": " + e.getMessage(), e);
             throw e;
+        } finally {
+            GET_BOOKING_BY_ID_TIME.recordSince(start);
         }
     }
     
@@ -78,9 +191,10 @@ public class BookingDao {
      * @throws SQLException if a database error occurs
      */
     public List<Booking> getBookingsByPassengerId(int passengerId) throws SQLException {
-        String sql = "SELECT * FROM Bookings WHERE passengerId = ?";
+        String sql = "SELECT " + COLUMNS + " FROM Bookings WHERE passengerId = ?";
         List<Booking> bookings = new ArrayList<>();
         
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql)) {
             pst.setInt(1, passengerId);
             
@@ -93,24 +207,300 @@ public class BookingDao {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving bookings for passenger ID " + passengerId + ": " + e.getMessage(), e);
             throw e;
+        } finally {
+            GET_BOOKINGS_BY_PASSENGER_ID_TIME.recordSince(start);
         }
     }
     
     /**
-     * Maps a database row to a Booking object
+     * Updates the status of a booking
+     * 
+     * @param id Booking ID
+     * @param status New status
+     * @return true if the booking was updated, false if it does not exist
+     * @throws SQLException if a database error occurs
+     */
+    public boolean updateBookingStatus(int id, String status) throws SQLException {
+        String sql = "UPDATE Bookings SET status = ? WHERE id = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, status);
+            pst.setInt(2, id);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating status of booking " + id + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            UPDATE_BOOKING_STATUS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Updates the status of a booking only if it still has the expected one,
+     * so two concurrent transitions of the same booking cannot both succeed
+     * 
+     * @param id Booking ID
+     * @param expectedStatus Status the booking must have, may be null
+     * @param status New status
+     * @return true if the booking was updated, false if it does not exist or its status changed
+     * @throws SQLException if a database error occurs
+     */
+    public boolean updateBookingStatus(int id, String expectedStatus, String status) throws SQLException {
+        String sql = "UPDATE Bookings SET status = ? WHERE id = ? AND status IS ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, status);
+            pst.setInt(2, id);
+            pst.setString(3, expectedStatus);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating status of booking " + id + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            UPDATE_BOOKING_STATUS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves one page of a flight's bookings that are not cancelled, in ID order.
+     * Pages are keyed on the last ID seen and read through idx_bookings_flight,
+     * so each page costs the same however far into the flight it is.
+     * 
+     * @param flightId Flight ID
+     * @param afterId Return bookings with a greater ID; 0 for the first page
+     * @param limit Maximum bookings returned
+     * @return the bookings
+     * @throws SQLException if a database error occurs
+     */
+    public List<Booking> getBookedByFlightId(int flightId, int afterId, int limit) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Bookings WHERE flightId = ? AND id > ? AND " + bookedSql("status")
+                + " ORDER BY id LIMIT ?";
+        List<Booking> bookings = new ArrayList<>();
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            pst.setInt(2, afterId);
+            pst.setInt(3, limit);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    bookings.add(mapRow(rs));
+                }
+            }
+            return bookings;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving bookings of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_BOOKED_BY_FLIGHT_ID_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Marks bookings CANCELLED with a batched conditional UPDATE. A booking that
+     * is already cancelled is left alone and not returned, so concurrent
+     * cancellations of the same booking cannot both succeed.
+     * The caller controls the transaction.
+     * 
+     * @param bookings Bookings to cancel
+     * @return the bookings this call cancelled, with their status updated
+     * @throws SQLException if a database error occurs
+     */
+    public List<Booking> cancelBookings(List<Booking> bookings) throws SQLException {
+        String sql = "UPDATE Bookings SET status = 'CANCELLED' WHERE id = ? AND " + bookedSql("status");
+        List<Booking> cancelled = new ArrayList<>(bookings.size());
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            for (int from = 0; from < bookings.size(); from += batchSize) {
+                List<Booking> chunk = bookings.subList(from, Math.min(from + batchSize, bookings.size()));
+                for (Booking b : chunk) {
+                    pst.setInt(1, b.getId());
+                    pst.addBatch();
+                }
+                int[] counts = pst.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        Booking b = chunk.get(i);
+                        b.setStatus("CANCELLED");
+                        cancelled.add(b);
+                    }
+                }
+            }
+            return cancelled;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error cancelling bookings: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            CANCEL_BOOKINGS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Finds the flights that were deleted while bookings on them were not cancelled
+     * 
+     * @return IDs of the missing flights
+     * @throws SQLException if a database error occurs
+     */
+    public List<Integer> getOrphanedFlightIds() throws SQLException {
+        String sql = "SELECT DISTINCT b.flightId FROM Bookings b WHERE " + bookedSql("b.status")
+                + " AND NOT EXISTS (SELECT 1 FROM Flights f WHERE f.FlightId = b.flightId) ORDER BY b.flightId";
+        List<Integer> flightIds = new ArrayList<>();
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql);
+             ResultSet rs = pst.executeQuery()) {
+            while (rs.next()) {
+                flightIds.add(rs.getInt(1));
+            }
+            return flightIds;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding bookings on deleted flights: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_ORPHANED_FLIGHT_IDS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Moves bookings to other flights with a batched conditional UPDATE. A booking
+     * that was cancelled or moved in the meantime is left alone and not returned.
+     * The caller controls the transaction.
+     * 
+     * @param moves Bookings and their new flights
+     * @return the moves this call applied, with the bookings' flight updated
+     * @throws SQLException if a database error occurs
+     */
+    public List<Reaccommodation> moveBookings(List<Reaccommodation> moves) throws SQLException {
+        String sql = "UPDATE Bookings SET flightId = ? WHERE id = ? AND flightId = ? AND " + bookedSql("status");
+        List<Reaccommodation> moved = new ArrayList<>(moves.size());
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            for (int from = 0; from < moves.size(); from += batchSize) {
+                List<Reaccommodation> chunk = moves.subList(from, Math.min(from + batchSize, moves.size()));
+                for (Reaccommodation m : chunk) {
+                    pst.setInt(1, m.getToFlightId());
+                    pst.setInt(2, m.getBookingId());
+                    pst.setInt(3, m.getFromFlightId());
+                    pst.addBatch();
+                }
+                int[] counts = pst.executeBatch();
+                for (int i = 0; i < counts.length; i++) {
+                    if (counts[i] > 0) {
+                        Reaccommodation m = chunk.get(i);
+                        m.getBooking().setFlightId(m.getToFlightId());
+                        moved.add(m);
+                    }
+                }
+            }
+            return moved;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error moving bookings: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            MOVE_BOOKINGS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Builds an SQL condition matching the bookings that hold a seat, which is
+     * every booking whose status is not CANCELLED in any letter case
+     *
+     * @param statusColumn Status column, qualified if needed
+     * @return the condition
+     */
+    public static String bookedSql(String statusColumn) {
+        return "(" + statusColumn + " IS NULL OR UPPER(" + statusColumn + ") <> 'CANCELLED')";
+    }
+
+    /**
+     * Maps a database row to a Booking object.
+     * The row must have been selected with {@link #COLUMNS}; each column is read once by index.
+     * The booking date comes from the epoch-day column, falling back to the text column,
+     * and the status is canonicalized through the shared {@link StringDictionary}.
      * 
      * @param rs ResultSet containing booking data
      * @return Booking object
      * @throws SQLException if a database error occurs
      */
-    private Booking mapRow(ResultSet rs) throws SQLException {
+    private static Booking mapRow(ResultSet rs) throws SQLException {
+        double amountPaid = rs.getDouble(COL_AMOUNT_PAID);
+        boolean amountPaidNull = rs.wasNull();
+        int bookingDay = rs.getInt(COL_BOOKING_DAY);
+        LocalDate bookingDate = rs.wasNull() ? DateCodec.parse(rs.getString(COL_BOOKING_DATE)) : DateCodec.fromEpochDay(bookingDay);
         return new Booking(
-                rs.getInt("id"),
-                rs.getInt("passengerId"),
-                rs.getInt("flightId"),
-                rs.getObject("amountPaid") != null ? rs.getDouble("amountPaid") : null,
-                rs.getString("status"),
-                rs.getString("bookingDate") != null ? LocalDate.parse(rs.getString("bookingDate")) : null
+                rs.getInt(COL_ID),
+                rs.getInt(COL_PASSENGER_ID),
+                rs.getInt(COL_FLIGHT_ID),
+                amountPaidNull ? null : amountPaid,
+                StringDictionary.STATUSES.canonicalize(rs.getString(COL_STATUS)),
+                bookingDate
+        );
+    }
+
+    /**
+     * Streams all bookings in columnar batches without materializing Booking objects.
+     * The same batch instance is refilled and handed to the consumer each time it is
+     * full and once more for the remainder; consumers must not keep it.
+     * 
+     * @param batchSize Number of bookings per batch
+     * @param consumer Receives each filled batch
+     * @return the number of bookings streamed
+     * @throws SQLException if a database error occurs
+     */
+    public long streamBookings(int batchSize, Consumer<BookingBatch> consumer) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Bookings";
+        BookingBatch batch = new BookingBatch(batchSize);
+        long count = 0;
+        
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setFetchSize(batchSize);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    appendRow(rs, batch);
+                    count++;
+                    if (batch.isFull()) {
+                        consumer.accept(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (batch.size() > 0) {
+                consumer.accept(batch);
+            }
+            return count;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error streaming bookings: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            STREAM_BOOKINGS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Appends a database row selected with {@link #COLUMNS} to a BookingBatch
+     * 
+     * @param rs ResultSet containing booking data
+     * @param batch Batch to append to
+     * @throws SQLException if a database error occurs
+     */
+    static void appendRow(ResultSet rs, BookingBatch batch) throws SQLException {
+        double amountPaid = rs.getDouble(COL_AMOUNT_PAID);
+        if (rs.wasNull()) {
+            amountPaid = Double.NaN;
+        }
+        int bookingDay = rs.getInt(COL_BOOKING_DAY);
+        if (rs.wasNull()) {
+            LocalDate bookingDate = DateCodec.parse(rs.getString(COL_BOOKING_DATE));
+            bookingDay = bookingDate != null ? DateCodec.toEpochDay(bookingDate) : BookingBatch.NO_DATE;
+        }
+        batch.add(
+                rs.getInt(COL_ID),
+                rs.getInt(COL_PASSENGER_ID),
+                rs.getInt(COL_FLIGHT_ID),
+                amountPaid,
+                rs.getString(COL_STATUS),
+                bookingDay
         );
     }
     // add update, delete, findAll as needed
@@ -0,0 +1,42 @@
+package dao;
+
+/**
+ * JMX view of the connection pool, registered as airline:type=ConnectionPool.
+ * Times are in microseconds.
+ */
+public interface ConnectionPoolMXBean {
+
+    int getMaxPoolSize();
+
+    int getActiveConnections();
+
+    int getIdleConnections();
+
+    /**
+     * @return threads currently blocked waiting for a connection
+     */
+    int getWaitingThreads();
+
+    long getBorrowCount();
+
+    double getBorrowWaitMeanMicros();
+
+    double getBorrowWaitP99Micros();
+
+    double getBorrowWaitMaxMicros();
+
+    long getValidationCount();
+
+    double getValidationMeanMicros();
+
+    long getTimeoutCount();
+
+    long getLeakCount();
+
+    /**
+     * Lists connections currently held longer than the leak threshold
+     *
+     * @return one entry per suspected leak: hold time, borrowing thread and its stack
+     */
+    String[] getSuspectedLeaks();
+}
@@ -1,30 +1,76 @@
 package dao;
 
 import config.AppConfig;
+import metrics.Counter;
+import metrics.JfrEvents;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.concurrent.ArrayBlockingQueue;
+import java.util.Map;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Database connection manager implementing a simple connection pool.
  * Manages database connections efficiently to improve performance and resource usage.
+ * Pool state, borrow waits, validation cost and suspected leaks are exported
+ * over JMX through {@link ConnectionPoolMXBean}.
+ * Pool size, timeouts and SQLite pragmas are read from db.pool.* and
+ * db.pragma.* and follow configuration reloads: the pool shrinks by closing
+ * idle connections, and connections opened under old pragmas are replaced
+ * as they come back to the pool.
  */
-public class DBConnectionManager {
+public class DBConnectionManager implements ConnectionPoolMXBean {
     private static final Logger LOGGER = Logger.getLogger(DBConnectionManager.class.getName());
-    private static final int MAX_POOL_SIZE = 10;
-    private static final int INITIAL_POOL_SIZE = 5;
-    private static final long CONNECTION_TIMEOUT = 10000; // 10 seconds
+    private static final LatencyHistogram GET_CONNECTION_TIME = MetricsRegistry.getInstance().histogram("DBConnectionManager.getConnection");
+    private static final LatencyHistogram RELEASE_CONNECTION_TIME = MetricsRegistry.getInstance().histogram("DBConnectionManager.releaseConnection");
+    private static final LatencyHistogram BORROW_WAIT_TIME = MetricsRegistry.getInstance().histogram("DBConnectionManager.borrowWait");
+    private static final LatencyHistogram VALIDATION_TIME = MetricsRegistry.getInstance().histogram("DBConnectionManager.validation");
+    private static final Counter TIMEOUTS = MetricsRegistry.getInstance().counter("DBConnectionManager.timeouts");
+    private static final Counter LEAKS = MetricsRegistry.getInstance().counter("DBConnectionManager.leaks");
+    private static final String OBJECT_NAME = "airline:type=ConnectionPool";
+    private static final int DEFAULT_MAX_POOL_SIZE = 10;
+    private static final int DEFAULT_INITIAL_POOL_SIZE = 5;
+    private static final long DEFAULT_CONNECTION_TIMEOUT = 10000; // 10 seconds
+    private static final int MAX_POOL_SIZE_LIMIT = 1000;
+    private static final long LEAK_CHECK_PERIOD_MILLIS = 1000;
+    private static final String[] JOURNAL_MODES = {"DELETE", "TRUNCATE", "PERSIST", "MEMORY", "WAL", "OFF"};
+    private static final String[] SYNCHRONOUS_MODES = {"OFF", "NORMAL", "FULL", "EXTRA"};
     
     private static DBConnectionManager instance;
-    private final BlockingQueue<Connection> connectionPool;
-    private final List<Connection> usedConnections = new ArrayList<>();
+    private final BlockingQueue<Connection> connectionPool = new LinkedBlockingQueue<>();
+    private final Map<Connection, Lease> usedConnections = new IdentityHashMap<>();
+    private final Map<Connection, Long> idleSince = new ConcurrentHashMap<>();
+    private final Map<Connection, Integer> pragmaGeneration = new ConcurrentHashMap<>();
+    private final AtomicInteger waitingThreads = new AtomicInteger();
+    /** Connections open for the pool: idle, in use, or passing between the two */
+    private final AtomicInteger openConnections = new AtomicInteger();
+    private volatile int maxPoolSize;
+    private volatile long connectionTimeoutMillis;
+    private volatile long leakThresholdMillis;
+    private volatile long validationIdleNanos;
+    private volatile List<String> pragmas;
+    private volatile int currentPragmaGeneration;
+    private ScheduledExecutorService leakDetector;
     
     /**
      * Private constructor to initialize the connection pool.
@@ -32,8 +78,92 @@ public class DBConnectionManager {
      * @throws SQLException if there is an error initializing the connection pool
      */
     private DBConnectionManager() throws SQLException {
-        connectionPool = new ArrayBlockingQueue<>(MAX_POOL_SIZE);
+        readSettings();
         initializeConnectionPool();
+        MetricsRegistry metrics = MetricsRegistry.getInstance();
+        metrics.gauge("DBConnectionManager.idle", connectionPool::size);
+        metrics.gauge("DBConnectionManager.active", this::getActiveConnections);
+        metrics.gauge("DBConnectionManager.waiting", waitingThreads::get);
+        registerMBean();
+        startLeakDetector();
+        AppConfig.addListener(keys -> {
+            for (String key : keys) {
+                if (key.startsWith("db.pool.") || key.startsWith("db.pragma.")) {
+                    reconfigure();
+                    return;
+                }
+            }
+        });
+    }
+
+    /**
+     * Reads the pool settings from the configuration.
+     *
+     * @return true if the pragmas differ from the ones previously read
+     */
+    private boolean readSettings() {
+        maxPoolSize = AppConfig.getInt("db.pool.max.size", DEFAULT_MAX_POOL_SIZE, 1, MAX_POOL_SIZE_LIMIT);
+        connectionTimeoutMillis = AppConfig.getLong("db.pool.timeout.ms", DEFAULT_CONNECTION_TIMEOUT, 1, Long.MAX_VALUE);
+        leakThresholdMillis = AppConfig.getLong("db.pool.leak.threshold.ms", 60000, 0, Long.MAX_VALUE);
+        validationIdleNanos = TimeUnit.MILLISECONDS.toNanos(
+                AppConfig.getLong("db.pool.validation.idle.ms", 30000, 0, Long.MAX_VALUE));
+
+        List<String> statements = new ArrayList<>();
+        String journalMode = AppConfig.getChoice("db.pragma.journal_mode", "", JOURNAL_MODES);
+        if (!journalMode.isEmpty()) {
+            statements.add("PRAGMA journal_mode = " + journalMode);
+        }
+        String synchronous = AppConfig.getChoice("db.pragma.synchronous", "", SYNCHRONOUS_MODES);
+        if (!synchronous.isEmpty()) {
+            statements.add("PRAGMA synchronous = " + synchronous);
+        }
+        if (AppConfig.hasProperty("db.pragma.cache_size")) {
+            // Negative values are KiB, positive values pages
+            statements.add("PRAGMA cache_size = "
+                    + AppConfig.getInt("db.pragma.cache_size", -2000, -1_000_000, 1_000_000));
+        }
+        if (AppConfig.hasProperty("db.pragma.busy_timeout")) {
+            statements.add("PRAGMA busy_timeout = " + AppConfig.getInt("db.pragma.busy_timeout", 0, 0, 600_000));
+        }
+        if (AppConfig.hasProperty("db.pragma.mmap_size")) {
+            statements.add("PRAGMA mmap_size = " + AppConfig.getLong("db.pragma.mmap_size", 0, 0, Long.MAX_VALUE));
+        }
+        boolean changed = pragmas != null && !pragmas.equals(statements);
+        pragmas = statements;
+        return changed;
+    }
+
+    /**
+     * Applies reloaded pool settings. Idle connections beyond the new maximum
+     * are closed, waiting threads get new connections if the maximum grew,
+     * and changed pragmas retire every existing connection.
+     */
+    private synchronized void reconfigure() {
+        if (readSettings()) {
+            currentPragmaGeneration++;
+            for (Connection connection = connectionPool.poll(); connection != null; connection = connectionPool.poll()) {
+                discard(connection);
+            }
+        }
+        while (openConnections.get() > maxPoolSize) {
+            Connection idle = connectionPool.poll();
+            if (idle == null) {
+                break;
+            }
+            discard(idle);
+        }
+        int room = maxPoolSize - openConnections.get();
+        for (int i = 0; i < Math.min(room, waitingThreads.get()); i++) {
+            try {
+                connectionPool.offer(createConnection());
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error creating connection after resize", e);
+                break;
+            }
+        }
+        startLeakDetector();
+        LOGGER.info("Connection pool reconfigured: max " + maxPoolSize + " connections, timeout "
+                + connectionTimeoutMillis + "ms, " + pragmas.size() + " pragmas");
     }
     
     /**
@@ -50,19 +180,26 @@ public class DBConnectionManager {
     }
     
     /**
-     * Initializes the connection pool with a set number of connections.
+     * Initializes the connection pool with a set number of connections
+     * and applies any pending schema migrations.
      * 
      * @throws SQLException if there is an error creating the connections
      */
     private void initializeConnectionPool() throws SQLException {
-        for (int i = 0; i < INITIAL_POOL_SIZE; i++) {
+        Connection first = createConnection();
+        // Bring the schema up to date before any connection is handed out
+        new SchemaMigrator().migrate(first);
+        connectionPool.offer(first);
+        int initialSize = Math.min(maxPoolSize,
+                AppConfig.getInt("db.pool.initial.size", DEFAULT_INITIAL_POOL_SIZE, 1, MAX_POOL_SIZE_LIMIT));
+        for (int i = 1; i < initialSize; i++) {
             connectionPool.offer(createConnection());
         }
-        LOGGER.info("Connection pool initialized with " + INITIAL_POOL_SIZE + " connections");
+        LOGGER.info("Connection pool initialized with " + initialSize + " connections");
     }
     
     /**
-     * Creates a new database connection.
+     * Creates a new database connection with the configured pragmas, wrapped for SQL profiling.
      * 
      * @return a new database connection
      * @throws SQLException if there is an error creating the connection
@@ -74,8 +211,23 @@ public class DBConnectionManager {
         try {
             // Ensure SQLite JDBC driver is loaded
             Class.forName("org.sqlite.JDBC");
-            Connection connection = DriverManager.getConnection(url);
-            LOGGER.fine("Created new database connection to " + url);
+            Connection raw = DriverManager.getConnection(url);
+            int generation = currentPragmaGeneration;
+            try (Statement st = raw.createStatement()) {
+                for (String pragma : pragmas) {
+                    st.execute(pragma);
+                }
+            } catch (SQLException e) {
+                raw.close();
+                throw e;
+            }
+            Connection connection = SqlProfiler.getInstance().wrap(raw);
+            openConnections.incrementAndGet();
+            idleSince.put(connection, System.nanoTime());
+            pragmaGeneration.put(connection, generation);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine("Created new database connection to " + url);
+            }
             return connection;
         } catch (ClassNotFoundException e) {
             LOGGER.log(Level.SEVERE, "SQLite JDBC driver not found", e);
@@ -85,54 +237,113 @@ public class DBConnectionManager {
     
     /**
      * Gets a connection from the pool or creates a new one if needed.
+     * When the pool is exhausted the caller waits up to the connection timeout
+     * without holding the manager's lock, so connections can still be released.
+     * Only connections idle longer than db.pool.validation.idle.ms are validated.
+     * A connection is registered as in use under the same lock that decides
+     * whether a new one may be opened, so the pool never exceeds its maximum size.
      * 
      * @return a database connection
      * @throws SQLException if there is an error getting a connection
      */
-    public synchronized Connection getConnection() throws SQLException {
+    public Connection getConnection() throws SQLException {
         Connection connection;
         
+        long start = System.nanoTime();
+        Object event = JfrEvents.beginBorrow();
+        boolean waited = false;
+        boolean validated = false;
         try {
-            // Try to get a connection from the pool with timeout
-            connection = connectionPool.poll();
+            connection = acquireOrCreate(new Lease(leakThresholdMillis > 0));
             
-            // If no connection is available and we haven't reached max size, create a new one
             if (connection == null) {
-                if (usedConnections.size() < MAX_POOL_SIZE) {
-                    connection = createConnection();
-                    LOGGER.fine("Created new connection as pool was empty");
-                } else {
-                    LOGGER.warning("Connection pool exhausted, waiting for a connection to be returned");
-                    // Wait for a connection to be returned to the pool
-                    try {
-                        connection = connectionPool.take();
-                    } catch (InterruptedException e) {
-                        Thread.currentThread().interrupt();
-                        throw new SQLException("Interrupted while waiting for a connection", e);
-                    }
+                LOGGER.warning("Connection pool exhausted, waiting for a connection to be returned");
+                // Wait for a connection to be returned to the pool
+                waited = true;
+                waitingThreads.incrementAndGet();
+                try {
+                    connection = connectionPool.poll(connectionTimeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLException("Interrupted while waiting for a connection", e);
+                } finally {
+                    waitingThreads.decrementAndGet();
+                }
+                if (connection == null) {
+                    TIMEOUTS.increment();
+                    throw new SQLException("Timed out waiting for a database connection");
+                }
+                synchronized (this) {
+                    usedConnections.put(connection, new Lease(leakThresholdMillis > 0));
                 }
             }
+            BORROW_WAIT_TIME.recordSince(start);
             
-            // Validate connection before returning
-            if (!isConnectionValid(connection)) {
+            // Validate connections that have been idle long enough to have gone stale
+            validated = needsValidation(connection);
+            if (isRetired(connection)) {
+                connection = replace(connection);
+            } else if (validated && !isConnectionValid(connection)) {
                 LOGGER.warning("Connection validation failed, creating a new connection");
-                connection = createConnection();
+                connection = replace(connection);
             }
-            
-            usedConnections.add(connection);
             return connection;
         } catch (Exception e) {
             LOGGER.log(Level.SEVERE, "Error getting database connection", e);
             throw new SQLException("Error getting database connection", e);
+        } finally {
+            GET_CONNECTION_TIME.recordSince(start);
+            if (event != null) {
+                JfrEvents.endBorrow(event, waited, validated, getActiveConnections(), waitingThreads.get());
+            }
         }
     }
     
+    /**
+     * Takes an idle connection, or creates one if the pool has not reached its
+     * maximum size, and registers it as in use.
+     * 
+     * @param lease Borrow record for the connection
+     * @return a connection, or null if the caller has to wait for one
+     * @throws SQLException if there is an error creating a connection
+     */
+    private synchronized Connection acquireOrCreate(Lease lease) throws SQLException {
+        // Try to get a connection from the pool
+        Connection connection = connectionPool.poll();
+        
+        // If no connection is available and we haven't reached max size, create a new one
+        if (connection == null && openConnections.get() < maxPoolSize) {
+            connection = createConnection();
+            LOGGER.fine("Created new connection as pool was empty");
+        }
+        if (connection != null) {
+            usedConnections.put(connection, lease);
+        }
+        return connection;
+    }
+
+    /**
+     * Replaces a borrowed connection with a new one under the same lease
+     * 
+     * @param connection the stale or retired connection
+     * @return the new connection
+     * @throws SQLException if there is an error creating the connection
+     */
+    private synchronized Connection replace(Connection connection) throws SQLException {
+        Lease lease = usedConnections.remove(connection);
+        discard(connection);
+        Connection fresh = createConnection();
+        usedConnections.put(fresh, lease);
+        return fresh;
+    }
+    
     /**
      * Releases a connection back to the pool.
      * 
      * @param connection the connection to release
      */
     public synchronized void releaseConnection(Connection connection) {
+        long start = System.nanoTime();
         if (connection != null) {
             usedConnections.remove(connection);
             try {
@@ -140,12 +351,22 @@ public class DBConnectionManager {
                 if (!connection.getAutoCommit()) {
                     connection.setAutoCommit(true);
                 }
-                connectionPool.offer(connection);
-                LOGGER.fine("Connection returned to pool");
+                if (openConnections.get() > maxPoolSize) {
+                    // The pool has shrunk below the connections in circulation
+                    discard(connection);
+                } else if (isRetired(connection)) {
+                    // Opened under pragmas that have since changed
+                    discard(connection);
+                    connectionPool.offer(createConnection());
+                } else {
+                    idleSince.put(connection, System.nanoTime());
+                    connectionPool.offer(connection);
+                    LOGGER.fine("Connection returned to pool");
+                }
             } catch (SQLException e) {
                 LOGGER.log(Level.WARNING, "Error resetting connection state", e);
                 // If we can't reset the connection, close it and create a new one
-                closeConnection(connection);
+                discard(connection);
                 try {
                     connectionPool.offer(createConnection());
                 } catch (SQLException ex) {
@@ -153,8 +374,40 @@ public class DBConnectionManager {
                 }
             }
         }
+        RELEASE_CONNECTION_TIME.recordSince(start);
+    }
+
+    /**
+     * Decides whether a connection taken from the pool must be validated.
+     * Validation costs a round trip, so it is skipped for connections that
+     * were in use or created within the idle threshold.
+     * 
+     * @param connection the connection to check
+     * @return true if the connection has been idle longer than the threshold
+     */
+    private boolean needsValidation(Connection connection) {
+        Long since = idleSince.remove(connection);
+        return since == null || System.nanoTime() - since > validationIdleNanos;
     }
     
+    private boolean isRetired(Connection connection) {
+        Integer generation = pragmaGeneration.get(connection);
+        return generation != null && generation != currentPragmaGeneration;
+    }
+
+    /**
+     * Closes a connection and forgets its pool bookkeeping.
+     * 
+     * @param connection the connection to discard
+     */
+    private void discard(Connection connection) {
+        idleSince.remove(connection);
+        if (pragmaGeneration.remove(connection) != null) {
+            openConnections.decrementAndGet();
+        }
+        closeConnection(connection);
+    }
+
     /**
      * Checks if a connection is valid.
      * 
@@ -162,15 +415,18 @@ public class DBConnectionManager {
      * @return true if the connection is valid, false otherwise
      */
     private boolean isConnectionValid(Connection connection) {
+        long start = System.nanoTime();
         try {
             if (connection == null || connection.isClosed()) {
                 return false;
             }
             // Test the connection with a simple query
-            return connection.isValid((int) (CONNECTION_TIMEOUT / 1000));
+            return connection.isValid((int) Math.max(1, connectionTimeoutMillis / 1000));
         } catch (SQLException e) {
             LOGGER.log(Level.WARNING, "Error validating connection", e);
             return false;
+        } finally {
+            VALIDATION_TIME.recordSince(start);
         }
     }
     
@@ -196,7 +452,7 @@ public class DBConnectionManager {
      */
     public synchronized void closeAllConnections() {
         // Close used connections
-        for (Connection connection : usedConnections) {
+        for (Connection connection : usedConnections.keySet()) {
             closeConnection(connection);
         }
         usedConnections.clear();
@@ -206,7 +462,161 @@ public class DBConnectionManager {
             closeConnection(connection);
         }
         connectionPool.clear();
+        idleSince.clear();
+        pragmaGeneration.clear();
+        openConnections.set(0);
         
         LOGGER.info("All database connections closed");
     }
+
+    /**
+     * Registers the pool with the platform MBean server as airline:type=ConnectionPool
+     */
+    private void registerMBean() {
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Error registering connection pool MBean: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Starts a daemon thread that reports connections held longer than
+     * db.pool.leak.threshold.ms, once per borrow, with the borrower's stack.
+     * A threshold of 0 disables leak detection; the thread is only started
+     * once a threshold is set.
+     */
+    private synchronized void startLeakDetector() {
+        if (leakThresholdMillis <= 0 || leakDetector != null) {
+            return;
+        }
+        leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "connection-leak-detector");
+            t.setDaemon(true);
+            return t;
+        });
+        leakDetector.scheduleAtFixedRate(this::detectLeaks, LEAK_CHECK_PERIOD_MILLIS, LEAK_CHECK_PERIOD_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    private void detectLeaks() {
+        if (leakThresholdMillis <= 0) {
+            return;
+        }
+        for (Lease lease : suspectedLeaks()) {
+            if (!lease.reported) {
+                lease.reported = true;
+                LEAKS.increment();
+                LOGGER.log(Level.WARNING, "Connection held for " + lease.heldMillis() + "ms by thread "
+                        + lease.thread + ", possible leak; borrowed at:", lease.borrowedAt);
+            }
+        }
+    }
+
+    private synchronized List<Lease> suspectedLeaks() {
+        List<Lease> leaks = new ArrayList<>();
+        for (Lease lease : usedConnections.values()) {
+            if (lease.heldMillis() > leakThresholdMillis) {
+                leaks.add(lease);
+            }
+        }
+        return leaks;
+    }
+
+    @Override
+    public int getMaxPoolSize() {
+        return maxPoolSize;
+    }
+
+    @Override
+    public synchronized int getActiveConnections() {
+        return usedConnections.size();
+    }
+
+    @Override
+    public int getIdleConnections() {
+        return connectionPool.size();
+    }
+
+    @Override
+    public int getWaitingThreads() {
+        return waitingThreads.get();
+    }
+
+    @Override
+    public long getBorrowCount() {
+        return BORROW_WAIT_TIME.getCount();
+    }
+
+    @Override
+    public double getBorrowWaitMeanMicros() {
+        return BORROW_WAIT_TIME.getMean() / 1000.0;
+    }
+
+    @Override
+    public double getBorrowWaitP99Micros() {
+        return BORROW_WAIT_TIME.getValueAtPercentile(99) / 1000.0;
+    }
+
+    @Override
+    public double getBorrowWaitMaxMicros() {
+        return BORROW_WAIT_TIME.getMax() / 1000.0;
+    }
+
+    @Override
+    public long getValidationCount() {
+        return VALIDATION_TIME.getCount();
+    }
+
+    @Override
+    public double getValidationMeanMicros() {
+        return VALIDATION_TIME.getMean() / 1000.0;
+    }
+
+    @Override
+    public long getTimeoutCount() {
+        return TIMEOUTS.get();
+    }
+
+    @Override
+    public long getLeakCount() {
+        return LEAKS.get();
+    }
+
+    @Override
+    public String[] getSuspectedLeaks() {
+        List<Lease> leaks = suspectedLeaks();
+        String[] result = new String[leaks.size()];
+        for (int i = 0; i < result.length; i++) {
+            Lease lease = leaks.get(i);
+            StringWriter trace = new StringWriter();
+            if (lease.borrowedAt != null) {
+                lease.borrowedAt.printStackTrace(new PrintWriter(trace));
+            }
+            result[i] = "held " + lease.heldMillis() + "ms by " + lease.thread + "\n" + trace;
+        }
+        return result;
+    }
+
+    /**
+     * Borrow record of a connection in use
+     */
+    private static final class Lease {
+        final long borrowedAtNanos = System.nanoTime();
+        final String thread = Thread.currentThread().getName();
+        final Throwable borrowedAt;
+        volatile boolean reported;
+
+        Lease(boolean captureStack) {
+            // Capturing the stack costs a few microseconds, so only when leaks are tracked
+            this.borrowedAt = captureStack ? new Throwable("Connection borrowed here") : null;
+        }
+
+        long heldMillis() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - borrowedAtNanos);
+        }
+    }
 }
\ No newline at end of file
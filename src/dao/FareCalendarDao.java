@@ -0,0 +1,77 @@
+package dao;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.FareDay;
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for the fare calendar.
+ * RouteDayFares holds the lowest price and the seats left per route and
+ * departure day. Triggers on Flights keep it current on every insert, update
+ * and delete, including seat changes, so reading a calendar is one primary key
+ * range scan.
+ */
+public class FareCalendarDao {
+    private static final Logger LOGGER = Logger.getLogger(FareCalendarDao.class.getName());
+    private static final LatencyHistogram GET_FARE_DAYS_TIME = MetricsRegistry.getInstance().histogram("FareCalendarDao.getFareDays");
+
+    private final Connection connection;
+
+    /**
+     * Constructs a FareCalendarDao with a database connection
+     *
+     * @param connection Database connection
+     */
+    public FareCalendarDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Gets the days of a route that have flights
+     *
+     * @param origin Origin city
+     * @param destination Destination city
+     * @param from First departure date, inclusive
+     * @param to Last departure date, inclusive
+     * @return days with at least one flight, in date order
+     * @throws SQLException if a database error occurs
+     */
+    public List<FareDay> getFareDays(String origin, String destination, LocalDate from, LocalDate to) throws SQLException {
+        String sql = "SELECT deptDay, minPrice, flights, seats FROM RouteDayFares "
+                + "WHERE Ffrom = ? AND Fto = ? AND deptDay BETWEEN ? AND ? ORDER BY deptDay";
+        List<FareDay> days = new ArrayList<>();
+
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, origin);
+            pst.setString(2, destination);
+            pst.setInt(3, DateCodec.toEpochDay(from));
+            pst.setInt(4, DateCodec.toEpochDay(to));
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate date = DateCodec.fromEpochDay(rs.getInt(1));
+                    double price = rs.getDouble(2);
+                    Double lowestPrice = rs.wasNull() ? null : price;
+                    days.add(new FareDay(date, lowestPrice, rs.getInt(3), rs.getInt(4)));
+                }
+            }
+            return days;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving fare calendar of " + origin + "-" + destination + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_FARE_DAYS_TIME.recordSince(start);
+        }
+    }
+}
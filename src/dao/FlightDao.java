@@ -1,9 +1,16 @@
 package dao;
 
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Flight;
+import model.FlightBatch;
+import model.FlightQuery;
+import util.DateCodec;
+import util.StringDictionary;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -13,6 +20,44 @@ import java.util.logging.Logger;
  */
 public class FlightDao implements IFlightDao {
     private static final Logger LOGGER = Logger.getLogger(FlightDao.class.getName());
+    private static final LatencyHistogram ADD_FLIGHT_TIME = MetricsRegistry.getInstance().histogram("FlightDao.addFlight");
+    private static final LatencyHistogram ADD_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.addFlights");
+    private static final LatencyHistogram GET_FLIGHT_BY_ID_TIME = MetricsRegistry.getInstance().histogram("FlightDao.getFlightById");
+    private static final LatencyHistogram GET_ALL_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.getAllFlights");
+    private static final LatencyHistogram UPDATE_FLIGHT_TIME = MetricsRegistry.getInstance().histogram("FlightDao.updateFlight");
+    private static final LatencyHistogram DELETE_FLIGHT_TIME = MetricsRegistry.getInstance().histogram("FlightDao.deleteFlight");
+    private static final LatencyHistogram SEARCH_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.searchFlights");
+    private static final LatencyHistogram ADJUST_SEATS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.adjustSeats");
+    private static final LatencyHistogram TAKE_FREE_SEATS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.takeFreeSeats");
+    private static final LatencyHistogram FIND_TOP_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.findTopFlights");
+    private static final LatencyHistogram DEDUCT_BOOKED_SEATS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.deductBookedSeats");
+    private static final LatencyHistogram STREAM_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightDao.streamFlights");
+
+    /** Column projection read by {@link #ROW_MAPPER}, in column index order */
+    public static final String COLUMNS = "FlightId, FCode, Ffrom, Fto, deptDate, deptTime, arrTime, Seats, price, deptDay";
+    private static final int COL_ID = 1;
+    private static final int COL_CODE = 2;
+    private static final int COL_FROM = 3;
+    private static final int COL_TO = 4;
+    private static final int COL_DEPT_DATE = 5;
+    private static final int COL_DEPT_TIME = 6;
+    private static final int COL_ARR_TIME = 7;
+    private static final int COL_SEATS = 8;
+    private static final int COL_PRICE = 9;
+    private static final int COL_DEPT_DAY = 10;
+
+    /**
+     * Extra seats a flight may be sold beyond capacity, for a statement on Flights.
+     * Both lookups are primary key searches.
+     */
+    static final String OVERBOOKING_LIMIT = "COALESCE("
+            + "(SELECT o.extraSeats FROM OverbookingLimits o WHERE o.flightId = Flights.FlightId), "
+            + "(SELECT r.extraSeats FROM RouteOverbookingLimits r WHERE r.Ffrom = Flights.Ffrom AND r.Fto = Flights.Fto), "
+            + "0)";
+
+    /** Maps a row selected with {@link #COLUMNS} to a Flight */
+    public static final RowMapper<Flight> ROW_MAPPER = FlightDao::mapRow;
+
     private final Connection connection;
 
     /**
@@ -32,23 +77,74 @@ public class FlightDao implements IFlightDao {
      * @throws SQLException if a database error occurs
      */
     public boolean addFlight(Flight f) throws SQLException {
-        String sql = "INSERT INTO Flights (FlightId, FCode, Ffrom, Fto, deptDate, deptTime, arrTime, Seats, price)\n"
-                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        String sql = "INSERT INTO Flights (FlightId, FCode, Ffrom, Fto, deptDate, deptTime, arrTime, Seats, price, deptDay)\n"
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql)) {
             pst.setInt(1, f.getId());
             pst.setString(2, f.getCode());
             pst.setString(3, f.getFromCity());
             pst.setString(4, f.getToCity());
-            pst.setString(5, f.getDepartureDate() != null ? f.getDepartureDate().toString() : null);
+            pst.setString(5, DateCodec.format(f.getDepartureDate()));
             pst.setString(6, f.getDepartureTime());
             pst.setString(7, f.getArrivalTime());
             pst.setInt(8, f.getSeatCount());
             pst.setDouble(9, f.getPrice());
+            if (f.getDepartureDate() != null) pst.setInt(10, DateCodec.toEpochDay(f.getDepartureDate()));
+            else pst.setNull(10, Types.INTEGER);
             int rowsAffected = pst.executeUpdate();
             return rowsAffected > 0;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error adding flight: " + e.getMessage(), e);
             throw e;
+        } finally {
+            ADD_FLIGHT_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Adds flights with a batched INSERT sent every db.batch.size rows, for bulk loading.
+     * The caller controls the transaction; wrap large loads in one.
+     *
+     * @param flights Flights to be added; each needs an ID
+     * @return number of rows inserted
+     * @throws SQLException if a database error occurs
+     */
+    public int addFlights(List<Flight> flights) throws SQLException {
+        String sql = "INSERT INTO Flights (FlightId, FCode, Ffrom, Fto, deptDate, deptTime, arrTime, Seats, price, deptDay)\n"
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int inserted = 0;
+            int pending = 0;
+            for (Flight f : flights) {
+                pst.setInt(1, f.getId());
+                pst.setString(2, f.getCode());
+                pst.setString(3, f.getFromCity());
+                pst.setString(4, f.getToCity());
+                pst.setString(5, DateCodec.format(f.getDepartureDate()));
+                pst.setString(6, f.getDepartureTime());
+                pst.setString(7, f.getArrivalTime());
+                pst.setInt(8, f.getSeatCount());
+                pst.setDouble(9, f.getPrice());
+                if (f.getDepartureDate() != null) pst.setInt(10, DateCodec.toEpochDay(f.getDepartureDate()));
+                else pst.setNull(10, Types.INTEGER);
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    inserted += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += Batches.execute(pst);
+            }
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding flights: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_FLIGHTS_TIME.recordSince(start);
         }
     }
 
@@ -60,7 +156,8 @@ public class FlightDao implements IFlightDao {
      * @throws SQLException if a database error occurs
      */
     public Flight getFlightById(int id) throws SQLException {
-        String sql = "SELECT * FROM Flights WHERE FlightId = ?";
+        String sql = "SELECT " + COLUMNS + " FROM Flights WHERE FlightId = ?";
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql)) {
             pst.setInt(1, id);
             try (ResultSet rs = pst.executeQuery()) {
@@ -72,27 +169,36 @@ public class FlightDao implements IFlightDao {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving flight with ID " + id + ": " + e.getMessage(), e);
             throw e;
+        } finally {
+            GET_FLIGHT_BY_ID_TIME.recordSince(start);
         }
     }
 
     /**
-     * Maps a database row to a Flight object
+     * Maps a database row to a Flight object.
+     * The row must have been selected with {@link #COLUMNS}; each column is read once by index.
+     * The departure date comes from the epoch-day column, falling back to the
+     * text column for rows whose text could not be converted. Cities are
+     * canonicalized through the shared {@link StringDictionary}. An overbooked
+     * flight keeps its negative seat count, so capacity and load stay exact.
      * 
      * @param rs ResultSet containing flight data
      * @return Flight object
      * @throws SQLException if a database error occurs
      */
-    private Flight mapRow(ResultSet rs) throws SQLException {
+    private static Flight mapRow(ResultSet rs) throws SQLException {
+        int deptDay = rs.getInt(COL_DEPT_DAY);
+        LocalDate deptDate = rs.wasNull() ? DateCodec.parse(rs.getString(COL_DEPT_DATE)) : DateCodec.fromEpochDay(deptDay);
         return new Flight(
-                rs.getInt("FlightId"),
-                rs.getString("FCode"),
-                rs.getString("Ffrom"),
-                rs.getString("Fto"),
-                rs.getString("deptDate") != null ? LocalDate.parse(rs.getString("deptDate")) : null,
-                rs.getString("deptTime"),
-                rs.getString("arrTime"),
-                rs.getInt("Seats"),
-                rs.getDouble("price")
+                rs.getInt(COL_ID),
+                rs.getString(COL_CODE),
+                StringDictionary.CITIES.canonicalize(rs.getString(COL_FROM)),
+                StringDictionary.CITIES.canonicalize(rs.getString(COL_TO)),
+                deptDate,
+                rs.getString(COL_DEPT_TIME),
+                rs.getString(COL_ARR_TIME),
+                rs.getInt(COL_SEATS),
+                rs.getDouble(COL_PRICE)
         );
     }
     
@@ -103,9 +209,10 @@ public class FlightDao implements IFlightDao {
      * @throws SQLException if a database error occurs
      */
     public List<Flight> getAllFlights() throws SQLException {
-        String sql = "SELECT * FROM Flights";
+        String sql = "SELECT " + COLUMNS + " FROM Flights";
         List<Flight> flights = new ArrayList<>();
         
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql);
              ResultSet rs = pst.executeQuery()) {
             
@@ -116,7 +223,317 @@ public class FlightDao implements IFlightDao {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving all flights: " + e.getMessage(), e);
             throw e;
+        } finally {
+            GET_ALL_FLIGHTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Updates an existing flight's schedule, route and price.
+     * The seat count is not written: it is the seats left, which bookings and
+     * cancellations change through {@link #adjustSeats}, so saving an edited
+     * flight cannot undo them.
+     * 
+     * @param f Flight with its new values; matched by ID
+     * @return true if the flight was updated, false if it does not exist
+     * @throws SQLException if a database error occurs
+     */
+    public boolean updateFlight(Flight f) throws SQLException {
+        String sql = "UPDATE Flights SET FCode = ?, Ffrom = ?, Fto = ?, deptDate = ?, deptTime = ?, arrTime = ?,"
+                + " price = ?, deptDay = ? WHERE FlightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, f.getCode());
+            pst.setString(2, f.getFromCity());
+            pst.setString(3, f.getToCity());
+            pst.setString(4, DateCodec.format(f.getDepartureDate()));
+            pst.setString(5, f.getDepartureTime());
+            pst.setString(6, f.getArrivalTime());
+            pst.setDouble(7, f.getPrice());
+            if (f.getDepartureDate() != null) pst.setInt(8, DateCodec.toEpochDay(f.getDepartureDate()));
+            else pst.setNull(8, Types.INTEGER);
+            pst.setInt(9, f.getId());
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating flight with ID " + f.getId() + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            UPDATE_FLIGHT_TIME.recordSince(start);
         }
     }
-    // ... Add update, delete methods
+
+    /**
+     * Deletes a flight
+     * 
+     * @param id Flight ID
+     * @return true if the flight was deleted, false if it does not exist
+     * @throws SQLException if a database error occurs
+     */
+    public boolean deleteFlight(int id) throws SQLException {
+        String sql = "DELETE FROM Flights WHERE FlightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, id);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error deleting flight with ID " + id + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            DELETE_FLIGHT_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Searches flights on a route departing on a given date.
+     * Served by the (Ffrom, Fto, deptDay) index.
+     * 
+     * @param origin Origin city
+     * @param destination Destination city
+     * @param departureDate Departure date
+     * @return List of matching flights
+     * @throws SQLException if a database error occurs
+     */
+    public List<Flight> searchFlights(String origin, String destination, LocalDate departureDate) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Flights WHERE Ffrom = ? AND Fto = ? AND deptDay = ?";
+        List<Flight> flights = new ArrayList<>();
+        
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, origin);
+            pst.setString(2, destination);
+            pst.setInt(3, DateCodec.toEpochDay(departureDate));
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    flights.add(mapRow(rs));
+                }
+                return flights;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error searching flights: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            SEARCH_FLIGHTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Finds the first flights matching a query in the query's order.
+     * Ordering and limit are pushed down as ORDER BY ... LIMIT: the origin
+     * (and destination) narrow the scan through the (Ffrom, Fto, deptDay)
+     * index, and SQLite's sorter only keeps the best limit rows, so the cost is
+     * O(n log k) in the matching flights and only k rows are mapped.
+     * Departures within a day are ordered by the trigger-maintained deptMinute
+     * column, since the deptTime text is 12-hour and does not sort by time.
+     * Ties are broken by flight ID so pages are stable.
+     * 
+     * @param query Criteria, ordering and limit
+     * @return at most query.getLimit() flights
+     * @throws SQLException if a database error occurs
+     */
+    public List<Flight> findTopFlights(FlightQuery query) throws SQLException {
+        StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM Flights WHERE Ffrom = ?");
+        if (query.getDestination() != null) sql.append(" AND Fto = ?");
+        if (query.getFromDate() != null) sql.append(" AND deptDay >= ?");
+        if (query.getToDate() != null) sql.append(" AND deptDay <= ?");
+        if (query.getMinSeats() > 0) sql.append(" AND Seats >= ?");
+        switch (query.getOrder()) {
+            case PRICE:
+                sql.append(" ORDER BY price, FlightId");
+                break;
+            case DEPARTURE:
+                sql.append(" ORDER BY deptDay, deptMinute, FlightId");
+                break;
+            case SEATS_LEFT:
+                sql.append(" ORDER BY Seats DESC, FlightId");
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported order: " + query.getOrder());
+        }
+        sql.append(" LIMIT ?");
+        List<Flight> flights = new ArrayList<>(Math.min(query.getLimit(), 1024));
+
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql.toString())) {
+            int index = 1;
+            pst.setString(index++, query.getOrigin());
+            if (query.getDestination() != null) pst.setString(index++, query.getDestination());
+            if (query.getFromDate() != null) pst.setInt(index++, DateCodec.toEpochDay(query.getFromDate()));
+            if (query.getToDate() != null) pst.setInt(index++, DateCodec.toEpochDay(query.getToDate()));
+            if (query.getMinSeats() > 0) pst.setInt(index++, query.getMinSeats());
+            pst.setInt(index, query.getLimit());
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    flights.add(mapRow(rs));
+                }
+                return flights;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding top flights: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            FIND_TOP_FLIGHTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Adds a delta to a flight's seat count in one conditional UPDATE.
+     * Taking seats is skipped when it would take the count below minus the
+     * flight's overbooking limit, so concurrent bookings cannot oversell past
+     * it; releasing seats always succeeds. The limit is read in the same
+     * statement: the flight's row in OverbookingLimits, else its route's row
+     * in RouteOverbookingLimits, else zero.
+     *
+     * @param flightId Flight ID
+     * @param delta Seats to add; negative to take seats
+     * @return true if the count was changed, false if the flight is missing or sold out
+     * @throws SQLException if a database error occurs
+     */
+    public boolean adjustSeats(int flightId, int delta) throws SQLException {
+        return adjustSeats(flightId, delta, 0);
+    }
+
+    /**
+     * Adds a delta to a flight's seat count, leaving some seats untouched.
+     * Taking seats is skipped when it would leave fewer than the reserved
+     * seats above minus the overbooking limit; releasing seats always succeeds.
+     *
+     * @param flightId Flight ID
+     * @param delta Seats to add; negative to take seats
+     * @param reserved Seats that must stay available, such as seats held for other passengers
+     * @return true if the count was changed, false if the flight is missing or sold out
+     * @throws SQLException if a database error occurs
+     */
+    public boolean adjustSeats(int flightId, int delta, int reserved) throws SQLException {
+        String sql = "UPDATE Flights SET Seats = Seats + ? WHERE FlightId = ? AND (? >= 0 OR Seats + ? - ? >= -"
+                + OVERBOOKING_LIMIT + ")";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, delta);
+            pst.setInt(2, flightId);
+            pst.setInt(3, delta);
+            pst.setInt(4, delta);
+            pst.setInt(5, reserved);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adjusting seats of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADJUST_SEATS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Takes seats only while the flight has that many unsold seats left.
+     * Unlike {@link #adjustSeats(int, int)} this never dips into the
+     * overbooking limit, for callers that planned against physical seats.
+     *
+     * @param flightId Flight ID
+     * @param seats Seats to take
+     * @return true if the seats were taken, false if the flight is missing or has fewer seats left
+     * @throws SQLException if a database error occurs
+     */
+    public boolean takeFreeSeats(int flightId, int seats) throws SQLException {
+        String sql = "UPDATE Flights SET Seats = Seats - ? WHERE FlightId = ? AND Seats >= ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, seats);
+            pst.setInt(2, flightId);
+            pst.setInt(3, seats);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error taking seats of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            TAKE_FREE_SEATS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Takes the seats of every booking that holds one from its flight's seat
+     * count, for bookings inserted in bulk without going through adjustSeats.
+     * The caller controls the transaction.
+     *
+     * @return number of flights updated
+     * @throws SQLException if a database error occurs
+     */
+    public int deductBookedSeats() throws SQLException {
+        String sql = "UPDATE Flights SET Seats = Seats - (SELECT COUNT(*) FROM Bookings b"
+                + " WHERE b.flightId = Flights.FlightId AND " + BookingDao.bookedSql("b.status") + ")"
+                + " WHERE FlightId IN (SELECT flightId FROM Bookings WHERE " + BookingDao.bookedSql("status") + ")";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            return pst.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error deducting booked seats: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            DEDUCT_BOOKED_SEATS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Streams all flights in columnar batches without materializing Flight objects.
+     * The same batch instance is refilled and handed to the consumer each time it is
+     * full and once more for the remainder; consumers must not keep it.
+     * 
+     * @param batchSize Number of flights per batch
+     * @param consumer Receives each filled batch
+     * @return the number of flights streamed
+     * @throws SQLException if a database error occurs
+     */
+    public long streamFlights(int batchSize, Consumer<FlightBatch> consumer) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Flights";
+        FlightBatch batch = new FlightBatch(batchSize);
+        long count = 0;
+        
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setFetchSize(batchSize);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    appendRow(rs, batch);
+                    count++;
+                    if (batch.isFull()) {
+                        consumer.accept(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (batch.size() > 0) {
+                consumer.accept(batch);
+            }
+            return count;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error streaming flights: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            STREAM_FLIGHTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Appends a database row selected with {@link #COLUMNS} to a FlightBatch.
+     * Like {@link #mapRow}, an overbooked flight keeps its negative seat count.
+     * A flight without a departure date is appended with {@link FlightBatch#NO_DATE}.
+     * 
+     * @param rs ResultSet containing flight data
+     * @param batch Batch to append to
+     * @throws SQLException if a database error occurs
+     */
+    static void appendRow(ResultSet rs, FlightBatch batch) throws SQLException {
+        int deptDay = rs.getInt(COL_DEPT_DAY);
+        if (rs.wasNull()) {
+            LocalDate deptDate = DateCodec.parse(rs.getString(COL_DEPT_DATE));
+            deptDay = deptDate != null ? DateCodec.toEpochDay(deptDate) : FlightBatch.NO_DATE;
+        }
+        batch.add(
+                rs.getInt(COL_ID),
+                rs.getString(COL_CODE),
+                rs.getString(COL_FROM),
+                rs.getString(COL_TO),
+                deptDay,
+                rs.getInt(COL_SEATS),
+                rs.getDouble(COL_PRICE)
+        );
+    }
 }
@@ -1,7 +1,9 @@
 package dao;
 
 import model.Flight;
+import model.FlightQuery;
 import java.sql.SQLException;
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -14,10 +16,10 @@ public interface IFlightDao {
      * Adds a new flight to the database.
      * 
      * @param flight the flight to add
-     * @return the ID of the newly added flight
+     * @return true if the flight was added successfully, false otherwise
      * @throws SQLException if a database error occurs
      */
-    int addFlight(Flight flight) throws SQLException;
+    boolean addFlight(Flight flight) throws SQLException;
     
     /**
      * Retrieves a flight by its ID.
@@ -55,12 +57,22 @@ public interface IFlightDao {
     boolean deleteFlight(int id) throws SQLException;
     
     /**
-     * Searches for flights based on origin and destination.
+     * Searches for flights based on origin, destination and departure date.
      * 
      * @param origin the origin city
      * @param destination the destination city
+     * @param departureDate the departure date
      * @return a list of flights matching the criteria
      * @throws SQLException if a database error occurs
      */
-    List<Flight> searchFlights(String origin, String destination) throws SQLException;
-}
\ No newline at end of file
+    List<Flight> searchFlights(String origin, String destination, LocalDate departureDate) throws SQLException;
+    
+    /**
+     * Finds the first flights matching a query in the query's order.
+     * 
+     * @param query the criteria, ordering and limit
+     * @return at most query.getLimit() flights
+     * @throws SQLException if a database error occurs
+     */
+    List<Flight> findTopFlights(FlightQuery query) throws SQLException;
+}
@@ -0,0 +1,108 @@
+package dao;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Booking;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for booking idempotency keys.
+ * IdempotencyKeys maps each client-supplied key to the booking it created.
+ * The key is the primary key, so a second booking under the same key fails
+ * on insert even when two requests race past the lookup. Keys are kept
+ * for a retention period and then purged by their createdAt time.
+ */
+public class IdempotencyDao {
+    private static final Logger LOGGER = Logger.getLogger(IdempotencyDao.class.getName());
+    private static final LatencyHistogram FIND_BOOKING_TIME = MetricsRegistry.getInstance().histogram("IdempotencyDao.findBooking");
+    private static final LatencyHistogram ADD_KEY_TIME = MetricsRegistry.getInstance().histogram("IdempotencyDao.addKey");
+    private static final LatencyHistogram PURGE_KEYS_TIME = MetricsRegistry.getInstance().histogram("IdempotencyDao.purgeKeys");
+
+    private final Connection connection;
+
+    /**
+     * Constructs an IdempotencyDao with a database connection
+     *
+     * @param connection Database connection
+     */
+    public IdempotencyDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Finds the booking created under a key
+     *
+     * @param key Idempotency key
+     * @return the booking, or null if the key is unused
+     * @throws SQLException if a database error occurs
+     */
+    public Booking findBooking(String key) throws SQLException {
+        String sql = "SELECT " + BookingDao.COLUMNS + " FROM IdempotencyKeys k JOIN Bookings b ON b.id = k.bookingId "
+                + "WHERE k.idemKey = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, key);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? BookingDao.ROW_MAPPER.mapRow(rs) : null;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error looking up idempotency key: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            FIND_BOOKING_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Records the booking created under a key. Runs in the caller's transaction,
+     * so the key and the booking commit or roll back together.
+     *
+     * @param key Idempotency key
+     * @param bookingId Booking created under the key
+     * @throws SQLException if the key is already used or a database error occurs
+     */
+    public void addKey(String key, int bookingId) throws SQLException {
+        String sql = "INSERT INTO IdempotencyKeys (idemKey, bookingId, createdAt) VALUES (?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, key);
+            pst.setInt(2, bookingId);
+            pst.setLong(3, System.currentTimeMillis());
+            pst.executeUpdate();
+        } catch (SQLException e) {
+            // A duplicate key is expected when retries race; the caller resolves it
+            LOGGER.log(Level.FINE, "Could not record idempotency key: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_KEY_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Deletes keys recorded before a time. A retry under a purged key
+     * creates a new booking, so keys must outlive any client retry window.
+     *
+     * @param createdBefore Epoch milliseconds; older keys are deleted
+     * @return number of keys deleted
+     * @throws SQLException if a database error occurs
+     */
+    public int purgeKeys(long createdBefore) throws SQLException {
+        String sql = "DELETE FROM IdempotencyKeys WHERE createdAt < ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setLong(1, createdBefore);
+            return pst.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error purging idempotency keys: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            PURGE_KEYS_TIME.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package dao;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.DeniedBoarding;
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for overbooking limits and denied boardings.
+ * A limit is the number of seats a flight may be sold beyond its capacity.
+ * A row in OverbookingLimits overrides the flight's route row in
+ * RouteOverbookingLimits; flights with neither cannot be oversold.
+ * {@link FlightDao#adjustSeats} enforces the same lookup when taking seats.
+ */
+public class OverbookingDao {
+    private static final Logger LOGGER = Logger.getLogger(OverbookingDao.class.getName());
+    private static final LatencyHistogram GET_EFFECTIVE_LIMIT_TIME = MetricsRegistry.getInstance().histogram("OverbookingDao.getEffectiveLimit");
+    private static final LatencyHistogram ADD_DENIED_BOARDING_TIME = MetricsRegistry.getInstance().histogram("OverbookingDao.addDeniedBoarding");
+
+    private static final String COLUMNS = "id, bookingId, passengerId, flightId, voluntary, compensation, deniedDay";
+
+    private final Connection connection;
+
+    /**
+     * Constructs an OverbookingDao with a database connection
+     *
+     * @param connection Database connection
+     */
+    public OverbookingDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Sets the overbooking limit of one flight, replacing any previous one
+     *
+     * @param flightId Flight ID
+     * @param extraSeats Seats that may be sold beyond capacity
+     * @throws SQLException if a database error occurs
+     */
+    public void setFlightLimit(int flightId, int extraSeats) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO OverbookingLimits (flightId, extraSeats) VALUES (?, ?)";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            pst.setInt(2, extraSeats);
+            pst.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error setting overbooking limit of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the limit of one flight, so its route limit applies again
+     *
+     * @param flightId Flight ID
+     * @return true if a limit was removed
+     * @throws SQLException if a database error occurs
+     */
+    public boolean clearFlightLimit(int flightId) throws SQLException {
+        String sql = "DELETE FROM OverbookingLimits WHERE flightId = ?";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error clearing overbooking limit of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the overbooking limit of every flight on a route without a limit of its own
+     *
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param extraSeats Seats that may be sold beyond capacity
+     * @throws SQLException if a database error occurs
+     */
+    public void setRouteLimit(String fromCity, String toCity, int extraSeats) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO RouteOverbookingLimits (Ffrom, Fto, extraSeats) VALUES (?, ?, ?)";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, fromCity);
+            pst.setString(2, toCity);
+            pst.setInt(3, extraSeats);
+            pst.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error setting overbooking limit of route " + fromCity + "-" + toCity + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Removes the limit of a route
+     *
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @return true if a limit was removed
+     * @throws SQLException if a database error occurs
+     */
+    public boolean clearRouteLimit(String fromCity, String toCity) throws SQLException {
+        String sql = "DELETE FROM RouteOverbookingLimits WHERE Ffrom = ? AND Fto = ?";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setString(1, fromCity);
+            pst.setString(2, toCity);
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error clearing overbooking limit of route " + fromCity + "-" + toCity + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the limit {@link FlightDao#adjustSeats} applies to a flight
+     *
+     * @param flightId Flight ID
+     * @return seats the flight may be sold beyond capacity, 0 if it has no limit or does not exist
+     * @throws SQLException if a database error occurs
+     */
+    public int getEffectiveLimit(int flightId) throws SQLException {
+        String sql = "SELECT " + FlightDao.OVERBOOKING_LIMIT + " FROM Flights WHERE FlightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving overbooking limit of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_EFFECTIVE_LIMIT_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Records a denied boarding. The caller controls the transaction.
+     *
+     * @param d Denied boarding to record
+     * @return true if successful
+     * @throws SQLException if the booking is already recorded or a database error occurs
+     */
+    public boolean addDeniedBoarding(DeniedBoarding d) throws SQLException {
+        String sql = "INSERT INTO DeniedBoardings (bookingId, passengerId, flightId, voluntary, compensation, deniedDay) VALUES (?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, d.getBookingId());
+            pst.setInt(2, d.getPassengerId());
+            pst.setInt(3, d.getFlightId());
+            pst.setInt(4, d.isVoluntary() ? 1 : 0);
+            pst.setDouble(5, d.getCompensation());
+            pst.setInt(6, DateCodec.toEpochDay(d.getDeniedDate()));
+            return pst.executeUpdate() > 0;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error recording denied boarding of booking " + d.getBookingId() + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_DENIED_BOARDING_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves the denied boardings of a flight
+     *
+     * @param flightId Flight ID
+     * @return denied boardings in the order they were recorded
+     * @throws SQLException if a database error occurs
+     */
+    public List<DeniedBoarding> getDeniedBoardingsByFlightId(int flightId) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM DeniedBoardings WHERE flightId = ? ORDER BY id";
+        List<DeniedBoarding> result = new ArrayList<>();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    result.add(new DeniedBoarding(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4),
+                            rs.getInt(5) != 0, rs.getDouble(6), DateCodec.fromEpochDay(rs.getInt(7))));
+                }
+            }
+            return result;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving denied boardings of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+}
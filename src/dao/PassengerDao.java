@@ -1,8 +1,14 @@
 package dao;
 
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Passenger;
+import model.PassengerBatch;
+import model.Reaccommodation;
+import util.StringDictionary;
 import java.sql.*;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,6 +18,35 @@ import java.util.logging.Logger;
  */
 public class PassengerDao {
     private static final Logger LOGGER = Logger.getLogger(PassengerDao.class.getName());
+    private static final LatencyHistogram ADD_PASSENGER_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.addPassenger");
+    private static final LatencyHistogram ADD_PASSENGERS_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.addPassengers");
+    private static final LatencyHistogram GET_PASSENGER_BY_ID_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.getPassengerById");
+    private static final LatencyHistogram GET_EXISTING_IDS_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.getExistingIds");
+    private static final LatencyHistogram UPDATE_BOOKED_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.updateBookedFlights");
+    private static final LatencyHistogram CLEAR_BOOKED_FLIGHT_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.clearBookedFlight");
+    private static final LatencyHistogram GET_PASSENGERS_BY_IDS_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.getPassengersByIds");
+    private static final LatencyHistogram MOVE_BOOKED_FLIGHT_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.moveBookedFlight");
+    private static final LatencyHistogram STREAM_PASSENGERS_TIME = MetricsRegistry.getInstance().histogram("PassengerDao.streamPassengers");
+
+    /** Column projection read by {@link #ROW_MAPPER}, in column index order */
+    public static final String COLUMNS = "passID, pName, Gender, nationality, passNum, Pfrom, Pto, flightId, amountPaid, status";
+    private static final int COL_ID = 1;
+    private static final int COL_NAME = 2;
+    private static final int COL_GENDER = 3;
+    private static final int COL_NATIONALITY = 4;
+    private static final int COL_PASS_NUM = 5;
+    private static final int COL_FROM = 6;
+    private static final int COL_TO = 7;
+    private static final int COL_FLIGHT_ID = 8;
+    private static final int COL_AMOUNT_PAID = 9;
+    private static final int COL_STATUS = 10;
+
+    /** IDs per IN query, within SQLite's bound parameter limit */
+    private static final int MAX_IN_LIST = 500;
+
+    /** Maps a row selected with {@link #COLUMNS} to a Passenger */
+    public static final RowMapper<Passenger> ROW_MAPPER = PassengerDao::mapRow;
+
     private final Connection connection;
 
     /**
@@ -32,6 +67,7 @@ public class PassengerDao {
     public void addPassenger(Passenger p) throws SQLException {
         String sql = "INSERT INTO Passengers (passID, pName, Gender, passNum, nationality, Pfrom, Pto, status) \n" +
                      "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql)) {
             pst.setInt(1, p.getId());
             pst.setString(2, p.getName());
@@ -45,6 +81,56 @@ public class PassengerDao {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error adding passenger: " + e.getMessage(), e);
             throw e;
+        } finally {
+            ADD_PASSENGER_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Adds passengers with a batched INSERT sent every db.batch.size rows, for bulk loading.
+     * Unlike {@link #addPassenger(Passenger)} this also writes the flight and amount paid.
+     * The caller controls the transaction; wrap large loads in one.
+     *
+     * @param passengers Passengers to be added; each needs an ID
+     * @return number of rows inserted
+     * @throws SQLException if a database error occurs
+     */
+    public int addPassengers(List<Passenger> passengers) throws SQLException {
+        String sql = "INSERT INTO Passengers (passID, pName, Gender, passNum, nationality, Pfrom, Pto, flightId, amountPaid, status) \n" +
+                     "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int inserted = 0;
+            int pending = 0;
+            for (Passenger p : passengers) {
+                pst.setInt(1, p.getId());
+                pst.setString(2, p.getName());
+                pst.setString(3, p.getGender());
+                pst.setString(4, p.getPassportNumber());
+                pst.setString(5, p.getNationality());
+                pst.setString(6, p.getFromCity());
+                pst.setString(7, p.getToCity());
+                if (p.getFlightId() != null) pst.setInt(8, p.getFlightId());
+                else pst.setNull(8, Types.INTEGER);
+                if (p.getAmountPaid() != null) pst.setDouble(9, p.getAmountPaid());
+                else pst.setNull(9, Types.REAL);
+                pst.setString(10, p.getStatus());
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    inserted += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += Batches.execute(pst);
+            }
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding passengers: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_PASSENGERS_TIME.recordSince(start);
         }
     }
     
@@ -56,7 +142,8 @@ public class PassengerDao {
      * @throws SQLException if a database error occurs
      */
     public Passenger getPassengerById(int id) throws SQLException {
-        String sql = "SELECT * FROM Passengers WHERE passID = ?";
+        String sql = "SELECT " + COLUMNS + " FROM Passengers WHERE passID = ?";
+        long start = System.nanoTime();
         try (PreparedStatement pst = connection.prepareStatement(sql)) {
             pst.setInt(1, id);
             try (ResultSet rs = pst.executeQuery()) {
@@ -69,28 +156,303 @@ public class PassengerDao {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving passenger with ID " + id + ": " + e.getMessage(), e);
             throw e;
+        } finally {
+            GET_PASSENGER_BY_ID_TIME.recordSince(start);
         }
     }
     
     /**
-     * Maps a database row to a Passenger object
+     * Finds which of the given passenger IDs exist, with one IN query.
+     * The list must stay within SQLite's bound parameter limit (999 on older versions).
+     * 
+     * @param ids Passenger IDs to look up
+     * @return the IDs that exist
+     * @throws SQLException if a database error occurs
+     */
+    public Set<Integer> getExistingIds(List<Integer> ids) throws SQLException {
+        Set<Integer> existing = new HashSet<>();
+        if (ids.isEmpty()) {
+            return existing;
+        }
+        StringBuilder sql = new StringBuilder("SELECT passID FROM Passengers WHERE passID IN (?");
+        for (int i = 1; i < ids.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(')');
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < ids.size(); i++) {
+                pst.setInt(i + 1, ids.get(i));
+            }
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    existing.add(rs.getInt(1));
+                }
+            }
+            return existing;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error looking up passengers: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_EXISTING_IDS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Records the booked flight, amount paid and status of several passengers
+     * with a batched UPDATE sent every db.batch.size rows.
+     * The caller controls the transaction.
+     * 
+     * @param ids Passenger IDs
+     * @param flightId Booked flight ID
+     * @param amountPaid Amount each passenger paid
+     * @param status New passenger status
+     * @return number of passengers updated
+     * @throws SQLException if a database error occurs
+     */
+    public int updateBookedFlights(List<Integer> ids, int flightId, double amountPaid, String status) throws SQLException {
+        String sql = "UPDATE Passengers SET status = ?, flightId = ?, amountPaid = ? WHERE passID = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int updated = 0;
+            int pending = 0;
+            for (Integer id : ids) {
+                pst.setString(1, status);
+                pst.setInt(2, flightId);
+                pst.setDouble(3, amountPaid);
+                pst.setInt(4, id);
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    updated += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += Batches.execute(pst);
+            }
+            return updated;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error updating booked passengers: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            UPDATE_BOOKED_FLIGHTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Clears the booked flight and amount paid of passengers whose booking on a
+     * flight was cancelled, with a batched UPDATE sent every db.batch.size rows.
+     * Passengers that have moved on to another flight are left alone.
+     * The caller controls the transaction.
+     * 
+     * @param ids Passenger IDs
+     * @param flightId Flight whose booking was cancelled
+     * @param status New passenger status
+     * @return number of passengers updated
+     * @throws SQLException if a database error occurs
+     */
+    public int clearBookedFlight(List<Integer> ids, int flightId, String status) throws SQLException {
+        String sql = "UPDATE Passengers SET status = ?, flightId = NULL, amountPaid = NULL WHERE passID = ? AND flightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int updated = 0;
+            int pending = 0;
+            for (Integer id : ids) {
+                pst.setString(1, status);
+                pst.setInt(2, id);
+                pst.setInt(3, flightId);
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    updated += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += Batches.execute(pst);
+            }
+            return updated;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error clearing booked flight of passengers: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            CLEAR_BOOKED_FLIGHT_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves several passengers, with one IN query per 500 IDs
+     * 
+     * @param ids Passenger IDs
+     * @return the passengers found, by ID
+     * @throws SQLException if a database error occurs
+     */
+    public Map<Integer, Passenger> getPassengersByIds(List<Integer> ids) throws SQLException {
+        Map<Integer, Passenger> passengers = new HashMap<>(ids.size() * 2);
+        long start = System.nanoTime();
+        try {
+            for (int from = 0; from < ids.size(); from += MAX_IN_LIST) {
+                List<Integer> chunk = ids.subList(from, Math.min(from + MAX_IN_LIST, ids.size()));
+                StringBuilder sql = new StringBuilder("SELECT ").append(COLUMNS).append(" FROM Passengers WHERE passID IN (?");
+                for (int i = 1; i < chunk.size(); i++) {
+                    sql.append(", ?");
+                }
+                sql.append(')');
+                try (PreparedStatement pst = connection.prepareStatement(sql.toString())) {
+                    for (int i = 0; i < chunk.size(); i++) {
+                        pst.setInt(i + 1, chunk.get(i));
+                    }
+                    try (ResultSet rs = pst.executeQuery()) {
+                        while (rs.next()) {
+                            Passenger p = mapRow(rs);
+                            passengers.put(p.getId(), p);
+                        }
+                    }
+                }
+            }
+            return passengers;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving passengers: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_PASSENGERS_BY_IDS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Points passengers whose booking was moved at the new flight, with a batched
+     * UPDATE sent every db.batch.size rows. Passengers no longer on the old flight
+     * are left alone. The caller controls the transaction.
+     * 
+     * @param moves Moved bookings
+     * @return number of passengers updated
+     * @throws SQLException if a database error occurs
+     */
+    public int moveBookedFlight(List<Reaccommodation> moves) throws SQLException {
+        String sql = "UPDATE Passengers SET flightId = ? WHERE passID = ? AND flightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int updated = 0;
+            int pending = 0;
+            for (Reaccommodation m : moves) {
+                pst.setInt(1, m.getToFlightId());
+                pst.setInt(2, m.getPassengerId());
+                pst.setInt(3, m.getFromFlightId());
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    updated += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                updated += Batches.execute(pst);
+            }
+            return updated;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error moving passengers to new flights: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            MOVE_BOOKED_FLIGHT_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Maps a database row to a Passenger object.
+     * The row must have been selected with {@link #COLUMNS}; each column is read once by index.
+     * Low-cardinality values are canonicalized through the shared {@link StringDictionary}.
      * 
      * @param rs ResultSet containing passenger data
      * @return Passenger object
      * @throws SQLException if a database error occurs
      */
-    private Passenger mapRow(ResultSet rs) throws SQLException {
+    private static Passenger mapRow(ResultSet rs) throws SQLException {
+        int flightId = rs.getInt(COL_FLIGHT_ID);
+        boolean flightIdNull = rs.wasNull();
+        double amountPaid = rs.getDouble(COL_AMOUNT_PAID);
+        boolean amountPaidNull = rs.wasNull();
         return new Passenger(
-            rs.getInt("passID"),
-            rs.getString("pName"),
-            rs.getString("Gender"),
-            rs.getString("nationality"),
-            rs.getString("passNum"),
-            rs.getString("Pfrom"),
-            rs.getString("Pto"),
-            rs.getObject("flightId") != null ? rs.getInt("flightId") : null,
-            rs.getObject("amountPaid") != null ? rs.getDouble("amountPaid") : null,
-            rs.getString("status")
+            rs.getInt(COL_ID),
+            rs.getString(COL_NAME),
+            StringDictionary.GENDERS.canonicalize(rs.getString(COL_GENDER)),
+            StringDictionary.NATIONALITIES.canonicalize(rs.getString(COL_NATIONALITY)),
+            rs.getString(COL_PASS_NUM),
+            StringDictionary.CITIES.canonicalize(rs.getString(COL_FROM)),
+            StringDictionary.CITIES.canonicalize(rs.getString(COL_TO)),
+            flightIdNull ? null : flightId,
+            amountPaidNull ? null : amountPaid,
+            StringDictionary.STATUSES.canonicalize(rs.getString(COL_STATUS))
+        );
+    }
+
+    /**
+     * Streams all passengers in columnar batches without materializing Passenger objects.
+     * The same batch instance is refilled and handed to the consumer each time it is
+     * full and once more for the remainder; consumers must not keep it.
+     * 
+     * @param batchSize Number of passengers per batch
+     * @param consumer Receives each filled batch
+     * @return the number of passengers streamed
+     * @throws SQLException if a database error occurs
+     */
+    public long streamPassengers(int batchSize, Consumer<PassengerBatch> consumer) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Passengers";
+        PassengerBatch batch = new PassengerBatch(batchSize);
+        long count = 0;
+        
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setFetchSize(batchSize);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    appendRow(rs, batch);
+                    count++;
+                    if (batch.isFull()) {
+                        consumer.accept(batch);
+                        batch.clear();
+                    }
+                }
+            }
+            if (batch.size() > 0) {
+                consumer.accept(batch);
+            }
+            return count;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error streaming passengers: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            STREAM_PASSENGERS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Appends a database row selected with {@link #COLUMNS} to a PassengerBatch
+     * 
+     * @param rs ResultSet containing passenger data
+     * @param batch Batch to append to
+     * @throws SQLException if a database error occurs
+     */
+    static void appendRow(ResultSet rs, PassengerBatch batch) throws SQLException {
+        int flightId = rs.getInt(COL_FLIGHT_ID);
+        if (rs.wasNull()) {
+            flightId = PassengerBatch.NO_FLIGHT;
+        }
+        double amountPaid = rs.getDouble(COL_AMOUNT_PAID);
+        if (rs.wasNull()) {
+            amountPaid = Double.NaN;
+        }
+        batch.add(
+            rs.getInt(COL_ID),
+            rs.getString(COL_NAME),
+            rs.getString(COL_GENDER),
+            rs.getString(COL_NATIONALITY),
+            rs.getString(COL_PASS_NUM),
+            rs.getString(COL_FROM),
+            rs.getString(COL_TO),
+            flightId,
+            amountPaid,
+            rs.getString(COL_STATUS)
         );
     }
     // ...Add update, delete, findAll, etc.
@@ -0,0 +1,206 @@
+package dao;
+
+import metrics.JfrEvents;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * JDBC wrapping layer that times every statement run through a connection.
+ * Uses dynamic proxies so the wrappers track the full JDBC interfaces of
+ * whatever driver is on the classpath. Updates and batches are timed around
+ * the execute call; queries are timed until their result set is exhausted or
+ * closed, since SQLite does most of the work while stepping through rows.
+ * Each execution is also emitted as a JFR event while a recording is running.
+ */
+final class ProfiledConnection {
+
+    private ProfiledConnection() {
+    }
+
+    /**
+     * Wraps a connection
+     *
+     * @param connection Connection to wrap
+     * @param profiler Receives the timings
+     * @return a Connection proxy
+     */
+    static Connection wrap(Connection connection, SqlProfiler profiler) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new ConnectionHandler(connection, profiler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Handles identity methods on the proxy itself, so pools can key maps by connection
+     */
+    private static Object identity(Object proxy, Method method, Object[] args, Object target) {
+        switch (method.getName()) {
+            case "equals": return proxy == args[0];
+            case "hashCode": return System.identityHashCode(proxy);
+            default: return "Profiled(" + target + ")";
+        }
+    }
+
+    private static void endStatement(Object event, String sql, long rows) {
+        if (event != null) {
+            JfrEvents.endStatement(event, SqlFingerprint.of(sql), rows);
+        }
+    }
+
+    private static boolean isIdentityMethod(Method method) {
+        return method.getDeclaringClass() == Object.class;
+    }
+
+    private static final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        private final SqlProfiler profiler;
+
+        ConnectionHandler(Connection target, SqlProfiler profiler) {
+            this.target = target;
+            this.profiler = profiler;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args, target);
+            }
+            Object result = ProfiledConnection.invoke(target, method, args);
+            String name = method.getName();
+            if (result instanceof Statement && (name.startsWith("prepare") || name.equals("createStatement"))) {
+                String sql = name.startsWith("prepare") ? (String) args[0] : null;
+                Class<?> type = result instanceof CallableStatement ? CallableStatement.class
+                        : result instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler((Statement) result, sql, (Connection) proxy, this));
+            }
+            return result;
+        }
+    }
+
+    private static final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final Connection connectionProxy;
+        private final ConnectionHandler connection;
+        private String batchSql;
+
+        StatementHandler(Statement target, String preparedSql, Connection connectionProxy, ConnectionHandler connection) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.connectionProxy = connectionProxy;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args, target);
+            }
+            String name = method.getName();
+            if (name.equals("getConnection")) {
+                return connectionProxy;
+            }
+            if (name.equals("addBatch") && args != null && args.length == 1) {
+                batchSql = (String) args[0];
+            }
+            if (!name.startsWith("execute")) {
+                return ProfiledConnection.invoke(target, method, args);
+            }
+
+            String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0]
+                    : preparedSql != null ? preparedSql : batchSql;
+            long start = System.nanoTime();
+            Object event = JfrEvents.beginStatement();
+            Object result = ProfiledConnection.invoke(target, method, args);
+            if (result instanceof ResultSet) {
+                return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                        new ResultSetHandler((ResultSet) result, sql, start, event, connection));
+            }
+            long elapsed = System.nanoTime() - start;
+            long rows = affectedRows(result);
+            connection.profiler.record(sql, elapsed, rows, connection.target);
+            endStatement(event, sql, rows);
+            return result;
+        }
+
+        private long affectedRows(Object result) {
+            if (result instanceof Number) {
+                return ((Number) result).longValue();
+            }
+            long rows = 0;
+            if (result instanceof int[]) {
+                for (int count : (int[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            } else if (result instanceof long[]) {
+                for (long count : (long[]) result) {
+                    rows += Math.max(count, 0);
+                }
+            }
+            return rows;
+        }
+    }
+
+    private static final class ResultSetHandler implements InvocationHandler {
+        private final ResultSet target;
+        private final String sql;
+        private final long start;
+        private final Object event;
+        private final ConnectionHandler connection;
+        private long rows;
+        private boolean recorded;
+
+        ResultSetHandler(ResultSet target, String sql, long start, Object event, ConnectionHandler connection) {
+            this.target = target;
+            this.sql = sql;
+            this.start = start;
+            this.event = event;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            if (isIdentityMethod(method)) {
+                return identity(proxy, method, args, target);
+            }
+            String name = method.getName();
+            if (name.equals("next")) {
+                boolean more = target.next();
+                if (more) {
+                    rows++;
+                } else {
+                    finish();
+                }
+                return more;
+            }
+            if (name.equals("close")) {
+                finish();
+            }
+            return ProfiledConnection.invoke(target, method, args);
+        }
+
+        private void finish() {
+            if (!recorded) {
+                recorded = true;
+                connection.profiler.record(sql, System.nanoTime() - start, rows, connection.target);
+                endStatement(event, sql, rows);
+            }
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package dao;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Refund;
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for the refund ledger.
+ * Refunds holds one row per cancelled booking; bookingId is unique, so a
+ * booking can never be refunded twice.
+ */
+public class RefundDao {
+    private static final Logger LOGGER = Logger.getLogger(RefundDao.class.getName());
+    private static final LatencyHistogram ADD_REFUNDS_TIME = MetricsRegistry.getInstance().histogram("RefundDao.addRefunds");
+    private static final LatencyHistogram GET_REFUNDS_BY_FLIGHT_ID_TIME = MetricsRegistry.getInstance().histogram("RefundDao.getRefundsByFlightId");
+
+    private static final String COLUMNS = "id, bookingId, passengerId, flightId, amount, reason, refundDay";
+
+    private final Connection connection;
+
+    /**
+     * Constructs a RefundDao with a database connection
+     *
+     * @param connection Database connection
+     */
+    public RefundDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Adds ledger entries with a batched INSERT sent every db.batch.size rows.
+     * The caller controls the transaction.
+     *
+     * @param refunds Refunds to record
+     * @return number of entries inserted
+     * @throws SQLException if a booking is already refunded or a database error occurs
+     */
+    public int addRefunds(List<Refund> refunds) throws SQLException {
+        String sql = "INSERT INTO Refunds (bookingId, passengerId, flightId, amount, reason, refundDay) VALUES (?, ?, ?, ?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int inserted = 0;
+            int pending = 0;
+            for (Refund r : refunds) {
+                pst.setInt(1, r.getBookingId());
+                pst.setInt(2, r.getPassengerId());
+                pst.setInt(3, r.getFlightId());
+                pst.setDouble(4, r.getAmount());
+                pst.setString(5, r.getReason());
+                pst.setInt(6, DateCodec.toEpochDay(r.getRefundDate()));
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    inserted += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += Batches.execute(pst);
+            }
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error adding refunds: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_REFUNDS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves the refunds of a flight's cancelled bookings
+     *
+     * @param flightId Flight ID
+     * @return refunds in ledger order
+     * @throws SQLException if a database error occurs
+     */
+    public List<Refund> getRefundsByFlightId(int flightId) throws SQLException {
+        String sql = "SELECT " + COLUMNS + " FROM Refunds WHERE flightId = ? ORDER BY id";
+        List<Refund> refunds = new ArrayList<>();
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    refunds.add(new Refund(rs.getInt(1), rs.getInt(2), rs.getInt(3), rs.getInt(4), rs.getDouble(5),
+                            rs.getString(6), DateCodec.fromEpochDay(rs.getInt(7))));
+                }
+            }
+            return refunds;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving refunds of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_REFUNDS_BY_FLIGHT_ID_TIME.recordSince(start);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Maps the current row of a ResultSet to an entity.
+ * Implementations read columns by index against the DAO's fixed column
+ * projection, so no column name lookup happens per row.
+ *
+ * @param <T> the entity type
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+    /**
+     * Maps the current row.
+     *
+     * @param rs ResultSet positioned on a row
+     * @return the mapped entity
+     * @throws SQLException if a database error occurs
+     */
+    T mapRow(ResultSet rs) throws SQLException;
+}
@@ -0,0 +1,427 @@
+package dao;
+
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Versioned schema migration runner.
+ * Creates and upgrades the application tables and indexes idempotently
+ * and records every applied version in the schema_version table.
+ */
+public class SchemaMigrator {
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigrator.class.getName());
+    private static final String VERSION_TABLE = "schema_version";
+
+    private final List<Migration> migrations;
+
+    /**
+     * Constructs a SchemaMigrator with the application's migrations
+     */
+    public SchemaMigrator() {
+        this(defaultMigrations());
+    }
+
+    /**
+     * Constructs a SchemaMigrator with a custom list of migrations
+     *
+     * @param migrations Migrations in ascending version order
+     */
+    public SchemaMigrator(List<Migration> migrations) {
+        List<Migration> sorted = new ArrayList<>(migrations);
+        sorted.sort((a, b) -> Integer.compare(a.getVersion(), b.getVersion()));
+        this.migrations = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * Applies every migration newer than the current schema version.
+     * Each migration runs in its own transaction together with its version record.
+     *
+     * @param connection Database connection
+     * @return the number of migrations applied
+     * @throws SQLException if a migration fails
+     */
+    public int migrate(Connection connection) throws SQLException {
+        createVersionTable(connection);
+        int current = getCurrentVersion(connection);
+        int applied = 0;
+
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            for (Migration migration : migrations) {
+                if (migration.getVersion() <= current) {
+                    continue;
+                }
+                try {
+                    migration.getStep().apply(connection);
+                    recordVersion(connection, migration);
+                    connection.commit();
+                    applied++;
+                    LOGGER.info("Applied schema migration V" + migration.getVersion() + ": " + migration.getDescription());
+                } catch (SQLException e) {
+                    connection.rollback();
+                    LOGGER.log(Level.SEVERE, "Schema migration V" + migration.getVersion() + " failed: " + e.getMessage(), e);
+                    throw e;
+                }
+            }
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+
+        if (applied == 0) {
+            LOGGER.fine("Schema is up to date at version " + current);
+        }
+        return applied;
+    }
+
+    /**
+     * Gets the highest applied schema version
+     *
+     * @param connection Database connection
+     * @return the current schema version, 0 if no migration has been applied
+     * @throws SQLException if a database error occurs
+     */
+    public int getCurrentVersion(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT MAX(version) FROM " + VERSION_TABLE)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    /**
+     * Gets the latest version known to this migrator
+     *
+     * @return the target schema version
+     */
+    public int getTargetVersion() {
+        return migrations.isEmpty() ? 0 : migrations.get(migrations.size() - 1).getVersion();
+    }
+
+    private void createVersionTable(Connection connection) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("CREATE TABLE IF NOT EXISTS " + VERSION_TABLE
+                    + " (version INTEGER PRIMARY KEY, description TEXT NOT NULL, appliedAt TEXT NOT NULL)");
+        }
+    }
+
+    private void recordVersion(Connection connection, Migration migration) throws SQLException {
+        String sql = "INSERT INTO " + VERSION_TABLE + " (version, description, appliedAt) VALUES (?, ?, ?)";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, migration.getVersion());
+            pst.setString(2, migration.getDescription());
+            pst.setString(3, LocalDateTime.now().toString());
+            pst.executeUpdate();
+        }
+    }
+
+    /**
+     * Adds a column to a table unless it already exists.
+     * SQLite has no ADD COLUMN IF NOT EXISTS, so the table metadata is checked first.
+     *
+     * @param connection Database connection
+     * @param table Table name
+     * @param column Column name
+     * @param definition Column type and constraints
+     * @throws SQLException if a database error occurs
+     */
+    public static void addColumnIfMissing(Connection connection, String table, String column, String definition)
+            throws SQLException {
+        if (columnExists(connection, table, column)) {
+            return;
+        }
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+        }
+    }
+
+    /**
+     * Checks whether a table has a column (case-insensitive, as in SQLite)
+     *
+     * @param connection Database connection
+     * @param table Table name
+     * @param column Column name
+     * @return true if the column exists
+     * @throws SQLException if a database error occurs
+     */
+    public static boolean columnExists(Connection connection, String table, String column) throws SQLException {
+        DatabaseMetaData meta = connection.getMetaData();
+        try (ResultSet rs = meta.getColumns(null, null, table, null)) {
+            while (rs.next()) {
+                if (column.equalsIgnoreCase(rs.getString("COLUMN_NAME"))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static void execute(Connection connection, String... statements) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            for (String sql : statements) {
+                st.executeUpdate(sql);
+            }
+        }
+    }
+
+    /** Lowest price among flights with seats left, flight count and seats left of a route and day */
+    private static final String FARE_AGGREGATES = "MIN(CASE WHEN Seats > 0 THEN price END), COUNT(*), SUM(MAX(Seats, 0))";
+
+    /**
+     * Builds trigger statements that recompute the RouteDayFares row of a flight's route and day
+     *
+     * @param row NEW or OLD
+     * @return the statements, each terminated by a semicolon
+     */
+    private static String refreshFares(String row) {
+        String key = "Ffrom = " + row + ".Ffrom AND Fto = " + row + ".Fto AND deptDay = " + row + ".deptDay";
+        return "DELETE FROM RouteDayFares WHERE " + key + "; "
+                + "INSERT INTO RouteDayFares (Ffrom, Fto, deptDay, minPrice, flights, seats) "
+                + "SELECT Ffrom, Fto, deptDay, " + FARE_AGGREGATES + " FROM Flights WHERE " + key
+                + " GROUP BY Ffrom, Fto, deptDay;";
+    }
+
+    /**
+     * Builds the application's migrations.
+     * New migrations are appended here with the next version number; applied
+     * migrations must never be edited.
+     *
+     * @return list of migrations
+     */
+    static List<Migration> defaultMigrations() {
+        List<Migration> list = new ArrayList<>();
+
+        list.add(new Migration(1, "Baseline tables", c -> execute(c,
+                "CREATE TABLE IF NOT EXISTS Flights ("
+                        + "FlightId INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "FCode TEXT NOT NULL, "
+                        + "Ffrom TEXT NOT NULL, "
+                        + "Fto TEXT NOT NULL, "
+                        + "deptDate TEXT NOT NULL, "
+                        + "deptTime TEXT, "
+                        + "arrTime TEXT, "
+                        + "Seats INTEGER NOT NULL, "
+                        + "price REAL NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS Passengers ("
+                        + "passID INTEGER PRIMARY KEY, "
+                        + "pName TEXT NOT NULL, "
+                        + "Gender TEXT, "
+                        + "passNum TEXT NOT NULL UNIQUE, "
+                        + "nationality TEXT, "
+                        + "Pfrom TEXT, "
+                        + "Pto TEXT, "
+                        + "status TEXT, "
+                        + "flightId INTEGER, "
+                        + "amountPaid REAL)",
+                "CREATE TABLE IF NOT EXISTS Bookings ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "passengerId INTEGER NOT NULL, "
+                        + "flightId INTEGER NOT NULL, "
+                        + "amountPaid REAL, "
+                        + "status TEXT, "
+                        + "bookingDate TEXT)")));
+
+        list.add(new Migration(2, "Lookup indexes", c -> {
+            // Legacy databases predate the flightId/amountPaid columns on Passengers
+            addColumnIfMissing(c, "Passengers", "flightId", "INTEGER");
+            addColumnIfMissing(c, "Passengers", "amountPaid", "REAL");
+            // Passengers.passNum is already backed by the index of its UNIQUE constraint
+            execute(c,
+                    "CREATE INDEX IF NOT EXISTS idx_bookings_passenger ON Bookings (passengerId)",
+                    "CREATE INDEX IF NOT EXISTS idx_bookings_flight ON Bookings (flightId)",
+                    "CREATE INDEX IF NOT EXISTS idx_passengers_status ON Passengers (status)",
+                    "CREATE INDEX IF NOT EXISTS idx_passengers_flight ON Passengers (flightId)",
+                    "CREATE INDEX IF NOT EXISTS idx_flights_code ON Flights (FCode)",
+                    "CREATE INDEX IF NOT EXISTS idx_flights_route ON Flights (Ffrom, Fto, deptDate)");
+        }));
+
+        list.add(new Migration(3, "Epoch-day date columns", c -> {
+            // The text columns stay for the Swing pages; triggers keep the integer copy in sync
+            addColumnIfMissing(c, "Flights", "deptDay", "INTEGER");
+            addColumnIfMissing(c, "Bookings", "bookingDay", "INTEGER");
+            execute(c,
+                    "UPDATE Flights SET deptDay = " + DateCodec.epochDaySql("deptDate") + " WHERE deptDay IS NULL",
+                    "UPDATE Bookings SET bookingDay = " + DateCodec.epochDaySql("bookingDate") + " WHERE bookingDay IS NULL",
+                    "CREATE TRIGGER IF NOT EXISTS trg_flights_dept_day_insert AFTER INSERT ON Flights"
+                            + " WHEN NEW.deptDay IS NULL BEGIN"
+                            + " UPDATE Flights SET deptDay = " + DateCodec.epochDaySql("NEW.deptDate")
+                            + " WHERE FlightId = NEW.FlightId; END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_flights_dept_day_update AFTER UPDATE OF deptDate ON Flights BEGIN"
+                            + " UPDATE Flights SET deptDay = " + DateCodec.epochDaySql("NEW.deptDate")
+                            + " WHERE FlightId = NEW.FlightId; END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_bookings_day_insert AFTER INSERT ON Bookings"
+                            + " WHEN NEW.bookingDay IS NULL BEGIN"
+                            + " UPDATE Bookings SET bookingDay = " + DateCodec.epochDaySql("NEW.bookingDate")
+                            + " WHERE id = NEW.id; END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_bookings_day_update AFTER UPDATE OF bookingDate ON Bookings BEGIN"
+                            + " UPDATE Bookings SET bookingDay = " + DateCodec.epochDaySql("NEW.bookingDate")
+                            + " WHERE id = NEW.id; END",
+                    "DROP INDEX IF EXISTS idx_flights_route",
+                    "CREATE INDEX IF NOT EXISTS idx_flights_route ON Flights (Ffrom, Fto, deptDay)",
+                    "CREATE INDEX IF NOT EXISTS idx_flights_day ON Flights (deptDay)",
+                    "CREATE INDEX IF NOT EXISTS idx_bookings_day ON Bookings (bookingDay)");
+        }));
+
+        list.add(new Migration(4, "Materialized booking counters", c -> {
+            execute(c,
+                    "CREATE TABLE IF NOT EXISTS FlightBookingCounts ("
+                            + "flightId INTEGER PRIMARY KEY, "
+                            + "booked INTEGER NOT NULL DEFAULT 0, "
+                            + "revenue REAL NOT NULL DEFAULT 0)",
+                    "CREATE TABLE IF NOT EXISTS RouteBookingCounts ("
+                            + "Ffrom TEXT NOT NULL, "
+                            + "Fto TEXT NOT NULL, "
+                            + "bookingDay INTEGER NOT NULL, "
+                            + "booked INTEGER NOT NULL DEFAULT 0, "
+                            + "revenue REAL NOT NULL DEFAULT 0, "
+                            + "PRIMARY KEY (Ffrom, Fto, bookingDay)) WITHOUT ROWID");
+            execute(c, BookingCounterDao.rebuildStatements());
+        }));
+
+        list.add(new Migration(5, "Route and day fare calendar", c -> execute(c,
+                "CREATE TABLE IF NOT EXISTS RouteDayFares ("
+                        + "Ffrom TEXT NOT NULL, "
+                        + "Fto TEXT NOT NULL, "
+                        + "deptDay INTEGER NOT NULL, "
+                        + "minPrice REAL, "
+                        + "flights INTEGER NOT NULL, "
+                        + "seats INTEGER NOT NULL, "
+                        + "PRIMARY KEY (Ffrom, Fto, deptDay)) WITHOUT ROWID",
+                "DELETE FROM RouteDayFares",
+                "INSERT INTO RouteDayFares (Ffrom, Fto, deptDay, minPrice, flights, seats) "
+                        + "SELECT Ffrom, Fto, deptDay, " + FARE_AGGREGATES + " FROM Flights "
+                        + "WHERE deptDay IS NOT NULL GROUP BY Ffrom, Fto, deptDay",
+                // Every flight write re-aggregates its route and day, found through idx_flights_route
+                "CREATE TRIGGER IF NOT EXISTS trg_fares_insert AFTER INSERT ON Flights"
+                        + " WHEN NEW.deptDay IS NOT NULL BEGIN " + refreshFares("NEW") + " END",
+                "CREATE TRIGGER IF NOT EXISTS trg_fares_update_old AFTER UPDATE OF Ffrom, Fto, deptDay ON Flights"
+                        + " WHEN OLD.Ffrom IS NOT NEW.Ffrom OR OLD.Fto IS NOT NEW.Fto OR OLD.deptDay IS NOT NEW.deptDay"
+                        + " BEGIN " + refreshFares("OLD") + " END",
+                "CREATE TRIGGER IF NOT EXISTS trg_fares_update AFTER UPDATE OF Ffrom, Fto, deptDay, Seats, price ON Flights"
+                        + " BEGIN " + refreshFares("NEW") + " END",
+                "CREATE TRIGGER IF NOT EXISTS trg_fares_delete AFTER DELETE ON Flights"
+                        + " BEGIN " + refreshFares("OLD") + " END")));
+
+        list.add(new Migration(6, "Booking idempotency keys", c -> execute(c,
+                "CREATE TABLE IF NOT EXISTS IdempotencyKeys ("
+                        + "idemKey TEXT PRIMARY KEY, "
+                        + "bookingId INTEGER NOT NULL, "
+                        + "createdAt INTEGER NOT NULL) WITHOUT ROWID")));
+
+        list.add(new Migration(7, "Refund ledger", c -> execute(c,
+                "CREATE TABLE IF NOT EXISTS Refunds ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "bookingId INTEGER NOT NULL UNIQUE, "
+                        + "passengerId INTEGER NOT NULL, "
+                        + "flightId INTEGER NOT NULL, "
+                        + "amount REAL NOT NULL, "
+                        + "reason TEXT NOT NULL, "
+                        + "refundDay INTEGER NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS idx_refunds_flight ON Refunds (flightId)")));
+
+        list.add(new Migration(8, "Overbooking limits and denied boardings", c -> execute(c,
+                "CREATE TABLE IF NOT EXISTS OverbookingLimits ("
+                        + "flightId INTEGER PRIMARY KEY, "
+                        + "extraSeats INTEGER NOT NULL CHECK (extraSeats >= 0))",
+                "CREATE TABLE IF NOT EXISTS RouteOverbookingLimits ("
+                        + "Ffrom TEXT NOT NULL, "
+                        + "Fto TEXT NOT NULL, "
+                        + "extraSeats INTEGER NOT NULL CHECK (extraSeats >= 0), "
+                        + "PRIMARY KEY (Ffrom, Fto)) WITHOUT ROWID",
+                "CREATE TABLE IF NOT EXISTS DeniedBoardings ("
+                        + "id INTEGER PRIMARY KEY AUTOINCREMENT, "
+                        + "bookingId INTEGER NOT NULL UNIQUE, "
+                        + "passengerId INTEGER NOT NULL, "
+                        + "flightId INTEGER NOT NULL, "
+                        + "voluntary INTEGER NOT NULL, "
+                        + "compensation REAL NOT NULL, "
+                        + "deniedDay INTEGER NOT NULL)",
+                "CREATE INDEX IF NOT EXISTS idx_denied_boardings_flight ON DeniedBoardings (flightId)")));
+
+        list.add(new Migration(9, "Seat maps and seat assignments", c -> execute(c,
+                "CREATE TABLE IF NOT EXISTS SeatMaps ("
+                        + "flightId INTEGER PRIMARY KEY, "
+                        + "layout TEXT NOT NULL, "
+                        + "occupancy BLOB NOT NULL)",
+                "CREATE TABLE IF NOT EXISTS SeatAssignments ("
+                        + "bookingId INTEGER PRIMARY KEY, "
+                        + "flightId INTEGER NOT NULL, "
+                        + "seat INTEGER NOT NULL, "
+                        + "UNIQUE (flightId, seat))")));
+
+        list.add(new Migration(10, "Departure minute column", c -> {
+            // deptTime is "hh:mm AM/PM" text, which does not sort by time of day
+            addColumnIfMissing(c, "Flights", "deptMinute", "INTEGER");
+            execute(c,
+                    "UPDATE Flights SET deptMinute = " + DateCodec.minuteOfDaySql("deptTime"),
+                    "CREATE TRIGGER IF NOT EXISTS trg_flights_dept_minute_insert AFTER INSERT ON Flights"
+                            + " WHEN NEW.deptTime IS NOT NULL BEGIN"
+                            + " UPDATE Flights SET deptMinute = " + DateCodec.minuteOfDaySql("NEW.deptTime")
+                            + " WHERE FlightId = NEW.FlightId; END",
+                    "CREATE TRIGGER IF NOT EXISTS trg_flights_dept_minute_update AFTER UPDATE OF deptTime ON Flights BEGIN"
+                            + " UPDATE Flights SET deptMinute = " + DateCodec.minuteOfDaySql("NEW.deptTime")
+                            + " WHERE FlightId = NEW.FlightId; END");
+        }));
+
+        list.add(new Migration(11, "Idempotency key age index", c -> execute(c,
+                "CREATE INDEX IF NOT EXISTS idx_idempotency_created ON IdempotencyKeys (createdAt)")));
+
+        return list;
+    }
+
+    /**
+     * Work performed by a single migration
+     */
+    @FunctionalInterface
+    public interface MigrationStep {
+        void apply(Connection connection) throws SQLException;
+    }
+
+    /**
+     * A single versioned schema change
+     */
+    public static final class Migration {
+        private final int version;
+        private final String description;
+        private final MigrationStep step;
+
+        /**
+         * Constructs a Migration
+         *
+         * @param version Unique, increasing schema version
+         * @param description Human readable description
+         * @param step Work to apply
+         */
+        public Migration(int version, String description, MigrationStep step) {
+            if (version <= 0) {
+                throw new IllegalArgumentException("Migration version must be positive");
+            }
+            this.version = version;
+            this.description = description;
+            this.step = step;
+        }
+
+        public int getVersion() {
+            return version;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public MigrationStep getStep() {
+            return step;
+        }
+    }
+}
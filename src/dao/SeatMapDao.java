@@ -0,0 +1,268 @@
+package dao;
+
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.SeatLayout;
+import model.SeatMap;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Data Access Object for seat maps and seat assignments.
+ * SeatAssignments holds the seat of each booking; the unique (flightId, seat)
+ * key guarantees a seat is never given twice, even across processes.
+ * SeatMaps holds each flight's layout and a bitset snapshot of its occupancy,
+ * so a map is loaded with one row read; {@link #getAssignmentTotals} lets the
+ * caller check the snapshot against the assignments.
+ */
+public class SeatMapDao {
+    private static final Logger LOGGER = Logger.getLogger(SeatMapDao.class.getName());
+    private static final LatencyHistogram GET_SEAT_MAP_TIME = MetricsRegistry.getInstance().histogram("SeatMapDao.getSeatMap");
+    private static final LatencyHistogram SAVE_SEAT_MAP_TIME = MetricsRegistry.getInstance().histogram("SeatMapDao.saveSeatMap");
+    private static final LatencyHistogram ADD_ASSIGNMENTS_TIME = MetricsRegistry.getInstance().histogram("SeatMapDao.addAssignments");
+    private static final LatencyHistogram DELETE_ASSIGNMENTS_TIME = MetricsRegistry.getInstance().histogram("SeatMapDao.deleteAssignments");
+
+    private final Connection connection;
+
+    /**
+     * Constructs a SeatMapDao with a database connection
+     *
+     * @param connection Database connection
+     */
+    public SeatMapDao(Connection connection) {
+        this.connection = connection;
+    }
+
+    /**
+     * Computes a flight's physical capacity from its available seats and its
+     * booking counter. An oversold flight has negative available seats, so the
+     * sum stays the number of seats in the cabin.
+     *
+     * @param flightId Flight ID
+     * @return the capacity, or null if the flight does not exist
+     * @throws SQLException if a database error occurs
+     */
+    public Integer getCapacity(int flightId) throws SQLException {
+        String sql = "SELECT f.Seats + COALESCE(c.booked, 0) FROM Flights f "
+                + "LEFT JOIN FlightBookingCounts c ON c.flightId = f.FlightId WHERE f.FlightId = ?";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : null;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving capacity of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Loads the stored seat map of a flight
+     *
+     * @param flightId Flight ID
+     * @return the seat map, or null if none is stored
+     * @throws SQLException if a database error occurs
+     */
+    public SeatMap getSeatMap(int flightId) throws SQLException {
+        String sql = "SELECT layout, occupancy FROM SeatMaps WHERE flightId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                return SeatMap.fromBytes(SeatLayout.parse(rs.getString(1)), rs.getBytes(2));
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving seat map of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            GET_SEAT_MAP_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Stores the layout and current occupancy of a flight's seat map
+     *
+     * @param flightId Flight ID
+     * @param map Seat map
+     * @throws SQLException if a database error occurs
+     */
+    public void saveSeatMap(int flightId, SeatMap map) throws SQLException {
+        String sql = "INSERT OR REPLACE INTO SeatMaps (flightId, layout, occupancy) VALUES (?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            pst.setString(2, map.getLayout().encode());
+            pst.setBytes(3, map.toBytes());
+            pst.executeUpdate();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error saving seat map of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            SAVE_SEAT_MAP_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Counts a flight's assignments and sums their seat numbers, read from
+     * the (flightId, seat) index alone
+     *
+     * @param flightId Flight ID
+     * @return the count and the seat sum
+     * @throws SQLException if a database error occurs
+     */
+    public long[] getAssignmentTotals(int flightId) throws SQLException {
+        String sql = "SELECT COUNT(*), TOTAL(seat) FROM SeatAssignments WHERE flightId = ?";
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                rs.next();
+                return new long[] {rs.getLong(1), (long) rs.getDouble(2)};
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error counting seat assignments of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves every seat assignment of a flight
+     *
+     * @param flightId Flight ID
+     * @return seat by booking ID, in seat order
+     * @throws SQLException if a database error occurs
+     */
+    public Map<Integer, Integer> getAssignments(int flightId) throws SQLException {
+        String sql = "SELECT bookingId, seat FROM SeatAssignments WHERE flightId = ? ORDER BY seat";
+        Map<Integer, Integer> seats = new LinkedHashMap<>();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            pst.setInt(1, flightId);
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    seats.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+            return seats;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving seat assignments of flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Retrieves the seats of several bookings with one IN query
+     *
+     * @param bookingIds Booking IDs, at most a few hundred
+     * @return seat by booking ID, for the bookings that have one
+     * @throws SQLException if a database error occurs
+     */
+    public Map<Integer, Integer> getSeats(List<Integer> bookingIds) throws SQLException {
+        Map<Integer, Integer> seats = new HashMap<>();
+        if (bookingIds.isEmpty()) {
+            return seats;
+        }
+        StringBuilder sql = new StringBuilder("SELECT bookingId, seat FROM SeatAssignments WHERE bookingId IN (?");
+        for (int i = 1; i < bookingIds.size(); i++) {
+            sql.append(", ?");
+        }
+        sql.append(')');
+        try (PreparedStatement pst = connection.prepareStatement(sql.toString())) {
+            for (int i = 0; i < bookingIds.size(); i++) {
+                pst.setInt(i + 1, bookingIds.get(i));
+            }
+            try (ResultSet rs = pst.executeQuery()) {
+                while (rs.next()) {
+                    seats.put(rs.getInt(1), rs.getInt(2));
+                }
+            }
+            return seats;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving seats of bookings: " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
+    /**
+     * Assigns seats with a batched INSERT. The caller controls the transaction.
+     *
+     * @param flightId Flight ID
+     * @param seats Seat by booking ID
+     * @return number of assignments inserted
+     * @throws SQLException if a seat is already taken, a booking already has a seat, or a database error occurs
+     */
+    public int addAssignments(int flightId, Map<Integer, Integer> seats) throws SQLException {
+        String sql = "INSERT INTO SeatAssignments (bookingId, flightId, seat) VALUES (?, ?, ?)";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int inserted = 0;
+            int pending = 0;
+            for (Map.Entry<Integer, Integer> e : seats.entrySet()) {
+                pst.setInt(1, e.getKey());
+                pst.setInt(2, flightId);
+                pst.setInt(3, e.getValue());
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    inserted += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                inserted += Batches.execute(pst);
+            }
+            return inserted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error assigning seats on flight " + flightId + ": " + e.getMessage(), e);
+            throw e;
+        } finally {
+            ADD_ASSIGNMENTS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Removes the seat assignments of bookings with a batched DELETE.
+     * The caller controls the transaction and drops any cached map of the
+     * flights concerned; their stored snapshots are corrected when next loaded.
+     *
+     * @param bookingIds Booking IDs; bookings without a seat are skipped
+     * @return number of assignments removed
+     * @throws SQLException if a database error occurs
+     */
+    public int deleteAssignments(List<Integer> bookingIds) throws SQLException {
+        String sql = "DELETE FROM SeatAssignments WHERE bookingId = ?";
+        long start = System.nanoTime();
+        try (PreparedStatement pst = connection.prepareStatement(sql)) {
+            int batchSize = Batches.size();
+            int deleted = 0;
+            int pending = 0;
+            for (int id : bookingIds) {
+                pst.setInt(1, id);
+                pst.addBatch();
+                if (++pending == batchSize) {
+                    deleted += Batches.execute(pst);
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                deleted += Batches.execute(pst);
+            }
+            return deleted;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error removing seat assignments: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            DELETE_ASSIGNMENTS_TIME.recordSince(start);
+        }
+    }
+}
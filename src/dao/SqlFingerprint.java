@@ -0,0 +1,133 @@
+package dao;
+
+import config.AppConfig;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Normalizes SQL text into a fingerprint shared by every execution of the
+ * same statement shape. Literals become ?, IN lists collapse to (?+),
+ * comments are dropped, whitespace is collapsed and keywords are lower-cased,
+ * so concatenated queries with different values aggregate together.
+ */
+public final class SqlFingerprint {
+    private static final int DEFAULT_CACHE_SIZE = 4096;
+    private static final Map<String, String> CACHE = new ConcurrentHashMap<>();
+    private static volatile int cacheLimit = readCacheLimit();
+    private static final Pattern SPACE_AROUND_PUNCTUATION = Pattern.compile(" ?([=<>!,()+\\-/]) ?");
+    // (?,?,?) collapses to (?+) so IN lists of any length share a fingerprint
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\?(,\\?)+\\)");
+
+    static {
+        AppConfig.addListener(keys -> {
+            if (keys.contains("db.profile.fingerprint.cache.size")) {
+                cacheLimit = readCacheLimit();
+                if (CACHE.size() > cacheLimit) {
+                    CACHE.clear();
+                }
+            }
+        });
+    }
+
+    private SqlFingerprint() {
+    }
+
+    private static int readCacheLimit() {
+        return AppConfig.getInt("db.profile.fingerprint.cache.size", DEFAULT_CACHE_SIZE, 0, 1_000_000);
+    }
+
+    /**
+     * Gets the fingerprint of a statement.
+     * Results for repeated SQL strings, such as prepared statements, are cached.
+     *
+     * @param sql SQL text
+     * @return the fingerprint
+     */
+    public static String of(String sql) {
+        if (sql == null) {
+            return "";
+        }
+        String cached = CACHE.get(sql);
+        if (cached != null) {
+            return cached;
+        }
+        String fingerprint = normalize(sql);
+        if (CACHE.size() < cacheLimit) {
+            CACHE.put(sql, fingerprint);
+        }
+        return fingerprint;
+    }
+
+    static String normalize(String sql) {
+        StringBuilder out = new StringBuilder(sql.length());
+        int n = sql.length();
+        int i = 0;
+        while (i < n) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                while (i < n && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                space(out);
+            } else if (c == '-' && i + 1 < n && sql.charAt(i + 1) == '-') {
+                while (i < n && sql.charAt(i) != '\n') {
+                    i++;
+                }
+                space(out);
+            } else if (c == '/' && i + 1 < n && sql.charAt(i + 1) == '*') {
+                int end = sql.indexOf("*/", i + 2);
+                i = end < 0 ? n : end + 2;
+                space(out);
+            } else if (c == '\'') {
+                // String literal; '' is an escaped quote
+                i++;
+                while (i < n) {
+                    if (sql.charAt(i) == '\'') {
+                        if (i + 1 < n && sql.charAt(i + 1) == '\'') {
+                            i += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    i++;
+                }
+                i++;
+                out.append('?');
+            } else if (c == '"' || c == '`' || c == '[') {
+                // Quoted identifier, kept verbatim
+                char close = c == '[' ? ']' : c;
+                int end = sql.indexOf(close, i + 1);
+                end = end < 0 ? n - 1 : end;
+                out.append(sql, i, end + 1);
+                i = end + 1;
+            } else if (Character.isDigit(c) && !identifierBefore(out)) {
+                while (i < n && (Character.isLetterOrDigit(sql.charAt(i)) || sql.charAt(i) == '.')) {
+                    i++;
+                }
+                out.append('?');
+            } else {
+                out.append(Character.toLowerCase(c));
+                i++;
+            }
+        }
+        // Spacing around operators and punctuation varies between hand-written queries
+        String compact = SPACE_AROUND_PUNCTUATION.matcher(out.toString().trim()).replaceAll("$1");
+        return IN_LIST.matcher(compact).replaceAll("(?+)");
+    }
+
+    private static void space(StringBuilder out) {
+        if (out.length() > 0 && out.charAt(out.length() - 1) != ' ') {
+            out.append(' ');
+        }
+    }
+
+    private static boolean identifierBefore(StringBuilder out) {
+        if (out.length() == 0) {
+            return false;
+        }
+        char prev = out.charAt(out.length() - 1);
+        return Character.isLetterOrDigit(prev) || prev == '_';
+    }
+}
@@ -0,0 +1,243 @@
+package dao;
+
+import config.AppConfig;
+import metrics.LatencyHistogram;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Per-statement SQL profiler.
+ * Connections wrapped by {@link ProfiledConnection} report every execution
+ * here; executions are aggregated by {@link SqlFingerprint} into count, total
+ * time, latency percentiles and rows. Statements slower than db.slow.query.ms
+ * are logged with their EXPLAIN QUERY PLAN output.
+ */
+public final class SqlProfiler implements SqlProfilerMXBean {
+    private static final Logger LOGGER = Logger.getLogger(SqlProfiler.class.getName());
+    private static final SqlProfiler INSTANCE = new SqlProfiler();
+    private static final String OBJECT_NAME = "airline:type=SqlProfiler";
+    private static final int MAX_FINGERPRINTS = 2000;
+    private static final String OVERFLOW = "(other statements)";
+    private static final long EXPLAIN_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int JMX_TOP = 20;
+
+    private final Map<String, StatementStats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final LongAdder slowQueries = new LongAdder();
+    private final boolean enabled;
+    private volatile long slowNanos;
+
+    private SqlProfiler() {
+        enabled = AppConfig.getBoolean("db.profile.sql", true);
+        readSlowThreshold();
+        AppConfig.addListener(keys -> {
+            if (keys.contains("db.slow.query.ms")) {
+                readSlowThreshold();
+            }
+        });
+        try {
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!ManagementFactory.getPlatformMBeanServer().isRegistered(name)) {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Error registering SQL profiler MBean: " + e.getMessage(), e);
+        }
+    }
+
+    private void readSlowThreshold() {
+        slowNanos = TimeUnit.MILLISECONDS.toNanos(AppConfig.getLong("db.slow.query.ms", 200, 0, Long.MAX_VALUE / 1_000_000));
+    }
+
+    public static SqlProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Wraps a connection so its statements are profiled, unless db.profile.sql is false
+     *
+     * @param connection Connection to wrap
+     * @return the profiled connection, or the connection itself when profiling is off
+     */
+    public Connection wrap(Connection connection) {
+        return enabled ? ProfiledConnection.wrap(connection, this) : connection;
+    }
+
+    /**
+     * Records one statement execution
+     *
+     * @param sql SQL text as executed
+     * @param nanos Execution time; for queries, until the result set was exhausted or closed
+     * @param rows Rows returned or affected
+     * @param connection Unwrapped connection the statement ran on, used for EXPLAIN
+     */
+    void record(String sql, long nanos, long rows, Connection connection) {
+        if (sql == null) {
+            sql = "(unknown statement)";
+        }
+        String fingerprint = SqlFingerprint.of(sql);
+        StatementStats s = stats.get(fingerprint);
+        if (s == null) {
+            String key = stats.size() < MAX_FINGERPRINTS ? fingerprint : OVERFLOW;
+            s = stats.computeIfAbsent(key, StatementStats::new);
+        }
+        s.time.record(nanos);
+        s.rows.add(rows);
+        if (nanos >= slowNanos) {
+            slowQueries.increment();
+            logSlow(sql, fingerprint, nanos, rows, connection);
+        }
+    }
+
+    private void logSlow(String sql, String fingerprint, long nanos, long rows, Connection connection) {
+        if (!LOGGER.isLoggable(Level.WARNING)) {
+            return;
+        }
+        StringBuilder message = new StringBuilder("Slow query (")
+                .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append("ms, ")
+                .append(rows).append(" rows): ").append(sql);
+        long now = System.nanoTime();
+        Long last = lastExplained.get(fingerprint);
+        // Explain each statement shape at most once a minute; the plan rarely changes
+        if (last == null || now - last > EXPLAIN_INTERVAL_NANOS) {
+            lastExplained.put(fingerprint, now);
+            message.append("\n").append(explain(sql, connection));
+        }
+        LOGGER.warning(message.toString());
+    }
+
+    /**
+     * Gets the query plan of a statement; unbound parameters are planned as NULL
+     *
+     * @param sql SQL text
+     * @param connection Unwrapped connection
+     * @return the plan, one line per step
+     */
+    static String explain(String sql, Connection connection) {
+        String head = sql.trim().toLowerCase(Locale.ROOT);
+        if (!(head.startsWith("select") || head.startsWith("with") || head.startsWith("update")
+                || head.startsWith("delete") || head.startsWith("insert"))) {
+            return "  (no plan for this statement type)";
+        }
+        StringBuilder plan = new StringBuilder("  QUERY PLAN");
+        try (PreparedStatement pst = connection.prepareStatement("EXPLAIN QUERY PLAN " + sql);
+             ResultSet rs = pst.executeQuery()) {
+            while (rs.next()) {
+                plan.append("\n  |--").append(rs.getString("detail"));
+            }
+        } catch (SQLException e) {
+            plan.append("\n  (unavailable: ").append(e.getMessage()).append(')');
+        }
+        return plan.toString();
+    }
+
+    /**
+     * Gets the statements with the highest total time
+     *
+     * @param n Maximum number of statements
+     * @return statements, highest total time first
+     */
+    public List<StatementStats> top(int n) {
+        List<StatementStats> all = new ArrayList<>(stats.values());
+        all.sort(Comparator.comparingLong(StatementStats::getTotalNanos).reversed());
+        return all.size() > n ? new ArrayList<>(all.subList(0, n)) : all;
+    }
+
+    /**
+     * Writes the top statements as a table
+     *
+     * @param out Destination
+     * @param n Maximum number of statements
+     */
+    public void writeReport(Writer out, int n) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.printf("%10s %12s %10s %10s %12s  %s%n", "count", "total ms", "mean ms", "p99 ms", "rows", "statement");
+        for (StatementStats s : top(n)) {
+            writer.println(s.format());
+        }
+        writer.flush();
+    }
+
+    @Override
+    public String[] getTopStatements() {
+        List<StatementStats> top = top(JMX_TOP);
+        String[] lines = new String[top.size()];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = top.get(i).format();
+        }
+        return lines;
+    }
+
+    @Override
+    public long getSlowQueryThresholdMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(slowNanos);
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueries.sum();
+    }
+
+    @Override
+    public void reset() {
+        stats.clear();
+        lastExplained.clear();
+        slowQueries.reset();
+    }
+
+    /**
+     * Aggregated executions of one statement fingerprint
+     */
+    public static final class StatementStats {
+        private final String fingerprint;
+        private final LatencyHistogram time = new LatencyHistogram();
+        private final LongAdder rows = new LongAdder();
+
+        StatementStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        public String getFingerprint() {
+            return fingerprint;
+        }
+
+        public long getCount() {
+            return time.getCount();
+        }
+
+        public long getTotalNanos() {
+            return time.getTotal();
+        }
+
+        public long getRows() {
+            return rows.sum();
+        }
+
+        public LatencyHistogram getTime() {
+            return time;
+        }
+
+        String format() {
+            return String.format("%10d %12.1f %10.3f %10.3f %12d  %s", getCount(), getTotalNanos() / 1e6,
+                    time.getMean() / 1e6, time.getValueAtPercentile(99) / 1e6, getRows(), fingerprint);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package dao;
+
+/**
+ * JMX view of the SQL profiler, registered as airline:type=SqlProfiler
+ */
+public interface SqlProfilerMXBean {
+
+    /**
+     * @return the statements with the highest total time, one line each
+     */
+    String[] getTopStatements();
+
+    long getSlowQueryThresholdMillis();
+
+    long getSlowQueryCount();
+
+    void reset();
+}
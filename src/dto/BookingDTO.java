@@ -3,6 +3,7 @@ package dto;
 import model.Booking;
 import model.Flight;
 import model.Passenger;
+import util.DateCodec;
 
 /**
  * Data Transfer Object for Booking entities.
@@ -33,7 +34,7 @@ public class BookingDTO {
             this.id = booking.getId();
             this.flightId = booking.getFlightId();
             this.passengerId = booking.getPassengerId();
-            this.bookingDate = booking.getBookingDate().toString();
+            this.bookingDate = DateCodec.format(booking.getBookingDate());
             this.seatNumber = booking.getSeatNumber();
             
             if (booking.getFlight() != null) {
@@ -56,6 +57,7 @@ public class BookingDTO {
         booking.setId(this.id);
         booking.setFlightId(this.flightId);
         booking.setPassengerId(this.passengerId);
+        booking.setBookingDate(DateCodec.parse(this.bookingDate));
         booking.setSeatNumber(this.seatNumber);
         
         if (this.flight != null) {
@@ -1,8 +1,7 @@
 package dto;
 
 import model.Flight;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import util.DateCodec;
 
 /**
  * Data Transfer Object for Flight entities.
@@ -34,7 +33,7 @@ public class FlightDTO {
             this.flightNumber = flight.getFlightNumber();
             this.origin = flight.getOrigin();
             this.destination = flight.getDestination();
-            this.departureDate = flight.getDepartureDate().format(DateTimeFormatter.ISO_LOCAL_DATE);
+            this.departureDate = DateCodec.format(flight.getDepartureDate());
             this.price = flight.getPrice();
             this.availableSeats = flight.getAvailableSeats();
         }
@@ -51,7 +50,7 @@ public class FlightDTO {
         flight.setFlightNumber(this.flightNumber);
         flight.setOrigin(this.origin);
         flight.setDestination(this.destination);
-        flight.setDepartureDate(LocalDate.parse(this.departureDate));
+        flight.setDepartureDate(DateCodec.parse(this.departureDate));
         flight.setPrice(this.price);
         flight.setAvailableSeats(this.availableSeats);
         return flight;
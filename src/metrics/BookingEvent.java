@@ -0,0 +1,29 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one BookingService.createBooking call
+ */
+@Name("airline.Booking")
+@Label("Booking")
+@Category({"Airline", "Service"})
+@Description("Creation of a booking, including its transaction")
+class BookingEvent extends Event {
+    @Label("Flight Id")
+    int flightId;
+
+    @Label("Passenger Id")
+    int passengerId;
+
+    @Label("Booking Id")
+    @Description("0 if no booking was created")
+    int bookingId;
+
+    @Label("Success")
+    boolean success;
+}
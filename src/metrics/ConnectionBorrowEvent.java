@@ -0,0 +1,29 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one DBConnectionManager.getConnection call
+ */
+@Name("airline.ConnectionBorrow")
+@Label("Connection Borrow")
+@Category({"Airline", "Database"})
+@Description("Borrowing a connection from the pool, including any wait and validation")
+class ConnectionBorrowEvent extends Event {
+    @Label("Waited")
+    @Description("The pool was exhausted and the caller waited for a connection")
+    boolean waited;
+
+    @Label("Validated")
+    boolean validated;
+
+    @Label("Active Connections")
+    int activeConnections;
+
+    @Label("Waiting Threads")
+    int waitingThreads;
+}
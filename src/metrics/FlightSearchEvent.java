@@ -0,0 +1,28 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one FlightService.searchFlights call
+ */
+@Name("airline.FlightSearch")
+@Label("Flight Search")
+@Category({"Airline", "Service"})
+@Description("Search for flights on a route and date")
+class FlightSearchEvent extends Event {
+    @Label("Origin")
+    String origin;
+
+    @Label("Destination")
+    String destination;
+
+    @Label("Departure Date")
+    String departureDate;
+
+    @Label("Rows")
+    int rows;
+}
@@ -0,0 +1,192 @@
+package metrics;
+
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.FlightRecorderListener;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+
+import java.time.LocalDate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Emits the application's Java Flight Recorder events.
+ * Each begin method returns an event handle, or null while no recording is
+ * running, so callers pay a single volatile read when JFR is off. The event
+ * classes are only loaded on runtimes that have JFR (JDK 8u262 and later);
+ * on older runtimes every method is a no-op.
+ * <p>
+ * Usage:
+ * <pre>
+ * Object event = JfrEvents.beginBooking();
+ * ...
+ * JfrEvents.endBooking(event, passengerId, flightId, bookingId, success);
+ * </pre>
+ */
+public final class JfrEvents {
+    private static final Logger LOGGER = Logger.getLogger(JfrEvents.class.getName());
+    private static volatile boolean recording = false;
+
+    static {
+        try {
+            Class.forName("jdk.jfr.FlightRecorder");
+            Listener.install();
+        } catch (ClassNotFoundException | LinkageError e) {
+            LOGGER.fine("Java Flight Recorder is not available; JFR events are disabled");
+        }
+    }
+
+    private JfrEvents() {
+    }
+
+    /**
+     * @return whether a flight recording is running
+     */
+    public static boolean isRecording() {
+        return recording;
+    }
+
+    public static Object beginBooking() {
+        if (!recording) {
+            return null;
+        }
+        BookingEvent event = new BookingEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param handle Result of {@link #beginBooking()}
+     * @param bookingId Created booking id, or null if none was created
+     */
+    public static void endBooking(Object handle, int passengerId, int flightId, Integer bookingId, boolean success) {
+        if (handle == null) {
+            return;
+        }
+        BookingEvent event = (BookingEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.passengerId = passengerId;
+            event.flightId = flightId;
+            event.bookingId = bookingId == null ? 0 : bookingId;
+            event.success = success;
+            event.commit();
+        }
+    }
+
+    public static Object beginSearch() {
+        if (!recording) {
+            return null;
+        }
+        FlightSearchEvent event = new FlightSearchEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param handle Result of {@link #beginSearch()}
+     * @param rows Number of flights found, or -1 if the search failed
+     */
+    public static void endSearch(Object handle, String origin, String destination, LocalDate departureDate, int rows) {
+        if (handle == null) {
+            return;
+        }
+        FlightSearchEvent event = (FlightSearchEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.origin = origin;
+            event.destination = destination;
+            event.departureDate = departureDate == null ? null : departureDate.toString();
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    public static Object beginBorrow() {
+        if (!recording) {
+            return null;
+        }
+        ConnectionBorrowEvent event = new ConnectionBorrowEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param handle Result of {@link #beginBorrow()}
+     * @param waited Whether the caller had to wait for a connection to be returned
+     * @param validated Whether the connection was validated before use
+     */
+    public static void endBorrow(Object handle, boolean waited, boolean validated, int activeConnections,
+                                 int waitingThreads) {
+        if (handle == null) {
+            return;
+        }
+        ConnectionBorrowEvent event = (ConnectionBorrowEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.waited = waited;
+            event.validated = validated;
+            event.activeConnections = activeConnections;
+            event.waitingThreads = waitingThreads;
+            event.commit();
+        }
+    }
+
+    public static Object beginStatement() {
+        if (!recording) {
+            return null;
+        }
+        SqlStatementEvent event = new SqlStatementEvent();
+        event.begin();
+        return event;
+    }
+
+    /**
+     * @param handle Result of {@link #beginStatement()}
+     * @param fingerprint Normalized statement text
+     * @param rows Rows returned or affected
+     */
+    public static void endStatement(Object handle, String fingerprint, long rows) {
+        if (handle == null) {
+            return;
+        }
+        SqlStatementEvent event = (SqlStatementEvent) handle;
+        event.end();
+        if (event.shouldCommit()) {
+            event.fingerprint = fingerprint;
+            event.rows = rows;
+            event.commit();
+        }
+    }
+
+    /**
+     * Tracks whether any recording is running; kept separate so JfrEvents
+     * loads on runtimes without JFR
+     */
+    private static final class Listener implements FlightRecorderListener {
+
+        static void install() {
+            if (FlightRecorder.isAvailable()) {
+                FlightRecorder.addListener(new Listener());
+            }
+        }
+
+        @Override
+        public void recorderInitialized(FlightRecorder recorder) {
+            update(recorder);
+        }
+
+        @Override
+        public void recordingStateChanged(Recording changed) {
+            update(FlightRecorder.getFlightRecorder());
+        }
+
+        private static void update(FlightRecorder recorder) {
+            boolean running = false;
+            for (Recording r : recorder.getRecordings()) {
+                running |= r.getState() == RecordingState.RUNNING;
+            }
+            recording = running;
+        }
+    }
+}
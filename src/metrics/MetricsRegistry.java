@@ -0,0 +1,280 @@
+package metrics;
+
+import config.AppConfig;
+import config.LoggingConfig;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Process-wide registry of counters, gauges and latency histograms.
+ * Metrics are looked up once by name, normally into static final fields, so
+ * recording on the hot path is a field read plus the metric's own lock-free
+ * update and never allocates. The registry can be dumped to a text file on a
+ * schedule and is exposed over JMX as one dynamic MBean.
+ */
+public final class MetricsRegistry {
+    private static final Logger LOGGER = Logger.getLogger(MetricsRegistry.class.getName());
+    private static final MetricsRegistry INSTANCE = new MetricsRegistry();
+    private static final String OBJECT_NAME = "airline:type=Metrics";
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+    private ScheduledExecutorService reporter;
+
+    private MetricsRegistry() {
+    }
+
+    public static MetricsRegistry getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Gets or creates a counter
+     *
+     * @param name Metric name
+     * @return the counter
+     */
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, k -> new Counter());
+    }
+
+    /**
+     * Gets or creates a latency histogram; values are recorded in nanoseconds
+     *
+     * @param name Metric name
+     * @return the histogram
+     */
+    public LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, k -> new LatencyHistogram());
+    }
+
+    /**
+     * Registers a gauge, replacing any gauge of the same name
+     *
+     * @param name Metric name
+     * @param supplier Reads the current value; called on every dump or JMX read
+     */
+    public void gauge(String name, LongSupplier supplier) {
+        gauges.put(name, supplier);
+    }
+
+    /**
+     * Resets all counters and histograms; gauges are read live and are unaffected
+     */
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Writes every metric as one line, sorted by name.
+     * Histograms are printed in microseconds.
+     *
+     * @param out Destination
+     */
+    public void writeTo(Writer out) {
+        PrintWriter writer = new PrintWriter(out);
+        writer.println("# metrics at " + new Date());
+        for (Map.Entry<String, Counter> e : new TreeMap<>(counters).entrySet()) {
+            writer.println(e.getKey() + " count=" + e.getValue().get());
+        }
+        for (Map.Entry<String, LongSupplier> e : new TreeMap<>(gauges).entrySet()) {
+            writer.println(e.getKey() + " value=" + readGauge(e.getValue()));
+        }
+        for (Map.Entry<String, LatencyHistogram> e : new TreeMap<>(histograms).entrySet()) {
+            writer.println(e.getKey() + " " + e.getValue().summary(TimeUnit.MICROSECONDS));
+        }
+        writer.flush();
+    }
+
+    /**
+     * Overwrites a file with the current metrics
+     *
+     * @param file Destination file
+     * @throws IOException if the file cannot be written
+     */
+    public void dumpToFile(File file) throws IOException {
+        try (Writer out = new FileWriter(file)) {
+            writeTo(out);
+        }
+    }
+
+    /**
+     * Starts periodic file dumps and JMX export as configured by
+     * metrics.file, metrics.interval.seconds and metrics.jmx.
+     * Safe to call more than once.
+     */
+    public synchronized void startReporting() {
+        gauge("LoggingConfig.droppedRecords", LoggingConfig::getDroppedRecords);
+        gauge("LoggingConfig.queuedRecords", LoggingConfig::getQueuedRecords);
+        if (Boolean.parseBoolean(AppConfig.getProperty("metrics.jmx", "true"))) {
+            registerMBean();
+        }
+        String path = AppConfig.getProperty("metrics.file", "");
+        if (path.isEmpty() || reporter != null) {
+            return;
+        }
+        File file = new File(path);
+        long interval = Long.parseLong(AppConfig.getProperty("metrics.interval.seconds", "60"));
+        reporter = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metrics-reporter");
+            t.setDaemon(true);
+            return t;
+        });
+        reporter.scheduleAtFixedRate(() -> {
+            try {
+                dumpToFile(file);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Error writing metrics to " + file + ": " + e.getMessage(), e);
+            }
+        }, interval, interval, TimeUnit.SECONDS);
+        LOGGER.info("Writing metrics to " + file.getAbsolutePath() + " every " + interval + "s");
+    }
+
+    /**
+     * Registers the registry with the platform MBean server
+     */
+    public synchronized void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(new MetricsMBean(), name);
+                LOGGER.info("Metrics registered with JMX as " + OBJECT_NAME);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Error registering metrics MBean: " + e.getMessage(), e);
+        }
+    }
+
+    private static long readGauge(LongSupplier gauge) {
+        try {
+            return gauge.getAsLong();
+        } catch (RuntimeException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Exposes every metric as a read-only attribute. Histograms appear as
+     * name.count, name.meanMicros, name.p50Micros, name.p99Micros and name.maxMicros.
+     */
+    private final class MetricsMBean implements DynamicMBean {
+        private static final String COUNT = ".count";
+        private static final String MEAN = ".meanMicros";
+        private static final String P50 = ".p50Micros";
+        private static final String P99 = ".p99Micros";
+        private static final String MAX = ".maxMicros";
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Counter counter = counters.get(attribute);
+            if (counter != null) {
+                return counter.get();
+            }
+            LongSupplier gauge = gauges.get(attribute);
+            if (gauge != null) {
+                return readGauge(gauge);
+            }
+            for (String suffix : new String[]{COUNT, MEAN, P50, P99, MAX}) {
+                if (attribute.endsWith(suffix)) {
+                    LatencyHistogram h = histograms.get(attribute.substring(0, attribute.length() - suffix.length()));
+                    if (h != null) {
+                        return histogramValue(h, suffix);
+                    }
+                }
+            }
+            throw new AttributeNotFoundException(attribute);
+        }
+
+        private double histogramValue(LatencyHistogram h, String suffix) {
+            switch (suffix) {
+                case COUNT: return h.getCount();
+                case MEAN: return h.getMean() / 1000.0;
+                case P50: return h.getValueAtPercentile(50) / 1000.0;
+                case P99: return h.getValueAtPercentile(99) / 1000.0;
+                default: return h.getMax() / 1000.0;
+            }
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] attributes) {
+            AttributeList list = new AttributeList();
+            for (String attribute : attributes) {
+                try {
+                    list.add(new Attribute(attribute, getAttribute(attribute)));
+                } catch (AttributeNotFoundException e) {
+                    // Metrics can disappear only on restart; skip unknown names
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("Metrics are read-only: " + attribute.getName());
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            if ("reset".equals(actionName)) {
+                reset();
+                return null;
+            }
+            throw new UnsupportedOperationException(actionName);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> attributes = new ArrayList<>();
+            for (String name : new TreeMap<>(counters).keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Counter", true, false, false));
+            }
+            for (String name : new TreeMap<>(gauges).keySet()) {
+                attributes.add(new MBeanAttributeInfo(name, "long", "Gauge", true, false, false));
+            }
+            for (String name : new TreeMap<>(histograms).keySet()) {
+                for (String suffix : new String[]{COUNT, MEAN, P50, P99, MAX}) {
+                    attributes.add(new MBeanAttributeInfo(name + suffix, "double", "Latency", true, false, false));
+                }
+            }
+            MBeanOperationInfo reset = new MBeanOperationInfo("reset", "Reset counters and histograms",
+                    null, "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(MetricsRegistry.class.getName(), "Application metrics",
+                    attributes.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[]{reset}, null);
+        }
+    }
+}
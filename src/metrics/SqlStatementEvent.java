@@ -0,0 +1,23 @@
+package metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR event spanning one SQL statement execution on a pooled connection
+ */
+@Name("airline.SqlStatement")
+@Label("SQL Statement")
+@Category({"Airline", "Database"})
+@Description("Statement execution; queries last until their result set is exhausted or closed")
+class SqlStatementEvent extends Event {
+    @Label("Fingerprint")
+    String fingerprint;
+
+    @Label("Rows")
+    @Description("Rows returned or affected")
+    long rows;
+}
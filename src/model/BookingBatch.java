@@ -0,0 +1,140 @@
+package model;
+
+import util.DateCodec;
+import util.StringDictionary;
+
+/**
+ * Columnar, primitive-backed container for a batch of bookings.
+ * Used by bulk paths instead of one Booking object per row. A null amount
+ * paid is stored as NaN and a missing booking date as {@link #NO_DATE};
+ * statuses are encoded as {@link StringDictionary#STATUSES} codes.
+ * A batch is reusable; {@link #clear()} keeps the allocated arrays.
+ */
+public class BookingBatch {
+    /** Epoch day stored for bookings without a booking date */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final int capacity;
+    private final int[] ids;
+    private final int[] passengerIds;
+    private final int[] flightIds;
+    private final double[] amountsPaid;
+    private final EncodedColumn statuses;
+    private final int[] bookingDays;
+    private int size;
+
+    /**
+     * Constructs an empty BookingBatch
+     *
+     * @param capacity Maximum number of bookings held at once
+     */
+    public BookingBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.passengerIds = new int[capacity];
+        this.flightIds = new int[capacity];
+        this.amountsPaid = new double[capacity];
+        this.statuses = new EncodedColumn(StringDictionary.STATUSES, capacity);
+        this.bookingDays = new int[capacity];
+    }
+
+    /**
+     * Appends a booking
+     *
+     * @param id Booking identifier
+     * @param passengerId Associated passenger ID
+     * @param flightId Associated flight ID
+     * @param amountPaid Amount paid, NaN if unknown
+     * @param status Booking status
+     * @param bookingDay Booking date as epoch day, or NO_DATE
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(int id, int passengerId, int flightId, double amountPaid, String status, int bookingDay) {
+        if (size == capacity) {
+            throw new IllegalStateException("Booking batch is full");
+        }
+        ids[size] = id;
+        passengerIds[size] = passengerId;
+        flightIds[size] = flightId;
+        amountsPaid[size] = amountPaid;
+        statuses.set(size, status);
+        bookingDays[size] = bookingDay;
+        size++;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays for reuse
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public int getId(int index) {
+        return ids[checkIndex(index)];
+    }
+
+    public int getPassengerId(int index) {
+        return passengerIds[checkIndex(index)];
+    }
+
+    public int getFlightId(int index) {
+        return flightIds[checkIndex(index)];
+    }
+
+    public boolean hasAmountPaid(int index) {
+        return !Double.isNaN(amountsPaid[checkIndex(index)]);
+    }
+
+    public double getAmountPaid(int index) {
+        return amountsPaid[checkIndex(index)];
+    }
+
+    /**
+     * Gets the status as a {@link StringDictionary#STATUSES} code
+     *
+     * @param index Row index
+     * @return the status code, or NOT_ENCODED
+     */
+    public int getStatusCode(int index) {
+        return statuses.code(checkIndex(index));
+    }
+
+    public String getStatus(int index) {
+        return statuses.get(checkIndex(index));
+    }
+
+    public int getBookingDay(int index) {
+        return bookingDays[checkIndex(index)];
+    }
+
+    /**
+     * Materializes one row as a Booking entity
+     *
+     * @param index Row index
+     * @return a new Booking
+     */
+    public Booking toBooking(int index) {
+        int day = getBookingDay(index);
+        return new Booking(getId(index), getPassengerId(index), getFlightId(index),
+                hasAmountPaid(index) ? getAmountPaid(index) : null, getStatus(index),
+                day != NO_DATE ? DateCodec.fromEpochDay(day) : null);
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+}
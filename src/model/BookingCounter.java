@@ -0,0 +1,31 @@
+package model;
+
+/**
+ * Materialized booking count and revenue of a flight, or of a route on one booking day
+ */
+public class BookingCounter {
+    /** Counter of a flight or route without bookings */
+    public static final BookingCounter EMPTY = new BookingCounter(0, 0);
+
+    private final long booked;
+    private final double revenue;
+
+    /**
+     * Constructs a BookingCounter
+     *
+     * @param booked Bookings that are not cancelled
+     * @param revenue Amount paid over those bookings
+     */
+    public BookingCounter(long booked, double revenue) {
+        this.booked = booked;
+        this.revenue = revenue;
+    }
+
+    public long getBooked() {
+        return booked;
+    }
+
+    public double getRevenue() {
+        return revenue;
+    }
+}
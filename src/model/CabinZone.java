@@ -0,0 +1,50 @@
+package model;
+
+/**
+ * A named block of consecutive seat rows, such as business or economy
+ */
+public class CabinZone {
+    private final String name;
+    private final int firstRow;
+    private final int lastRow;
+
+    /**
+     * Constructs a CabinZone
+     *
+     * @param name Zone name
+     * @param firstRow First row, 1-based
+     * @param lastRow Last row, inclusive
+     */
+    public CabinZone(String name, int firstRow, int lastRow) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Zone name cannot be empty");
+        }
+        if (firstRow < 1 || lastRow < firstRow) {
+            throw new IllegalArgumentException("Invalid rows " + firstRow + "-" + lastRow + " for zone " + name);
+        }
+        this.name = name.trim().toUpperCase();
+        this.firstRow = firstRow;
+        this.lastRow = lastRow;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getFirstRow() {
+        return firstRow;
+    }
+
+    public int getLastRow() {
+        return lastRow;
+    }
+
+    public boolean containsRow(int row) {
+        return row >= firstRow && row <= lastRow;
+    }
+
+    @Override
+    public String toString() {
+        return name + ":" + firstRow + "-" + lastRow;
+    }
+}
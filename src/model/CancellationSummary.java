@@ -0,0 +1,42 @@
+package model;
+
+/**
+ * Outcome of cancelling every booking of a flight
+ */
+public class CancellationSummary {
+    private final int flightId;
+    private final int cancelled;
+    private final double refunded;
+    private final int batches;
+
+    /**
+     * Constructs a CancellationSummary
+     *
+     * @param flightId Flight whose bookings were cancelled
+     * @param cancelled Bookings cancelled
+     * @param refunded Total amount refunded
+     * @param batches Transactions committed
+     */
+    public CancellationSummary(int flightId, int cancelled, double refunded, int batches) {
+        this.flightId = flightId;
+        this.cancelled = cancelled;
+        this.refunded = refunded;
+        this.batches = batches;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public int getCancelled() {
+        return cancelled;
+    }
+
+    public double getRefunded() {
+        return refunded;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+}
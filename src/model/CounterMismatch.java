@@ -0,0 +1,41 @@
+package model;
+
+/**
+ * A stored booking counter that differs from the value recomputed from the Bookings table
+ */
+public class CounterMismatch {
+    private final String key;
+    private final BookingCounter expected;
+    private final BookingCounter stored;
+
+    /**
+     * Constructs a CounterMismatch
+     *
+     * @param key Flight or route and day the counter belongs to
+     * @param expected Value recomputed from the bookings
+     * @param stored Value found in the counter table
+     */
+    public CounterMismatch(String key, BookingCounter expected, BookingCounter stored) {
+        this.key = key;
+        this.expected = expected;
+        this.stored = stored;
+    }
+
+    public String getKey() {
+        return key;
+    }
+
+    public BookingCounter getExpected() {
+        return expected;
+    }
+
+    public BookingCounter getStored() {
+        return stored;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: expected %d booked, %.2f revenue; stored %d booked, %.2f revenue", key,
+                expected.getBooked(), expected.getRevenue(), stored.getBooked(), stored.getRevenue());
+    }
+}
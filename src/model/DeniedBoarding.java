@@ -0,0 +1,66 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Passenger who held a booking but was not flown because the flight was oversold
+ */
+public class DeniedBoarding {
+    private final Integer id;
+    private final int bookingId;
+    private final int passengerId;
+    private final int flightId;
+    private final boolean voluntary;
+    private final double compensation;
+    private final LocalDate deniedDate;
+
+    /**
+     * Constructs a DeniedBoarding
+     *
+     * @param id Entry ID, null before it is stored
+     * @param bookingId Booking that was not flown
+     * @param passengerId Passenger denied boarding
+     * @param flightId Oversold flight
+     * @param voluntary true if the passenger gave up the seat, false if bumped
+     * @param compensation Amount paid to the passenger
+     * @param deniedDate Day boarding was denied
+     */
+    public DeniedBoarding(Integer id, int bookingId, int passengerId, int flightId, boolean voluntary,
+                          double compensation, LocalDate deniedDate) {
+        this.id = id;
+        this.bookingId = bookingId;
+        this.passengerId = passengerId;
+        this.flightId = flightId;
+        this.voluntary = voluntary;
+        this.compensation = compensation;
+        this.deniedDate = deniedDate;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public int getBookingId() {
+        return bookingId;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public boolean isVoluntary() {
+        return voluntary;
+    }
+
+    public double getCompensation() {
+        return compensation;
+    }
+
+    public LocalDate getDeniedDate() {
+        return deniedDate;
+    }
+}
@@ -0,0 +1,45 @@
+package model;
+
+import util.StringDictionary;
+
+/**
+ * Dictionary-encoded string column of a batch.
+ * Values are stored as codes of a shared {@link StringDictionary}; the rare
+ * value the dictionary cannot encode is kept as-is in a lazily allocated
+ * overflow array.
+ */
+class EncodedColumn {
+    private final StringDictionary dictionary;
+    private final int[] codes;
+    private String[] overflow;
+
+    EncodedColumn(StringDictionary dictionary, int capacity) {
+        this.dictionary = dictionary;
+        this.codes = new int[capacity];
+    }
+
+    void set(int index, String value) {
+        int code = dictionary.encode(value);
+        codes[index] = code;
+        if (code == StringDictionary.NOT_ENCODED && value != null) {
+            if (overflow == null) {
+                overflow = new String[codes.length];
+            }
+            overflow[index] = value;
+        } else if (overflow != null) {
+            overflow[index] = null;
+        }
+    }
+
+    int code(int index) {
+        return codes[index];
+    }
+
+    String get(int index) {
+        int code = codes[index];
+        if (code == StringDictionary.NOT_ENCODED) {
+            return overflow != null ? overflow[index] : null;
+        }
+        return dictionary.decode(code);
+    }
+}
@@ -0,0 +1,51 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * One day of a route's fare calendar
+ */
+public class FareDay {
+    private final LocalDate date;
+    private final Double lowestPrice;
+    private final int flights;
+    private final int seatsAvailable;
+
+    /**
+     * Constructs a FareDay
+     *
+     * @param date Departure date
+     * @param lowestPrice Lowest price among flights with seats left, null if none has
+     * @param flights Flights departing that day
+     * @param seatsAvailable Seats left across those flights
+     */
+    public FareDay(LocalDate date, Double lowestPrice, int flights, int seatsAvailable) {
+        this.date = date;
+        this.lowestPrice = lowestPrice;
+        this.flights = flights;
+        this.seatsAvailable = seatsAvailable;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public Double getLowestPrice() {
+        return lowestPrice;
+    }
+
+    public int getFlights() {
+        return flights;
+    }
+
+    public int getSeatsAvailable() {
+        return seatsAvailable;
+    }
+
+    /**
+     * @return true if a seat can be booked on this day
+     */
+    public boolean isAvailable() {
+        return seatsAvailable > 0;
+    }
+}
@@ -33,14 +33,14 @@ public class Flight {
      * @param departureDate Date of departure
      * @param departureTime Time of departure
      * @param arrivalTime Time of arrival
-     * @param seatCount Available seats
+     * @param seatCount Available seats; negative when the flight is oversold
      * @param price Ticket price
      * @throws IllegalArgumentException if required fields are invalid
      */
     public Flight(Integer id, String code, String fromCity, String toCity, 
                  LocalDate departureDate, String departureTime, String arrivalTime, 
                  Integer seatCount, Double price) {
-        validateFlightData(code, fromCity, toCity, departureDate, seatCount, price);
+        validateFlightData(code, fromCity, toCity, departureDate, price);
         
         this.id = id;
         this.code = code;
@@ -60,12 +60,11 @@ public class Flight {
      * @param fromCity Origin city
      * @param toCity Destination city
      * @param departureDate Date of departure
-     * @param seatCount Available seats
      * @param price Ticket price
      * @throws IllegalArgumentException if validation fails
      */
     private void validateFlightData(String code, String fromCity, String toCity, 
-                                   LocalDate departureDate, Integer seatCount, Double price) {
+                                   LocalDate departureDate, Double price) {
         if (code == null || code.trim().isEmpty()) {
             throw new IllegalArgumentException("Flight code cannot be empty");
         }
@@ -78,9 +77,6 @@ public class Flight {
         if (departureDate == null) {
             throw new IllegalArgumentException("Departure date is required");
         }
-        if (seatCount != null && seatCount < 0) {
-            throw new IllegalArgumentException("Seat count cannot be negative");
-        }
         if (price != null && price < 0) {
             throw new IllegalArgumentException("Price cannot be negative");
         }
@@ -161,9 +157,6 @@ public class Flight {
     }
 
     public void setSeatCount(Integer seatCount) {
-        if (seatCount != null && seatCount < 0) {
-            throw new IllegalArgumentException("Seat count cannot be negative");
-        }
         this.seatCount = seatCount;
     }
 
@@ -0,0 +1,159 @@
+package model;
+
+import util.DateCodec;
+import util.StringDictionary;
+
+import java.util.Arrays;
+
+/**
+ * Columnar, primitive-backed container for a batch of flights.
+ * Used by bulk paths (streaming DAO scans, reports, exports) instead of one
+ * Flight object per row: numeric fields live in parallel int/double arrays and
+ * origin/destination cities are encoded as {@link StringDictionary#CITIES} codes,
+ * so they can be compared as ints across batches. A flight without a
+ * departure date is stored with the departure day {@link #NO_DATE}.
+ * A batch is reusable; {@link #clear()} keeps the allocated arrays.
+ */
+public class FlightBatch {
+    /** Epoch day stored for flights without a departure date */
+    public static final int NO_DATE = Integer.MIN_VALUE;
+
+    private final int capacity;
+    private final int[] ids;
+    private final String[] codes;
+    private final EncodedColumn fromCities;
+    private final EncodedColumn toCities;
+    private final int[] departureDays;
+    private final int[] seatCounts;
+    private final double[] prices;
+    private int size;
+
+    /**
+     * Constructs an empty FlightBatch
+     *
+     * @param capacity Maximum number of flights held at once
+     */
+    public FlightBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.codes = new String[capacity];
+        this.fromCities = new EncodedColumn(StringDictionary.CITIES, capacity);
+        this.toCities = new EncodedColumn(StringDictionary.CITIES, capacity);
+        this.departureDays = new int[capacity];
+        this.seatCounts = new int[capacity];
+        this.prices = new double[capacity];
+    }
+
+    /**
+     * Appends a flight
+     *
+     * @param id Flight identifier
+     * @param code Flight code
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param departureDay Departure date as epoch day, or NO_DATE
+     * @param seatCount Available seats, negative when oversold
+     * @param price Ticket price
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(int id, String code, String fromCity, String toCity, int departureDay, int seatCount, double price) {
+        if (size == capacity) {
+            throw new IllegalStateException("Flight batch is full");
+        }
+        ids[size] = id;
+        codes[size] = code;
+        fromCities.set(size, fromCity);
+        toCities.set(size, toCity);
+        departureDays[size] = departureDay;
+        seatCounts[size] = seatCount;
+        prices[size] = price;
+        size++;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays for reuse
+     */
+    public void clear() {
+        Arrays.fill(codes, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public int getId(int index) {
+        return ids[checkIndex(index)];
+    }
+
+    public String getCode(int index) {
+        return codes[checkIndex(index)];
+    }
+
+    /**
+     * Gets the origin as a {@link StringDictionary#CITIES} code
+     *
+     * @param index Row index
+     * @return the city code, or NOT_ENCODED if the dictionary was full
+     */
+    public int getFromCityCode(int index) {
+        return fromCities.code(checkIndex(index));
+    }
+
+    /**
+     * Gets the destination as a {@link StringDictionary#CITIES} code
+     *
+     * @param index Row index
+     * @return the city code, or NOT_ENCODED if the dictionary was full
+     */
+    public int getToCityCode(int index) {
+        return toCities.code(checkIndex(index));
+    }
+
+    public String getFromCity(int index) {
+        return fromCities.get(checkIndex(index));
+    }
+
+    public String getToCity(int index) {
+        return toCities.get(checkIndex(index));
+    }
+
+    public int getDepartureDay(int index) {
+        return departureDays[checkIndex(index)];
+    }
+
+    public int getSeatCount(int index) {
+        return seatCounts[checkIndex(index)];
+    }
+
+    public double getPrice(int index) {
+        return prices[checkIndex(index)];
+    }
+
+    /**
+     * Materializes one row as a Flight entity; departure and arrival times are not carried by batches
+     *
+     * @param index Row index
+     * @return a new Flight
+     * @throws IllegalArgumentException if the flight has no departure date, which Flight requires
+     */
+    public Flight toFlight(int index) {
+        int day = getDepartureDay(index);
+        return new Flight(getId(index), getCode(index), getFromCity(index), getToCity(index),
+                day != NO_DATE ? DateCodec.fromEpochDay(day) : null, null, null, getSeatCount(index), getPrice(index));
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+}
@@ -0,0 +1,99 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria of a top-K flight query: flights from an origin, optionally to a
+ * destination, within a departure date range and with a minimum number of
+ * seats left, ordered by {@link Order} and cut off after a limit
+ */
+public class FlightQuery {
+    /**
+     * Ranking of the matching flights
+     */
+    public enum Order {
+        /** Cheapest first */
+        PRICE,
+        /** Earliest departure first */
+        DEPARTURE,
+        /** Most seats left first */
+        SEATS_LEFT
+    }
+
+    private final String origin;
+    private final Order order;
+    private final int limit;
+    private String destination;
+    private LocalDate fromDate;
+    private LocalDate toDate;
+    private int minSeats;
+
+    /**
+     * Constructs a FlightQuery
+     *
+     * @param origin Origin city
+     * @param order Ranking of the results
+     * @param limit Maximum number of flights returned
+     */
+    public FlightQuery(String origin, Order order, int limit) {
+        this.origin = origin;
+        this.order = order;
+        this.limit = limit;
+    }
+
+    public String getOrigin() {
+        return origin;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    /**
+     * @param destination Destination city, null for any
+     */
+    public void setDestination(String destination) {
+        this.destination = destination;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    /**
+     * @param fromDate First departure date, inclusive; null for no lower bound
+     */
+    public void setFromDate(LocalDate fromDate) {
+        this.fromDate = fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    /**
+     * @param toDate Last departure date, inclusive; null for no upper bound
+     */
+    public void setToDate(LocalDate toDate) {
+        this.toDate = toDate;
+    }
+
+    public int getMinSeats() {
+        return minSeats;
+    }
+
+    /**
+     * @param minSeats Minimum seats left, 0 to include sold out flights
+     */
+    public void setMinSeats(int minSeats) {
+        this.minSeats = minSeats;
+    }
+}
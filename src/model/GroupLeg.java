@@ -0,0 +1,28 @@
+package model;
+
+/**
+ * One flight of a group booking and the amount each passenger pays for it
+ */
+public class GroupLeg {
+    private final int flightId;
+    private final double amountPerSeat;
+
+    /**
+     * Constructs a GroupLeg
+     *
+     * @param flightId Flight ID
+     * @param amountPerSeat Amount paid for each passenger's seat on the flight
+     */
+    public GroupLeg(int flightId, double amountPerSeat) {
+        this.flightId = flightId;
+        this.amountPerSeat = amountPerSeat;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public double getAmountPerSeat() {
+        return amountPerSeat;
+    }
+}
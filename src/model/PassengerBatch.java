@@ -0,0 +1,183 @@
+package model;
+
+import util.StringDictionary;
+
+import java.util.Arrays;
+
+/**
+ * Columnar, primitive-backed container for a batch of passengers.
+ * Used by bulk paths instead of one Passenger object per row. A missing
+ * flight is stored as {@link #NO_FLIGHT} and a null amount paid as NaN;
+ * gender, nationality, cities and status are encoded as codes of the shared
+ * {@link StringDictionary} instances.
+ * A batch is reusable; {@link #clear()} keeps the allocated arrays.
+ */
+public class PassengerBatch {
+    /** Flight ID stored for passengers without a flight */
+    public static final int NO_FLIGHT = Integer.MIN_VALUE;
+
+    private final int capacity;
+    private final int[] ids;
+    private final String[] names;
+    private final String[] passportNumbers;
+    private final EncodedColumn genders;
+    private final EncodedColumn nationalities;
+    private final EncodedColumn fromCities;
+    private final EncodedColumn toCities;
+    private final int[] flightIds;
+    private final double[] amountsPaid;
+    private final EncodedColumn statuses;
+    private int size;
+
+    /**
+     * Constructs an empty PassengerBatch
+     *
+     * @param capacity Maximum number of passengers held at once
+     */
+    public PassengerBatch(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Batch capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.ids = new int[capacity];
+        this.names = new String[capacity];
+        this.passportNumbers = new String[capacity];
+        this.genders = new EncodedColumn(StringDictionary.GENDERS, capacity);
+        this.nationalities = new EncodedColumn(StringDictionary.NATIONALITIES, capacity);
+        this.fromCities = new EncodedColumn(StringDictionary.CITIES, capacity);
+        this.toCities = new EncodedColumn(StringDictionary.CITIES, capacity);
+        this.flightIds = new int[capacity];
+        this.amountsPaid = new double[capacity];
+        this.statuses = new EncodedColumn(StringDictionary.STATUSES, capacity);
+    }
+
+    /**
+     * Appends a passenger
+     *
+     * @param id Passenger identifier
+     * @param name Passenger name
+     * @param gender Passenger gender
+     * @param nationality Passenger nationality
+     * @param passportNumber Passport number
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param flightId Associated flight ID, or NO_FLIGHT
+     * @param amountPaid Amount paid, NaN if unknown
+     * @param status Booking status
+     * @throws IllegalStateException if the batch is full
+     */
+    public void add(int id, String name, String gender, String nationality, String passportNumber,
+                    String fromCity, String toCity, int flightId, double amountPaid, String status) {
+        if (size == capacity) {
+            throw new IllegalStateException("Passenger batch is full");
+        }
+        ids[size] = id;
+        names[size] = name;
+        passportNumbers[size] = passportNumber;
+        genders.set(size, gender);
+        nationalities.set(size, nationality);
+        fromCities.set(size, fromCity);
+        toCities.set(size, toCity);
+        flightIds[size] = flightId;
+        amountsPaid[size] = amountPaid;
+        statuses.set(size, status);
+        size++;
+    }
+
+    /**
+     * Empties the batch, keeping its arrays for reuse
+     */
+    public void clear() {
+        Arrays.fill(names, 0, size, null);
+        Arrays.fill(passportNumbers, 0, size, null);
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isFull() {
+        return size == capacity;
+    }
+
+    public int getId(int index) {
+        return ids[checkIndex(index)];
+    }
+
+    public String getName(int index) {
+        return names[checkIndex(index)];
+    }
+
+    public String getPassportNumber(int index) {
+        return passportNumbers[checkIndex(index)];
+    }
+
+    public String getGender(int index) {
+        return genders.get(checkIndex(index));
+    }
+
+    public String getNationality(int index) {
+        return nationalities.get(checkIndex(index));
+    }
+
+    public String getFromCity(int index) {
+        return fromCities.get(checkIndex(index));
+    }
+
+    public String getToCity(int index) {
+        return toCities.get(checkIndex(index));
+    }
+
+    public boolean hasFlight(int index) {
+        return flightIds[checkIndex(index)] != NO_FLIGHT;
+    }
+
+    public int getFlightId(int index) {
+        return flightIds[checkIndex(index)];
+    }
+
+    public boolean hasAmountPaid(int index) {
+        return !Double.isNaN(amountsPaid[checkIndex(index)]);
+    }
+
+    public double getAmountPaid(int index) {
+        return amountsPaid[checkIndex(index)];
+    }
+
+    public int getFromCityCode(int index) {
+        return fromCities.code(checkIndex(index));
+    }
+
+    public int getToCityCode(int index) {
+        return toCities.code(checkIndex(index));
+    }
+
+    public int getStatusCode(int index) {
+        return statuses.code(checkIndex(index));
+    }
+
+    public String getStatus(int index) {
+        return statuses.get(checkIndex(index));
+    }
+
+    /**
+     * Materializes one row as a Passenger entity
+     *
+     * @param index Row index
+     * @return a new Passenger
+     */
+    public Passenger toPassenger(int index) {
+        return new Passenger(getId(index), getName(index), getGender(index), getNationality(index),
+                getPassportNumber(index), getFromCity(index), getToCity(index),
+                hasFlight(index) ? getFlightId(index) : null,
+                hasAmountPaid(index) ? getAmountPaid(index) : null, getStatus(index));
+    }
+
+    private int checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+        return index;
+    }
+}
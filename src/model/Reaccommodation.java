@@ -0,0 +1,42 @@
+package model;
+
+/**
+ * Move of one booking from a disrupted flight to an alternative flight
+ */
+public class Reaccommodation {
+    private final Booking booking;
+    private final int fromFlightId;
+    private final int toFlightId;
+
+    /**
+     * Constructs a Reaccommodation
+     *
+     * @param booking Booking being moved, still on the disrupted flight
+     * @param toFlightId Alternative flight
+     */
+    public Reaccommodation(Booking booking, int toFlightId) {
+        this.booking = booking;
+        this.fromFlightId = booking.getFlightId();
+        this.toFlightId = toFlightId;
+    }
+
+    public Booking getBooking() {
+        return booking;
+    }
+
+    public int getBookingId() {
+        return booking.getId();
+    }
+
+    public int getPassengerId() {
+        return booking.getPassengerId();
+    }
+
+    public int getFromFlightId() {
+        return fromFlightId;
+    }
+
+    public int getToFlightId() {
+        return toFlightId;
+    }
+}
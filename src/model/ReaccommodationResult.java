@@ -0,0 +1,45 @@
+package model;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of re-accommodating the passengers of disrupted flights
+ */
+public class ReaccommodationResult {
+    private final int affected;
+    private final List<Reaccommodation> moved;
+    private final List<Booking> unaccommodated;
+    private final int batches;
+
+    /**
+     * Constructs a ReaccommodationResult
+     *
+     * @param affected Bookings found on the disrupted flights
+     * @param moved Bookings moved to an alternative flight
+     * @param unaccommodated Bookings left on the disrupted flights because no seat was found
+     * @param batches Transactions committed
+     */
+    public ReaccommodationResult(int affected, List<Reaccommodation> moved, List<Booking> unaccommodated, int batches) {
+        this.affected = affected;
+        this.moved = Collections.unmodifiableList(moved);
+        this.unaccommodated = Collections.unmodifiableList(unaccommodated);
+        this.batches = batches;
+    }
+
+    public int getAffected() {
+        return affected;
+    }
+
+    public List<Reaccommodation> getMoved() {
+        return moved;
+    }
+
+    public List<Booking> getUnaccommodated() {
+        return unaccommodated;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+}
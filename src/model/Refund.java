@@ -0,0 +1,66 @@
+package model;
+
+import java.time.LocalDate;
+
+/**
+ * Refund ledger entry for a cancelled booking
+ */
+public class Refund {
+    private final Integer id;
+    private final int bookingId;
+    private final int passengerId;
+    private final int flightId;
+    private final double amount;
+    private final String reason;
+    private final LocalDate refundDate;
+
+    /**
+     * Constructs a Refund
+     *
+     * @param id Ledger entry ID, null before it is stored
+     * @param bookingId Cancelled booking ID
+     * @param passengerId Passenger refunded
+     * @param flightId Flight of the cancelled booking
+     * @param amount Amount refunded
+     * @param reason Why the booking was cancelled
+     * @param refundDate Day the refund was issued
+     */
+    public Refund(Integer id, int bookingId, int passengerId, int flightId, double amount, String reason,
+                  LocalDate refundDate) {
+        this.id = id;
+        this.bookingId = bookingId;
+        this.passengerId = passengerId;
+        this.flightId = flightId;
+        this.amount = amount;
+        this.reason = reason;
+        this.refundDate = refundDate;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public int getBookingId() {
+        return bookingId;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getReason() {
+        return reason;
+    }
+
+    public LocalDate getRefundDate() {
+        return refundDate;
+    }
+}
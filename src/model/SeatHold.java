@@ -0,0 +1,57 @@
+package model;
+
+/**
+ * Represents a temporary seat hold on a flight.
+ * A hold reserves one seat for a passenger until it is booked, released or expires.
+ */
+public class SeatHold {
+    private final long id;
+    private final int flightId;
+    private final int passengerId;
+    private final long expiresAtMillis;
+
+    /**
+     * Constructs a SeatHold
+     *
+     * @param id Hold identifier
+     * @param flightId Held flight ID
+     * @param passengerId Passenger the seat is held for
+     * @param expiresAtMillis Expiry time in epoch milliseconds
+     */
+    public SeatHold(long id, int flightId, int passengerId, long expiresAtMillis) {
+        this.id = id;
+        this.flightId = flightId;
+        this.passengerId = passengerId;
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public int getFlightId() {
+        return flightId;
+    }
+
+    public int getPassengerId() {
+        return passengerId;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "id=" + id +
+                ", flightId=" + flightId +
+                ", passengerId=" + passengerId +
+                ", expiresAtMillis=" + expiresAtMillis +
+                '}';
+    }
+}
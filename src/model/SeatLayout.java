@@ -0,0 +1,205 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Seat layout of one flight: capacity seats numbered from 0, filled row by
+ * row with seatsPerRow seats lettered from A, so seat 0 is 1A. The last row
+ * holds the remainder. Rows are split into cabin zones from the front; rows
+ * after the last configured zone form the ECONOMY zone.
+ * Layouts are immutable and stored as text, for example "6;180;FIRST:1-2;ECONOMY:3-30".
+ */
+public class SeatLayout {
+    public static final String DEFAULT_ZONE = "ECONOMY";
+    public static final int MAX_SEATS_PER_ROW = 26;
+
+    private final int capacity;
+    private final int seatsPerRow;
+    private final List<CabinZone> zones;
+
+    /**
+     * Constructs a SeatLayout
+     *
+     * @param capacity Number of seats
+     * @param seatsPerRow Seats in a full row
+     * @param zones Zones covering every row, front to back
+     */
+    public SeatLayout(int capacity, int seatsPerRow, List<CabinZone> zones) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Capacity cannot be negative");
+        }
+        if (seatsPerRow < 1 || seatsPerRow > MAX_SEATS_PER_ROW) {
+            throw new IllegalArgumentException("Seats per row must be between 1 and " + MAX_SEATS_PER_ROW);
+        }
+        this.capacity = capacity;
+        this.seatsPerRow = seatsPerRow;
+        this.zones = Collections.unmodifiableList(new ArrayList<>(zones));
+    }
+
+    /**
+     * Builds the layout of a flight from a zone specification such as
+     * "FIRST:2,BUSINESS:4", which gives the first two rows to FIRST and the
+     * next four to BUSINESS. Zones that would start past the last row are dropped.
+     *
+     * @param capacity Number of seats
+     * @param seatsPerRow Seats in a full row
+     * @param zoneSpec Comma-separated name:rows pairs, may be empty
+     * @return the layout
+     */
+    public static SeatLayout of(int capacity, int seatsPerRow, String zoneSpec) {
+        int rows = rows(capacity, seatsPerRow);
+        List<CabinZone> zones = new ArrayList<>();
+        int next = 1;
+        if (zoneSpec != null && !zoneSpec.trim().isEmpty()) {
+            for (String part : zoneSpec.split(",")) {
+                String[] pair = part.trim().split(":");
+                if (pair.length != 2) {
+                    throw new IllegalArgumentException("Invalid zone " + part + ", expected name:rows");
+                }
+                int count = Integer.parseInt(pair[1].trim());
+                if (count < 1) {
+                    throw new IllegalArgumentException("Zone " + pair[0] + " needs at least one row");
+                }
+                if (next <= rows) {
+                    zones.add(new CabinZone(pair[0], next, Math.min(rows, next + count - 1)));
+                }
+                next += count;
+            }
+        }
+        if (next <= rows) {
+            zones.add(new CabinZone(DEFAULT_ZONE, next, rows));
+        }
+        return new SeatLayout(capacity, seatsPerRow, zones);
+    }
+
+    /**
+     * Parses a layout written by {@link #encode()}
+     *
+     * @param text Encoded layout
+     * @return the layout
+     */
+    public static SeatLayout parse(String text) {
+        String[] parts = text.split(";");
+        if (parts.length < 2) {
+            throw new IllegalArgumentException("Invalid seat layout " + text);
+        }
+        List<CabinZone> zones = new ArrayList<>();
+        for (int i = 2; i < parts.length; i++) {
+            int colon = parts[i].indexOf(':');
+            int dash = parts[i].indexOf('-', colon);
+            if (colon < 0 || dash < 0) {
+                throw new IllegalArgumentException("Invalid seat layout " + text);
+            }
+            zones.add(new CabinZone(parts[i].substring(0, colon),
+                    Integer.parseInt(parts[i].substring(colon + 1, dash)),
+                    Integer.parseInt(parts[i].substring(dash + 1))));
+        }
+        return new SeatLayout(Integer.parseInt(parts[1]), Integer.parseInt(parts[0]), zones);
+    }
+
+    /**
+     * @return the layout as text for {@link #parse}
+     */
+    public String encode() {
+        StringBuilder sb = new StringBuilder().append(seatsPerRow).append(';').append(capacity);
+        for (CabinZone zone : zones) {
+            sb.append(';').append(zone);
+        }
+        return sb.toString();
+    }
+
+    private static int rows(int capacity, int seatsPerRow) {
+        return (capacity + seatsPerRow - 1) / seatsPerRow;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSeatsPerRow() {
+        return seatsPerRow;
+    }
+
+    public int getRows() {
+        return rows(capacity, seatsPerRow);
+    }
+
+    public List<CabinZone> getZones() {
+        return zones;
+    }
+
+    /**
+     * Finds a zone by name, ignoring case
+     *
+     * @param name Zone name
+     * @return the zone, or null if the layout has none by that name
+     */
+    public CabinZone getZone(String name) {
+        for (CabinZone zone : zones) {
+            if (zone.getName().equalsIgnoreCase(name)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param seat Seat number
+     * @return the zone holding the seat's row, or null if no zone covers it
+     */
+    public CabinZone zoneOf(int seat) {
+        int row = seat / seatsPerRow + 1;
+        for (CabinZone zone : zones) {
+            if (zone.containsRow(row)) {
+                return zone;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param seat Seat number
+     * @return the seat's label, such as 12C
+     */
+    public String label(int seat) {
+        checkSeat(seat);
+        return (seat / seatsPerRow + 1) + String.valueOf((char) ('A' + seat % seatsPerRow));
+    }
+
+    /**
+     * Parses a seat label such as 12C
+     *
+     * @param label Seat label
+     * @return the seat number
+     * @throws IllegalArgumentException if the label is malformed or outside the layout
+     */
+    public int seatOf(String label) {
+        String s = label == null ? "" : label.trim().toUpperCase();
+        if (s.length() < 2 || !Character.isLetter(s.charAt(s.length() - 1))) {
+            throw new IllegalArgumentException("Invalid seat " + label);
+        }
+        int letter = s.charAt(s.length() - 1) - 'A';
+        int row;
+        try {
+            row = Integer.parseInt(s.substring(0, s.length() - 1));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid seat " + label);
+        }
+        if (row < 1 || letter < 0 || letter >= seatsPerRow) {
+            throw new IllegalArgumentException("No seat " + label + " on this flight");
+        }
+        int seat = (row - 1) * seatsPerRow + letter;
+        if (seat >= capacity) {
+            throw new IllegalArgumentException("No seat " + label + " on this flight");
+        }
+        return seat;
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= capacity) {
+            throw new IllegalArgumentException("Seat " + seat + " outside a layout of " + capacity);
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Seat occupancy of one flight as a bitset: bit n is set while seat n of the
+ * layout is assigned. Seats are claimed with compare-and-set on the 64-seat
+ * word holding them, so concurrent selections on the same flight never block
+ * each other and two callers can never claim the same seat. A block of
+ * adjacent seats is claimed one word at a time and given back if any of its
+ * seats was taken in the meantime.
+ * Occupancy is stored as bytes, seat n in bit n % 8 of byte n / 8.
+ */
+public class SeatMap {
+    private final SeatLayout layout;
+    private final AtomicLongArray words;
+    private final AtomicInteger taken = new AtomicInteger();
+
+    /**
+     * Constructs an empty SeatMap
+     *
+     * @param layout Seat layout
+     */
+    public SeatMap(SeatLayout layout) {
+        this.layout = layout;
+        this.words = new AtomicLongArray((layout.getCapacity() + 63) >>> 6);
+    }
+
+    /**
+     * Constructs a SeatMap from stored occupancy. Bits past the layout's
+     * capacity are ignored.
+     *
+     * @param layout Seat layout
+     * @param occupancy Bytes written by {@link #toBytes()}, may be shorter than the layout
+     * @return the seat map
+     */
+    public static SeatMap fromBytes(SeatLayout layout, byte[] occupancy) {
+        SeatMap map = new SeatMap(layout);
+        int seats = Math.min(layout.getCapacity(), occupancy.length * 8);
+        for (int seat = 0; seat < seats; seat++) {
+            if ((occupancy[seat >>> 3] & (1 << (seat & 7))) != 0) {
+                map.tryAssign(seat);
+            }
+        }
+        return map;
+    }
+
+    /**
+     * @return the occupancy as bytes, one bit per seat
+     */
+    public byte[] toBytes() {
+        byte[] bytes = new byte[(layout.getCapacity() + 7) >>> 3];
+        for (int w = 0; w < words.length(); w++) {
+            long word = words.get(w);
+            for (int b = 0; b < 8 && (w << 3) + b < bytes.length; b++) {
+                bytes[(w << 3) + b] = (byte) (word >>> (b << 3));
+            }
+        }
+        return bytes;
+    }
+
+    public SeatLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * @return seats currently assigned
+     */
+    public int getTaken() {
+        return taken.get();
+    }
+
+    /**
+     * Sums the numbers of the assigned seats; with {@link #getTaken()} this
+     * checks a stored map against the assignments it was built from
+     *
+     * @return the sum of the assigned seat numbers
+     */
+    public long getSeatSum() {
+        long sum = 0;
+        for (int w = 0; w < words.length(); w++) {
+            long word = words.get(w);
+            while (word != 0) {
+                sum += ((long) w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * @return seats still free
+     */
+    public int getAvailable() {
+        return layout.getCapacity() - taken.get();
+    }
+
+    /**
+     * @param zone Cabin zone of this layout
+     * @return seats still free in the zone
+     */
+    public int getAvailable(CabinZone zone) {
+        int from = rowStart(zone.getFirstRow());
+        int to = Math.min(layout.getCapacity(), rowStart(zone.getLastRow() + 1));
+        int free = 0;
+        for (int seat = from; seat < to; seat++) {
+            if (!isTaken(seat)) {
+                free++;
+            }
+        }
+        return free;
+    }
+
+    /**
+     * @param seat Seat number
+     * @return true if the seat is assigned
+     */
+    public boolean isTaken(int seat) {
+        checkSeat(seat);
+        return (words.get(seat >>> 6) & (1L << seat)) != 0;
+    }
+
+    /**
+     * Claims one seat
+     *
+     * @param seat Seat number
+     * @return true if the seat was free and is now claimed, false if it was already taken
+     */
+    public boolean tryAssign(int seat) {
+        checkSeat(seat);
+        return claim(seat >>> 6, 1L << seat);
+    }
+
+    /**
+     * Frees one seat
+     *
+     * @param seat Seat number
+     * @return true if the seat was taken
+     */
+    public boolean release(int seat) {
+        checkSeat(seat);
+        return unclaim(seat >>> 6, 1L << seat);
+    }
+
+    /**
+     * Claims the first block of adjacent free seats in one row, searching
+     * from the front row of the zone and from seat A within each row
+     *
+     * @param count Seats in the block
+     * @param zone Zone to search, or null for the whole cabin
+     * @return the first seat of the claimed block, or -1 if no row has such a block free
+     */
+    public int claimAdjacent(int count, CabinZone zone) {
+        if (count < 1) {
+            throw new IllegalArgumentException("At least one seat is required");
+        }
+        int firstRow = zone == null ? 1 : zone.getFirstRow();
+        int lastRow = zone == null ? layout.getRows() : Math.min(zone.getLastRow(), layout.getRows());
+        for (int row = firstRow; row <= lastRow; row++) {
+            int rowEnd = Math.min(layout.getCapacity(), rowStart(row + 1));
+            for (int start = rowStart(row); start + count <= rowEnd; start++) {
+                if (isFree(start, count) && claimRange(start, count)) {
+                    return start;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private int rowStart(int row) {
+        return (row - 1) * layout.getSeatsPerRow();
+    }
+
+    private boolean isFree(int start, int count) {
+        for (int seat = start; seat < start + count; seat++) {
+            if ((words.get(seat >>> 6) & (1L << seat)) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Claims seats [start, start + count) word by word, giving back the words
+     * already claimed if a later one has a taken seat
+     */
+    private boolean claimRange(int start, int count) {
+        int end = start + count;
+        for (int seat = start; seat < end; seat = (seat | 63) + 1) {
+            int w = seat >>> 6;
+            if (!claim(w, mask(seat, Math.min(end, (w + 1) << 6)))) {
+                for (int back = start; back < seat; back = (back | 63) + 1) {
+                    int bw = back >>> 6;
+                    unclaim(bw, mask(back, Math.min(end, (bw + 1) << 6)));
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** Bits of seats [from, to) within the word holding from; to is at most the next word's first seat */
+    private static long mask(int from, int to) {
+        long bits = to - from == 64 ? -1L : (1L << (to - from)) - 1;
+        return bits << from;
+    }
+
+    private boolean claim(int w, long mask) {
+        while (true) {
+            long current = words.get(w);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (words.compareAndSet(w, current, current | mask)) {
+                taken.addAndGet(Long.bitCount(mask));
+                return true;
+            }
+        }
+    }
+
+    private boolean unclaim(int w, long mask) {
+        while (true) {
+            long current = words.get(w);
+            if ((current & mask) != mask) {
+                return false;
+            }
+            if (words.compareAndSet(w, current, current & ~mask)) {
+                taken.addAndGet(-Long.bitCount(mask));
+                return true;
+            }
+        }
+    }
+
+    private void checkSeat(int seat) {
+        if (seat < 0 || seat >= layout.getCapacity()) {
+            throw new IllegalArgumentException("Seat " + seat + " outside a layout of " + layout.getCapacity());
+        }
+    }
+}
@@ -1,11 +1,24 @@
 package service;
 
+import config.AppConfig;
+import dao.BookingCounterDao;
 import dao.BookingDao;
 import dao.FlightDao;
+import dao.IdempotencyDao;
 import dao.PassengerDao;
+import dao.RefundDao;
+import dao.SeatMapDao;
+import metrics.JfrEvents;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import model.Booking;
+import model.BookingCounter;
+import model.CancellationSummary;
 import model.Flight;
+import model.GroupLeg;
 import model.Passenger;
+import model.Refund;
+import model.SeatHold;
 import service.exception.ResourceNotFoundException;
 import service.exception.ServiceException;
 import service.exception.ValidationException;
@@ -13,7 +26,14 @@ import service.exception.ValidationException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -22,9 +42,42 @@ import java.util.logging.Logger;
  */
 public class BookingService {
     private static final Logger LOGGER = Logger.getLogger(BookingService.class.getName());
+    private static final LatencyHistogram CREATE_BOOKING_TIME = MetricsRegistry.getInstance().histogram("BookingService.createBooking");
+    private static final LatencyHistogram CREATE_GROUP_BOOKING_TIME = MetricsRegistry.getInstance().histogram("BookingService.createGroupBooking");
+    private static final LatencyHistogram GET_BOOKING_BY_ID_TIME = MetricsRegistry.getInstance().histogram("BookingService.getBookingById");
+    private static final LatencyHistogram GET_BOOKINGS_BY_PASSENGER_ID_TIME = MetricsRegistry.getInstance().histogram("BookingService.getBookingsByPassengerId");
+    private static final LatencyHistogram CANCEL_BOOKING_TIME = MetricsRegistry.getInstance().histogram("BookingService.cancelBooking");
+    private static final LatencyHistogram CANCEL_FLIGHT_BOOKINGS_TIME = MetricsRegistry.getInstance().histogram("BookingService.cancelFlightBookings");
+    private static final LatencyHistogram GET_FLIGHT_COUNTER_TIME = MetricsRegistry.getInstance().histogram("BookingService.getFlightCounter");
+    private static final LatencyHistogram GET_ROUTE_COUNTER_TIME = MetricsRegistry.getInstance().histogram("BookingService.getRouteCounter");
+    private static final LatencyHistogram PURGE_IDEMPOTENCY_KEYS_TIME = MetricsRegistry.getInstance().histogram("BookingService.purgeIdempotencyKeys");
+    public static final String STATUS_CONFIRMED = "CONFIRMED";
+    public static final String STATUS_CANCELLED = "CANCELLED";
+    /** Departed without the passenger; the booking stays paid and counted */
+    public static final String STATUS_NO_SHOW = "NO_SHOW";
+    /** Not flown because the flight was oversold; the booking stays paid and counted */
+    public static final String STATUS_DENIED_BOARDING = "DENIED_BOARDING";
+    /** Passenger statuses, matching what the booking form records */
+    public static final String PASSENGER_STATUS_PAID = "Paid";
+    public static final String PASSENGER_STATUS_UNPAID = "Unpaid";
+    public static final String REFUND_REASON_CUSTOMER = "CUSTOMER";
+    public static final String REFUND_REASON_FLIGHT_CANCELLED = "FLIGHT_CANCELLED";
+    private static final int DEFAULT_CANCEL_BATCH_SIZE = 500;
+    /** Keeps the passenger lookup within SQLite's bound parameter limit */
+    public static final int MAX_GROUP_SIZE = 500;
+    public static final int MAX_GROUP_LEGS = 10;
+    public static final int MAX_IDEMPOTENCY_KEY_LENGTH = 128;
+    private static final int DEFAULT_IDEMPOTENCY_RETENTION_DAYS = 30;
     private final BookingDao dao;
     private final FlightDao flightDao;
     private final PassengerDao passengerDao;
+    private final BookingCounterDao counterDao;
+    private final IdempotencyDao idempotencyDao;
+    private final IdempotencyCache idempotencyCache;
+    private final RefundDao refundDao;
+    private final SeatMapDao seatMapDao;
+    private final FareEngine fareEngine;
+    private final SeatHoldService seatHolds;
     private final Connection connection;
 
     /**
@@ -36,14 +89,70 @@ public class BookingService {
      * @param connection Database connection for transaction management
      */
     public BookingService(BookingDao dao, FlightDao flightDao, PassengerDao passengerDao, Connection connection) {
+        this(dao, flightDao, passengerDao, new BookingCounterDao(connection), connection);
+    }
+
+    /**
+     * Constructs a BookingService with required DAOs
+     * 
+     * @param dao Data access object for bookings
+     * @param flightDao Data access object for flights
+     * @param passengerDao Data access object for passengers
+     * @param counterDao Data access object for the booking counters
+     * @param connection Database connection for transaction management
+     */
+    public BookingService(BookingDao dao, FlightDao flightDao, PassengerDao passengerDao, BookingCounterDao counterDao,
+                          Connection connection) {
+        this(dao, flightDao, passengerDao, counterDao, new IdempotencyDao(connection), IdempotencyCache.shared(),
+                connection);
+    }
+
+    /**
+     * Constructs a BookingService with required DAOs
+     * 
+     * @param dao Data access object for bookings
+     * @param flightDao Data access object for flights
+     * @param passengerDao Data access object for passengers
+     * @param counterDao Data access object for the booking counters
+     * @param idempotencyDao Data access object for idempotency keys
+     * @param idempotencyCache Cache of recently used idempotency keys
+     * @param connection Database connection for transaction management
+     */
+    public BookingService(BookingDao dao, FlightDao flightDao, PassengerDao passengerDao, BookingCounterDao counterDao,
+                          IdempotencyDao idempotencyDao, IdempotencyCache idempotencyCache, Connection connection) {
+        this(dao, flightDao, passengerDao, counterDao, idempotencyDao, idempotencyCache, null, connection);
+    }
+
+    /**
+     * Constructs a BookingService that respects seat holds
+     * 
+     * @param dao Data access object for bookings
+     * @param flightDao Data access object for flights
+     * @param passengerDao Data access object for passengers
+     * @param counterDao Data access object for the booking counters
+     * @param idempotencyDao Data access object for idempotency keys
+     * @param idempotencyCache Cache of recently used idempotency keys
+     * @param seatHolds Seat holds that bookings must leave free, null for none
+     * @param connection Database connection for transaction management
+     */
+    public BookingService(BookingDao dao, FlightDao flightDao, PassengerDao passengerDao, BookingCounterDao counterDao,
+                          IdempotencyDao idempotencyDao, IdempotencyCache idempotencyCache, SeatHoldService seatHolds,
+                          Connection connection) {
         this.dao = dao;
         this.flightDao = flightDao;
         this.passengerDao = passengerDao;
+        this.counterDao = counterDao;
+        this.idempotencyDao = idempotencyDao;
+        this.idempotencyCache = idempotencyCache;
+        this.refundDao = new RefundDao(connection);
+        this.seatMapDao = new SeatMapDao(connection);
+        this.fareEngine = new FareEngine(connection);
+        this.seatHolds = seatHolds;
         this.connection = connection;
     }
 
     /**
-     * Creates a new booking with transaction management
+     * Creates a new booking and takes its seat in one transaction
      * 
      * @param passengerId Passenger ID
      * @param flightId Flight ID
@@ -55,14 +164,83 @@ public class BookingService {
      */
     public Booking createBooking(int passengerId, int flightId, double amountPaid) 
             throws ValidationException, ResourceNotFoundException, ServiceException {
+        return createBooking(null, passengerId, flightId, amountPaid);
+    }
+
+    /**
+     * Creates a new booking at most once per idempotency key.
+     * A repeated key returns the booking made under it, from the in-memory
+     * cache when it is there and from the IdempotencyKeys table otherwise, so
+     * clients can retry a booking request safely.
+     * 
+     * @param idempotencyKey Client-chosen key identifying the request, null for none
+     * @param passengerId Passenger ID
+     * @param flightId Flight ID
+     * @param amountPaid Amount paid
+     * @return the created booking, or the one already made under the key
+     * @throws ValidationException if booking data is invalid or the key was used for another booking
+     * @throws ResourceNotFoundException if flight or passenger not found
+     * @throws ServiceException if a service error occurs
+     */
+    public Booking createBooking(String idempotencyKey, int passengerId, int flightId, double amountPaid)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
+        return createBooking(idempotencyKey, passengerId, flightId, amountPaid, null);
+    }
+
+    /**
+     * Creates a new booking at most once per idempotency key, optionally from a seat hold.
+     * Seats held for other passengers are left free. The booking's own hold is
+     * claimed up front so it cannot be used twice, ended only once the booking
+     * commits, and given back if the booking fails. A replayed key does not
+     * touch the hold.
+     * 
+     * @param idempotencyKey Client-chosen key identifying the request, null for none
+     * @param passengerId Passenger ID
+     * @param flightId Flight ID
+     * @param amountPaid Amount paid
+     * @param holdId Hold to book from, null for none
+     * @return the created booking, or the one already made under the key
+     * @throws ValidationException if booking data is invalid, the hold does not match or the key was used for another booking
+     * @throws ResourceNotFoundException if flight, passenger or hold not found
+     * @throws ServiceException if a service error occurs
+     */
+    public Booking createBooking(String idempotencyKey, int passengerId, int flightId, double amountPaid, Long holdId)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
         
         // Validate input
         if (amountPaid <= 0) {
             throw new ValidationException("Amount paid must be positive");
         }
+        if (idempotencyKey != null) {
+            if (idempotencyKey.isEmpty() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+                throw new ValidationException("Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+            }
+            Booking cached = idempotencyCache.get(idempotencyKey);
+            if (cached != null) {
+                return replay(idempotencyKey, cached, passengerId, flightId);
+            }
+        }
         
+        long start = System.nanoTime();
+        Object event = JfrEvents.beginBooking();
+        Booking created = null;
+        SeatHold hold = null;
         boolean autoCommit = true;
         try {
+            if (idempotencyKey != null) {
+                Booking existing = idempotencyDao.findBooking(idempotencyKey);
+                if (existing != null) {
+                    idempotencyCache.put(idempotencyKey, existing);
+                    return replay(idempotencyKey, existing, passengerId, flightId);
+                }
+            }
+            if (holdId != null) {
+                if (seatHolds == null) {
+                    throw new ValidationException("Seat holds are not available");
+                }
+                hold = seatHolds.claimHold(holdId, flightId, passengerId);
+            }
+
             // Check if passenger exists
             Passenger passenger = passengerDao.getPassengerById(passengerId);
             if (passenger == null) {
@@ -75,29 +253,47 @@ public class BookingService {
                 throw new ResourceNotFoundException("Flight with ID " + flightId + " not found");
             }
             
-            // Business rule: Check if amount paid is at least the flight price
-            if (amountPaid < flight.getPrice()) {
-                throw new ValidationException("Amount paid must be at least the flight price: " + flight.getPrice());
+            // Business rule: Check if amount paid is at least the current fare
+            double fare = fareEngine.quote(flight);
+            if (amountPaid < fare) {
+                throw new ValidationException("Amount paid must be at least the current fare: " + fare);
             }
             
             // Start transaction
             autoCommit = connection.getAutoCommit();
             connection.setAutoCommit(false);
             
+            // Take the seat, leaving other passengers' holds; cancellation gives it back
+            if (!flightDao.adjustSeats(flightId, -1, heldByOthers(flightId, hold))) {
+                throw new ValidationException("Flight " + flightId + " is sold out");
+            }
+            
             // Create booking
             Booking booking = new Booking(
                 null, 
                 passengerId, 
                 flightId, 
                 amountPaid, 
-                "CONFIRMED", 
+                STATUS_CONFIRMED, 
                 LocalDate.now()
             );
             
             dao.addBooking(booking);
+            if (idempotencyKey != null) {
+                idempotencyDao.addKey(idempotencyKey, booking.getId());
+            }
+            counterDao.recordBooking(flightId, flight.getFromCity(), flight.getToCity(),
+                    booking.getBookingDate(), booking.getAmountPaid());
             
             // Commit transaction
             connection.commit();
+            created = booking;
+            if (hold != null) {
+                seatHolds.confirmHold(hold);
+            }
+            if (idempotencyKey != null) {
+                idempotencyCache.put(idempotencyKey, booking);
+            }
             
             return booking;
         } catch (SQLException e) {
@@ -108,6 +304,11 @@ public class BookingService {
                 LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
             }
             
+            // A concurrent request with the same key committed first
+            Booking existing = idempotencyKey == null ? null : findBookingByIdempotencyKey(idempotencyKey);
+            if (existing != null) {
+                return replay(idempotencyKey, existing, passengerId, flightId);
+            }
             LOGGER.log(Level.SEVERE, "Error creating booking: " + e.getMessage(), e);
             throw new ServiceException("Failed to create booking", e);
         } finally {
@@ -117,6 +318,202 @@ public class BookingService {
             } catch (SQLException e) {
                 LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
             }
+            if (hold != null && created == null) {
+                seatHolds.restoreHold(hold);
+            }
+            CREATE_BOOKING_TIME.recordSince(start);
+            JfrEvents.endBooking(event, passengerId, flightId, created == null ? null : created.getId(), created != null);
+        }
+    }
+
+    /**
+     * Finds the booking made under an idempotency key, checking the cache before the database
+     * 
+     * @param idempotencyKey Idempotency key
+     * @return the booking, or null if the key is unused
+     * @throws ServiceException if a service error occurs
+     */
+    public Booking findBookingByIdempotencyKey(String idempotencyKey) throws ServiceException {
+        Booking booking = idempotencyCache.get(idempotencyKey);
+        if (booking != null) {
+            return booking;
+        }
+        try {
+            booking = idempotencyDao.findBooking(idempotencyKey);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error looking up idempotency key: " + e.getMessage(), e);
+            throw new ServiceException("Failed to look up idempotency key", e);
+        }
+        if (booking != null) {
+            idempotencyCache.put(idempotencyKey, booking);
+        }
+        return booking;
+    }
+
+    /**
+     * Deletes idempotency keys older than booking.idempotency.retention.days.
+     * A retry under a purged key books again, so the retention must exceed
+     * how long clients keep retrying a request.
+     * 
+     * @return number of keys deleted
+     * @throws ServiceException if a service error occurs
+     */
+    public int purgeIdempotencyKeys() throws ServiceException {
+        int days = AppConfig.getInt("booking.idempotency.retention.days", DEFAULT_IDEMPOTENCY_RETENTION_DAYS, 1, 3650);
+        long createdBefore = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(days);
+        long start = System.nanoTime();
+        try {
+            return idempotencyDao.purgeKeys(createdBefore);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error purging idempotency keys: " + e.getMessage(), e);
+            throw new ServiceException("Failed to purge idempotency keys", e);
+        } finally {
+            PURGE_IDEMPOTENCY_KEYS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Counts the seats on a flight held for other passengers, which a booking must leave free
+     * 
+     * @param flightId Flight ID
+     * @param own The booking's own claimed hold, still counted as held, or null
+     * @return held seats excluding the booking's own
+     */
+    private int heldByOthers(int flightId, SeatHold own) {
+        if (seatHolds == null) {
+            return 0;
+        }
+        return seatHolds.getHeldSeats(flightId) - (own != null ? 1 : 0);
+    }
+
+    private static Booking replay(String idempotencyKey, Booking booking, int passengerId, int flightId)
+            throws ValidationException {
+        if (booking.getPassengerId() != passengerId || booking.getFlightId() != flightId) {
+            throw new ValidationException("Idempotency key " + idempotencyKey + " was used for a different booking");
+        }
+        return booking;
+    }
+
+    /**
+     * Books every passenger of a group on every leg, all or nothing.
+     * Each leg takes its seats with one conditional decrement, the bookings and
+     * passenger updates are written as batches and the counters get one update
+     * per leg, so a group costs one transaction whatever its size.
+     * A sold-out leg rolls the whole group back.
+     * 
+     * @param passengerIds Passengers of the group
+     * @param legs Flights to book, with the amount each passenger pays
+     * @return the created bookings, leg by leg in passenger order
+     * @throws ValidationException if the group is invalid or a leg lacks seats
+     * @throws ResourceNotFoundException if a passenger or flight is not found
+     * @throws ServiceException if a service error occurs
+     */
+    public List<Booking> createGroupBooking(List<Integer> passengerIds, List<GroupLeg> legs)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
+        if (passengerIds == null || passengerIds.isEmpty()) {
+            throw new ValidationException("A group needs at least one passenger");
+        }
+        if (legs == null || legs.isEmpty()) {
+            throw new ValidationException("A group needs at least one flight");
+        }
+        if (passengerIds.size() > MAX_GROUP_SIZE) {
+            throw new ValidationException("A group has at most " + MAX_GROUP_SIZE + " passengers");
+        }
+        if (legs.size() > MAX_GROUP_LEGS) {
+            throw new ValidationException("A group has at most " + MAX_GROUP_LEGS + " flights");
+        }
+        if (new HashSet<>(passengerIds).size() != passengerIds.size()) {
+            throw new ValidationException("A passenger is listed more than once");
+        }
+        Set<Integer> flightIds = new HashSet<>();
+        double totalPerPassenger = 0;
+        for (GroupLeg leg : legs) {
+            if (!flightIds.add(leg.getFlightId())) {
+                throw new ValidationException("Flight " + leg.getFlightId() + " is listed more than once");
+            }
+            if (leg.getAmountPerSeat() <= 0) {
+                throw new ValidationException("Amount paid must be positive");
+            }
+            totalPerPassenger += leg.getAmountPerSeat();
+        }
+
+        long start = System.nanoTime();
+        boolean autoCommit = true;
+        boolean inTransaction = false;
+        try {
+            Set<Integer> existing = passengerDao.getExistingIds(passengerIds);
+            for (Integer passengerId : passengerIds) {
+                if (!existing.contains(passengerId)) {
+                    throw new ResourceNotFoundException("Passenger with ID " + passengerId + " not found");
+                }
+            }
+            List<Flight> flights = new ArrayList<>(legs.size());
+            for (GroupLeg leg : legs) {
+                Flight flight = flightDao.getFlightById(leg.getFlightId());
+                if (flight == null) {
+                    throw new ResourceNotFoundException("Flight with ID " + leg.getFlightId() + " not found");
+                }
+                flights.add(flight);
+            }
+            // The whole group pays the fare quoted before its seats are taken
+            Map<Integer, Double> fares = fareEngine.quotes(flights);
+            for (GroupLeg leg : legs) {
+                double fare = fares.get(leg.getFlightId());
+                if (leg.getAmountPerSeat() < fare) {
+                    throw new ValidationException("Amount paid for flight " + leg.getFlightId()
+                            + " must be at least the current fare: " + fare);
+                }
+            }
+
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            inTransaction = true;
+            int seats = passengerIds.size();
+            for (GroupLeg leg : legs) {
+                if (!flightDao.adjustSeats(leg.getFlightId(), -seats, heldByOthers(leg.getFlightId(), null))) {
+                    throw new ValidationException("Flight " + leg.getFlightId() + " has fewer than " + seats + " seats left");
+                }
+            }
+
+            // Batched inserts return no keys; the seat update holds the write lock, so the next IDs are ours
+            int nextId = dao.nextId();
+            LocalDate today = LocalDate.now();
+            List<Booking> bookings = new ArrayList<>(seats * legs.size());
+            for (GroupLeg leg : legs) {
+                for (Integer passengerId : passengerIds) {
+                    bookings.add(new Booking(nextId++, passengerId, leg.getFlightId(), leg.getAmountPerSeat(),
+                            STATUS_CONFIRMED, today));
+                }
+            }
+            dao.addBookings(bookings);
+            passengerDao.updateBookedFlights(passengerIds, legs.get(0).getFlightId(), totalPerPassenger,
+                    PASSENGER_STATUS_PAID);
+            for (int i = 0; i < legs.size(); i++) {
+                Flight flight = flights.get(i);
+                counterDao.recordBookings(legs.get(i).getFlightId(), flight.getFromCity(), flight.getToCity(), today,
+                        seats, seats * legs.get(i).getAmountPerSeat());
+            }
+
+            connection.commit();
+            inTransaction = false;
+            return bookings;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error creating group booking: " + e.getMessage(), e);
+            throw new ServiceException("Failed to create group booking", e);
+        } finally {
+            if (inTransaction) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+            CREATE_GROUP_BOOKING_TIME.recordSince(start);
         }
     }
 
@@ -129,6 +526,7 @@ public class BookingService {
      * @throws ServiceException if a service error occurs
      */
     public Booking getBookingById(int id) throws ResourceNotFoundException, ServiceException {
+        long start = System.nanoTime();
         try {
             Booking booking = dao.getBookingById(id);
             if (booking == null) {
@@ -138,6 +536,8 @@ public class BookingService {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving booking with ID " + id + ": " + e.getMessage(), e);
             throw new ServiceException("Failed to retrieve booking", e);
+        } finally {
+            GET_BOOKING_BY_ID_TIME.recordSince(start);
         }
     }
     
@@ -151,6 +551,7 @@ public class BookingService {
      */
     public List<Booking> getBookingsByPassengerId(int passengerId) 
             throws ResourceNotFoundException, ServiceException {
+        long start = System.nanoTime();
         try {
             // Check if passenger exists
             Passenger passenger = passengerDao.getPassengerById(passengerId);
@@ -162,6 +563,236 @@ public class BookingService {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving bookings for passenger ID " + passengerId + ": " + e.getMessage(), e);
             throw new ServiceException("Failed to retrieve bookings", e);
+        } finally {
+            GET_BOOKINGS_BY_PASSENGER_ID_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Cancels a booking. In one transaction the booking is marked cancelled,
+     * its seat is released, the passenger's booked flight is cleared, the amount
+     * paid is written to the refund ledger and the booking counters are updated.
+     * 
+     * @param id Booking ID
+     * @return the cancelled booking
+     * @throws ValidationException if the booking is already cancelled
+     * @throws ResourceNotFoundException if booking not found
+     * @throws ServiceException if a service error occurs
+     */
+    public Booking cancelBooking(int id) throws ValidationException, ResourceNotFoundException, ServiceException {
+        long start = System.nanoTime();
+        boolean autoCommit = true;
+        boolean inTransaction = false;
+        try {
+            Booking booking = dao.getBookingById(id);
+            if (booking == null) {
+                throw new ResourceNotFoundException("Booking with ID " + id + " not found");
+            }
+            if (STATUS_CANCELLED.equalsIgnoreCase(booking.getStatus())) {
+                throw new ValidationException("Booking " + id + " is already cancelled");
+            }
+            // A deleted flight leaves only the flight counter to update
+            Flight flight = flightDao.getFlightById(booking.getFlightId());
+
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            inTransaction = true;
+            if (cancelInTransaction(Collections.singletonList(booking), booking.getFlightId(), flight,
+                    REFUND_REASON_CUSTOMER).isEmpty()) {
+                throw new ValidationException("Booking " + id + " is already cancelled");
+            }
+            connection.commit();
+            inTransaction = false;
+            SeatMapService.invalidate(booking.getFlightId());
+            return booking;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error cancelling booking with ID " + id + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to cancel booking", e);
+        } finally {
+            if (inTransaction) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+            CANCEL_BOOKING_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Cancels every booking of a flight, for example after the flight itself is cancelled.
+     * Bookings are processed in pages of booking.cancel.batch.size; each page is
+     * one transaction that marks the bookings cancelled, releases their seats with a
+     * single update, clears the passengers' booked flight, writes the refunds and
+     * updates the counters once per booking day. A failure rolls back only the
+     * current page, so running the method again resumes where it stopped.
+     * 
+     * @param flightId Flight ID; it may already have been deleted
+     * @param reason Reason recorded in the refund ledger
+     * @return how many bookings were cancelled and refunded
+     * @throws ValidationException if the reason is missing
+     * @throws ServiceException if a service error occurs
+     */
+    public CancellationSummary cancelFlightBookings(int flightId, String reason)
+            throws ValidationException, ServiceException {
+        if (reason == null || reason.trim().isEmpty()) {
+            throw new ValidationException("A cancellation reason is required");
+        }
+        int batchSize = AppConfig.getInt("booking.cancel.batch.size", DEFAULT_CANCEL_BATCH_SIZE, 1, 100_000);
+        long start = System.nanoTime();
+        boolean autoCommit = true;
+        boolean inTransaction = false;
+        int cancelled = 0;
+        double refunded = 0;
+        int batches = 0;
+        try {
+            Flight flight = flightDao.getFlightById(flightId);
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            int lastId = 0;
+            while (true) {
+                inTransaction = true;
+                List<Booking> page = dao.getBookedByFlightId(flightId, lastId, batchSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+                List<Refund> refunds = cancelInTransaction(page, flightId, flight, reason);
+                connection.commit();
+                inTransaction = false;
+                SeatMapService.invalidate(flightId);
+                batches++;
+                cancelled += refunds.size();
+                for (Refund refund : refunds) {
+                    refunded += refund.getAmount();
+                }
+            }
+            return new CancellationSummary(flightId, cancelled, refunded, batches);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error cancelling bookings of flight " + flightId + " after " + cancelled
+                    + " cancellations: " + e.getMessage(), e);
+            throw new ServiceException("Failed to cancel bookings of flight " + flightId, e);
+        } finally {
+            if (inTransaction) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+            CANCEL_FLIGHT_BOOKINGS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves the refund ledger entries of a flight
+     * 
+     * @param flightId Flight ID
+     * @return refunds in ledger order
+     * @throws ServiceException if a service error occurs
+     */
+    public List<Refund> getRefundsByFlightId(int flightId) throws ServiceException {
+        try {
+            return refundDao.getRefundsByFlightId(flightId);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving refunds of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to retrieve refunds", e);
+        }
+    }
+
+    /**
+     * Cancels bookings of one flight inside the caller's transaction.
+     * Bookings another transaction cancelled first are skipped.
+     * 
+     * @return the refunds of the bookings this call cancelled
+     */
+    private List<Refund> cancelInTransaction(List<Booking> bookings, int flightId, Flight flight, String reason)
+            throws SQLException {
+        List<Booking> cancelled = dao.cancelBookings(bookings);
+        if (cancelled.isEmpty()) {
+            return Collections.emptyList();
+        }
+        LocalDate today = LocalDate.now();
+        List<Refund> refunds = new ArrayList<>(cancelled.size());
+        List<Integer> passengerIds = new ArrayList<>(cancelled.size());
+        List<Integer> bookingIds = new ArrayList<>(cancelled.size());
+        Map<LocalDate, double[]> byDay = new HashMap<>();
+        for (Booking b : cancelled) {
+            double amount = b.getAmountPaid() == null ? 0 : b.getAmountPaid();
+            refunds.add(new Refund(null, b.getId(), b.getPassengerId(), flightId, amount, reason, today));
+            passengerIds.add(b.getPassengerId());
+            bookingIds.add(b.getId());
+            double[] day = byDay.computeIfAbsent(b.getBookingDate(), d -> new double[2]);
+            day[0]++;
+            day[1] += amount;
+        }
+        // Returns false when the flight is gone, which leaves nothing to release
+        flightDao.adjustSeats(flightId, cancelled.size());
+        passengerDao.clearBookedFlight(passengerIds, flightId, PASSENGER_STATUS_UNPAID);
+        refundDao.addRefunds(refunds);
+        seatMapDao.deleteAssignments(bookingIds);
+        String fromCity = flight == null ? null : flight.getFromCity();
+        String toCity = flight == null ? null : flight.getToCity();
+        for (Map.Entry<LocalDate, double[]> day : byDay.entrySet()) {
+            counterDao.recordBookings(flightId, fromCity, toCity, day.getKey(), -(int) day.getValue()[0],
+                    -day.getValue()[1]);
+        }
+        return refunds;
+    }
+
+    /**
+     * Gets the bookings and revenue of a flight from the materialized counters
+     * 
+     * @param flightId Flight ID
+     * @return the counter, empty if the flight has no bookings
+     * @throws ServiceException if a service error occurs
+     */
+    public BookingCounter getFlightCounter(int flightId) throws ServiceException {
+        long start = System.nanoTime();
+        try {
+            return counterDao.getFlightCounter(flightId);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving booking counter of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to retrieve booking counter", e);
+        } finally {
+            GET_FLIGHT_COUNTER_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Gets the bookings made on one day for a route from the materialized counters
+     * 
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param bookingDate Day the bookings were made
+     * @return the counter, empty if there were no bookings
+     * @throws ValidationException if a parameter is missing
+     * @throws ServiceException if a service error occurs
+     */
+    public BookingCounter getRouteCounter(String fromCity, String toCity, LocalDate bookingDate)
+            throws ValidationException, ServiceException {
+        if (fromCity == null || toCity == null || bookingDate == null) {
+            throw new ValidationException("Origin, destination and booking date are required");
+        }
+        long start = System.nanoTime();
+        try {
+            return counterDao.getRouteCounter(fromCity, toCity, bookingDate);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving booking counter of route " + fromCity + "-" + toCity + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to retrieve booking counter", e);
+        } finally {
+            GET_ROUTE_COUNTER_TIME.recordSince(start);
         }
     }
 }
@@ -0,0 +1,193 @@
+package service;
+
+import config.AppConfig;
+import dao.BookingCounterDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Flight;
+import service.exception.ServiceException;
+import util.DateCodec;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Prices flights from their base price, live load factor and days to
+ * departure with the {@link FareRules} of fare.buckets and fare.advance.
+ * <p>
+ * The load factor is the flight's booked seats, from the booking counters,
+ * over its booked plus available seats. Quotes are cached per flight, shared
+ * by every instance, and stamped with the base price, available seats and
+ * departure day they were computed from and the day; a quote whose flight no
+ * longer matches, because a booking, cancellation or edit changed its
+ * inventory, price or departure date, is recomputed. Only cache misses touch the database, with one
+ * counter query per batch of flights. The cache holds fare.cache.size
+ * flights and is emptied when full or when the rules are reloaded.
+ */
+public class FareEngine {
+    private static final Logger LOGGER = Logger.getLogger(FareEngine.class.getName());
+    private static final LatencyHistogram QUOTE_TIME = MetricsRegistry.getInstance().histogram("FareEngine.quote");
+    private static final int DEFAULT_CACHE_SIZE = 100_000;
+    private static final Map<Integer, Quote> CACHE = new ConcurrentHashMap<>();
+    private static volatile FareRules rules = loadRules(null);
+
+    static {
+        AppConfig.addListener(keys -> {
+            if (keys.contains("fare.buckets") || keys.contains("fare.advance")) {
+                rules = loadRules(rules);
+                CACHE.clear();
+            }
+        });
+    }
+
+    private final BookingCounterDao counterDao;
+
+    /**
+     * Constructs a FareEngine with a database connection
+     *
+     * @param connection Database connection
+     */
+    public FareEngine(Connection connection) {
+        this.counterDao = new BookingCounterDao(connection);
+    }
+
+    /**
+     * @return the rules fares are currently computed with
+     */
+    public static FareRules rules() {
+        return rules;
+    }
+
+    /**
+     * Reads the rules from configuration; invalid rules are logged and the
+     * previous ones, or the defaults, are kept
+     */
+    private static FareRules loadRules(FareRules previous) {
+        try {
+            return FareRules.parse(AppConfig.getProperty("fare.buckets", FareRules.DEFAULT_BUCKETS),
+                    AppConfig.getProperty("fare.advance", FareRules.DEFAULT_ADVANCE));
+        } catch (IllegalArgumentException e) {
+            LOGGER.log(Level.SEVERE, "Invalid fare rules, keeping the previous ones: " + e.getMessage(), e);
+            return previous != null ? previous : FareRules.parse(FareRules.DEFAULT_BUCKETS, FareRules.DEFAULT_ADVANCE);
+        }
+    }
+
+    /**
+     * Gets the current fare of a flight
+     *
+     * @param flight Flight as just read from the database
+     * @return the fare
+     * @throws ServiceException if a service error occurs
+     */
+    public double quote(Flight flight) throws ServiceException {
+        return quotes(Collections.singletonList(flight)).get(flight.getId());
+    }
+
+    /**
+     * Gets the current fares of several flights, such as a page of search results
+     *
+     * @param flights Flights as just read from the database
+     * @return fare by flight ID, in the order given
+     * @throws ServiceException if a service error occurs
+     */
+    public Map<Integer, Double> quotes(List<Flight> flights) throws ServiceException {
+        long start = System.nanoTime();
+        try {
+            LocalDate todayDate = LocalDate.now();
+            int today = DateCodec.toEpochDay(todayDate);
+            Map<Integer, Double> fares = new LinkedHashMap<>(flights.size() * 2);
+            List<Flight> misses = new ArrayList<>();
+            for (Flight f : flights) {
+                Quote cached = CACHE.get(f.getId());
+                if (cached != null && cached.matches(f, today)) {
+                    fares.put(f.getId(), cached.fare);
+                } else {
+                    fares.put(f.getId(), null);
+                    misses.add(f);
+                }
+            }
+            if (misses.isEmpty()) {
+                return fares;
+            }
+
+            List<Integer> ids = new ArrayList<>(misses.size());
+            for (Flight f : misses) {
+                ids.add(f.getId());
+            }
+            Map<Integer, Integer> booked = counterDao.getBookedCounts(ids);
+            int cacheSize = AppConfig.getInt("fare.cache.size", DEFAULT_CACHE_SIZE, 0, 10_000_000);
+            if (CACHE.size() + misses.size() > cacheSize) {
+                CACHE.clear();
+            }
+            FareRules current = rules;
+            for (Flight f : misses) {
+                Quote quote = new Quote(f, today, price(current, f, booked.getOrDefault(f.getId(), 0), todayDate));
+                fares.put(f.getId(), quote.fare);
+                if (cacheSize > 0) {
+                    CACHE.put(f.getId(), quote);
+                }
+            }
+            return fares;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error pricing flights: " + e.getMessage(), e);
+            throw new ServiceException("Failed to price flights", e);
+        } finally {
+            QUOTE_TIME.recordSince(start);
+        }
+    }
+
+    private static double price(FareRules rules, Flight f, int booked, LocalDate today) {
+        int seats = seatsOf(f);
+        // An oversold flight has negative seats and a load factor above 1
+        double loadFactor = booked + seats <= 0 ? 1 : (double) booked / (booked + seats);
+        // Flights without a date are priced as far from departure
+        long days = f.getDepartureDate() == null ? Long.MAX_VALUE : ChronoUnit.DAYS.between(today, f.getDepartureDate());
+        return rules.price(basePriceOf(f), loadFactor, days);
+    }
+
+    private static int seatsOf(Flight f) {
+        return f.getSeatCount() == null ? 0 : f.getSeatCount();
+    }
+
+    private static double basePriceOf(Flight f) {
+        return f.getPrice() == null ? 0 : f.getPrice();
+    }
+
+    private static long departureDayOf(Flight f) {
+        return f.getDepartureDate() == null ? Long.MIN_VALUE : f.getDepartureDate().toEpochDay();
+    }
+
+    /**
+     * A computed fare and the inputs it is valid for
+     */
+    private static final class Quote {
+        final double basePrice;
+        final int seats;
+        final long departureDay;
+        final int day;
+        final double fare;
+
+        Quote(Flight f, int day, double fare) {
+            this.basePrice = basePriceOf(f);
+            this.seats = seatsOf(f);
+            this.departureDay = departureDayOf(f);
+            this.day = day;
+            this.fare = fare;
+        }
+
+        boolean matches(Flight f, int today) {
+            return day == today && seats == seatsOf(f) && basePrice == basePriceOf(f)
+                    && departureDay == departureDayOf(f);
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package service;
+
+import java.util.Arrays;
+
+/**
+ * Multipliers turning a flight's base price into its current fare.
+ * <p>
+ * Fare buckets are load factor ceilings in percent with a multiplier each,
+ * written "50:1.0,75:1.2,90:1.5,100:2.0": a flight up to half full sells at
+ * the base price, and so on; a flight sold past its last ceiling uses the
+ * last multiplier. Advance purchase steps are minimum days to departure with
+ * a multiplier each, written "60:0.9,21:1.0,7:1.15,0:1.3": the first step
+ * the departure is at least that many days away applies, and departed
+ * flights use the last one. The fare is the product, rounded to cents.
+ */
+public class FareRules {
+    public static final String DEFAULT_BUCKETS = "50:1.0,75:1.2,90:1.5,100:2.0";
+    public static final String DEFAULT_ADVANCE = "60:0.9,21:1.0,7:1.15,0:1.3";
+
+    private final double[] loadCeilings;
+    private final double[] loadMultipliers;
+    private final long[] advanceDays;
+    private final double[] advanceMultipliers;
+
+    private FareRules(double[] loadCeilings, double[] loadMultipliers, long[] advanceDays, double[] advanceMultipliers) {
+        this.loadCeilings = loadCeilings;
+        this.loadMultipliers = loadMultipliers;
+        this.advanceDays = advanceDays;
+        this.advanceMultipliers = advanceMultipliers;
+    }
+
+    /**
+     * Parses fare buckets and advance purchase steps
+     *
+     * @param buckets Ascending percent:multiplier pairs
+     * @param advance Descending days:multiplier pairs
+     * @return the rules
+     * @throws IllegalArgumentException if either list is empty, malformed or out of order
+     */
+    public static FareRules parse(String buckets, String advance) {
+        double[][] load = pairs("fare.buckets", buckets);
+        double[][] days = pairs("fare.advance", advance);
+        for (int i = 1; i < load[0].length; i++) {
+            if (load[0][i] <= load[0][i - 1]) {
+                throw new IllegalArgumentException("fare.buckets must list ascending load factors: " + buckets);
+            }
+        }
+        long[] advanceDays = new long[days[0].length];
+        for (int i = 0; i < advanceDays.length; i++) {
+            advanceDays[i] = (long) days[0][i];
+            if (i > 0 && advanceDays[i] >= advanceDays[i - 1]) {
+                throw new IllegalArgumentException("fare.advance must list descending days: " + advance);
+            }
+        }
+        return new FareRules(load[0], load[1], advanceDays, days[1]);
+    }
+
+    private static double[][] pairs(String key, String spec) {
+        if (spec == null || spec.trim().isEmpty()) {
+            throw new IllegalArgumentException(key + " cannot be empty");
+        }
+        String[] parts = spec.split(",");
+        double[][] pairs = new double[2][parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            String[] pair = parts[i].trim().split(":");
+            try {
+                pairs[0][i] = Double.parseDouble(pair[0].trim());
+                pairs[1][i] = Double.parseDouble(pair[1].trim());
+            } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid " + key + " entry " + parts[i] + ", expected threshold:multiplier");
+            }
+            if (pairs[1][i] <= 0) {
+                throw new IllegalArgumentException(key + " multipliers must be positive: " + parts[i]);
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Computes a fare
+     *
+     * @param basePrice Flight's base price
+     * @param loadFactor Booked seats over capacity, 1 or more when full
+     * @param daysToDeparture Days from today to departure, negative once departed
+     * @return the fare, rounded to cents
+     */
+    public double price(double basePrice, double loadFactor, long daysToDeparture) {
+        double percent = loadFactor * 100;
+        double load = loadMultipliers[loadMultipliers.length - 1];
+        for (int i = 0; i < loadCeilings.length; i++) {
+            if (percent <= loadCeilings[i]) {
+                load = loadMultipliers[i];
+                break;
+            }
+        }
+        double advance = advanceMultipliers[advanceMultipliers.length - 1];
+        for (int i = 0; i < advanceDays.length; i++) {
+            if (daysToDeparture >= advanceDays[i]) {
+                advance = advanceMultipliers[i];
+                break;
+            }
+        }
+        return Math.round(basePrice * load * advance * 100) / 100.0;
+    }
+
+    /**
+     * @return the largest factor a fare can be of its base price
+     */
+    public double getMaxMultiplier() {
+        return Arrays.stream(loadMultipliers).max().getAsDouble() * Arrays.stream(advanceMultipliers).max().getAsDouble();
+    }
+}
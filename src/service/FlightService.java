@@ -1,8 +1,14 @@
 package service;
 
+import dao.FareCalendarDao;
 import dao.FlightDao;
 import dao.IFlightDao;
+import metrics.JfrEvents;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.FareDay;
 import model.Flight;
+import model.FlightQuery;
 import service.exception.ResourceNotFoundException;
 import service.exception.ServiceException;
 import service.exception.ValidationException;
@@ -10,6 +16,8 @@ import service.exception.ValidationException;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -20,7 +28,18 @@ import java.util.logging.Logger;
  */
 public class FlightService implements IFlightService {
     private static final Logger LOGGER = Logger.getLogger(FlightService.class.getName());
+    private static final LatencyHistogram ADD_FLIGHT_TIME = MetricsRegistry.getInstance().histogram("FlightService.addFlight");
+    private static final LatencyHistogram GET_FLIGHT_BY_ID_TIME = MetricsRegistry.getInstance().histogram("FlightService.getFlightById");
+    private static final LatencyHistogram GET_ALL_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightService.getAllFlights");
+    private static final LatencyHistogram SEARCH_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightService.searchFlights");
+    private static final LatencyHistogram GET_FARE_CALENDAR_TIME = MetricsRegistry.getInstance().histogram("FlightService.getFareCalendar");
+    private static final LatencyHistogram FIND_TOP_FLIGHTS_TIME = MetricsRegistry.getInstance().histogram("FlightService.findTopFlights");
+    /** Largest K accepted by findTopFlights */
+    public static final int MAX_TOP_FLIGHTS = 500;
+    /** Longest fare calendar, in days */
+    public static final int MAX_CALENDAR_DAYS = 366;
     private final IFlightDao flightDao;
+    private final FareCalendarDao fareCalendarDao;
     private final Connection connection;
 
     /**
@@ -31,6 +50,7 @@ public class FlightService implements IFlightService {
     public FlightService(Connection connection) {
         this.connection = connection;
         this.flightDao = new FlightDao(connection);
+        this.fareCalendarDao = new FareCalendarDao(connection);
     }
 
     /**
@@ -44,11 +64,14 @@ public class FlightService implements IFlightService {
     public boolean addFlight(Flight flight) throws ValidationException, ServiceException {
         validateFlight(flight);
         
+        long start = System.nanoTime();
         try {
-            return dao.addFlight(flight);
+            return flightDao.addFlight(flight);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error adding flight: " + e.getMessage(), e);
             throw new ServiceException("Failed to add flight", e);
+        } finally {
+            ADD_FLIGHT_TIME.recordSince(start);
         }
     }
 
@@ -61,8 +84,9 @@ public class FlightService implements IFlightService {
      * @throws ServiceException if a service error occurs
      */
     public Flight getFlightById(int id) throws ResourceNotFoundException, ServiceException {
+        long start = System.nanoTime();
         try {
-            Flight flight = dao.getFlightById(id);
+            Flight flight = flightDao.getFlightById(id);
             if (flight == null) {
                 throw new ResourceNotFoundException("Flight with ID " + id + " not found");
             }
@@ -70,6 +94,8 @@ public class FlightService implements IFlightService {
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving flight with ID " + id + ": " + e.getMessage(), e);
             throw new ServiceException("Failed to retrieve flight", e);
+        } finally {
+            GET_FLIGHT_BY_ID_TIME.recordSince(start);
         }
     }
     
@@ -80,11 +106,14 @@ public class FlightService implements IFlightService {
      * @throws ServiceException if a service error occurs
      */
     public List<Flight> getAllFlights() throws ServiceException {
+        long start = System.nanoTime();
         try {
-            return dao.getAllFlights();
+            return flightDao.getAllFlights();
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error retrieving all flights: " + e.getMessage(), e);
             throw new ServiceException("Failed to retrieve flights", e);
+        } finally {
+            GET_ALL_FLIGHTS_TIME.recordSince(start);
         }
     }
     
@@ -119,11 +148,109 @@ public class FlightService implements IFlightService {
             throw new ValidationException("Origin and destination cannot be the same");
         }
         
+        long start = System.nanoTime();
+        Object event = JfrEvents.beginSearch();
+        int rows = -1;
         try {
-            return dao.searchFlights(origin, destination, departureDate);
+            List<Flight> flights = flightDao.searchFlights(origin, destination, departureDate);
+            rows = flights.size();
+            return flights;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error searching flights: " + e.getMessage(), e);
             throw new ServiceException("Failed to search flights", e);
+        } finally {
+            SEARCH_FLIGHTS_TIME.recordSince(start);
+            JfrEvents.endSearch(event, origin, destination, departureDate, rows);
+        }
+    }
+    
+    /**
+     * Gets the lowest price and seats left per day for a route.
+     * Every day of the window has an entry; days without flights have none available.
+     * 
+     * @param origin Flight origin
+     * @param destination Flight destination
+     * @param from First departure date
+     * @param days Number of days, 1 to MAX_CALENDAR_DAYS
+     * @return one FareDay per day, in date order
+     * @throws ValidationException if the parameters are invalid
+     * @throws ServiceException if a service error occurs
+     */
+    public List<FareDay> getFareCalendar(String origin, String destination, LocalDate from, int days)
+            throws ValidationException, ServiceException {
+        if (origin == null || origin.trim().isEmpty()) {
+            throw new ValidationException("Origin cannot be empty");
+        }
+        if (destination == null || destination.trim().isEmpty()) {
+            throw new ValidationException("Destination cannot be empty");
+        }
+        if (from == null) {
+            throw new ValidationException("Start date cannot be null");
+        }
+        if (days < 1 || days > MAX_CALENDAR_DAYS) {
+            throw new ValidationException("Calendar must cover 1 to " + MAX_CALENDAR_DAYS + " days");
+        }
+        
+        long start = System.nanoTime();
+        try {
+            LocalDate to = from.plusDays(days - 1);
+            Iterator<FareDay> flown = fareCalendarDao.getFareDays(origin, destination, from, to).iterator();
+            FareDay next = flown.hasNext() ? flown.next() : null;
+            List<FareDay> calendar = new ArrayList<>(days);
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (next != null && next.getDate().equals(date)) {
+                    calendar.add(next);
+                    next = flown.hasNext() ? flown.next() : null;
+                } else {
+                    calendar.add(new FareDay(date, null, 0, 0));
+                }
+            }
+            return calendar;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving fare calendar: " + e.getMessage(), e);
+            throw new ServiceException("Failed to retrieve fare calendar", e);
+        } finally {
+            GET_FARE_CALENDAR_TIME.recordSince(start);
+        }
+    }
+    
+    /**
+     * Finds the K cheapest, earliest or emptiest flights from an origin.
+     * Only the K best rows are read and mapped, however many flights match.
+     * 
+     * @param query Criteria, ordering and K
+     * @return at most query.getLimit() flights in the query's order
+     * @throws ValidationException if the query is invalid
+     * @throws ServiceException if a service error occurs
+     */
+    public List<Flight> findTopFlights(FlightQuery query) throws ValidationException, ServiceException {
+        if (query == null) {
+            throw new ValidationException("Query cannot be null");
+        }
+        if (query.getOrigin() == null || query.getOrigin().trim().isEmpty()) {
+            throw new ValidationException("Origin cannot be empty");
+        }
+        if (query.getOrder() == null) {
+            throw new ValidationException("Order cannot be null");
+        }
+        if (query.getLimit() < 1 || query.getLimit() > MAX_TOP_FLIGHTS) {
+            throw new ValidationException("Limit must be between 1 and " + MAX_TOP_FLIGHTS);
+        }
+        if (query.getMinSeats() < 0) {
+            throw new ValidationException("Minimum seats cannot be negative");
+        }
+        if (query.getFromDate() != null && query.getToDate() != null && query.getFromDate().isAfter(query.getToDate())) {
+            throw new ValidationException("Date range start must not be after its end");
+        }
+        
+        long start = System.nanoTime();
+        try {
+            return flightDao.findTopFlights(query);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding top flights: " + e.getMessage(), e);
+            throw new ServiceException("Failed to find flights", e);
+        } finally {
+            FIND_TOP_FLIGHTS_TIME.recordSince(start);
         }
     }
     
@@ -138,15 +265,15 @@ public class FlightService implements IFlightService {
             throw new ValidationException("Flight cannot be null");
         }
         
-        if (flight.getFlightNumber() == null || flight.getFlightNumber().trim().isEmpty()) {
-            throw new ValidationException("Flight number cannot be empty");
+        if (flight.getCode() == null || flight.getCode().trim().isEmpty()) {
+            throw new ValidationException("Flight code cannot be empty");
         }
         
-        if (flight.getOrigin() == null || flight.getOrigin().trim().isEmpty()) {
+        if (flight.getFromCity() == null || flight.getFromCity().trim().isEmpty()) {
             throw new ValidationException("Origin cannot be empty");
         }
         
-        if (flight.getDestination() == null || flight.getDestination().trim().isEmpty()) {
+        if (flight.getToCity() == null || flight.getToCity().trim().isEmpty()) {
             throw new ValidationException("Destination cannot be empty");
         }
         
@@ -154,32 +281,23 @@ public class FlightService implements IFlightService {
             throw new ValidationException("Departure date cannot be null");
         }
         
-        if (flight.getArrivalDate() == null) {
-            throw new ValidationException("Arrival date cannot be null");
-        }
-        
-        // Business rule: departure date must be before arrival date
-        if (flight.getDepartureDate().isAfter(flight.getArrivalDate())) {
-            throw new ValidationException("Departure date must be before arrival date");
-        }
-        
         // Business rule: departure date cannot be in the past
         if (flight.getDepartureDate().isBefore(LocalDate.now())) {
             throw new ValidationException("Departure date cannot be in the past");
         }
         
-        // Business rule: capacity must be positive
-        if (flight.getCapacity() <= 0) {
-            throw new ValidationException("Capacity must be positive");
+        // Business rule: seat count must be positive
+        if (flight.getSeatCount() == null || flight.getSeatCount() <= 0) {
+            throw new ValidationException("Seat count must be positive");
         }
         
         // Business rule: price must be positive
-        if (flight.getPrice() <= 0) {
+        if (flight.getPrice() == null || flight.getPrice() <= 0) {
             throw new ValidationException("Price must be positive");
         }
         
         // Business rule: origin and destination cannot be the same
-        if (flight.getOrigin().equalsIgnoreCase(flight.getDestination())) {
+        if (flight.getFromCity().equalsIgnoreCase(flight.getToCity())) {
             throw new ValidationException("Origin and destination cannot be the same");
         }
     }
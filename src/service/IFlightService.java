@@ -5,6 +5,7 @@ import service.exception.ServiceException;
 import service.exception.ValidationException;
 import service.exception.ResourceNotFoundException;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
@@ -17,11 +18,11 @@ public interface IFlightService {
      * Adds a new flight after validating the data.
      * 
      * @param flight the flight to add
-     * @return the ID of the newly added flight
+     * @return true if the flight was added successfully
      * @throws ValidationException if the flight data is invalid
      * @throws ServiceException if a service error occurs
      */
-    int addFlight(Flight flight) throws ValidationException, ServiceException;
+    boolean addFlight(Flight flight) throws ValidationException, ServiceException;
     
     /**
      * Retrieves a flight by its ID.
@@ -42,13 +43,15 @@ public interface IFlightService {
     List<Flight> getAllFlights() throws ServiceException;
     
     /**
-     * Searches for flights based on origin and destination.
+     * Searches for flights based on origin, destination and departure date.
      * 
      * @param origin the origin city
      * @param destination the destination city
+     * @param departureDate the departure date
      * @return a list of flights matching the criteria
      * @throws ValidationException if the search parameters are invalid
      * @throws ServiceException if a service error occurs
      */
-    List<Flight> searchFlights(String origin, String destination) throws ValidationException, ServiceException;
+    List<Flight> searchFlights(String origin, String destination, LocalDate departureDate)
+            throws ValidationException, ServiceException;
 }
\ No newline at end of file
@@ -0,0 +1,107 @@
+package service;
+
+import config.AppConfig;
+import model.Booking;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, least-recently-used map from idempotency key to the booking made
+ * under it. Sits in front of the IdempotencyKeys table so a retried request
+ * is answered without touching the database.
+ * The shared instance is sized by booking.idempotency.cache.size and follows
+ * configuration reloads; a size of 0 disables it.
+ */
+public class IdempotencyCache {
+    private static final int DEFAULT_SIZE = 10_000;
+    private static final IdempotencyCache SHARED = new IdempotencyCache(readSize());
+
+    static {
+        AppConfig.addListener(keys -> {
+            if (keys.contains("booking.idempotency.cache.size")) {
+                SHARED.setCapacity(readSize());
+            }
+        });
+    }
+
+    private final LinkedHashMap<String, Booking> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private int capacity;
+
+    /**
+     * Constructs an IdempotencyCache
+     *
+     * @param capacity Maximum number of keys kept
+     */
+    public IdempotencyCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * @return the cache shared by every BookingService
+     */
+    public static IdempotencyCache shared() {
+        return SHARED;
+    }
+
+    private static int readSize() {
+        return AppConfig.getInt("booking.idempotency.cache.size", DEFAULT_SIZE, 0, 10_000_000);
+    }
+
+    /**
+     * Gets the booking made under a key
+     *
+     * @param key Idempotency key
+     * @return a copy of the booking, or null if the key is not cached
+     */
+    public synchronized Booking get(String key) {
+        Booking booking = entries.get(key);
+        return booking == null ? null : copy(booking);
+    }
+
+    /**
+     * Remembers the booking made under a key, evicting the least recently used key when full
+     *
+     * @param key Idempotency key
+     * @param booking Booking made under the key
+     */
+    public synchronized void put(String key, Booking booking) {
+        if (capacity == 0) {
+            return;
+        }
+        entries.put(key, copy(booking));
+        evict();
+    }
+
+    /**
+     * Changes the number of keys kept
+     *
+     * @param capacity Maximum number of keys kept
+     */
+    public synchronized void setCapacity(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        evict();
+    }
+
+    /**
+     * @return number of keys cached
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Booking>> eldest = entries.entrySet().iterator();
+        while (entries.size() > capacity && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    // Callers may change the booking they get back; the cached one stays as it was made
+    private static Booking copy(Booking b) {
+        return new Booking(b.getId(), b.getPassengerId(), b.getFlightId(), b.getAmountPaid(), b.getStatus(),
+                b.getBookingDate());
+    }
+}
@@ -0,0 +1,256 @@
+package service;
+
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.OverbookingDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Booking;
+import model.DeniedBoarding;
+import model.Flight;
+import service.exception.ResourceNotFoundException;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Manages overbooking limits and the outcome of oversold departures.
+ * Limits are enforced by {@link FlightDao#adjustSeats}, so every booking
+ * path shares the same atomic check; an oversold flight has a negative seat
+ * count. After departure each booking whose passenger did not show up is
+ * marked NO_SHOW, and each passenger who could not be flown is marked
+ * DENIED_BOARDING and recorded with the compensation paid. Both statuses
+ * keep the booking counted, so the booking counters are unchanged.
+ */
+public class OverbookingService {
+    private static final Logger LOGGER = Logger.getLogger(OverbookingService.class.getName());
+    private static final LatencyHistogram DENY_BOARDING_TIME = MetricsRegistry.getInstance().histogram("OverbookingService.denyBoarding");
+    /** Upper bound of a limit, well above any cabin */
+    public static final int MAX_EXTRA_SEATS = 1000;
+
+    private final BookingDao bookingDao;
+    private final FlightDao flightDao;
+    private final OverbookingDao overbookingDao;
+    private final Connection connection;
+
+    /**
+     * Constructs an OverbookingService with a database connection
+     *
+     * @param connection Database connection
+     */
+    public OverbookingService(Connection connection) {
+        this.connection = connection;
+        this.bookingDao = new BookingDao(connection);
+        this.flightDao = new FlightDao(connection);
+        this.overbookingDao = new OverbookingDao(connection);
+    }
+
+    /**
+     * Sets how many seats a flight may be sold beyond capacity, overriding its route's limit
+     *
+     * @param flightId Flight ID
+     * @param extraSeats Seats beyond capacity, 0 to forbid overbooking the flight
+     * @throws ValidationException if the limit is out of range
+     * @throws ResourceNotFoundException if the flight does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public void setFlightLimit(int flightId, int extraSeats)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
+        validateLimit(extraSeats);
+        try {
+            if (flightDao.getFlightById(flightId) == null) {
+                throw new ResourceNotFoundException("Flight with ID " + flightId + " not found");
+            }
+            overbookingDao.setFlightLimit(flightId, extraSeats);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error setting overbooking limit of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to set overbooking limit", e);
+        }
+    }
+
+    /**
+     * Removes a flight's own limit, so its route's limit applies again
+     *
+     * @param flightId Flight ID
+     * @return true if the flight had a limit of its own
+     * @throws ServiceException if a service error occurs
+     */
+    public boolean clearFlightLimit(int flightId) throws ServiceException {
+        try {
+            return overbookingDao.clearFlightLimit(flightId);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error clearing overbooking limit of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to clear overbooking limit", e);
+        }
+    }
+
+    /**
+     * Sets how many seats the flights of a route may be sold beyond capacity
+     *
+     * @param fromCity Origin city
+     * @param toCity Destination city
+     * @param extraSeats Seats beyond capacity; 0 removes the route's limit
+     * @throws ValidationException if a city is missing or the limit is out of range
+     * @throws ServiceException if a service error occurs
+     */
+    public void setRouteLimit(String fromCity, String toCity, int extraSeats)
+            throws ValidationException, ServiceException {
+        if (fromCity == null || fromCity.trim().isEmpty() || toCity == null || toCity.trim().isEmpty()) {
+            throw new ValidationException("Origin and destination cities are required");
+        }
+        validateLimit(extraSeats);
+        try {
+            if (extraSeats == 0) {
+                overbookingDao.clearRouteLimit(fromCity, toCity);
+            } else {
+                overbookingDao.setRouteLimit(fromCity, toCity, extraSeats);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error setting overbooking limit of route " + fromCity + "-" + toCity + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to set overbooking limit", e);
+        }
+    }
+
+    /**
+     * Retrieves the limit applied when selling seats of a flight
+     *
+     * @param flightId Flight ID
+     * @return seats the flight may be sold beyond capacity
+     * @throws ServiceException if a service error occurs
+     */
+    public int getEffectiveLimit(int flightId) throws ServiceException {
+        try {
+            return overbookingDao.getEffectiveLimit(flightId);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving overbooking limit of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to retrieve overbooking limit", e);
+        }
+    }
+
+    /**
+     * Marks a confirmed booking of a departed flight as a no-show
+     *
+     * @param bookingId Booking ID
+     * @return the updated booking
+     * @throws ValidationException if the booking is not confirmed or its flight has not departed
+     * @throws ResourceNotFoundException if the booking does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public Booking recordNoShow(int bookingId) throws ValidationException, ResourceNotFoundException, ServiceException {
+        try {
+            Booking booking = departedBooking(bookingId);
+            if (!bookingDao.updateBookingStatus(bookingId, booking.getStatus(), BookingService.STATUS_NO_SHOW)) {
+                throw new ValidationException("Booking " + bookingId + " was changed concurrently");
+            }
+            booking.setStatus(BookingService.STATUS_NO_SHOW);
+            return booking;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error recording no-show of booking " + bookingId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to record no-show", e);
+        }
+    }
+
+    /**
+     * Marks a confirmed booking of a departed flight as denied boarding and
+     * records the compensation in one transaction
+     *
+     * @param bookingId Booking ID
+     * @param compensation Amount paid to the passenger
+     * @param voluntary true if the passenger gave up the seat, false if bumped
+     * @return the recorded denied boarding
+     * @throws ValidationException if the compensation is negative, the booking is not confirmed or its flight has not departed
+     * @throws ResourceNotFoundException if the booking does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public DeniedBoarding denyBoarding(int bookingId, double compensation, boolean voluntary)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
+        if (compensation < 0 || Double.isNaN(compensation) || Double.isInfinite(compensation)) {
+            throw new ValidationException("Compensation must be a non-negative amount");
+        }
+        long start = System.nanoTime();
+        boolean autoCommit = true;
+        boolean inTransaction = false;
+        try {
+            Booking booking = departedBooking(bookingId);
+            DeniedBoarding denied = new DeniedBoarding(null, bookingId, booking.getPassengerId(),
+                    booking.getFlightId(), voluntary, compensation, LocalDate.now());
+
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            inTransaction = true;
+            if (!bookingDao.updateBookingStatus(bookingId, booking.getStatus(), BookingService.STATUS_DENIED_BOARDING)) {
+                throw new ValidationException("Booking " + bookingId + " was changed concurrently");
+            }
+            overbookingDao.addDeniedBoarding(denied);
+            connection.commit();
+            inTransaction = false;
+            return denied;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error denying boarding of booking " + bookingId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to record denied boarding", e);
+        } finally {
+            if (inTransaction) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+            DENY_BOARDING_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Retrieves the denied boardings of a flight
+     *
+     * @param flightId Flight ID
+     * @return denied boardings in the order they were recorded
+     * @throws ServiceException if a service error occurs
+     */
+    public List<DeniedBoarding> getDeniedBoardingsByFlightId(int flightId) throws ServiceException {
+        try {
+            return overbookingDao.getDeniedBoardingsByFlightId(flightId);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error retrieving denied boardings of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to retrieve denied boardings", e);
+        }
+    }
+
+    private static void validateLimit(int extraSeats) throws ValidationException {
+        if (extraSeats < 0 || extraSeats > MAX_EXTRA_SEATS) {
+            throw new ValidationException("Overbooking limit must be between 0 and " + MAX_EXTRA_SEATS);
+        }
+    }
+
+    /**
+     * Loads a booking that can still be given a departure outcome: confirmed,
+     * and on a flight departing today or earlier, or already deleted
+     */
+    private Booking departedBooking(int bookingId)
+            throws SQLException, ValidationException, ResourceNotFoundException {
+        Booking booking = bookingDao.getBookingById(bookingId);
+        if (booking == null) {
+            throw new ResourceNotFoundException("Booking with ID " + bookingId + " not found");
+        }
+        String status = booking.getStatus();
+        if (status != null && !BookingService.STATUS_CONFIRMED.equalsIgnoreCase(status)) {
+            throw new ValidationException("Booking " + bookingId + " is " + status);
+        }
+        Flight flight = flightDao.getFlightById(booking.getFlightId());
+        if (flight != null && flight.getDepartureDate() != null && flight.getDepartureDate().isAfter(LocalDate.now())) {
+            throw new ValidationException("Flight " + booking.getFlightId() + " has not departed");
+        }
+        return booking;
+    }
+}
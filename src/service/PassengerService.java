@@ -2,10 +2,14 @@ package service;
 
 import model.Passenger;
 import dao.PassengerDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
 import java.sql.SQLException;
 import java.util.List;
 
 public class PassengerService {
+    private static final LatencyHistogram ADD_PASSENGER_TIME = MetricsRegistry.getInstance().histogram("PassengerService.addPassenger");
+    private static final LatencyHistogram GET_PASSENGER_BY_ID_TIME = MetricsRegistry.getInstance().histogram("PassengerService.getPassengerById");
     private final PassengerDao dao;
 
     public PassengerService(PassengerDao dao) {
@@ -14,11 +18,21 @@ public class PassengerService {
 
     public void addPassenger(Passenger p) throws SQLException {
         // Add domain or business validation here, e.g., unique passport number etc.
-        dao.addPassenger(p);
+        long start = System.nanoTime();
+        try {
+            dao.addPassenger(p);
+        } finally {
+            ADD_PASSENGER_TIME.recordSince(start);
+        }
     }
 
     public Passenger getPassengerById(int id) throws SQLException {
-        return dao.getPassengerById(id);
+        long start = System.nanoTime();
+        try {
+            return dao.getPassengerById(id);
+        } finally {
+            GET_PASSENGER_BY_ID_TIME.recordSince(start);
+        }
     }
     // ... add update, delete, getAll, etc. as needed
 }
@@ -0,0 +1,374 @@
+package service;
+
+import config.AppConfig;
+import dao.BookingCounterDao;
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import dao.SeatMapDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Booking;
+import model.Flight;
+import model.FlightQuery;
+import model.Passenger;
+import model.Reaccommodation;
+import model.ReaccommodationResult;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the passengers of disrupted flights to other flights on the same route.
+ * Affected bookings are ranked paid passengers first, then by booking date.
+ * Each route's alternatives are read once through the route index: flights
+ * with seats left that depart from the disrupted departure (or today) up to
+ * reaccommodation.window.days later. Routes are planned in parallel in memory,
+ * and the moves are committed in batches of reaccommodation.batch.size, each
+ * batch one transaction with one seat update per flight.
+ * Passengers of a deleted flight are routed by their Pfrom/Pto cities.
+ */
+public class ReaccommodationService {
+    private static final Logger LOGGER = Logger.getLogger(ReaccommodationService.class.getName());
+    private static final LatencyHistogram REACCOMMODATE_TIME = MetricsRegistry.getInstance().histogram("ReaccommodationService.reaccommodate");
+    private static final int DEFAULT_WINDOW_DAYS = 3;
+    private static final int DEFAULT_BATCH_SIZE = 500;
+
+    /** Paid passengers first, then the earliest bookings */
+    private static final Comparator<Affected> PRIORITY = Comparator
+            .comparing((Affected a) -> !a.paid)
+            .thenComparing(a -> a.booking.getBookingDate(), Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(a -> a.booking.getId());
+
+    private final BookingDao bookingDao;
+    private final FlightDao flightDao;
+    private final PassengerDao passengerDao;
+    private final BookingCounterDao counterDao;
+    private final SeatMapDao seatMapDao;
+    private final Connection connection;
+
+    /**
+     * Constructs a ReaccommodationService with a database connection
+     *
+     * @param connection Database connection
+     */
+    public ReaccommodationService(Connection connection) {
+        this.connection = connection;
+        this.bookingDao = new BookingDao(connection);
+        this.flightDao = new FlightDao(connection);
+        this.passengerDao = new PassengerDao(connection);
+        this.counterDao = new BookingCounterDao(connection);
+        this.seatMapDao = new SeatMapDao(connection);
+    }
+
+    /**
+     * Re-accommodates the passengers of flights that were deleted while still booked
+     *
+     * @return the moves made and the bookings left without an alternative
+     * @throws ServiceException if a service error occurs
+     */
+    public ReaccommodationResult reaccommodateDeletedFlights() throws ServiceException {
+        List<Integer> flightIds;
+        try {
+            flightIds = bookingDao.getOrphanedFlightIds();
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error finding deleted flights: " + e.getMessage(), e);
+            throw new ServiceException("Failed to find deleted flights", e);
+        }
+        return reaccommodateFlights(flightIds);
+    }
+
+    /**
+     * Moves every booked passenger of the given flights to an alternative flight.
+     * The disrupted flights are never chosen as alternatives. Bookings for which
+     * no seat is found, or whose seat is sold between planning and commit, stay
+     * on their flight and are reported; running again retries them.
+     *
+     * @param flightIds Disrupted flights, existing or already deleted
+     * @return the moves made and the bookings left without an alternative
+     * @throws ValidationException if no flight is given
+     * @throws ServiceException if a service error occurs
+     */
+    public ReaccommodationResult reaccommodate(Collection<Integer> flightIds) throws ValidationException, ServiceException {
+        if (flightIds == null) {
+            throw new ValidationException("Disrupted flights are required");
+        }
+        return reaccommodateFlights(flightIds);
+    }
+
+    private ReaccommodationResult reaccommodateFlights(Collection<Integer> flightIds) throws ServiceException {
+        int windowDays = AppConfig.getInt("reaccommodation.window.days", DEFAULT_WINDOW_DAYS, 0, 365);
+        int batchSize = AppConfig.getInt("reaccommodation.batch.size", DEFAULT_BATCH_SIZE, 1, 100_000);
+        long start = System.nanoTime();
+        boolean autoCommit = true;
+        boolean inTransaction = false;
+        List<Reaccommodation> moved = new ArrayList<>();
+        List<Booking> unaccommodated = new ArrayList<>();
+        int batches = 0;
+        try {
+            TreeSet<Integer> disrupted = new TreeSet<>(flightIds);
+            Map<String, RouteGroup> routes = new LinkedHashMap<>();
+            int affected = load(disrupted, batchSize, routes, unaccommodated);
+            for (RouteGroup route : routes.values()) {
+                route.readCandidates(disrupted, windowDays);
+            }
+            // Routes compete for disjoint flights, so they plan independently
+            List<List<Reaccommodation>> plans = routes.values().parallelStream()
+                    .map(route -> route.plan(windowDays))
+                    .collect(Collectors.toList());
+            for (RouteGroup route : routes.values()) {
+                for (Affected a : route.unassigned) {
+                    unaccommodated.add(a.booking);
+                }
+            }
+            List<Reaccommodation> moves = new ArrayList<>();
+            plans.forEach(moves::addAll);
+
+            autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            for (int from = 0; from < moves.size(); from += batchSize) {
+                inTransaction = true;
+                moved.addAll(commitBatch(moves.subList(from, Math.min(from + batchSize, moves.size())), unaccommodated));
+                connection.commit();
+                inTransaction = false;
+                batches++;
+                disrupted.forEach(SeatMapService::invalidate);
+            }
+            LOGGER.info("Re-accommodated " + moved.size() + " of " + affected + " bookings on flights " + disrupted
+                    + " in " + batches + " batches; " + unaccommodated.size() + " without an alternative");
+            return new ReaccommodationResult(affected, moved, unaccommodated, batches);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error re-accommodating flights " + flightIds + " after " + moved.size()
+                    + " moves: " + e.getMessage(), e);
+            throw new ServiceException("Failed to re-accommodate passengers", e);
+        } finally {
+            if (inTransaction) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+            REACCOMMODATE_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Reads the booked passengers of the disrupted flights and groups them by route
+     *
+     * @return number of affected bookings
+     */
+    private int load(Collection<Integer> disrupted, int pageSize, Map<String, RouteGroup> routes,
+                     List<Booking> unroutable) throws SQLException {
+        LocalDate today = LocalDate.now();
+        int affected = 0;
+        for (int flightId : disrupted) {
+            Flight flight = flightDao.getFlightById(flightId);
+            LocalDate earliest = flight != null && flight.getDepartureDate() != null
+                    && flight.getDepartureDate().isAfter(today) ? flight.getDepartureDate() : today;
+            int lastId = 0;
+            while (true) {
+                List<Booking> page = bookingDao.getBookedByFlightId(flightId, lastId, pageSize);
+                if (page.isEmpty()) {
+                    break;
+                }
+                lastId = page.get(page.size() - 1).getId();
+                affected += page.size();
+                List<Integer> passengerIds = new ArrayList<>(page.size());
+                for (Booking b : page) {
+                    passengerIds.add(b.getPassengerId());
+                }
+                Map<Integer, Passenger> passengers = passengerDao.getPassengersByIds(passengerIds);
+                for (Booking b : page) {
+                    Passenger p = passengers.get(b.getPassengerId());
+                    String fromCity = flight != null ? flight.getFromCity() : p == null ? null : p.getFromCity();
+                    String toCity = flight != null ? flight.getToCity() : p == null ? null : p.getToCity();
+                    if (fromCity == null || toCity == null) {
+                        unroutable.add(b);
+                        continue;
+                    }
+                    boolean paid = p != null && BookingService.PASSENGER_STATUS_PAID.equalsIgnoreCase(p.getStatus());
+                    routes.computeIfAbsent(fromCity + '\n' + toCity, k -> new RouteGroup(fromCity, toCity))
+                            .add(new Affected(b, paid, earliest));
+                }
+            }
+        }
+        return affected;
+    }
+
+    /**
+     * Applies one batch of planned moves in the caller's transaction
+     *
+     * @return the moves applied; the bookings of the others are added to unaccommodated
+     */
+    private List<Reaccommodation> commitBatch(List<Reaccommodation> batch, List<Booking> unaccommodated)
+            throws SQLException {
+        Map<Integer, List<Reaccommodation>> byTarget = batch.stream()
+                .collect(Collectors.groupingBy(Reaccommodation::getToFlightId, LinkedHashMap::new, Collectors.toList()));
+        List<Reaccommodation> seated = new ArrayList<>(batch.size());
+        for (Map.Entry<Integer, List<Reaccommodation>> target : byTarget.entrySet()) {
+            // Plans count unsold seats only, so a commit never overbooks the target
+            if (flightDao.takeFreeSeats(target.getKey(), target.getValue().size())) {
+                seated.addAll(target.getValue());
+            } else {
+                // Sold since planning; the next run finds other seats
+                for (Reaccommodation m : target.getValue()) {
+                    unaccommodated.add(m.getBooking());
+                }
+            }
+        }
+        List<Reaccommodation> moved = bookingDao.moveBookings(seated);
+        if (moved.size() < seated.size()) {
+            // Bookings cancelled meanwhile give their new seat back
+            Map<Integer, Long> taken = count(seated, Reaccommodation::getToFlightId);
+            Map<Integer, Long> used = count(moved, Reaccommodation::getToFlightId);
+            for (Map.Entry<Integer, Long> target : taken.entrySet()) {
+                long unused = target.getValue() - used.getOrDefault(target.getKey(), 0L);
+                if (unused > 0) {
+                    flightDao.adjustSeats(target.getKey(), (int) unused);
+                }
+            }
+        }
+        passengerDao.moveBookedFlight(moved);
+        // Moved passengers choose a seat again on their new flight
+        seatMapDao.deleteAssignments(moved.stream().map(m -> m.getBooking().getId()).collect(Collectors.toList()));
+        // Route counters stay put: a move keeps the route and the booking day
+        for (Map.Entry<Integer, double[]> e : totals(moved, Reaccommodation::getFromFlightId).entrySet()) {
+            flightDao.adjustSeats(e.getKey(), (int) e.getValue()[0]);
+            counterDao.recordBookings(e.getKey(), null, null, null, -(int) e.getValue()[0], -e.getValue()[1]);
+        }
+        for (Map.Entry<Integer, double[]> e : totals(moved, Reaccommodation::getToFlightId).entrySet()) {
+            counterDao.recordBookings(e.getKey(), null, null, null, (int) e.getValue()[0], e.getValue()[1]);
+        }
+        return moved;
+    }
+
+    private static Map<Integer, Long> count(List<Reaccommodation> moves,
+                                            Function<Reaccommodation, Integer> key) {
+        return moves.stream().collect(Collectors.groupingBy(key, Collectors.counting()));
+    }
+
+    /**
+     * Sums bookings and revenue of moves per flight
+     */
+    private static Map<Integer, double[]> totals(List<Reaccommodation> moves,
+                                                 Function<Reaccommodation, Integer> key) {
+        Map<Integer, double[]> totals = new LinkedHashMap<>();
+        for (Reaccommodation m : moves) {
+            double[] t = totals.computeIfAbsent(key.apply(m), k -> new double[2]);
+            t[0]++;
+            Double amount = m.getBooking().getAmountPaid();
+            t[1] += amount == null ? 0 : amount;
+        }
+        return totals;
+    }
+
+    /**
+     * Affected booking with its priority inputs
+     */
+    private static final class Affected {
+        final Booking booking;
+        final boolean paid;
+        final LocalDate earliest;
+
+        Affected(Booking booking, boolean paid, LocalDate earliest) {
+            this.booking = booking;
+            this.paid = paid;
+            this.earliest = earliest;
+        }
+    }
+
+    /**
+     * Affected bookings of one route and the alternative flights on it
+     */
+    private final class RouteGroup {
+        final String fromCity;
+        final String toCity;
+        final List<Affected> affected = new ArrayList<>();
+        final List<Affected> unassigned = new ArrayList<>();
+        List<Flight> candidates = new ArrayList<>();
+        LocalDate earliest;
+        LocalDate latest;
+
+        RouteGroup(String fromCity, String toCity) {
+            this.fromCity = fromCity;
+            this.toCity = toCity;
+        }
+
+        void add(Affected a) {
+            affected.add(a);
+            if (earliest == null || a.earliest.isBefore(earliest)) {
+                earliest = a.earliest;
+            }
+            if (latest == null || a.earliest.isAfter(latest)) {
+                latest = a.earliest;
+            }
+        }
+
+        void readCandidates(Collection<Integer> disrupted, int windowDays) throws SQLException {
+            FlightQuery query = new FlightQuery(fromCity, FlightQuery.Order.DEPARTURE, FlightService.MAX_TOP_FLIGHTS);
+            query.setDestination(toCity);
+            query.setFromDate(earliest);
+            query.setToDate(latest.plusDays(windowDays));
+            query.setMinSeats(1);
+            for (Flight f : flightDao.findTopFlights(query)) {
+                if (!disrupted.contains(f.getId())) {
+                    candidates.add(f);
+                }
+            }
+        }
+
+        /**
+         * Gives each booking, in priority order, the earliest alternative with a
+         * seat left that departs within its window
+         */
+        List<Reaccommodation> plan(int windowDays) {
+            affected.sort(PRIORITY);
+            int[] seatsLeft = new int[candidates.size()];
+            for (int i = 0; i < seatsLeft.length; i++) {
+                seatsLeft[i] = candidates.get(i).getSeatCount();
+            }
+            List<Reaccommodation> moves = new ArrayList<>(affected.size());
+            for (Affected a : affected) {
+                LocalDate last = a.earliest.plusDays(windowDays);
+                int chosen = -1;
+                for (int i = 0; i < seatsLeft.length; i++) {
+                    LocalDate departure = candidates.get(i).getDepartureDate();
+                    if (departure.isAfter(last)) {
+                        break;
+                    }
+                    if (seatsLeft[i] > 0 && !departure.isBefore(a.earliest)) {
+                        chosen = i;
+                        break;
+                    }
+                }
+                if (chosen < 0) {
+                    unassigned.add(a);
+                } else {
+                    seatsLeft[chosen]--;
+                    moves.add(new Reaccommodation(a.booking, candidates.get(chosen).getId()));
+                }
+            }
+            return moves;
+        }
+    }
+}
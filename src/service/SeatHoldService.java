@@ -0,0 +1,172 @@
+package service;
+
+import model.SeatHold;
+import service.exception.ResourceNotFoundException;
+import service.exception.ValidationException;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Service for temporary seat holds.
+ * Holds are kept in memory with a time-to-live; the number of seats held per
+ * flight is tracked with a lock-free counter so concurrent holds on the same
+ * flight never exceed its seat count. Bookings made through a BookingService
+ * given this service leave the seats held for other passengers free.
+ */
+public class SeatHoldService {
+    private static final Logger LOGGER = Logger.getLogger(SeatHoldService.class.getName());
+    private static final long PURGE_INTERVAL_MILLIS = 1000;
+
+    private final long holdMillis;
+    private final ConcurrentHashMap<Long, SeatHold> holds = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, AtomicInteger> heldPerFlight = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong nextPurge = new AtomicLong();
+
+    /**
+     * Constructs a SeatHoldService
+     *
+     * @param holdMillis How long a hold lasts, in milliseconds
+     */
+    public SeatHoldService(long holdMillis) {
+        if (holdMillis <= 0) {
+            throw new IllegalArgumentException("Hold duration must be positive");
+        }
+        this.holdMillis = holdMillis;
+    }
+
+    /**
+     * Holds one seat on a flight
+     *
+     * @param flightId Flight ID
+     * @param passengerId Passenger ID
+     * @param availableSeats Seats currently available on the flight
+     * @return the new hold
+     * @throws ValidationException if every available seat is already held
+     */
+    public SeatHold placeHold(int flightId, int passengerId, int availableSeats) throws ValidationException {
+        long now = System.currentTimeMillis();
+        purgeExpired(now);
+
+        AtomicInteger held = heldPerFlight.computeIfAbsent(flightId, id -> new AtomicInteger());
+        while (true) {
+            int current = held.get();
+            if (current >= availableSeats) {
+                throw new ValidationException("No seats available to hold on flight " + flightId);
+            }
+            if (held.compareAndSet(current, current + 1)) {
+                break;
+            }
+        }
+
+        SeatHold hold = new SeatHold(nextId.incrementAndGet(), flightId, passengerId, now + holdMillis);
+        holds.put(hold.getId(), hold);
+        return hold;
+    }
+
+    /**
+     * Claims a hold for the booking it is being turned into.
+     * The hold can no longer be claimed or released, but its seat stays held
+     * until the booking commits ({@link #confirmHold}) or fails ({@link #restoreHold}).
+     *
+     * @param holdId Hold ID
+     * @param flightId Flight the booking is for
+     * @param passengerId Passenger the booking is for
+     * @return the claimed hold
+     * @throws ResourceNotFoundException if the hold does not exist or has expired
+     * @throws ValidationException if the hold is for a different flight or passenger
+     */
+    public SeatHold claimHold(long holdId, int flightId, int passengerId)
+            throws ResourceNotFoundException, ValidationException {
+        SeatHold hold = holds.get(holdId);
+        if (hold == null || hold.isExpired(System.currentTimeMillis())) {
+            releaseHold(holdId);
+            throw new ResourceNotFoundException("Hold " + holdId + " not found or expired");
+        }
+        if (hold.getFlightId() != flightId || hold.getPassengerId() != passengerId) {
+            throw new ValidationException("Hold " + holdId + " does not match flight and passenger");
+        }
+        if (!holds.remove(holdId, hold)) {
+            throw new ResourceNotFoundException("Hold " + holdId + " not found or expired");
+        }
+        return hold;
+    }
+
+    /**
+     * Ends a claimed hold whose booking committed; its seat is now booked
+     *
+     * @param hold the claimed hold
+     */
+    public void confirmHold(SeatHold hold) {
+        AtomicInteger held = heldPerFlight.get(hold.getFlightId());
+        if (held != null) {
+            held.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns a claimed hold whose booking failed, so it can be used again until it expires
+     *
+     * @param hold the claimed hold
+     */
+    public void restoreHold(SeatHold hold) {
+        holds.put(hold.getId(), hold);
+        purgeExpired(System.currentTimeMillis());
+    }
+
+    /**
+     * Releases a hold
+     *
+     * @param holdId Hold ID
+     * @return true if the hold existed
+     */
+    public boolean releaseHold(long holdId) {
+        SeatHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        AtomicInteger held = heldPerFlight.get(hold.getFlightId());
+        if (held != null) {
+            held.decrementAndGet();
+        }
+        return true;
+    }
+
+    /**
+     * Gets the number of seats currently held on a flight
+     *
+     * @param flightId Flight ID
+     * @return held seats
+     */
+    public int getHeldSeats(int flightId) {
+        purgeExpired(System.currentTimeMillis());
+        AtomicInteger held = heldPerFlight.get(flightId);
+        return held != null ? held.get() : 0;
+    }
+
+    /**
+     * Drops expired holds, at most once per purge interval across all callers
+     */
+    private void purgeExpired(long now) {
+        long due = nextPurge.get();
+        if (now < due || !nextPurge.compareAndSet(due, now + PURGE_INTERVAL_MILLIS)) {
+            return;
+        }
+        int purged = 0;
+        for (Iterator<Map.Entry<Long, SeatHold>> it = holds.entrySet().iterator(); it.hasNext(); ) {
+            SeatHold hold = it.next().getValue();
+            if (hold.isExpired(now) && releaseHold(hold.getId())) {
+                purged++;
+            }
+        }
+        if (purged > 0 && LOGGER.isLoggable(Level.FINE)) {
+            LOGGER.fine("Purged " + purged + " expired seat holds");
+        }
+    }
+}
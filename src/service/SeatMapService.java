@@ -0,0 +1,351 @@
+package service;
+
+import config.AppConfig;
+import dao.BookingDao;
+import dao.SeatMapDao;
+import metrics.LatencyHistogram;
+import metrics.MetricsRegistry;
+import model.Booking;
+import model.CabinZone;
+import model.SeatLayout;
+import model.SeatMap;
+import service.exception.ResourceNotFoundException;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Assigns seats to bookings through per-flight bitset seat maps.
+ * <p>
+ * Each flight's {@link SeatMap} is kept in memory, shared by every service
+ * instance, and claims seats with compare-and-set, so selections on one
+ * flight never wait for each other or for other flights. A claimed seat is
+ * then written to SeatAssignments, whose unique (flightId, seat) key is the
+ * final guard, and the map's occupancy is saved as a BLOB in the same
+ * transaction; a failed write gives the seat back.
+ * <p>
+ * The layout holds the flight's capacity, its available seats plus its
+ * booked seats, laid out seatmap.seats.per.row to a row with the zones of
+ * seatmap.zones. Every selection checks the capacity and rebuilds the map
+ * from the assignments when it changed; seats past a reduced capacity lose
+ * their assignment. A stored map whose occupancy does not match the
+ * assignments, for example after cancellations, is rebuilt when loaded.
+ */
+public class SeatMapService {
+    private static final Logger LOGGER = Logger.getLogger(SeatMapService.class.getName());
+    private static final LatencyHistogram ASSIGN_SEATS_TIME = MetricsRegistry.getInstance().histogram("SeatMapService.assignSeats");
+    private static final int DEFAULT_SEATS_PER_ROW = 6;
+    private static final Map<Integer, SeatMap> MAPS = new ConcurrentHashMap<>();
+
+    private final BookingDao bookingDao;
+    private final SeatMapDao seatMapDao;
+    private final Connection connection;
+
+    /**
+     * Constructs a SeatMapService with a database connection
+     *
+     * @param connection Database connection
+     */
+    public SeatMapService(Connection connection) {
+        this.connection = connection;
+        this.bookingDao = new BookingDao(connection);
+        this.seatMapDao = new SeatMapDao(connection);
+    }
+
+    /**
+     * Drops the cached map of a flight after its assignments were changed
+     * outside this service; the next selection reloads it
+     *
+     * @param flightId Flight ID
+     */
+    public static void invalidate(int flightId) {
+        MAPS.remove(flightId);
+    }
+
+    /**
+     * Gets the current seat map of a flight
+     *
+     * @param flightId Flight ID
+     * @return the shared seat map; callers must not claim or release seats on it
+     * @throws ResourceNotFoundException if the flight does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public SeatMap getSeatMap(int flightId) throws ResourceNotFoundException, ServiceException {
+        try {
+            return mapFor(flightId);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading seat map of flight " + flightId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to load seat map", e);
+        }
+    }
+
+    /**
+     * Assigns a specific seat to a booking, moving it from its current seat if it has one
+     *
+     * @param bookingId Booking ID
+     * @param seatLabel Seat such as 12C
+     * @return the seat label
+     * @throws ValidationException if the booking is cancelled, or the seat does not exist or is taken
+     * @throws ResourceNotFoundException if the booking or its flight does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public String assignSeat(int bookingId, String seatLabel)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
+        long start = System.nanoTime();
+        try {
+            List<Integer> ids = Collections.singletonList(bookingId);
+            int flightId = flightOf(ids);
+            SeatMap map = mapFor(flightId);
+            int seat;
+            try {
+                seat = map.getLayout().seatOf(seatLabel);
+            } catch (IllegalArgumentException e) {
+                throw new ValidationException(e.getMessage());
+            }
+            Map<Integer, Integer> previous = seatMapDao.getSeats(ids);
+            if (previous.containsKey(bookingId) && previous.get(bookingId) == seat) {
+                return map.getLayout().label(seat);
+            }
+            if (!map.tryAssign(seat)) {
+                throw new ValidationException("Seat " + map.getLayout().label(seat) + " is taken");
+            }
+            save(flightId, map, Collections.singletonMap(bookingId, seat), previous);
+            return map.getLayout().label(seat);
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error assigning seat " + seatLabel + " to booking " + bookingId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to assign seat", e);
+        } finally {
+            ASSIGN_SEATS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Seats bookings of one flight next to each other in one row, in the
+     * front-most row of the zone with enough adjacent free seats. Bookings
+     * that already have seats are moved.
+     *
+     * @param bookingIds Bookings to seat together, all on the same flight
+     * @param zoneName Cabin zone, or null for any
+     * @return seat label by booking ID, in the order given
+     * @throws ValidationException if the bookings are not on one booked flight, the zone does not exist, or no row has enough free seats
+     * @throws ResourceNotFoundException if a booking or the flight does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public Map<Integer, String> assignAdjacentSeats(List<Integer> bookingIds, String zoneName)
+            throws ValidationException, ResourceNotFoundException, ServiceException {
+        if (bookingIds == null || bookingIds.isEmpty()) {
+            throw new ValidationException("At least one booking is required");
+        }
+        if (bookingIds.size() > SeatLayout.MAX_SEATS_PER_ROW) {
+            throw new ValidationException("At most " + SeatLayout.MAX_SEATS_PER_ROW + " seats can be adjacent");
+        }
+        long start = System.nanoTime();
+        try {
+            List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(bookingIds));
+            int flightId = flightOf(ids);
+            SeatMap map = mapFor(flightId);
+            SeatLayout layout = map.getLayout();
+            CabinZone zone = null;
+            if (zoneName != null && !zoneName.trim().isEmpty()) {
+                zone = layout.getZone(zoneName.trim());
+                if (zone == null) {
+                    throw new ValidationException("Flight " + flightId + " has no " + zoneName + " zone");
+                }
+            }
+            if (ids.size() > layout.getSeatsPerRow()) {
+                throw new ValidationException("Rows on flight " + flightId + " hold " + layout.getSeatsPerRow() + " seats");
+            }
+            int first = map.claimAdjacent(ids.size(), zone);
+            if (first < 0) {
+                throw new ValidationException("No row " + (zone == null ? "" : "in " + zone.getName() + " ")
+                        + "has " + ids.size() + " adjacent free seats");
+            }
+            Map<Integer, Integer> seats = new LinkedHashMap<>();
+            Map<Integer, String> labels = new LinkedHashMap<>();
+            for (int i = 0; i < ids.size(); i++) {
+                seats.put(ids.get(i), first + i);
+                labels.put(ids.get(i), layout.label(first + i));
+            }
+            save(flightId, map, seats, seatMapDao.getSeats(ids));
+            return labels;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error assigning adjacent seats to bookings " + bookingIds + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to assign seats", e);
+        } finally {
+            ASSIGN_SEATS_TIME.recordSince(start);
+        }
+    }
+
+    /**
+     * Gives up the seat of a booking
+     *
+     * @param bookingId Booking ID
+     * @return true if the booking had a seat
+     * @throws ResourceNotFoundException if the booking does not exist
+     * @throws ServiceException if a service error occurs
+     */
+    public boolean releaseSeat(int bookingId) throws ResourceNotFoundException, ServiceException {
+        try {
+            Booking booking = bookingDao.getBookingById(bookingId);
+            if (booking == null) {
+                throw new ResourceNotFoundException("Booking with ID " + bookingId + " not found");
+            }
+            if (seatMapDao.deleteAssignments(Collections.singletonList(bookingId)) == 0) {
+                return false;
+            }
+            invalidate(booking.getFlightId());
+            return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error releasing seat of booking " + bookingId + ": " + e.getMessage(), e);
+            throw new ServiceException("Failed to release seat", e);
+        }
+    }
+
+    /**
+     * Checks that the bookings exist, are not cancelled and share one flight
+     *
+     * @return the flight ID
+     */
+    private int flightOf(List<Integer> bookingIds)
+            throws SQLException, ValidationException, ResourceNotFoundException {
+        Integer flightId = null;
+        for (int id : bookingIds) {
+            Booking booking = bookingDao.getBookingById(id);
+            if (booking == null) {
+                throw new ResourceNotFoundException("Booking with ID " + id + " not found");
+            }
+            if (BookingService.STATUS_CANCELLED.equalsIgnoreCase(booking.getStatus())) {
+                throw new ValidationException("Booking " + id + " is cancelled");
+            }
+            if (flightId != null && !flightId.equals(booking.getFlightId())) {
+                throw new ValidationException("Bookings " + bookingIds + " are on different flights");
+            }
+            flightId = booking.getFlightId();
+        }
+        return flightId;
+    }
+
+    /**
+     * Writes claimed seats in one transaction: the bookings' previous seats are
+     * given up, the new ones inserted and the occupancy saved. The snapshot is
+     * taken after the inserts, once this transaction holds the write lock, so
+     * snapshots are saved in commit order. On failure the claimed seats are
+     * released and the map is dropped, since another process may have taken them.
+     */
+    private void save(int flightId, SeatMap map, Map<Integer, Integer> seats, Map<Integer, Integer> previous)
+            throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        boolean committed = false;
+        try {
+            connection.setAutoCommit(false);
+            if (!previous.isEmpty()) {
+                seatMapDao.deleteAssignments(new ArrayList<>(previous.keySet()));
+            }
+            seatMapDao.addAssignments(flightId, seats);
+            for (int seat : previous.values()) {
+                map.release(seat);
+            }
+            seatMapDao.saveSeatMap(flightId, map);
+            connection.commit();
+            committed = true;
+        } finally {
+            if (!committed) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+                for (int seat : seats.values()) {
+                    map.release(seat);
+                }
+                invalidate(flightId);
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * Gets the cached map of a flight, loading or rebuilding it when it is
+     * missing or the flight's capacity changed
+     */
+    private SeatMap mapFor(int flightId) throws SQLException, ResourceNotFoundException {
+        Integer capacity = seatMapDao.getCapacity(flightId);
+        if (capacity == null) {
+            throw new ResourceNotFoundException("Flight with ID " + flightId + " not found");
+        }
+        int seats = Math.max(0, capacity);
+        SeatMap map = MAPS.get(flightId);
+        if (map != null && map.getLayout().getCapacity() == seats) {
+            return map;
+        }
+        SeatMap loaded = load(flightId, seats);
+        // Keep a map another thread installed meanwhile; its claims may not be saved yet
+        return MAPS.compute(flightId, (id, current) ->
+                current != null && current.getLayout().getCapacity() == seats ? current : loaded);
+    }
+
+    private SeatMap load(int flightId, int capacity) throws SQLException {
+        SeatMap stored = seatMapDao.getSeatMap(flightId);
+        long[] totals = seatMapDao.getAssignmentTotals(flightId);
+        if (stored != null && stored.getLayout().getCapacity() == capacity
+                && stored.getTaken() == totals[0] && stored.getSeatSum() == totals[1]) {
+            return stored;
+        }
+        SeatLayout layout = stored != null && stored.getLayout().getCapacity() == capacity
+                ? stored.getLayout()
+                : SeatLayout.of(capacity, AppConfig.getInt("seatmap.seats.per.row", DEFAULT_SEATS_PER_ROW, 1,
+                        SeatLayout.MAX_SEATS_PER_ROW), AppConfig.getProperty("seatmap.zones", ""));
+        SeatMap map = new SeatMap(layout);
+        List<Integer> dropped = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> e : seatMapDao.getAssignments(flightId).entrySet()) {
+            if (e.getValue() < capacity) {
+                map.tryAssign(e.getValue());
+            } else {
+                dropped.add(e.getKey());
+            }
+        }
+        boolean autoCommit = connection.getAutoCommit();
+        boolean committed = false;
+        try {
+            connection.setAutoCommit(false);
+            if (!dropped.isEmpty()) {
+                seatMapDao.deleteAssignments(dropped);
+                LOGGER.warning("Flight " + flightId + " shrank to " + capacity + " seats; bookings " + dropped
+                        + " lost their seat");
+            }
+            seatMapDao.saveSeatMap(flightId, map);
+            connection.commit();
+            committed = true;
+        } finally {
+            if (!committed) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollbackEx) {
+                    LOGGER.log(Level.SEVERE, "Error rolling back transaction: " + rollbackEx.getMessage(), rollbackEx);
+                }
+            }
+            try {
+                connection.setAutoCommit(autoCommit);
+            } catch (SQLException e) {
+                LOGGER.log(Level.SEVERE, "Error restoring auto-commit: " + e.getMessage(), e);
+            }
+        }
+        LOGGER.fine("Rebuilt seat map of flight " + flightId + " with " + map.getTaken() + " of " + capacity + " seats taken");
+        return map;
+    }
+}
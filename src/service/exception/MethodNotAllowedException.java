@@ -0,0 +1,12 @@
+package service.exception;
+
+/**
+ * Exception thrown when an endpoint is called with an HTTP method it does not accept
+ */
+public class MethodNotAllowedException extends ServiceException {
+    private static final long serialVersionUID = 1L;
+    
+    public MethodNotAllowedException(String message) {
+        super(message);
+    }
+}
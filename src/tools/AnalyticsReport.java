@@ -0,0 +1,99 @@
+package tools;
+
+import analytics.AnalyticsSnapshot;
+import analytics.BookingAnalytics;
+import analytics.BookingCurve;
+import analytics.FlightLoad;
+import analytics.RouteRevenue;
+
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Prints revenue, load factor and booking curve figures of a database,
+ * computed in one parallel pass with {@link BookingAnalytics#snapshot()}
+ */
+public class AnalyticsReport {
+    private static final int TOP = 10;
+    private static final int[] CURVE_DAYS = {90, 60, 30, 14, 7, 1, 0};
+
+    private AnalyticsReport() {
+    }
+
+    /**
+     * Writes the summary of a snapshot
+     *
+     * @param snapshot Analytics to report
+     * @param out Destination
+     */
+    public static void write(AnalyticsSnapshot snapshot, Writer out) {
+        PrintWriter w = new PrintWriter(out);
+        w.printf("Bookings scanned: %d, booked: %d, revenue %.2f, load factor %.1f%%%n",
+                snapshot.getBookingsScanned(), snapshot.getTotalBooked(), snapshot.getTotalRevenue(),
+                snapshot.getOverallLoadFactor() * 100);
+        if (snapshot.getUnmatchedBookings() > 0) {
+            w.printf("Bookings of unknown flights: %d%n", snapshot.getUnmatchedBookings());
+        }
+
+        Map<String, double[]> routes = new HashMap<>();
+        for (RouteRevenue r : snapshot.getRouteRevenue()) {
+            double[] sum = routes.computeIfAbsent(r.getFromCity() + "-" + r.getToCity(), k -> new double[2]);
+            sum[0] += r.getBookings();
+            sum[1] += r.getRevenue();
+        }
+        List<Map.Entry<String, double[]>> topRoutes = new ArrayList<>(routes.entrySet());
+        topRoutes.sort((a, b) -> Double.compare(b.getValue()[1], a.getValue()[1]));
+        w.println();
+        w.println("Top routes by revenue");
+        w.printf("  %14s %10s  %s%n", "revenue", "bookings", "route");
+        for (Map.Entry<String, double[]> entry : topRoutes.subList(0, Math.min(TOP, topRoutes.size()))) {
+            w.printf("  %14.2f %10d  %s%n", entry.getValue()[1], (long) entry.getValue()[0], entry.getKey());
+        }
+
+        List<FlightLoad> booked = new ArrayList<>();
+        for (FlightLoad load : snapshot.getFlightLoads()) {
+            if (load.getBooked() > 0) {
+                booked.add(load);
+            }
+        }
+        booked.sort((a, b) -> Double.compare(b.getLoadFactor(), a.getLoadFactor()));
+        w.println();
+        w.println("Fullest flights");
+        for (FlightLoad load : booked.subList(0, Math.min(TOP, booked.size()))) {
+            w.println("  " + load);
+        }
+        w.println();
+        w.println("Emptiest booked flights");
+        for (FlightLoad load : booked.subList(Math.max(0, booked.size() - TOP), booked.size())) {
+            w.println("  " + load);
+        }
+
+        BookingCurve curve = snapshot.getOverallCurve();
+        w.println();
+        w.println("Share of bookings made by days before departure");
+        for (int days : CURVE_DAYS) {
+            w.printf("  %4d days %6.1f%%%n", days, curve.getShareBookedBy(days) * 100);
+        }
+        w.flush();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.AnalyticsReport db-file");
+            System.exit(2);
+        }
+        Class.forName("org.sqlite.JDBC");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + args[0])) {
+            long start = System.nanoTime();
+            AnalyticsSnapshot snapshot = new BookingAnalytics(connection).snapshot();
+            write(snapshot, new PrintWriter(System.out));
+            System.out.printf("%nComputed in %d ms%n", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+}
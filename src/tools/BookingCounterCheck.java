@@ -0,0 +1,44 @@
+package tools;
+
+import dao.BookingCounterDao;
+import model.CounterMismatch;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+
+/**
+ * Consistency check of the materialized booking counters.
+ * Recomputes every counter from the Bookings table, prints the ones that
+ * differ from the stored values and, with --repair, rebuilds the counters.
+ */
+public class BookingCounterCheck {
+    private static final int MAX_PRINTED = 50;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.BookingCounterCheck db-file [--repair]");
+            System.exit(2);
+        }
+        boolean repair = args.length > 1 && "--repair".equals(args[1]);
+        Class.forName("org.sqlite.JDBC");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + args[0])) {
+            BookingCounterDao counters = new BookingCounterDao(connection);
+            List<CounterMismatch> mismatches = counters.findMismatches();
+            for (CounterMismatch mismatch : mismatches.subList(0, Math.min(MAX_PRINTED, mismatches.size()))) {
+                System.out.println(mismatch);
+            }
+            if (mismatches.size() > MAX_PRINTED) {
+                System.out.println("... and " + (mismatches.size() - MAX_PRINTED) + " more");
+            }
+            System.out.println(mismatches.size() + " counters differ from the bookings");
+            if (repair && !mismatches.isEmpty()) {
+                counters.rebuild();
+                System.out.println("Counters rebuilt; " + counters.findMismatches().size() + " differ now");
+            }
+            if (!repair && !mismatches.isEmpty()) {
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package tools;
+
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import model.CancellationSummary;
+import service.BookingService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+
+/**
+ * Cancels and refunds every booking of a flight, for use after a disruption.
+ * Safe to run again after a failure: bookings already cancelled are skipped.
+ */
+public class CancelFlight {
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: java tools.CancelFlight db-file flight-id [reason]");
+            System.exit(2);
+        }
+        int flightId = Integer.parseInt(args[1]);
+        String reason = args.length > 2 ? args[2] : BookingService.REFUND_REASON_FLIGHT_CANCELLED;
+        Class.forName("org.sqlite.JDBC");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + args[0])) {
+            BookingService service = new BookingService(new BookingDao(connection), new FlightDao(connection),
+                    new PassengerDao(connection), connection);
+            long start = System.nanoTime();
+            CancellationSummary summary = service.cancelFlightBookings(flightId, reason);
+            System.out.printf("Cancelled %d bookings of flight %d in %d transactions, refunded %.2f, %.1f ms%n",
+                    summary.getCancelled(), flightId, summary.getBatches(), summary.getRefunded(),
+                    (System.nanoTime() - start) / 1e6);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+package tools;
+
+import dao.BookingCounterDao;
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import dao.SchemaMigrator;
+import model.Booking;
+import model.Flight;
+import model.Passenger;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Deterministic generator for production-sized Flights, Passengers and Bookings.
+ * Traffic is skewed the way real networks are: every route touches a hub,
+ * route popularity follows a Zipf distribution, and departures follow a
+ * seasonal curve with summer and holiday peaks and busier Fridays and Sundays.
+ *
+ * Rows are generated in fixed-size chunks by parallel workers. Each chunk
+ * draws from its own random stream derived from the seed and the chunk
+ * number, so the same seed always produces the same database regardless of
+ * the number of workers. A single writer inserts the chunks in order through
+ * the batch DAO methods, one transaction per chunk. The writer caps each
+ * flight's seat-holding bookings at its cabin size, in chunk order, and the
+ * booked seats are taken from the flights once every booking is written.
+ */
+public class DatasetGenerator {
+    private static final Logger LOGGER = Logger.getLogger(DatasetGenerator.class.getName());
+
+    private static final String[] HUBS = {
+        "London", "Dubai", "New York", "Frankfurt", "Singapore", "Istanbul", "Doha", "Paris"
+    };
+    private static final String[] SPOKES = {
+        "Karachi", "Lahore", "Islamabad", "Tokyo", "Sydney", "Toronto", "Madrid", "Rome",
+        "Amsterdam", "Zurich", "Cairo", "Nairobi", "Johannesburg", "Mumbai", "Delhi", "Bangkok",
+        "Kuala Lumpur", "Hong Kong", "Seoul", "Beijing", "Los Angeles", "Chicago", "Miami",
+        "Sao Paulo", "Mexico City", "Riyadh", "Jeddah", "Manchester", "Vienna", "Athens",
+        "Lisbon", "Dublin"
+    };
+    private static final String[] AIRLINES = {"PK", "EK", "BA", "QR", "TK", "LH", "SQ", "AF"};
+    private static final String[] MALE_NAMES = {"Ali", "Ahmed", "John", "James", "Omar", "Hassan", "David", "Luca", "Kenji", "Carlos"};
+    private static final String[] FEMALE_NAMES = {"Ayesha", "Fatima", "Sarah", "Emma", "Maria", "Sofia", "Yuki", "Amina", "Olivia", "Zara"};
+    private static final String[] SURNAMES = {"Khan", "Smith", "Ahmed", "Garcia", "Rossi", "Tanaka", "Malik", "Brown", "Muller", "Silva", "Chen", "Hussain"};
+    private static final String[] NATIONALITIES = {"Pakistani", "British", "American", "Emirati", "German", "Indian", "French", "Japanese", "Turkish", "Brazilian"};
+    private static final double[] NATIONALITY_WEIGHTS = {30, 15, 12, 6, 6, 10, 5, 5, 6, 5};
+    private static final int[] CABIN_SIZES = {150, 180, 220, 300, 380};
+    private static final String STATUS_PAID = "Paid";
+    private static final String STATUS_UNPAID = "Unpaid";
+    private static final String STATUS_CONFIRMED = "CONFIRMED";
+    private static final String STATUS_CANCELLED = "CANCELLED";
+
+    private static final int TABLE_FLIGHTS = 1;
+    private static final int TABLE_PASSENGERS = 2;
+    private static final int TABLE_BOOKINGS = 3;
+
+    private final long seed;
+    private final int flightCount;
+    private final int passengerCount;
+    private final int bookingCount;
+    private int workers = Runtime.getRuntime().availableProcessors();
+    private int chunkSize = 10_000;
+    private LocalDate startDate = LocalDate.now();
+    private int days = 365;
+    private double routeSkew = 1.1;
+
+    private String[] cities;
+    private int[] routeFrom;
+    private int[] routeTo;
+    private CumulativeSampler routes;
+    private CumulativeSampler departureDays;
+    private CumulativeSampler nationalities;
+    private int[] flightRoute;
+    private int[] flightDay;
+    private float[] flightPrice;
+    private int[] flightCabin;
+    private int[] flightBooked;
+
+    /**
+     * Constructs a DatasetGenerator
+     *
+     * @param seed Random seed; the same seed and sizes always produce the same rows
+     * @param flightCount Flights to generate
+     * @param passengerCount Passengers to generate
+     * @param bookingCount Bookings to generate
+     */
+    public DatasetGenerator(long seed, int flightCount, int passengerCount, int bookingCount) {
+        if (flightCount < 1 && (passengerCount > 0 || bookingCount > 0)) {
+            throw new IllegalArgumentException("Passengers and bookings need at least one flight");
+        }
+        if (bookingCount > 0 && passengerCount < 1) {
+            throw new IllegalArgumentException("Bookings need at least one passenger");
+        }
+        this.seed = seed;
+        this.flightCount = flightCount;
+        this.passengerCount = passengerCount;
+        this.bookingCount = bookingCount;
+    }
+
+    public void setWorkers(int workers) {
+        this.workers = Math.max(1, workers);
+    }
+
+    public void setChunkSize(int chunkSize) {
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Sets the departure window
+     *
+     * @param startDate First departure date
+     * @param days Number of days departures are spread over
+     */
+    public void setDepartureWindow(LocalDate startDate, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("Departure window must be at least one day");
+        }
+        this.startDate = startDate;
+        this.days = days;
+    }
+
+    /**
+     * Sets the Zipf exponent of route popularity; 0 makes all routes equally popular
+     *
+     * @param routeSkew Zipf exponent
+     */
+    public void setRouteSkew(double routeSkew) {
+        this.routeSkew = routeSkew;
+    }
+
+    /**
+     * Generates all rows into the database.
+     * The tables must exist and be empty; the caller owns the connection.
+     *
+     * @param connection Database connection
+     * @throws SQLException if a database error occurs or the tables already hold data
+     */
+    public void generate(Connection connection) throws SQLException {
+        for (String table : new String[]{"Flights", "Passengers", "Bookings"}) {
+            if (hasRows(connection, table)) {
+                throw new SQLException("Table " + table + " is not empty; generate into a fresh database");
+            }
+        }
+        buildDistributions();
+        flightRoute = new int[flightCount];
+        flightDay = new int[flightCount];
+        flightPrice = new float[flightCount];
+        flightCabin = new int[flightCount];
+        flightBooked = new int[flightCount];
+
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        boolean autoCommit = connection.getAutoCommit();
+        try {
+            connection.setAutoCommit(false);
+            FlightDao flightDao = new FlightDao(connection);
+            write("flights", executor, connection, flightCount, this::flightChunk, flightDao::addFlights);
+            PassengerDao passengerDao = new PassengerDao(connection);
+            write("passengers", executor, connection, passengerCount, this::passengerChunk, passengerDao::addPassengers);
+            BookingDao bookingDao = new BookingDao(connection);
+            write("bookings", executor, connection, bookingCount, this::bookingChunk,
+                    bookings -> bookingDao.addBookings(capToCabin(bookings)));
+            // Bulk inserts bypass BookingService, so seats and counters are computed once at the end
+            flightDao.deductBookedSeats();
+            new BookingCounterDao(connection).rebuild();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            LOGGER.log(Level.SEVERE, "Error generating dataset: " + e.getMessage(), e);
+            throw e;
+        } finally {
+            executor.shutdownNow();
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    /**
+     * Generates chunks in parallel and writes them in chunk order.
+     * At most two chunks per worker are in memory at once.
+     */
+    private <T> void write(String name, ExecutorService executor, Connection connection, int total,
+                           ChunkGenerator<T> generator, ChunkWriter<T> writer) throws SQLException {
+        if (total <= 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        int chunks = (total + chunkSize - 1) / chunkSize;
+        Deque<Future<List<T>>> pending = new ArrayDeque<>();
+        int submitted = 0;
+        int written = 0;
+        while (written < chunks) {
+            while (submitted < chunks && pending.size() < workers * 2) {
+                int chunk = submitted++;
+                int first = chunk * chunkSize;
+                int count = Math.min(chunkSize, total - first);
+                pending.add(executor.submit((Callable<List<T>>) () -> generator.generate(chunk, first, count)));
+            }
+            writer.write(await(pending.poll()));
+            connection.commit();
+            written++;
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+        LOGGER.info(String.format("Generated %d %s in %.1fs (%.0f rows/s)", total, name, seconds, total / seconds));
+    }
+
+    private static <T> List<T> await(Future<List<T>> future) throws SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Dataset generation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new SQLException("Error generating rows: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private List<Flight> flightChunk(int chunk, int first, int count) {
+        SplittableRandom random = random(TABLE_FLIGHTS, chunk);
+        List<Flight> flights = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            int route = routes.sample(random);
+            int day = departureDays.sample(random);
+            int from = routeFrom[route];
+            int to = routeTo[route];
+            int hours = flightHours(from, to);
+            int departure = 6 * 60 + random.nextInt(17 * 4) * 15;
+            int arrival = (departure + hours * 60 + random.nextInt(4) * 15) % (24 * 60);
+            boolean trunk = from < HUBS.length && to < HUBS.length;
+            int seats = CABIN_SIZES[Math.min(CABIN_SIZES.length - 1, random.nextInt(3) + (trunk ? 2 : 0))];
+            double season = departureDays.weight(day);
+            double price = Math.round((80 + 45 * hours) * season * (0.85 + 0.4 * random.nextDouble()) * 100) / 100.0;
+
+            flightRoute[i] = route;
+            flightDay[i] = day;
+            flightPrice[i] = (float) price;
+            flightCabin[i] = seats;
+            flights.add(new Flight(i + 1, AIRLINES[random.nextInt(AIRLINES.length)] + (100 + random.nextInt(900)),
+                    cities[from], cities[to], startDate.plusDays(day), clock(departure), clock(arrival), seats, price));
+        }
+        return flights;
+    }
+
+    private List<Passenger> passengerChunk(int chunk, int first, int count) {
+        SplittableRandom random = random(TABLE_PASSENGERS, chunk);
+        List<Passenger> passengers = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            boolean male = random.nextBoolean();
+            String firstName = male ? MALE_NAMES[random.nextInt(MALE_NAMES.length)] : FEMALE_NAMES[random.nextInt(FEMALE_NAMES.length)];
+            String name = firstName + " " + SURNAMES[random.nextInt(SURNAMES.length)];
+            String nationality = NATIONALITIES[nationalities.sample(random)];
+            String passport = String.format("P%09d", i + 1);
+            // Most passengers travel on a flight, as in the legacy Passengers table
+            if (random.nextInt(10) < 6) {
+                int flight = random.nextInt(flightCount);
+                int route = flightRoute[flight];
+                passengers.add(new Passenger(i + 1, name, male ? "Male" : "Female", nationality, passport,
+                        cities[routeFrom[route]], cities[routeTo[route]], flight + 1, (double) flightPrice[flight], STATUS_PAID));
+            } else {
+                int route = routes.sample(random);
+                passengers.add(new Passenger(i + 1, name, male ? "Male" : "Female", nationality, passport,
+                        cities[routeFrom[route]], cities[routeTo[route]], null, null, STATUS_UNPAID));
+            }
+        }
+        return passengers;
+    }
+
+    private List<Booking> bookingChunk(int chunk, int first, int count) {
+        SplittableRandom random = random(TABLE_BOOKINGS, chunk);
+        List<Booking> bookings = new ArrayList<>(count);
+        for (int i = first; i < first + count; i++) {
+            int flight = random.nextInt(flightCount);
+            int passenger = 1 + random.nextInt(passengerCount);
+            // Booking lead time is roughly exponential with a 30 day mean, capped at 180 days
+            int lead = (int) Math.min(180, -Math.log(1 - random.nextDouble()) * 30);
+            String status = random.nextInt(100) < 92 ? STATUS_CONFIRMED : STATUS_CANCELLED;
+            bookings.add(new Booking(i + 1, passenger, flight + 1, (double) flightPrice[flight], status,
+                    startDate.plusDays(flightDay[flight] - lead)));
+        }
+        return bookings;
+    }
+
+    /**
+     * Cancels confirmed bookings on flights whose cabin is already full.
+     * Runs on the writer thread in chunk order, so the result does not depend
+     * on the number of workers.
+     */
+    private List<Booking> capToCabin(List<Booking> bookings) {
+        for (Booking booking : bookings) {
+            if (STATUS_CONFIRMED.equals(booking.getStatus())) {
+                int flight = booking.getFlightId() - 1;
+                if (flightBooked[flight] < flightCabin[flight]) {
+                    flightBooked[flight]++;
+                } else {
+                    booking.setStatus(STATUS_CANCELLED);
+                }
+            }
+        }
+        return bookings;
+    }
+
+    /**
+     * Builds the route network and the samplers for route, day and nationality.
+     * Routes are ordered hub-to-hub first, then hub-to-spoke in seeded random
+     * order, and ranked by that order for the Zipf weights.
+     */
+    private void buildDistributions() {
+        cities = new String[HUBS.length + SPOKES.length];
+        System.arraycopy(HUBS, 0, cities, 0, HUBS.length);
+        System.arraycopy(SPOKES, 0, cities, HUBS.length, SPOKES.length);
+
+        List<int[]> trunk = new ArrayList<>();
+        List<int[]> feeder = new ArrayList<>();
+        for (int from = 0; from < cities.length; from++) {
+            for (int to = 0; to < cities.length; to++) {
+                if (from == to || (from >= HUBS.length && to >= HUBS.length)) {
+                    continue;
+                }
+                (from < HUBS.length && to < HUBS.length ? trunk : feeder).add(new int[]{from, to});
+            }
+        }
+        SplittableRandom random = random(0, 0);
+        shuffle(trunk, random);
+        shuffle(feeder, random);
+        trunk.addAll(feeder);
+
+        routeFrom = new int[trunk.size()];
+        routeTo = new int[trunk.size()];
+        double[] routeWeights = new double[trunk.size()];
+        for (int rank = 0; rank < trunk.size(); rank++) {
+            routeFrom[rank] = trunk.get(rank)[0];
+            routeTo[rank] = trunk.get(rank)[1];
+            routeWeights[rank] = 1.0 / Math.pow(rank + 1, routeSkew);
+        }
+        routes = new CumulativeSampler(routeWeights);
+
+        double[] dayWeights = new double[days];
+        for (int day = 0; day < days; day++) {
+            dayWeights[day] = seasonalWeight(startDate.plusDays(day));
+        }
+        departureDays = new CumulativeSampler(dayWeights);
+        nationalities = new CumulativeSampler(NATIONALITY_WEIGHTS);
+    }
+
+    /**
+     * Relative demand for a departure date: a yearly wave peaking in mid July,
+     * a year-end holiday peak, and busier Fridays and Sundays
+     */
+    static double seasonalWeight(LocalDate date) {
+        double weight = 1 + 0.3 * Math.cos(2 * Math.PI * (date.getDayOfYear() - 196) / 365.0);
+        if ((date.getMonthValue() == 12 && date.getDayOfMonth() >= 18) || (date.getMonthValue() == 1 && date.getDayOfMonth() <= 3)) {
+            weight += 0.4;
+        }
+        DayOfWeek dow = date.getDayOfWeek();
+        if (dow == DayOfWeek.FRIDAY || dow == DayOfWeek.SUNDAY) {
+            weight *= 1.15;
+        } else if (dow == DayOfWeek.TUESDAY || dow == DayOfWeek.WEDNESDAY) {
+            weight *= 0.85;
+        }
+        return weight;
+    }
+
+    private static int flightHours(int from, int to) {
+        return 1 + Math.abs(from * 31 + to * 17 + from * to) % 13;
+    }
+
+    private static String clock(int minutes) {
+        return String.format("%02d:%02d", minutes / 60, minutes % 60);
+    }
+
+    private SplittableRandom random(int table, int chunk) {
+        return new SplittableRandom(mix(seed + mix(table * 0x9E3779B97F4A7C15L + chunk)));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static <T> void shuffle(List<T> list, SplittableRandom random) {
+        for (int i = list.size() - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            T tmp = list.get(i);
+            list.set(i, list.get(j));
+            list.set(j, tmp);
+        }
+    }
+
+    private static boolean hasRows(Connection connection, String table) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT EXISTS (SELECT 1 FROM " + table + ")")) {
+            return rs.next() && rs.getInt(1) != 0;
+        }
+    }
+
+    /**
+     * Generates a database file from the command line.
+     *
+     * Usage: java tools.DatasetGenerator db-file [flights] [passengers] [bookings] [seed] [workers]
+     *
+     * @param args command line arguments
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.DatasetGenerator db-file [flights] [passengers] [bookings] [seed] [workers]");
+            System.exit(2);
+        }
+        int flights = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+        int passengers = args.length > 2 ? Integer.parseInt(args[2]) : 1_000_000;
+        int bookings = args.length > 3 ? Integer.parseInt(args[3]) : 2_000_000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+
+        DatasetGenerator generator = new DatasetGenerator(seed, flights, passengers, bookings);
+        if (args.length > 5) {
+            generator.setWorkers(Integer.parseInt(args[5]));
+        }
+        Class.forName("org.sqlite.JDBC");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + args[0])) {
+            new SchemaMigrator().migrate(connection);
+            // Bulk load into a fresh file: a crash mid-load means regenerating anyway
+            try (Statement st = connection.createStatement()) {
+                st.execute("PRAGMA synchronous = OFF");
+                st.execute("PRAGMA journal_mode = MEMORY");
+            }
+            generator.generate(connection);
+        }
+    }
+
+    /**
+     * Generates one chunk of rows
+     */
+    @FunctionalInterface
+    private interface ChunkGenerator<T> {
+        List<T> generate(int chunk, int first, int count);
+    }
+
+    /**
+     * Writes one chunk of rows through a batch DAO method
+     */
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        int write(List<T> rows) throws SQLException;
+    }
+
+    /**
+     * Samples indexes in proportion to fixed weights by binary search over the cumulative weights
+     */
+    private static final class CumulativeSampler {
+        private final double[] cumulative;
+        private final double[] weights;
+
+        CumulativeSampler(double[] weights) {
+            this.weights = Arrays.copyOf(weights, weights.length);
+            this.cumulative = new double[weights.length];
+            double total = 0;
+            for (int i = 0; i < weights.length; i++) {
+                total += weights[i];
+                cumulative[i] = total;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            double target = random.nextDouble() * cumulative[cumulative.length - 1];
+            int index = Arrays.binarySearch(cumulative, target);
+            index = index >= 0 ? index + 1 : -index - 1;
+            return Math.min(index, cumulative.length - 1);
+        }
+
+        double weight(int index) {
+            return weights[index];
+        }
+    }
+}
@@ -0,0 +1,258 @@
+package tools;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedThread;
+import jdk.jfr.consumer.RecordingFile;
+import metrics.LatencyHistogram;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline summary of flight recordings made with airline.jfc.
+ * Reports latency percentiles per airline event, the busiest flights, routes
+ * and SQL statements, and attributes slow bookings and searches (at or above
+ * their p99) to GC pauses, connection pool waits and lock contention that
+ * overlapped them on the same thread.
+ */
+public class JfrAnalyzer {
+    private static final String PREFIX = "airline.";
+    private static final int TOP = 10;
+
+    private final Map<String, LatencyHistogram> durations = new TreeMap<>();
+    private final Map<String, SqlStats> statements = new HashMap<>();
+    private final Map<Integer, long[]> bookingsByFlight = new HashMap<>();
+    private final Map<String, long[]> searchesByRoute = new HashMap<>();
+    private final List<Span> requests = new ArrayList<>();
+    private final List<Span> gcPauses = new ArrayList<>();
+    private final Map<Long, List<Span>> poolWaits = new HashMap<>();
+    private final Map<Long, List<Span>> lockWaits = new HashMap<>();
+    private long borrows;
+    private long borrowsWaited;
+    private long borrowsValidated;
+
+    /**
+     * Reads every event of a recording
+     *
+     * @param file .jfr file
+     * @throws IOException if the file cannot be read
+     */
+    public void read(Path file) throws IOException {
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                accept(recording.readEvent());
+            }
+        }
+    }
+
+    private void accept(RecordedEvent e) {
+        String type = e.getEventType().getName();
+        Span span = new Span(type, nanos(e.getStartTime()), nanos(e.getEndTime()), threadId(e));
+        switch (type) {
+            case "jdk.GCPhasePause":
+                gcPauses.add(span);
+                return;
+            case "jdk.JavaMonitorEnter":
+            case "jdk.ThreadPark":
+                lockWaits.computeIfAbsent(span.thread, k -> new ArrayList<>()).add(span);
+                return;
+            default:
+                if (!type.startsWith(PREFIX)) {
+                    return;
+                }
+        }
+
+        String name = type.substring(PREFIX.length());
+        durations.computeIfAbsent(name, k -> new LatencyHistogram()).record(span.duration());
+        switch (name) {
+            case "Booking":
+                long[] counts = bookingsByFlight.computeIfAbsent(e.getInt("flightId"), k -> new long[2]);
+                counts[e.getBoolean("success") ? 0 : 1]++;
+                requests.add(span);
+                break;
+            case "FlightSearch":
+                searchesByRoute.computeIfAbsent(e.getString("origin") + "-" + e.getString("destination"),
+                        k -> new long[1])[0]++;
+                requests.add(span);
+                break;
+            case "ConnectionBorrow":
+                borrows++;
+                if (e.getBoolean("validated")) {
+                    borrowsValidated++;
+                }
+                if (e.getBoolean("waited")) {
+                    borrowsWaited++;
+                    poolWaits.computeIfAbsent(span.thread, k -> new ArrayList<>()).add(span);
+                }
+                break;
+            case "SqlStatement":
+                SqlStats stats = statements.computeIfAbsent(e.getString("fingerprint"), SqlStats::new);
+                stats.time.record(span.duration());
+                stats.rows += e.getLong("rows");
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Writes the summary of everything read so far
+     *
+     * @param out Destination
+     */
+    public void writeReport(Writer out) {
+        PrintWriter w = new PrintWriter(out);
+        w.println("Airline events");
+        w.printf("  %-18s %10s %10s %10s %10s %10s%n", "event", "count", "mean ms", "p50 ms", "p99 ms", "max ms");
+        for (Map.Entry<String, LatencyHistogram> entry : durations.entrySet()) {
+            LatencyHistogram h = entry.getValue();
+            w.printf("  %-18s %10d %10.3f %10.3f %10.3f %10.3f%n", entry.getKey(), h.getCount(), h.getMean() / 1e6,
+                    h.getValueAtPercentile(50) / 1e6, h.getValueAtPercentile(99) / 1e6, h.getMax() / 1e6);
+        }
+
+        long gcTotal = 0;
+        long gcMax = 0;
+        for (Span pause : gcPauses) {
+            gcTotal += pause.duration();
+            gcMax = Math.max(gcMax, pause.duration());
+        }
+        w.println();
+        w.printf("GC pauses: %d, total %.1f ms, max %.3f ms%n", gcPauses.size(), gcTotal / 1e6, gcMax / 1e6);
+        if (borrows > 0) {
+            w.printf("Connection borrows: %d, %d waited for a connection, %d validated%n",
+                    borrows, borrowsWaited, borrowsValidated);
+        }
+
+        w.println();
+        w.println("Slow requests (at or above p99) overlapping");
+        w.printf("  %-18s %10s %10s %10s %10s%n", "event", "slow", "gc pause", "pool wait", "lock wait");
+        for (String name : new String[]{"Booking", "FlightSearch"}) {
+            writeSlow(w, name);
+        }
+
+        w.println();
+        w.println("Top flights by bookings");
+        w.printf("  %10s %10s %10s%n", "flight", "booked", "failed");
+        List<Map.Entry<Integer, long[]>> flights = new ArrayList<>(bookingsByFlight.entrySet());
+        flights.sort((a, b) -> Long.compare(b.getValue()[0] + b.getValue()[1], a.getValue()[0] + a.getValue()[1]));
+        for (Map.Entry<Integer, long[]> entry : flights.subList(0, Math.min(TOP, flights.size()))) {
+            w.printf("  %10d %10d %10d%n", entry.getKey(), entry.getValue()[0], entry.getValue()[1]);
+        }
+
+        w.println();
+        w.println("Top routes by searches");
+        List<Map.Entry<String, long[]>> routes = new ArrayList<>(searchesByRoute.entrySet());
+        routes.sort((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]));
+        for (Map.Entry<String, long[]> entry : routes.subList(0, Math.min(TOP, routes.size()))) {
+            w.printf("  %10d  %s%n", entry.getValue()[0], entry.getKey());
+        }
+
+        w.println();
+        w.println("Top SQL statements by total time");
+        w.printf("  %10s %12s %10s %12s  %s%n", "count", "total ms", "p99 ms", "rows", "statement");
+        List<SqlStats> sql = new ArrayList<>(statements.values());
+        sql.sort((a, b) -> Long.compare(b.time.getTotal(), a.time.getTotal()));
+        for (SqlStats s : sql.subList(0, Math.min(TOP, sql.size()))) {
+            w.printf("  %10d %12.1f %10.3f %12d  %s%n", s.time.getCount(), s.time.getTotal() / 1e6,
+                    s.time.getValueAtPercentile(99) / 1e6, s.rows, s.fingerprint);
+        }
+        w.flush();
+    }
+
+    private void writeSlow(PrintWriter w, String name) {
+        LatencyHistogram h = durations.get(name);
+        if (h == null) {
+            return;
+        }
+        long threshold = h.getValueAtPercentile(99);
+        String type = PREFIX + name;
+        int slow = 0;
+        int gc = 0;
+        int pool = 0;
+        int lock = 0;
+        for (Span span : requests) {
+            if (!span.type.equals(type) || span.duration() < threshold) {
+                continue;
+            }
+            slow++;
+            if (overlaps(span, gcPauses)) {
+                gc++;
+            }
+            if (overlaps(span, poolWaits.getOrDefault(span.thread, Collections.emptyList()))) {
+                pool++;
+            }
+            if (overlaps(span, lockWaits.getOrDefault(span.thread, Collections.emptyList()))) {
+                lock++;
+            }
+        }
+        w.printf("  %-18s %10d %10d %10d %10d%n", name, slow, gc, pool, lock);
+    }
+
+    private static boolean overlaps(Span span, List<Span> others) {
+        for (Span other : others) {
+            if (other.start < span.end && span.start < other.end) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static long nanos(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static long threadId(RecordedEvent e) {
+        RecordedThread thread = e.getThread();
+        return thread == null ? -1 : thread.getJavaThreadId();
+    }
+
+    private static final class Span {
+        final String type;
+        final long start;
+        final long end;
+        final long thread;
+
+        Span(String type, long start, long end, long thread) {
+            this.type = type;
+            this.start = start;
+            this.end = end;
+            this.thread = thread;
+        }
+
+        long duration() {
+            return end - start;
+        }
+    }
+
+    private static final class SqlStats {
+        final String fingerprint;
+        final LatencyHistogram time = new LatencyHistogram();
+        long rows;
+
+        SqlStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.JfrAnalyzer recording.jfr [recording.jfr ...]");
+            System.exit(2);
+        }
+        JfrAnalyzer analyzer = new JfrAnalyzer();
+        for (String arg : args) {
+            analyzer.read(Paths.get(arg));
+        }
+        analyzer.writeReport(new PrintWriter(System.out));
+    }
+}
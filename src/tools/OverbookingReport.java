@@ -0,0 +1,47 @@
+package tools;
+
+import analytics.NoShowAnalytics;
+import analytics.NoShowRate;
+import service.OverbookingService;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Prints the no-show rate of every route over the flights departed in the
+ * last days and the overbooking limit it suggests. With --apply the
+ * suggestions are written as route limits.
+ */
+public class OverbookingReport {
+    private static final int DEFAULT_DAYS = 365;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 1) {
+            System.err.println("Usage: java tools.OverbookingReport db-file [days] [--apply]");
+            System.exit(2);
+        }
+        int days = args.length > 1 && !"--apply".equals(args[1]) ? Integer.parseInt(args[1]) : DEFAULT_DAYS;
+        boolean apply = "--apply".equals(args[args.length - 1]);
+        LocalDate to = LocalDate.now().minusDays(1);
+        LocalDate from = to.minusDays(days - 1);
+        Class.forName("org.sqlite.JDBC");
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite:" + args[0])) {
+            long start = System.nanoTime();
+            List<NoShowRate> rates = new NoShowAnalytics(connection).noShowRates(from, to);
+            System.out.printf("No-show rates of flights departed %s to %s, %.1f ms%n", from, to,
+                    (System.nanoTime() - start) / 1e6);
+            for (NoShowRate rate : rates) {
+                System.out.println("  " + rate);
+            }
+            if (apply) {
+                OverbookingService service = new OverbookingService(connection);
+                for (NoShowRate rate : rates) {
+                    service.setRouteLimit(rate.getFromCity(), rate.getToCity(), rate.getSuggestedExtraSeats());
+                }
+                System.out.printf("Applied %d route limits%n", rates.size());
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package util;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Encodes and decodes flight and booking dates.
+ * Dates are stored as epoch-day integers; text written by older versions
+ * (ISO "2022-04-30" or the Swing date chooser's "Apr 30, 2022") is still readable.
+ * Departure times stay text ("hh:mm AM/PM" from the Swing time picker, or
+ * 24-hour "HH:mm") and are converted to minutes of the day for ordering.
+ * Decoded LocalDate instances and their ISO text are interned in a bounded,
+ * lock-free cache so mapping many rows with few distinct dates does not
+ * allocate a new LocalDate per row.
+ */
+public final class DateCodec {
+    /** Cache slots; a power of two covering more than ten years of distinct days */
+    private static final int CACHE_SIZE = 4096;
+    private static final int CACHE_MASK = CACHE_SIZE - 1;
+    private static final AtomicReferenceArray<Entry> CACHE = new AtomicReferenceArray<>(CACHE_SIZE);
+
+    /** Format used by the Swing date chooser in FlightsMainPage */
+    private static final DateTimeFormatter LEGACY_FORMAT = DateTimeFormatter.ofPattern("MMM d, yyyy", Locale.ENGLISH);
+    private static final int[] DAYS_IN_MONTH = {31, 28, 31, 30, 31, 30, 31, 31, 30, 31, 30, 31};
+
+    private DateCodec() {
+    }
+
+    /**
+     * Encodes a date as days since 1970-01-01
+     *
+     * @param date the date
+     * @return the epoch day
+     */
+    public static int toEpochDay(LocalDate date) {
+        return Math.toIntExact(date.toEpochDay());
+    }
+
+    /**
+     * Decodes an epoch day to a shared LocalDate instance
+     *
+     * @param epochDay days since 1970-01-01
+     * @return the date
+     */
+    public static LocalDate fromEpochDay(long epochDay) {
+        return entry(epochDay).date;
+    }
+
+    /**
+     * Formats a date as ISO text, reusing the cached string for that day
+     *
+     * @param date the date, may be null
+     * @return ISO-8601 text or null
+     */
+    public static String format(LocalDate date) {
+        return date != null ? entry(date.toEpochDay()).iso : null;
+    }
+
+    /**
+     * Parses stored or user supplied date text.
+     * Accepts ISO dates, legacy "MMM d, yyyy" dates and epoch-day numbers.
+     *
+     * @param text the text, may be null
+     * @return the date, or null if text is null or empty
+     * @throws IllegalArgumentException if the text is not a recognised date
+     */
+    public static LocalDate parse(String text) {
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        long epochDay = parseIsoEpochDay(text);
+        if (epochDay != Long.MIN_VALUE) {
+            return fromEpochDay(epochDay);
+        }
+        if (isDigits(text, 0, text.length())) {
+            return fromEpochDay(Long.parseLong(text));
+        }
+        try {
+            return fromEpochDay(LocalDate.parse(text, LEGACY_FORMAT).toEpochDay());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Unrecognised date: " + text, e);
+        }
+    }
+
+    /**
+     * Builds a SQL expression converting a stored text date column to its epoch day.
+     * Used by schema triggers so rows written as text by the Swing pages keep
+     * their integer date column in sync.
+     *
+     * @param column the text column or NEW.column reference
+     * @return SQLite expression yielding the epoch day, or NULL if unparseable
+     */
+    public static String epochDaySql(String column) {
+        return "CASE"
+                + " WHEN " + column + " GLOB '[0-9][0-9][0-9][0-9]-[0-9][0-9]-[0-9][0-9]'"
+                + " THEN CAST(julianday(" + column + ") - 2440587.5 AS INTEGER)"
+                + " WHEN " + column + " GLOB '[A-Z][a-z][a-z] *, [0-9][0-9][0-9][0-9]'"
+                + " THEN CAST(julianday(printf('%04d-%02d-%02d', CAST(substr(" + column + ", -4) AS INTEGER),"
+                + " (instr('JanFebMarAprMayJunJulAugSepOctNovDec', substr(" + column + ", 1, 3)) + 2) / 3,"
+                + " CAST(substr(" + column + ", 5, instr(" + column + ", ',') - 5) AS INTEGER))) - 2440587.5 AS INTEGER)"
+                + " END";
+    }
+
+    /**
+     * Builds a SQL expression converting a stored text time column to minutes
+     * after midnight. Accepts 12-hour "hh:mm AM" / "hh:mm PM" text and 24-hour
+     * "HH:mm" text, which do not sort correctly as strings.
+     *
+     * @param column the text column or NEW.column reference
+     * @return SQLite expression yielding 0 to 1439, or NULL if there is no hh:mm part
+     */
+    public static String minuteOfDaySql(String column) {
+        return "CASE WHEN instr(" + column + ", ':') > 1 THEN"
+                + " (CAST(substr(" + column + ", 1, instr(" + column + ", ':') - 1) AS INTEGER)"
+                + " % CASE WHEN upper(trim(" + column + ")) GLOB '*[AP]M' THEN 12 ELSE 24 END"
+                + " + CASE WHEN upper(trim(" + column + ")) GLOB '*PM' THEN 12 ELSE 0 END) * 60"
+                + " + CAST(substr(" + column + ", instr(" + column + ", ':') + 1, 2) AS INTEGER)"
+                + " END";
+    }
+
+    private static Entry entry(long epochDay) {
+        int slot = (int) (epochDay & CACHE_MASK);
+        Entry e = CACHE.get(slot);
+        if (e == null || e.epochDay != epochDay) {
+            LocalDate date = LocalDate.ofEpochDay(epochDay);
+            e = new Entry(epochDay, date, date.toString());
+            CACHE.lazySet(slot, e);
+        }
+        return e;
+    }
+
+    /**
+     * Parses yyyy-MM-dd without allocating.
+     *
+     * @return the epoch day, or Long.MIN_VALUE if text is not an ISO date
+     */
+    private static long parseIsoEpochDay(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-'
+                || !isDigits(text, 0, 4) || !isDigits(text, 5, 7) || !isDigits(text, 8, 10)) {
+            return Long.MIN_VALUE;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (month < 1 || month > 12 || day < 1 || day > daysInMonth(year, month)) {
+            throw new IllegalArgumentException("Invalid date: " + text);
+        }
+        return epochDay(year, month, day);
+    }
+
+    private static boolean isDigits(String s, int from, int to) {
+        if (from >= to) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int digits(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            value = value * 10 + (s.charAt(i) - '0');
+        }
+        return value;
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int daysInMonth(int year, int month) {
+        return month == 2 && isLeap(year) ? 29 : DAYS_IN_MONTH[month - 1];
+    }
+
+    /** Same arithmetic as LocalDate.toEpochDay, without creating the LocalDate */
+    private static long epochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) {
+                total--;
+            }
+        }
+        return total - 719528;
+    }
+
+    private static final class Entry {
+        final long epochDay;
+        final LocalDate date;
+        final String iso;
+
+        Entry(long epochDay, LocalDate date, String iso) {
+            this.epochDay = epochDay;
+            this.date = date;
+            this.iso = iso;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package util;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Semaphore whose number of permits can be changed while permits are held.
+ * Shrinking takes effect as holders release; permits already granted are not revoked.
+ */
+public class ResizableSemaphore extends Semaphore {
+    private static final long serialVersionUID = 1L;
+
+    private int limit;
+
+    /**
+     * Constructs a semaphore with the given number of permits
+     *
+     * @param limit Initial number of permits
+     */
+    public ResizableSemaphore(int limit) {
+        super(limit);
+        this.limit = limit;
+    }
+
+    /**
+     * Changes the total number of permits
+     *
+     * @param newLimit New number of permits
+     */
+    public synchronized void setLimit(int newLimit) {
+        int delta = newLimit - limit;
+        if (delta > 0) {
+            release(delta);
+        } else if (delta < 0) {
+            reducePermits(-delta);
+        }
+        limit = newLimit;
+    }
+
+    public synchronized int getLimit() {
+        return limit;
+    }
+}
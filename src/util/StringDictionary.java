@@ -0,0 +1,129 @@
+package util;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Shared, bounded dictionary for low-cardinality strings such as cities,
+ * nationalities and statuses. Each distinct value is kept once and gets a
+ * small, stable int code, so row mappers can drop duplicate String instances
+ * and bulk paths can compare codes instead of strings.
+ * Lookups are lock-free; only the insertion of a new value synchronizes.
+ * Once the dictionary is full new values are passed through unchanged and
+ * are not encoded.
+ */
+public final class StringDictionary {
+    /** Code returned for null values and values that could not be encoded */
+    public static final int NOT_ENCODED = -1;
+
+    public static final StringDictionary CITIES = new StringDictionary("cities", 4096);
+    public static final StringDictionary NATIONALITIES = new StringDictionary("nationalities", 1024);
+    public static final StringDictionary STATUSES = new StringDictionary("statuses", 256);
+    public static final StringDictionary GENDERS = new StringDictionary("genders", 64);
+
+    private final String name;
+    private final int capacity;
+    private final ConcurrentHashMap<String, Integer> codes;
+    private final AtomicReferenceArray<String> values;
+    private volatile int size;
+
+    /**
+     * Constructs a StringDictionary
+     *
+     * @param name Name used in diagnostics
+     * @param capacity Maximum number of distinct values
+     */
+    public StringDictionary(String name, int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Dictionary capacity must be positive");
+        }
+        this.name = name;
+        this.capacity = capacity;
+        this.codes = new ConcurrentHashMap<>(Math.min(capacity, 256));
+        this.values = new AtomicReferenceArray<>(capacity);
+    }
+
+    /**
+     * Gets the code for a value, adding it if there is room
+     *
+     * @param value the value, may be null
+     * @return the code, or NOT_ENCODED if value is null or the dictionary is full
+     */
+    public int encode(String value) {
+        if (value == null) {
+            return NOT_ENCODED;
+        }
+        Integer code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        synchronized (this) {
+            code = codes.get(value);
+            if (code != null) {
+                return code;
+            }
+            int next = size;
+            if (next >= capacity) {
+                return NOT_ENCODED;
+            }
+            values.set(next, value);
+            codes.put(value, next);
+            size = next + 1;
+            return next;
+        }
+    }
+
+    /**
+     * Gets the code for a value without adding it
+     *
+     * @param value the value, may be null
+     * @return the code, or NOT_ENCODED if the value is unknown
+     */
+    public int codeOf(String value) {
+        if (value == null) {
+            return NOT_ENCODED;
+        }
+        Integer code = codes.get(value);
+        return code != null ? code : NOT_ENCODED;
+    }
+
+    /**
+     * Gets the value for a code
+     *
+     * @param code the code
+     * @return the value, or null for NOT_ENCODED
+     */
+    public String decode(int code) {
+        if (code == NOT_ENCODED) {
+            return null;
+        }
+        if (code < 0 || code >= size) {
+            throw new IllegalArgumentException("Unknown " + name + " code: " + code);
+        }
+        return values.get(code);
+    }
+
+    /**
+     * Returns the shared instance equal to a value.
+     * Values that cannot be encoded are returned unchanged.
+     *
+     * @param value the value, may be null
+     * @return the canonical instance
+     */
+    public String canonicalize(String value) {
+        int code = encode(value);
+        return code == NOT_ENCODED ? value : values.get(code);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,75 @@
+package util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.logging.Logger;
+
+/**
+ * Executor factories shared by the API server and the tools.
+ * The code targets Java 8, so virtual threads are looked up reflectively.
+ */
+public final class ThreadPools {
+    private static final Logger LOGGER = Logger.getLogger(ThreadPools.class.getName());
+
+    private ThreadPools() {
+    }
+
+    /**
+     * Checks whether the running JDK provides virtual threads
+     *
+     * @return true on JDK 21+
+     */
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Creates an executor running each task on its own virtual thread on JDK 21+,
+     * otherwise a fixed pool of platform threads.
+     *
+     * @param fallbackThreads Pool size when virtual threads are unavailable
+     * @return the executor
+     */
+    public static ExecutorService newPerTaskExecutor(int fallbackThreads) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) factory.invoke(null);
+            LOGGER.info("Running tasks on virtual threads");
+            return executor;
+        } catch (ReflectiveOperationException e) {
+            LOGGER.info("Virtual threads unavailable, running tasks on " + fallbackThreads + " threads");
+            return Executors.newFixedThreadPool(fallbackThreads);
+        }
+    }
+
+    /**
+     * Changes the size of an executor created by {@link #newPerTaskExecutor(int)}.
+     * Executors running on virtual threads have no fixed size and are left unchanged.
+     *
+     * @param executor the executor
+     * @param threads New number of threads
+     * @return true if the executor was resized
+     */
+    public static boolean resize(ExecutorService executor, int threads) {
+        if (!(executor instanceof ThreadPoolExecutor)) {
+            return false;
+        }
+        ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+        // Core size may not exceed the maximum, so order the updates by direction
+        if (threads > pool.getMaximumPoolSize()) {
+            pool.setMaximumPoolSize(threads);
+            pool.setCorePoolSize(threads);
+        } else {
+            pool.setCorePoolSize(threads);
+            pool.setMaximumPoolSize(threads);
+        }
+        return true;
+    }
+}
@@ -0,0 +1,383 @@
+package test.bench;
+
+import dao.BookingDao;
+import dao.DBConnectionManager;
+import dao.FlightDao;
+import dao.PassengerDao;
+import metrics.LatencyHistogram;
+import model.Booking;
+import model.Flight;
+import model.FlightBatch;
+import service.BookingService;
+import service.FareEngine;
+import service.FlightService;
+import service.exception.ResourceNotFoundException;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
+import tools.DatasetGenerator;
+import util.ThreadPools;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Open-loop load generator and soak harness for the booking flow.
+ * Seeds a synthetic SQLite database with {@link DatasetGenerator}, then drives a mix of flight searches,
+ * bookings (with their seat decrement) and cancellations through the services
+ * and the connection pool at a fixed target rate. Operations are dispatched on
+ * schedule whether or not earlier ones have finished, and latency is measured
+ * from the scheduled start, so queueing behind a stall is counted rather than
+ * hidden (coordinated omission). Service time is recorded separately.
+ *
+ * Usage: java test.bench.LoadGenerator [--key=value ...]
+ *   --db=path            database file (default: a new temp file)
+ *   --flights=2000       flights to seed into an empty database
+ *   --passengers=20000   passengers to seed into an empty database
+ *   --rates=200,400,800  target ops/s; one stage per rate, to find saturation
+ *   --duration=30        measured seconds per stage
+ *   --warmup=5           unmeasured seconds before each stage
+ *   --mix=70:20:10       search:book:cancel weights
+ *   --threads=16         worker threads
+ *   --virtual=false      one virtual thread per operation instead (JDK 21+)
+ *   --seed=42            random seed for data and operation choice
+ *   --report=.           directory for the report file
+ */
+public class LoadGenerator {
+    private static final int DATE_SPAN_DAYS = 30;
+
+    private enum Operation { SEARCH, BOOK, CANCEL }
+
+    private final Map<String, String> options;
+    private final DBConnectionManager connectionManager;
+    private final ConcurrentLinkedQueue<Integer> bookedIds = new ConcurrentLinkedQueue<>();
+
+    private int[] flightIds;
+    private String[] flightFrom;
+    private String[] flightTo;
+    private LocalDate[] flightDates;
+    private double[] flightPrices;
+    private int passengerCount;
+
+    private LoadGenerator(Map<String, String> options, DBConnectionManager connectionManager) {
+        this.options = options;
+        this.connectionManager = connectionManager;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseOptions(args);
+        String db = options.get("db");
+        if (db == null) {
+            File file = File.createTempFile("loadgen-", ".db");
+            file.deleteOnExit();
+            db = file.getAbsolutePath();
+        }
+        // DBConnectionManager reads db.path through AppConfig, which honours system properties
+        System.setProperty("db.path", db);
+        DBConnectionManager connectionManager = DBConnectionManager.getInstance();
+        try {
+            LoadGenerator generator = new LoadGenerator(options, connectionManager);
+            generator.prepareData();
+            StringWriter report = new StringWriter();
+            PrintWriter out = new PrintWriter(report);
+            out.printf("Load run %s against %s%n", new Date(), db);
+            out.printf("options: %s%n", options);
+            int stage = 0;
+            for (String rate : option(options, "rates", "200,400,800").split(",")) {
+                generator.runStage(stage++, Double.parseDouble(rate.trim()), out);
+            }
+            out.flush();
+            System.out.print(report);
+            writeReport(option(options, "report", "."), report.toString());
+        } finally {
+            connectionManager.closeAllConnections();
+        }
+    }
+
+    /**
+     * Seeds an empty database and loads the flight and passenger ranges the
+     * operations pick from
+     */
+    private void prepareData() throws SQLException {
+        Connection connection = connectionManager.getConnection();
+        try {
+            if (count(connection, "SELECT COUNT(*) FROM Flights") == 0) {
+                seed(connection, intOption("flights", 2000), intOption("passengers", 20000), longOption("seed", 42));
+            }
+            passengerCount = count(connection, "SELECT COALESCE(MAX(passID), 0) FROM Passengers");
+            int flights = count(connection, "SELECT COUNT(*) FROM Flights");
+            flightIds = new int[flights];
+            flightFrom = new String[flights];
+            flightTo = new String[flights];
+            flightDates = new LocalDate[flights];
+            flightPrices = new double[flights];
+            int[] next = {0};
+            new FlightDao(connection).streamFlights(1024, batch -> {
+                for (int i = 0; i < batch.size() && next[0] < flightIds.length; i++) {
+                    // Undated flights cannot be searched for, so there is no load to drive against them
+                    if (batch.getDepartureDay(i) == FlightBatch.NO_DATE) {
+                        continue;
+                    }
+                    Flight f = batch.toFlight(i);
+                    int n = next[0]++;
+                    flightIds[n] = f.getId();
+                    flightFrom[n] = f.getFromCity();
+                    flightTo[n] = f.getToCity();
+                    flightDates[n] = f.getDepartureDate();
+                    flightPrices[n] = f.getPrice() != null ? f.getPrice() : 0;
+                }
+            });
+            if (next[0] < flights) {
+                flightIds = Arrays.copyOf(flightIds, next[0]);
+                flightFrom = Arrays.copyOf(flightFrom, next[0]);
+                flightTo = Arrays.copyOf(flightTo, next[0]);
+                flightDates = Arrays.copyOf(flightDates, next[0]);
+                flightPrices = Arrays.copyOf(flightPrices, next[0]);
+            }
+            if (next[0] == 0 || passengerCount == 0) {
+                throw new IllegalStateException("Database has no flights or passengers to drive load against");
+            }
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+    }
+
+    private static void seed(Connection connection, int flights, int passengers, long seed) throws SQLException {
+        DatasetGenerator generator = new DatasetGenerator(seed, flights, passengers, 0);
+        generator.setDepartureWindow(LocalDate.now().plusDays(1), DATE_SPAN_DAYS);
+        generator.generate(connection);
+    }
+
+    /**
+     * Runs one stage at a fixed rate and appends its results to the report
+     */
+    private void runStage(int stage, double rate, PrintWriter out) throws InterruptedException {
+        int[] weights = parseMix(option(options, "mix", "70:20:10"));
+        int totalWeight = weights[0] + weights[1] + weights[2];
+        int threads = intOption("threads", 16);
+        boolean virtual = Boolean.parseBoolean(option(options, "virtual", "false"));
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long warmupNanos = TimeUnit.SECONDS.toNanos(intOption("warmup", 5));
+        long durationNanos = TimeUnit.SECONDS.toNanos(intOption("duration", 30));
+
+        Stats[] stats = new Stats[Operation.values().length];
+        for (int i = 0; i < stats.length; i++) {
+            stats[i] = new Stats();
+        }
+        SplittableRandom random = new SplittableRandom(longOption("seed", 42) + stage);
+        ExecutorService executor = virtual ? ThreadPools.newPerTaskExecutor(threads) : Executors.newFixedThreadPool(threads);
+
+        long start = System.nanoTime();
+        long measureFrom = start + warmupNanos;
+        long end = measureFrom + durationNanos;
+        long dispatched = 0;
+        for (long i = 0; ; i++) {
+            long intended = start + i * intervalNanos;
+            if (intended >= end) {
+                break;
+            }
+            long wait;
+            while ((wait = intended - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            int pick = random.nextInt(totalWeight);
+            Operation op = pick < weights[0] ? Operation.SEARCH
+                    : pick < weights[0] + weights[1] ? Operation.BOOK : Operation.CANCEL;
+            int flight = random.nextInt(flightIds.length);
+            int passengerId = 1 + random.nextInt(passengerCount);
+            Stats target = intended >= measureFrom ? stats[op.ordinal()] : null;
+            executor.execute(() -> execute(op, flight, passengerId, intended, target));
+            dispatched++;
+        }
+        executor.shutdown();
+        boolean drained = executor.awaitTermination(Math.max(60, TimeUnit.NANOSECONDS.toSeconds(durationNanos)), TimeUnit.SECONDS);
+        if (!drained) {
+            executor.shutdownNow();
+        }
+        double elapsedSeconds = (System.nanoTime() - measureFrom) / 1e9;
+
+        long completed = 0;
+        for (Stats s : stats) {
+            completed += s.corrected.getCount();
+        }
+        out.printf("%n== stage %d: target %.0f ops/s, %s ==%n", stage, rate,
+                virtual ? "virtual threads" : threads + " threads");
+        out.printf("dispatched=%d measured=%d achieved=%.1f ops/s%s%n", dispatched, completed,
+                completed / elapsedSeconds, drained ? "" : " (backlog not drained, run is saturated)");
+        for (Operation op : Operation.values()) {
+            Stats s = stats[op.ordinal()];
+            out.printf("%-6s ok=%d rejected=%d errors=%d skipped=%d%n", op,
+                    s.corrected.getCount() - s.rejected.sum() - s.errors.sum() - s.skipped.sum(),
+                    s.rejected.sum(), s.errors.sum(), s.skipped.sum());
+            out.printf("       response %s%n", s.corrected.summary(TimeUnit.MILLISECONDS));
+            out.printf("       service  %s%n", s.service.summary(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private void execute(Operation op, int flight, int passengerId, long intended, Stats stats) {
+        long begin = System.nanoTime();
+        try {
+            switch (op) {
+                case SEARCH:
+                    search(flight);
+                    break;
+                case BOOK:
+                    book(flight, passengerId);
+                    break;
+                case CANCEL:
+                    if (!cancel() && stats != null) {
+                        stats.skipped.increment();
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown operation " + op);
+            }
+        } catch (ValidationException | ResourceNotFoundException e) {
+            if (stats != null) {
+                stats.rejected.increment();
+            }
+        } catch (ServiceException | SQLException | RuntimeException e) {
+            if (stats != null) {
+                stats.errors.increment();
+            }
+        } finally {
+            if (stats != null) {
+                long done = System.nanoTime();
+                stats.corrected.record(done - intended);
+                stats.service.record(done - begin);
+            }
+        }
+    }
+
+    private void search(int flight) throws ServiceException, SQLException {
+        Connection connection = connectionManager.getConnection();
+        try {
+            new FlightService(connection).searchFlights(flightFrom[flight], flightTo[flight], flightDates[flight]);
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Creates a booking; createBooking takes the seat in the same transaction.
+     * Pays the highest fare the rules allow, so fare changes never reject it.
+     */
+    private void book(int flight, int passengerId) throws ServiceException, SQLException {
+        Connection connection = connectionManager.getConnection();
+        try {
+            Booking booking = new BookingService(new BookingDao(connection), new FlightDao(connection),
+                    new PassengerDao(connection), connection)
+                    .createBooking(passengerId, flightIds[flight],
+                            Math.ceil(flightPrices[flight] * FareEngine.rules().getMaxMultiplier() * 100) / 100);
+            bookedIds.add(booking.getId());
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+    }
+
+    /**
+     * Cancels a booking made earlier in the run and gives its seat back
+     *
+     * @return false if there was nothing to cancel
+     */
+    private boolean cancel() throws ServiceException, SQLException {
+        Integer bookingId = bookedIds.poll();
+        if (bookingId == null) {
+            return false;
+        }
+        Connection connection = connectionManager.getConnection();
+        try {
+            new BookingService(new BookingDao(connection), new FlightDao(connection),
+                    new PassengerDao(connection), connection).cancelBooking(bookingId);
+            return true;
+        } finally {
+            connectionManager.releaseConnection(connection);
+        }
+    }
+
+    private static int count(Connection connection, String sql) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery(sql)) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    private static void writeReport(String directory, String report) throws IOException {
+        String stamp = new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date());
+        File file = new File(directory, "loadgen-" + stamp + ".txt");
+        try (FileWriter writer = new FileWriter(file)) {
+            writer.write(report);
+        }
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Unexpected argument: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            options.put(eq > 0 ? arg.substring(2, eq) : arg.substring(2), eq > 0 ? arg.substring(eq + 1) : "true");
+        }
+        return options;
+    }
+
+    private static int[] parseMix(String mix) {
+        String[] parts = mix.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("mix must be search:book:cancel, got " + mix);
+        }
+        int[] weights = new int[3];
+        for (int i = 0; i < 3; i++) {
+            weights[i] = Integer.parseInt(parts[i].trim());
+        }
+        if (weights[0] + weights[1] + weights[2] <= 0) {
+            throw new IllegalArgumentException("mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    private static String option(Map<String, String> options, String key, String defaultValue) {
+        String value = options.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    private int intOption(String key, int defaultValue) {
+        return Integer.parseInt(option(options, key, Integer.toString(defaultValue)));
+    }
+
+    private long longOption(String key, long defaultValue) {
+        return Long.parseLong(option(options, key, Long.toString(defaultValue)));
+    }
+
+    /**
+     * Per-operation results for one stage
+     */
+    private static final class Stats {
+        final LatencyHistogram corrected = new LatencyHistogram();
+        final LatencyHistogram service = new LatencyHistogram();
+        final LongAdder rejected = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder skipped = new LongAdder();
+    }
+}
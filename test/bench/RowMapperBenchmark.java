@@ -0,0 +1,100 @@
+package test.bench;
+
+import dao.BookingDao;
+import dao.RowMapper;
+import model.Booking;
+import java.lang.management.ManagementFactory;
+import java.sql.*;
+import java.time.LocalDate;
+
+/**
+ * Compares the legacy name-based Booking mapping (SELECT * with getObject/getString
+ * by column name) against BookingDao.ROW_MAPPER over an explicit projection.
+ * Reports CPU time and allocated bytes per row on the measuring thread.
+ *
+ * Usage: java test.bench.RowMapperBenchmark [rows] [iterations]
+ */
+public class RowMapperBenchmark {
+    private static final RowMapper<Booking> BY_NAME = rs -> new Booking(
+            rs.getInt("id"),
+            rs.getInt("passengerId"),
+            rs.getInt("flightId"),
+            rs.getObject("amountPaid") != null ? rs.getDouble("amountPaid") : null,
+            rs.getString("status"),
+            rs.getString("bookingDate") != null ? LocalDate.parse(rs.getString("bookingDate")) : null
+    );
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        try (Connection connection = DriverManager.getConnection("jdbc:sqlite::memory:")) {
+            seed(connection, rows);
+            String byName = "SELECT * FROM Bookings";
+            String byIndex = "SELECT " + BookingDao.COLUMNS + " FROM Bookings";
+
+            // Warm up both paths before measuring
+            for (int i = 0; i < 2; i++) {
+                run(connection, byName, BY_NAME);
+                run(connection, byIndex, BookingDao.ROW_MAPPER);
+            }
+            report("name-based ", connection, byName, BY_NAME, rows, iterations);
+            report("index-based", connection, byIndex, BookingDao.ROW_MAPPER, rows, iterations);
+        }
+    }
+
+    private static void seed(Connection connection, int rows) throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("CREATE TABLE Bookings (id INTEGER PRIMARY KEY, passengerId INT, flightId INT, amountPaid REAL, status TEXT, bookingDate TEXT, bookingDay INTEGER)");
+        }
+        connection.setAutoCommit(false);
+        LocalDate base = LocalDate.of(2024, 1, 1);
+        try (PreparedStatement pst = connection.prepareStatement("INSERT INTO Bookings VALUES (?, ?, ?, ?, ?, ?, ?)")) {
+            for (int i = 1; i <= rows; i++) {
+                pst.setInt(1, i);
+                pst.setInt(2, i % 50_000);
+                pst.setInt(3, i % 2_000);
+                if (i % 10 == 0) pst.setNull(4, Types.REAL);
+                else pst.setDouble(4, 100 + (i % 900));
+                pst.setString(5, i % 7 == 0 ? "Cancelled" : "Paid");
+                LocalDate date = base.plusDays(i % 365);
+                pst.setString(6, date.toString());
+                pst.setLong(7, date.toEpochDay());
+                pst.addBatch();
+                if (i % 10_000 == 0) pst.executeBatch();
+            }
+            pst.executeBatch();
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+    }
+
+    private static long run(Connection connection, String sql, RowMapper<Booking> mapper) throws SQLException {
+        long checksum = 0;
+        try (PreparedStatement pst = connection.prepareStatement(sql);
+             ResultSet rs = pst.executeQuery()) {
+            while (rs.next()) {
+                checksum += mapper.mapRow(rs).getFlightId();
+            }
+        }
+        return checksum;
+    }
+
+    private static void report(String label, Connection connection, String sql, RowMapper<Booking> mapper,
+                               int rows, int iterations) throws SQLException {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long cpu = 0;
+        long allocated = 0;
+        for (int i = 0; i < iterations; i++) {
+            long cpuStart = threads.getCurrentThreadCpuTime();
+            long allocStart = threads.getThreadAllocatedBytes(thread);
+            run(connection, sql, mapper);
+            cpu += threads.getCurrentThreadCpuTime() - cpuStart;
+            allocated += threads.getThreadAllocatedBytes(thread) - allocStart;
+        }
+        long mapped = (long) rows * iterations;
+        System.out.printf("%s  %8.1f ns/row  %8.1f B/row%n", label, (double) cpu / mapped, (double) allocated / mapped);
+    }
+}
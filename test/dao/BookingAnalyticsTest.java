@@ -0,0 +1,87 @@
+package test.dao;
+
+import analytics.AnalyticsSnapshot;
+import analytics.BookingAnalytics;
+import analytics.FlightLoad;
+import analytics.RouteRevenue;
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.SchemaMigrator;
+import model.Booking;
+import model.Flight;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.List;
+
+public class BookingAnalyticsTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 3, 10);
+    private static Connection connection;
+    private static BookingAnalytics analytics;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        FlightDao flights = new FlightDao(connection);
+        flights.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "10:00", "12:00", 8, 100.0));
+        flights.addFlight(new Flight(2, "PK002", "Karachi", "Lahore", DAY, "18:00", "20:00", 10, 100.0));
+        flights.addFlight(new Flight(3, "PK003", "Lahore", "Karachi", DAY.plusDays(1), "09:00", "11:00", 5, 80.0));
+        BookingDao bookings = new BookingDao(connection);
+        bookings.addBooking(new Booking(1, 1, 1, 100.0, "CONFIRMED", DAY.minusDays(30)));
+        bookings.addBooking(new Booking(2, 2, 1, 90.0, "Paid", DAY.minusDays(2)));
+        bookings.addBooking(new Booking(3, 3, 2, 120.0, "CONFIRMED", DAY));
+        bookings.addBooking(new Booking(4, 4, 2, 120.0, "CANCELLED", DAY.minusDays(5)));
+        bookings.addBooking(new Booking(5, 5, 3, null, "CONFIRMED", DAY.minusDays(400)));
+        analytics = new BookingAnalytics(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testLoadFactorsExcludeCancelledBookings() throws Exception {
+        List<FlightLoad> loads = analytics.loadFactors();
+        Assert.assertEquals(3, loads.size());
+        FlightLoad first = loads.get(0);
+        Assert.assertEquals(2, first.getBooked());
+        Assert.assertEquals(10, first.getCapacity());
+        Assert.assertEquals(0.2, first.getLoadFactor(), 1e-9);
+        Assert.assertEquals(190.0, first.getRevenue(), 1e-9);
+        Assert.assertEquals(1, loads.get(1).getBooked());
+        Assert.assertEquals(0.0, loads.get(2).getRevenue(), 1e-9);
+    }
+    @Test
+    public void testRevenueByRouteAndDay() throws Exception {
+        List<RouteRevenue> revenue = analytics.revenueByRouteAndDay(DAY, DAY.plusDays(1));
+        Assert.assertEquals(2, revenue.size());
+        Assert.assertEquals("Karachi", revenue.get(0).getFromCity());
+        Assert.assertEquals(3, revenue.get(0).getBookings());
+        Assert.assertEquals(310.0, revenue.get(0).getRevenue(), 1e-9);
+        Assert.assertEquals(DAY.plusDays(1), revenue.get(1).getDepartureDate());
+        Assert.assertTrue(analytics.revenueByRouteAndDay(DAY.plusDays(2), DAY.plusDays(9)).isEmpty());
+    }
+    @Test
+    public void testSnapshotMatchesAggregateQueries() throws Exception {
+        AnalyticsSnapshot snapshot = analytics.snapshot();
+        Assert.assertEquals(5, snapshot.getBookingsScanned());
+        Assert.assertEquals(4, snapshot.getTotalBooked());
+        List<FlightLoad> expected = analytics.loadFactors();
+        for (int i = 0; i < expected.size(); i++) {
+            Assert.assertEquals(expected.get(i).getBooked(), snapshot.getFlightLoads().get(i).getBooked());
+            Assert.assertEquals(expected.get(i).getRevenue(), snapshot.getFlightLoads().get(i).getRevenue(), 1e-9);
+        }
+        List<RouteRevenue> routes = analytics.revenueByRouteAndDay(DAY, DAY.plusDays(1));
+        Assert.assertEquals(routes.size(), snapshot.getRouteRevenue().size());
+        Assert.assertEquals(routes.get(0).getRevenue(), snapshot.getRouteRevenue().get(0).getRevenue(), 1e-9);
+    }
+    @Test
+    public void testBookingCurve() throws Exception {
+        AnalyticsSnapshot snapshot = analytics.snapshot();
+        Assert.assertEquals(2, snapshot.getRouteCurves().size());
+        Assert.assertEquals(4, snapshot.getOverallCurve().getTotal());
+        Assert.assertEquals(1, snapshot.getOverallCurve().getBookings(0));
+        Assert.assertEquals(1, snapshot.getOverallCurve().getBookings(365));
+        Assert.assertEquals(0.5, snapshot.getOverallCurve().getShareBookedBy(30), 1e-9);
+    }
+}
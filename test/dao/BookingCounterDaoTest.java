@@ -0,0 +1,74 @@
+package test.dao;
+
+import dao.BookingCounterDao;
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.SchemaMigrator;
+import model.Booking;
+import model.BookingCounter;
+import model.Flight;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Map;
+
+public class BookingCounterDaoTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 1);
+    private static Connection connection;
+    private static BookingDao bookingDao;
+    private static BookingCounterDao dao;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        new FlightDao(connection).addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY.plusDays(7), "10:00", "12:00", 100, 50.0));
+        bookingDao = new BookingDao(connection);
+        dao = new BookingCounterDao(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Before
+    public void setUp() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM Bookings");
+        }
+        dao.rebuild();
+    }
+    @Test
+    public void testRecordBookingAndCancellation() throws Exception {
+        bookingDao.addBooking(new Booking(1, 1, 1, 60.0, "CONFIRMED", DAY));
+        dao.recordBooking(1, "Karachi", "Lahore", DAY, 60.0);
+        bookingDao.addBooking(new Booking(2, 2, 1, 70.0, "CONFIRMED", DAY));
+        dao.recordBooking(1, "Karachi", "Lahore", DAY, 70.0);
+        bookingDao.updateBookingStatus(1, "CANCELLED");
+        dao.recordCancellation(1, "Karachi", "Lahore", DAY, 60.0);
+
+        BookingCounter flight = dao.getFlightCounter(1);
+        Assert.assertEquals(1, flight.getBooked());
+        Assert.assertEquals(70.0, flight.getRevenue(), 1e-9);
+        Assert.assertEquals(1, dao.getRouteCounter("Karachi", "Lahore", DAY).getBooked());
+        Assert.assertSame(BookingCounter.EMPTY, dao.getFlightCounter(2));
+        Assert.assertTrue(dao.findMismatches().isEmpty());
+    }
+    @Test
+    public void testRebuildRepairsDrift() throws Exception {
+        bookingDao.addBooking(new Booking(3, 3, 1, 80.0, "CONFIRMED", DAY));
+        Assert.assertEquals(2, dao.findMismatches().size());
+
+        dao.rebuild();
+        Assert.assertTrue(dao.findMismatches().isEmpty());
+        Assert.assertEquals(1, dao.getFlightCounter(1).getBooked());
+        Assert.assertEquals(80.0, dao.getRouteCounter("Karachi", "Lahore", DAY).getRevenue(), 1e-9);
+    }
+    @Test
+    public void testGetBookedCounts() throws Exception {
+        dao.recordBookings(1, "Karachi", "Lahore", DAY, 3, 180.0);
+        Map<Integer, Integer> counts = dao.getBookedCounts(Arrays.asList(1, 2));
+        Assert.assertEquals(Integer.valueOf(3), counts.get(1));
+        Assert.assertFalse(counts.containsKey(2));
+    }
+}
@@ -1,10 +1,15 @@
 package test.dao;
 
 import dao.BookingDao;
+import dao.SchemaMigrator;
 import model.Booking;
+import model.Reaccommodation;
 import org.junit.*;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 public class BookingDaoTest {
     private static Connection connection;
@@ -13,8 +18,7 @@ public class BookingDaoTest {
     @BeforeClass
     public static void setupClass() throws Exception {
         connection = DriverManager.getConnection("jdbc:sqlite::memory:");
-        Statement st = connection.createStatement();
-        st.executeUpdate("CREATE TABLE Bookings (id INT PRIMARY KEY, passengerId INT, flightId INT, amountPaid REAL, status TEXT, bookingDate TEXT)");
+        new SchemaMigrator().migrate(connection);
         dao = new BookingDao(connection);
     }
     @AfterClass
@@ -26,8 +30,40 @@ public class BookingDaoTest {
         Booking b = new Booking(1, 11, 22, 3000.0, "Paid", LocalDate.now());
         dao.addBooking(b);
         Booking fetched = dao.getBookingById(1);
-        Assert.assertEquals(11, fetched.getPassengerId());
-        Assert.assertEquals(22, fetched.getFlightId());
+        Assert.assertEquals(11, (int) fetched.getPassengerId());
+        Assert.assertEquals(22, (int) fetched.getFlightId());
         Assert.assertEquals("Paid", fetched.getStatus());
     }
+    @Test
+    public void testCancelBookingsOfFlight() throws Exception {
+        dao.addBookings(Arrays.asList(
+                new Booking(101, 1, 50, 100.0, "CONFIRMED", LocalDate.now()),
+                new Booking(102, 2, 50, 120.0, "CONFIRMED", LocalDate.now()),
+                new Booking(103, 3, 50, 130.0, "CANCELLED", LocalDate.now()),
+                new Booking(104, 4, 51, 140.0, "CONFIRMED", LocalDate.now())));
+        List<Booking> page = dao.getBookedByFlightId(50, 0, 1);
+        Assert.assertEquals(1, page.size());
+        Assert.assertEquals(Integer.valueOf(101), page.get(0).getId());
+        Assert.assertEquals(1, dao.getBookedByFlightId(50, 101, 10).size());
+
+        List<Booking> booked = dao.getBookedByFlightId(50, 0, 10);
+        Assert.assertEquals(2, dao.cancelBookings(booked).size());
+        Assert.assertTrue(dao.cancelBookings(booked).isEmpty());
+        Assert.assertTrue(dao.getBookedByFlightId(50, 0, 10).isEmpty());
+        Assert.assertEquals("CONFIRMED", dao.getBookingById(104).getStatus());
+    }
+    @Test
+    public void testMoveBookingsOffDeletedFlight() throws Exception {
+        Booking moving = new Booking(201, 5, 60, 100.0, "CONFIRMED", LocalDate.now());
+        dao.addBookings(Arrays.asList(moving, new Booking(202, 6, 60, 100.0, "CANCELLED", LocalDate.now())));
+        Assert.assertTrue(dao.getOrphanedFlightIds().contains(60));
+
+        List<Reaccommodation> moved = dao.moveBookings(Collections.singletonList(new Reaccommodation(moving, 61)));
+        Assert.assertEquals(1, moved.size());
+        Assert.assertEquals(60, moved.get(0).getFromFlightId());
+        Assert.assertEquals(Integer.valueOf(61), dao.getBookingById(201).getFlightId());
+        Assert.assertFalse(dao.getOrphanedFlightIds().contains(60));
+        Assert.assertTrue(dao.moveBookings(Collections.singletonList(new Reaccommodation(
+                new Booking(201, 5, 60, 100.0, "CONFIRMED", LocalDate.now()), 62))).isEmpty());
+    }
 }
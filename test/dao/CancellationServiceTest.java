@@ -0,0 +1,188 @@
+package test.dao;
+
+import dao.BookingCounterDao;
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import dao.RefundDao;
+import dao.SchemaMigrator;
+import dao.SeatMapDao;
+import model.Booking;
+import model.CancellationSummary;
+import model.Flight;
+import model.Passenger;
+import model.Refund;
+import org.junit.*;
+import service.BookingService;
+import service.exception.ServiceException;
+import service.exception.ValidationException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public class CancellationServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 9, 1);
+    private static final LocalDate FIRST_SALE = LocalDate.of(2030, 6, 1);
+    private static final LocalDate SECOND_SALE = LocalDate.of(2030, 6, 2);
+    private static Connection connection;
+    private static BookingDao bookingDao;
+    private static FlightDao flightDao;
+    private static PassengerDao passengerDao;
+    private static BookingCounterDao counterDao;
+    private static SeatMapDao seatMapDao;
+    private static BookingService service;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        System.setProperty("booking.cancel.batch.size", "2");
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        bookingDao = new BookingDao(connection);
+        flightDao = new FlightDao(connection);
+        passengerDao = new PassengerDao(connection);
+        counterDao = new BookingCounterDao(connection);
+        seatMapDao = new SeatMapDao(connection);
+        flightDao.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "10:00", "12:00", 10, 100.0));
+        flightDao.addFlight(new Flight(2, "PK002", "Multan", "Quetta", DAY, "10:00", "11:30", 10, 100.0));
+        for (int id = 1; id <= 6; id++) {
+            passengerDao.addPassenger(new Passenger(id, "Passenger " + id, "Female", "PK", "PK10" + id,
+                    "Karachi", "Lahore", null, null, "Unpaid"));
+        }
+        // Records each change to a flight's seats, to count the seat updates per page
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("CREATE TABLE SeatChanges (flightId INTEGER, delta INTEGER)");
+            st.executeUpdate("CREATE TRIGGER trg_seat_changes AFTER UPDATE OF Seats ON Flights BEGIN"
+                    + " INSERT INTO SeatChanges VALUES (NEW.FlightId, NEW.Seats - OLD.Seats); END");
+        }
+        service = new BookingService(bookingDao, flightDao, passengerDao, counterDao, connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        System.clearProperty("booking.cancel.batch.size");
+        connection.close();
+    }
+    @Test
+    public void testCancelBooking() throws Exception {
+        Booking booking = service.createBooking(6, 2, 10_000.0);
+        seatMapDao.addAssignments(2, singleSeat(booking.getId(), 4));
+
+        service.cancelBooking(booking.getId());
+
+        Assert.assertEquals(BookingService.STATUS_CANCELLED, bookingDao.getBookingById(booking.getId()).getStatus());
+        Assert.assertEquals(10, (int) flightDao.getFlightById(2).getSeatCount());
+        Passenger passenger = passengerDao.getPassengerById(6);
+        Assert.assertNull(passenger.getFlightId());
+        Assert.assertEquals(BookingService.PASSENGER_STATUS_UNPAID, passenger.getStatus());
+        List<Refund> refunds = service.getRefundsByFlightId(2);
+        Assert.assertEquals(1, refunds.size());
+        Assert.assertEquals(10_000.0, refunds.get(0).getAmount(), 1e-9);
+        Assert.assertEquals(BookingService.REFUND_REASON_CUSTOMER, refunds.get(0).getReason());
+        Assert.assertEquals(0, service.getFlightCounter(2).getBooked());
+        Assert.assertTrue(seatMapDao.getAssignments(2).isEmpty());
+        try {
+            service.cancelBooking(booking.getId());
+            Assert.fail("Cancelled a booking twice");
+        } catch (ValidationException expected) {
+            Assert.assertEquals(1, service.getRefundsByFlightId(2).size());
+        }
+    }
+    @Test
+    public void testCancelFlightBookingsResumesAfterFailure() throws Exception {
+        // Three bookings sold on one day and two on the next, 100 a seat
+        List<Booking> bookings = new ArrayList<>();
+        Map<Integer, Integer> seats = new HashMap<>();
+        for (int id = 1; id <= 5; id++) {
+            bookings.add(new Booking(id, id, 1, 100.0, BookingService.STATUS_CONFIRMED, id <= 3 ? FIRST_SALE : SECOND_SALE));
+            seats.put(id, id);
+        }
+        bookingDao.addBookings(bookings);
+        Assert.assertTrue(flightDao.adjustSeats(1, -5));
+        passengerDao.updateBookedFlights(Arrays.asList(1, 2, 3, 4, 5), 1, 100.0, BookingService.PASSENGER_STATUS_PAID);
+        counterDao.recordBookings(1, "Karachi", "Lahore", FIRST_SALE, 3, 300.0);
+        counterDao.recordBookings(1, "Karachi", "Lahore", SECOND_SALE, 2, 200.0);
+        seatMapDao.addAssignments(1, seats);
+        clearSeatChanges();
+
+        // The refund of booking 4 fails, so the second page of two rolls back
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("CREATE TRIGGER trg_refund_failure BEFORE INSERT ON Refunds WHEN NEW.bookingId = 4 BEGIN"
+                    + " SELECT RAISE(ABORT, 'refund ledger unavailable'); END");
+        }
+        try {
+            service.cancelFlightBookings(1, BookingService.REFUND_REASON_FLIGHT_CANCELLED);
+            Assert.fail("Cancelled a page whose refund failed");
+        } catch (ServiceException expected) {
+            // Only the first page was committed
+        }
+        Assert.assertTrue(connection.getAutoCommit());
+        Assert.assertEquals(2, service.getRefundsByFlightId(1).size());
+        Assert.assertEquals(7, (int) flightDao.getFlightById(1).getSeatCount());
+        Assert.assertEquals(Arrays.asList(2), seatChanges());
+        Assert.assertEquals(BookingService.STATUS_CONFIRMED, bookingDao.getBookingById(3).getStatus());
+        Assert.assertEquals(Integer.valueOf(1), passengerDao.getPassengerById(3).getFlightId());
+        Assert.assertEquals(3, seatMapDao.getAssignments(1).size());
+
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("DROP TRIGGER trg_refund_failure");
+        }
+        CancellationSummary summary = service.cancelFlightBookings(1, BookingService.REFUND_REASON_FLIGHT_CANCELLED);
+
+        Assert.assertEquals(3, summary.getCancelled());
+        Assert.assertEquals(300.0, summary.getRefunded(), 1e-9);
+        Assert.assertEquals(2, summary.getBatches());
+        // One seat update per page: the committed page before the failure, then two pages on resume
+        Assert.assertEquals(Arrays.asList(2, 2, 1), seatChanges());
+        Assert.assertEquals(10, (int) flightDao.getFlightById(1).getSeatCount());
+        List<Refund> refunds = new RefundDao(connection).getRefundsByFlightId(1);
+        Assert.assertEquals(5, refunds.size());
+        Set<Integer> refunded = new HashSet<>();
+        for (Refund refund : refunds) {
+            Assert.assertTrue("Booking " + refund.getBookingId() + " refunded twice", refunded.add(refund.getBookingId()));
+            Assert.assertEquals(BookingService.REFUND_REASON_FLIGHT_CANCELLED, refund.getReason());
+        }
+        for (int id = 1; id <= 5; id++) {
+            Assert.assertEquals(BookingService.STATUS_CANCELLED, bookingDao.getBookingById(id).getStatus());
+            Passenger passenger = passengerDao.getPassengerById(id);
+            Assert.assertNull(passenger.getFlightId());
+            Assert.assertEquals(BookingService.PASSENGER_STATUS_UNPAID, passenger.getStatus());
+        }
+        Assert.assertTrue(seatMapDao.getAssignments(1).isEmpty());
+        // Each booking day's counter is taken back by exactly the bookings sold that day
+        Assert.assertEquals(0, service.getFlightCounter(1).getBooked());
+        Assert.assertEquals(0, service.getRouteCounter("Karachi", "Lahore", FIRST_SALE).getBooked());
+        Assert.assertEquals(0.0, service.getRouteCounter("Karachi", "Lahore", FIRST_SALE).getRevenue(), 1e-9);
+        Assert.assertEquals(0, service.getRouteCounter("Karachi", "Lahore", SECOND_SALE).getBooked());
+
+        Assert.assertEquals(0, service.cancelFlightBookings(1, BookingService.REFUND_REASON_FLIGHT_CANCELLED).getCancelled());
+        Assert.assertEquals(5, service.getRefundsByFlightId(1).size());
+    }
+
+    private static Map<Integer, Integer> singleSeat(int bookingId, int seat) {
+        Map<Integer, Integer> seats = new HashMap<>();
+        seats.put(bookingId, seat);
+        return seats;
+    }
+
+    private static void clearSeatChanges() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("DELETE FROM SeatChanges");
+        }
+    }
+
+    private static List<Integer> seatChanges() throws SQLException {
+        List<Integer> deltas = new ArrayList<>();
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT delta FROM SeatChanges WHERE flightId = 1 ORDER BY rowid")) {
+            while (rs.next()) {
+                deltas.add(rs.getInt(1));
+            }
+        }
+        return deltas;
+    }
+}
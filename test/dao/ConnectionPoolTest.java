@@ -0,0 +1,74 @@
+package test.dao;
+
+import dao.DBConnectionManager;
+import org.junit.*;
+import java.io.File;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ConnectionPoolTest {
+    private static final int MAX_POOL_SIZE = 3;
+    private static File dbFile;
+    private static DBConnectionManager pool;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        dbFile = File.createTempFile("pool-test", ".db");
+        System.setProperty("db.path", dbFile.getPath());
+        System.setProperty("db.pool.max.size", String.valueOf(MAX_POOL_SIZE));
+        System.setProperty("db.pool.initial.size", "1");
+        System.setProperty("db.pool.timeout.ms", "10000");
+        System.setProperty("db.pool.leak.threshold.ms", "0");
+        pool = DBConnectionManager.getInstance();
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        pool.closeAllConnections();
+        dbFile.delete();
+    }
+    @Test
+    public void testConcurrentBorrowsStayWithinMaxSize() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger largest = new AtomicInteger();
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    Connection connection = pool.getConnection();
+                    try {
+                        largest.accumulateAndGet(connectionsInPool(), Math::max);
+                    } finally {
+                        pool.releaseConnection(connection);
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        Assert.assertTrue("Pool grew to " + largest.get(), largest.get() <= MAX_POOL_SIZE);
+        Assert.assertTrue(connectionsInPool() <= MAX_POOL_SIZE);
+        Assert.assertEquals(0, pool.getActiveConnections());
+    }
+
+    /** Active plus idle connections, read while releases are locked out so none is counted twice */
+    private static int connectionsInPool() {
+        synchronized (pool) {
+            return pool.getActiveConnections() + pool.getIdleConnections();
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package test.dao;
+
+import dao.SchemaMigrator;
+import org.junit.*;
+import tools.DatasetGenerator;
+import java.sql.*;
+
+public class DatasetGeneratorTest {
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        // Far more bookings than two cabins can hold
+        DatasetGenerator generator = new DatasetGenerator(42, 2, 50, 2000);
+        generator.setChunkSize(300);
+        generator.setWorkers(3);
+        generator.generate(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testSeatsAreCabinMinusConfirmedBookings() throws Exception {
+        String sql = "SELECT f.FlightId, f.Seats, (SELECT COUNT(*) FROM Bookings b"
+                + " WHERE b.flightId = f.FlightId AND b.status = 'CONFIRMED') FROM Flights f";
+        try (Statement st = connection.createStatement(); ResultSet rs = st.executeQuery(sql)) {
+            int flights = 0;
+            while (rs.next()) {
+                flights++;
+                int seats = rs.getInt(2);
+                int confirmed = rs.getInt(3);
+                Assert.assertTrue("Flight " + rs.getInt(1) + " oversold", seats >= 0);
+                Assert.assertTrue(confirmed > 0);
+                // Every generated cabin size is at least 150
+                Assert.assertTrue(seats + confirmed >= 150);
+            }
+            Assert.assertEquals(2, flights);
+        }
+    }
+    @Test
+    public void testFullFlightsHaveNoSeatsLeft() throws Exception {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM Flights WHERE Seats = 0")) {
+            rs.next();
+            Assert.assertEquals(2, rs.getInt(1));
+        }
+    }
+}
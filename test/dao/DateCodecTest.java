@@ -0,0 +1,83 @@
+package test.dao;
+
+import org.junit.*;
+import util.DateCodec;
+import java.sql.*;
+import java.time.LocalDate;
+
+public class DateCodecTest {
+    private static final LocalDate DAY = LocalDate.of(2022, 4, 30);
+    private static Connection connection;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testParseEachFormat() {
+        Assert.assertEquals(DAY, DateCodec.parse("2022-04-30"));
+        Assert.assertEquals(DAY, DateCodec.parse("Apr 30, 2022"));
+        Assert.assertEquals(LocalDate.of(2022, 4, 3), DateCodec.parse("Apr 3, 2022"));
+        Assert.assertEquals(DAY, DateCodec.parse(String.valueOf(DAY.toEpochDay())));
+        Assert.assertNull(DateCodec.parse(null));
+        Assert.assertNull(DateCodec.parse(""));
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseRejectsUnrecognisedText() {
+        DateCodec.parse("30/04/2022");
+    }
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseRejectsInvalidIsoDate() {
+        DateCodec.parse("2022-02-30");
+    }
+    @Test
+    public void testFormatAndEpochDay() {
+        Assert.assertEquals("2022-04-30", DateCodec.format(DAY));
+        Assert.assertNull(DateCodec.format(null));
+        Assert.assertEquals(DAY.toEpochDay(), DateCodec.toEpochDay(DAY));
+        Assert.assertSame(DateCodec.fromEpochDay(DAY.toEpochDay()), DateCodec.fromEpochDay(DAY.toEpochDay()));
+    }
+    @Test
+    public void testEpochDaySql() throws Exception {
+        Assert.assertEquals(Long.valueOf(DAY.toEpochDay()), epochDaySql("2022-04-30"));
+        Assert.assertEquals(Long.valueOf(DAY.toEpochDay()), epochDaySql("Apr 30, 2022"));
+        Assert.assertEquals(Long.valueOf(LocalDate.of(1999, 12, 1).toEpochDay()), epochDaySql("Dec 1, 1999"));
+        Assert.assertNull(epochDaySql("30/04/2022"));
+        Assert.assertNull(epochDaySql(null));
+    }
+    @Test
+    public void testMinuteOfDaySql() throws Exception {
+        Assert.assertEquals(Long.valueOf(13 * 60 + 48), minuteOfDaySql("01:48 PM"));
+        Assert.assertEquals(Long.valueOf(8 * 60 + 18), minuteOfDaySql("08:18 AM"));
+        Assert.assertEquals(Long.valueOf(12 * 60 + 5), minuteOfDaySql("12:05 PM"));
+        Assert.assertEquals(Long.valueOf(5), minuteOfDaySql("12:05 AM"));
+        Assert.assertEquals(Long.valueOf(13 * 60 + 30), minuteOfDaySql("13:30"));
+        Assert.assertNull(minuteOfDaySql("noon"));
+        Assert.assertNull(minuteOfDaySql(null));
+    }
+
+    private static Long epochDaySql(String text) throws SQLException {
+        return evaluate(DateCodec.epochDaySql(literal(text)));
+    }
+
+    private static Long minuteOfDaySql(String text) throws SQLException {
+        return evaluate(DateCodec.minuteOfDaySql(literal(text)));
+    }
+
+    private static String literal(String text) {
+        return text == null ? "NULL" : "'" + text + "'";
+    }
+
+    private static Long evaluate(String expression) throws SQLException {
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT " + expression)) {
+            rs.next();
+            long value = rs.getLong(1);
+            return rs.wasNull() ? null : value;
+        }
+    }
+}
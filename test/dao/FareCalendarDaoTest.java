@@ -0,0 +1,56 @@
+package test.dao;
+
+import dao.FareCalendarDao;
+import dao.FlightDao;
+import dao.SchemaMigrator;
+import model.FareDay;
+import model.Flight;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.List;
+
+public class FareCalendarDaoTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 7, 1);
+    private static Connection connection;
+    private static FlightDao flightDao;
+    private static FareCalendarDao dao;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        flightDao = new FlightDao(connection);
+        dao = new FareCalendarDao(connection);
+        flightDao.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "08:00", "09:30", 2, 120.0));
+        flightDao.addFlight(new Flight(2, "PK002", "Karachi", "Lahore", DAY, "18:00", "19:30", 50, 150.0));
+        flightDao.addFlight(new Flight(3, "PK003", "Karachi", "Lahore", DAY.plusDays(2), "08:00", "09:30", 10, 90.0));
+        flightDao.addFlight(new Flight(4, "PK004", "Lahore", "Karachi", DAY, "08:00", "09:30", 10, 10.0));
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testLowestPricePerDay() throws Exception {
+        List<FareDay> days = dao.getFareDays("Karachi", "Lahore", DAY, DAY.plusDays(30));
+        Assert.assertEquals(2, days.size());
+        Assert.assertEquals(DAY, days.get(0).getDate());
+        Assert.assertEquals(120.0, days.get(0).getLowestPrice(), 1e-9);
+        Assert.assertEquals(2, days.get(0).getFlights());
+        Assert.assertEquals(DAY.plusDays(2), days.get(1).getDate());
+        Assert.assertEquals(90.0, days.get(1).getLowestPrice(), 1e-9);
+    }
+    @Test
+    public void testSoldOutFlightIsSkipped() throws Exception {
+        flightDao.adjustSeats(1, -2);
+        try {
+            FareDay day = dao.getFareDays("Karachi", "Lahore", DAY, DAY).get(0);
+            Assert.assertEquals(150.0, day.getLowestPrice(), 1e-9);
+            Assert.assertEquals(50, day.getSeatsAvailable());
+        } finally {
+            flightDao.adjustSeats(1, 2);
+        }
+        Assert.assertEquals(120.0, dao.getFareDays("Karachi", "Lahore", DAY, DAY).get(0).getLowestPrice(), 1e-9);
+    }
+}
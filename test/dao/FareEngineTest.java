@@ -0,0 +1,65 @@
+package test.dao;
+
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import dao.SchemaMigrator;
+import model.Flight;
+import model.Passenger;
+import org.junit.*;
+import service.BookingService;
+import service.FareEngine;
+import java.sql.*;
+import java.time.LocalDate;
+
+public class FareEngineTest {
+    // Quotes are cached across instances, so the flight ID is kept clear of other tests
+    private static final int FLIGHT_ID = 9001;
+    private static Connection connection;
+    private static FlightDao flightDao;
+    private static BookingService service;
+    private static FareEngine engine;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        flightDao = new FlightDao(connection);
+        PassengerDao passengerDao = new PassengerDao(connection);
+        for (int id = 1; id <= 3; id++) {
+            passengerDao.addPassenger(new Passenger(id, "Passenger " + id, "Male", "PK", "PK10" + id,
+                    "Karachi", "Lahore", null, null, "Unpaid"));
+        }
+        service = new BookingService(new BookingDao(connection), flightDao, passengerDao, connection);
+        engine = new FareEngine(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testQuoteFollowsBookingsAndEdits() throws Exception {
+        // 30 days out the advance purchase multiplier is 1.0
+        flightDao.addFlight(new Flight(FLIGHT_ID, "PK901", "Karachi", "Lahore", LocalDate.now().plusDays(30),
+                "10:00", "12:00", 4, 100.0));
+        Assert.assertEquals(100.0, engine.quote(flightDao.getFlightById(FLIGHT_ID)), 1e-9);
+        Assert.assertEquals(100.0, engine.quote(flightDao.getFlightById(FLIGHT_ID)), 1e-9);
+
+        // Three of four seats booked puts the flight in the 75% bucket
+        for (int passengerId = 1; passengerId <= 3; passengerId++) {
+            service.createBooking(passengerId, FLIGHT_ID, 10_000.0);
+        }
+        Flight flight = flightDao.getFlightById(FLIGHT_ID);
+        Assert.assertEquals(1, (int) flight.getSeatCount());
+        Assert.assertEquals(120.0, engine.quote(flight), 1e-9);
+
+        flight.setPrice(150.0);
+        flightDao.updateFlight(flight);
+        Assert.assertEquals(180.0, engine.quote(flightDao.getFlightById(FLIGHT_ID)), 1e-9);
+
+        // 70 days out the advance purchase multiplier is 0.9
+        flight.setDepartureDate(LocalDate.now().plusDays(70));
+        flightDao.updateFlight(flight);
+        Assert.assertEquals(162.0, engine.quote(flightDao.getFlightById(FLIGHT_ID)), 1e-9);
+    }
+}
@@ -0,0 +1,60 @@
+package test.dao;
+
+import org.junit.*;
+import service.FareRules;
+
+public class FareRulesTest {
+    private static final FareRules DEFAULTS = FareRules.parse(FareRules.DEFAULT_BUCKETS, FareRules.DEFAULT_ADVANCE);
+
+    @Test
+    public void testParseRejectsInvalidRules() {
+        assertRejected("50:1.0,50:1.2", FareRules.DEFAULT_ADVANCE);
+        assertRejected("75:1.0,50:1.2", FareRules.DEFAULT_ADVANCE);
+        assertRejected(FareRules.DEFAULT_BUCKETS, "7:1.0,21:1.2");
+        assertRejected(FareRules.DEFAULT_BUCKETS, "7:1.0,7:1.1");
+        assertRejected("50:0,100:2.0", FareRules.DEFAULT_ADVANCE);
+        assertRejected("50:1.0,100:-2.0", FareRules.DEFAULT_ADVANCE);
+        assertRejected(FareRules.DEFAULT_BUCKETS, "21:1.0,0:0");
+        assertRejected("", FareRules.DEFAULT_ADVANCE);
+        assertRejected("50", FareRules.DEFAULT_ADVANCE);
+        assertRejected(FareRules.DEFAULT_BUCKETS, "soon:1.0");
+    }
+    @Test
+    public void testLoadBucketBoundaries() {
+        Assert.assertEquals(100.0, DEFAULTS.price(100, 0.0, 30), 1e-9);
+        Assert.assertEquals(100.0, DEFAULTS.price(100, 0.50, 30), 1e-9);
+        Assert.assertEquals(120.0, DEFAULTS.price(100, 0.51, 30), 1e-9);
+        Assert.assertEquals(120.0, DEFAULTS.price(100, 0.75, 30), 1e-9);
+        Assert.assertEquals(150.0, DEFAULTS.price(100, 0.76, 30), 1e-9);
+        Assert.assertEquals(200.0, DEFAULTS.price(100, 1.0, 30), 1e-9);
+        // Oversold past the last ceiling keeps the last multiplier
+        Assert.assertEquals(200.0, DEFAULTS.price(100, 1.03, 30), 1e-9);
+    }
+    @Test
+    public void testAdvancePurchaseBoundaries() {
+        Assert.assertEquals(90.0, DEFAULTS.price(100, 0.0, 60), 1e-9);
+        Assert.assertEquals(100.0, DEFAULTS.price(100, 0.0, 59), 1e-9);
+        Assert.assertEquals(100.0, DEFAULTS.price(100, 0.0, 21), 1e-9);
+        Assert.assertEquals(115.0, DEFAULTS.price(100, 0.0, 20), 1e-9);
+        Assert.assertEquals(115.0, DEFAULTS.price(100, 0.0, 7), 1e-9);
+        Assert.assertEquals(130.0, DEFAULTS.price(100, 0.0, 6), 1e-9);
+        Assert.assertEquals(130.0, DEFAULTS.price(100, 0.0, 0), 1e-9);
+        // Departed flights use the last step
+        Assert.assertEquals(130.0, DEFAULTS.price(100, 0.0, -1), 1e-9);
+    }
+    @Test
+    public void testFareIsProductRoundedToCents() {
+        Assert.assertEquals(172.5, DEFAULTS.price(100, 0.8, 10), 1e-9);
+        Assert.assertEquals(33.33, DEFAULTS.price(33.333, 0.1, 30), 1e-9);
+        Assert.assertEquals(2.6, DEFAULTS.getMaxMultiplier(), 1e-9);
+    }
+
+    private static void assertRejected(String buckets, String advance) {
+        try {
+            FareRules.parse(buckets, advance);
+            Assert.fail("Accepted fare.buckets " + buckets + " with fare.advance " + advance);
+        } catch (IllegalArgumentException expected) {
+            // Invalid rules never replace the current ones
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package test.dao;
 
 import dao.FlightDao;
+import dao.SchemaMigrator;
 import model.Flight;
+import model.FlightBatch;
+import model.FlightQuery;
 import org.junit.*;
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
 
 public class FlightDaoTest {
     private static Connection connection;
@@ -13,8 +19,7 @@ public class FlightDaoTest {
     @BeforeClass
     public static void setupClass() throws Exception {
         connection = DriverManager.getConnection("jdbc:sqlite::memory:");
-        Statement st = connection.createStatement();
-        st.executeUpdate("CREATE TABLE Flights (FlightId INT PRIMARY KEY, FCode TEXT, Ffrom TEXT, Fto TEXT, deptDate TEXT, deptTime TEXT, arrTime TEXT, Seats INT, price REAL)");
+        new SchemaMigrator().migrate(connection);
         dao = new FlightDao(connection);
     }
     @AfterClass
@@ -28,6 +33,82 @@ public class FlightDaoTest {
         Flight fetched = dao.getFlightById(1);
         Assert.assertEquals("PK001", fetched.getCode());
         Assert.assertEquals("Karachi", fetched.getFromCity());
-        Assert.assertEquals(100, fetched.getSeatCount());
+        Assert.assertEquals(100, (int) fetched.getSeatCount());
+        Assert.assertEquals(f.getDepartureDate(), fetched.getDepartureDate());
+    }
+    @Test
+    public void testStreamFlightsInBatches() throws Exception {
+        dao.addFlight(new Flight(2, "PK002", "Lahore", "Karachi", LocalDate.of(2030, 1, 15), "08:00", "09:30", 150, 1500.0));
+        Set<Integer> ids = new HashSet<>();
+        long streamed = dao.streamFlights(1, batch -> {
+            Assert.assertEquals(1, batch.size());
+            ids.add(batch.getId(0));
+            if (batch.getId(0) == 2) {
+                Assert.assertEquals("Lahore", batch.getFromCity(0));
+                Assert.assertEquals(LocalDate.of(2030, 1, 15).toEpochDay(), batch.getDepartureDay(0));
+                Assert.assertEquals(1500.0, batch.getPrice(0), 0.0);
+            }
+        });
+        Assert.assertEquals(streamed, ids.size());
+        Assert.assertTrue(ids.contains(2));
+    }
+    @Test
+    public void testStreamUndatedFlight() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO Flights (FlightId, FCode, Ffrom, Fto, deptDate, Seats, price)"
+                    + " VALUES (3, 'PK003', 'Sukkur', 'Karachi', '', 10, 500.0)");
+        }
+        int[] day = {0};
+        dao.streamFlights(16, batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.getId(i) == 3) {
+                    day[0] = batch.getDepartureDay(i);
+                }
+            }
+        });
+        Assert.assertEquals(FlightBatch.NO_DATE, day[0]);
+    }
+    @Test
+    public void testFindTopFlights() throws Exception {
+        LocalDate day = LocalDate.of(2030, 2, 1);
+        dao.addFlight(new Flight(10, "QT010", "Quetta", "Multan", day, "09:00", "10:00", 5, 300.0));
+        dao.addFlight(new Flight(11, "QT011", "Quetta", "Multan", day.plusDays(1), "07:00", "08:00", 0, 100.0));
+        dao.addFlight(new Flight(12, "QT012", "Quetta", "Multan", day.plusDays(2), "07:00", "08:00", 40, 200.0));
+        dao.addFlight(new Flight(13, "QT013", "Quetta", "Sialkot", day, "06:00", "07:00", 20, 150.0));
+
+        FlightQuery cheapest = new FlightQuery("Quetta", FlightQuery.Order.PRICE, 2);
+        cheapest.setDestination("Multan");
+        cheapest.setMinSeats(1);
+        List<Flight> flights = dao.findTopFlights(cheapest);
+        Assert.assertEquals(2, flights.size());
+        Assert.assertEquals(12, (int) flights.get(0).getId());
+        Assert.assertEquals(10, (int) flights.get(1).getId());
+
+        FlightQuery earliest = new FlightQuery("Quetta", FlightQuery.Order.DEPARTURE, 2);
+        earliest.setFromDate(day);
+        earliest.setToDate(day);
+        flights = dao.findTopFlights(earliest);
+        Assert.assertEquals(13, (int) flights.get(0).getId());
+        Assert.assertEquals(10, (int) flights.get(1).getId());
+
+        Assert.assertEquals(12, (int) dao.findTopFlights(new FlightQuery("Quetta", FlightQuery.Order.SEATS_LEFT, 1)).get(0).getId());
+    }
+    @Test
+    public void testFindTopFlightsByTwelveHourDeparture() throws Exception {
+        LocalDate day = LocalDate.of(2030, 3, 1);
+        dao.addFlight(new Flight(20, "GW020", "Gwadar", "Karachi", day, "01:48 PM", "03:00 PM", 10, 100.0));
+        dao.addFlight(new Flight(21, "GW021", "Gwadar", "Karachi", day, "08:18 AM", "09:30 AM", 10, 100.0));
+        dao.addFlight(new Flight(22, "GW022", "Gwadar", "Karachi", day, "12:05 PM", "01:15 PM", 10, 100.0));
+        dao.addFlight(new Flight(23, "GW023", "Gwadar", "Karachi", day, "11:40 AM", "12:50 PM", 10, 100.0));
+        dao.addFlight(new Flight(24, "GW024", "Gwadar", "Karachi", day, "12:10 AM", "01:20 AM", 10, 100.0));
+
+        FlightQuery earliest = new FlightQuery("Gwadar", FlightQuery.Order.DEPARTURE, 5);
+        List<Flight> flights = dao.findTopFlights(earliest);
+        Assert.assertEquals(5, flights.size());
+        Assert.assertEquals(24, (int) flights.get(0).getId());
+        Assert.assertEquals(21, (int) flights.get(1).getId());
+        Assert.assertEquals(23, (int) flights.get(2).getId());
+        Assert.assertEquals(22, (int) flights.get(3).getId());
+        Assert.assertEquals(20, (int) flights.get(4).getId());
     }
 }
@@ -0,0 +1,96 @@
+package test.dao;
+
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import dao.SchemaMigrator;
+import model.Booking;
+import model.Flight;
+import model.GroupLeg;
+import model.Passenger;
+import org.junit.*;
+import service.BookingService;
+import service.exception.ValidationException;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class GroupBookingServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 8, 1);
+    private static Connection connection;
+    private static BookingDao bookingDao;
+    private static FlightDao flightDao;
+    private static PassengerDao passengerDao;
+    private static BookingService service;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        bookingDao = new BookingDao(connection);
+        flightDao = new FlightDao(connection);
+        passengerDao = new PassengerDao(connection);
+        flightDao.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "10:00", "12:00", 5, 100.0));
+        flightDao.addFlight(new Flight(2, "PK002", "Lahore", "Skardu", DAY, "14:00", "15:00", 5, 100.0));
+        flightDao.addFlight(new Flight(3, "PK003", "Multan", "Quetta", DAY, "10:00", "11:30", 5, 100.0));
+        flightDao.addFlight(new Flight(4, "PK004", "Quetta", "Gwadar", DAY, "13:00", "14:00", 1, 100.0));
+        passengerDao.addPassenger(new Passenger(1, "Ali", "Male", "PK", "PK101", "Karachi", "Skardu", null, null, "Unpaid"));
+        passengerDao.addPassenger(new Passenger(2, "Sara", "Female", "PK", "PK102", "Karachi", "Skardu", null, null, "Unpaid"));
+        passengerDao.addPassenger(new Passenger(3, "Omar", "Male", "PK", "PK103", "Multan", "Gwadar", null, null, "Unpaid"));
+        passengerDao.addPassenger(new Passenger(4, "Hina", "Female", "PK", "PK104", "Multan", "Gwadar", null, null, "Unpaid"));
+        service = new BookingService(bookingDao, flightDao, passengerDao, connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testGroupTakesConsecutiveIds() throws Exception {
+        int first = bookingDao.nextId();
+        List<Booking> bookings = service.createGroupBooking(Arrays.asList(1, 2),
+                Arrays.asList(new GroupLeg(1, 10_000.0), new GroupLeg(2, 10_000.0)));
+
+        Assert.assertEquals(4, bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            Assert.assertEquals(first + i, (int) booking.getId());
+            Booking stored = bookingDao.getBookingById(first + i);
+            Assert.assertEquals(booking.getPassengerId(), stored.getPassengerId());
+            Assert.assertEquals(booking.getFlightId(), stored.getFlightId());
+            Assert.assertEquals(BookingService.STATUS_CONFIRMED, stored.getStatus());
+        }
+        Assert.assertEquals(first + 4, bookingDao.nextId());
+        Assert.assertEquals(3, (int) flightDao.getFlightById(1).getSeatCount());
+        Assert.assertEquals(3, (int) flightDao.getFlightById(2).getSeatCount());
+        Assert.assertEquals(2, service.getFlightCounter(2).getBooked());
+        Assert.assertEquals(BookingService.PASSENGER_STATUS_PAID, passengerDao.getPassengerById(1).getStatus());
+    }
+    @Test
+    public void testShortSecondLegRollsBackWholeGroup() throws Exception {
+        try {
+            service.createGroupBooking(Arrays.asList(3, 4),
+                    Arrays.asList(new GroupLeg(3, 10_000.0), new GroupLeg(4, 10_000.0)));
+            Assert.fail("Booked two passengers onto a flight with one seat");
+        } catch (ValidationException expected) {
+            // The first leg's seats were taken before the second leg came up short
+        }
+
+        Assert.assertEquals(5, (int) flightDao.getFlightById(3).getSeatCount());
+        Assert.assertEquals(1, (int) flightDao.getFlightById(4).getSeatCount());
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM Bookings WHERE flightId IN (3, 4)")) {
+            rs.next();
+            Assert.assertEquals(0, rs.getInt(1));
+        }
+        for (int passengerId : new int[] {3, 4}) {
+            Passenger passenger = passengerDao.getPassengerById(passengerId);
+            Assert.assertEquals(BookingService.PASSENGER_STATUS_UNPAID, passenger.getStatus());
+            Assert.assertNull(passenger.getFlightId());
+        }
+        Assert.assertEquals(0, service.getFlightCounter(3).getBooked());
+        Assert.assertEquals(0, service.getFlightCounter(4).getBooked());
+        Assert.assertEquals(0, service.getRouteCounter("Multan", "Quetta", LocalDate.now()).getBooked());
+        Assert.assertTrue(connection.getAutoCommit());
+    }
+}
@@ -0,0 +1,50 @@
+package test.dao;
+
+import dao.BookingDao;
+import dao.IdempotencyDao;
+import dao.SchemaMigrator;
+import model.Booking;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+
+public class IdempotencyDaoTest {
+    private static Connection connection;
+    private static IdempotencyDao dao;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        new BookingDao(connection).addBooking(new Booking(1, 1, 1, 60.0, "CONFIRMED", LocalDate.of(2030, 5, 1)));
+        dao = new IdempotencyDao(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testAddKeyAndFindBooking() throws Exception {
+        Assert.assertNull(dao.findBooking("req-1"));
+        dao.addKey("req-1", 1);
+        Booking booking = dao.findBooking("req-1");
+        Assert.assertEquals(Integer.valueOf(1), booking.getId());
+        Assert.assertEquals(60.0, booking.getAmountPaid(), 1e-9);
+    }
+    @Test(expected = SQLException.class)
+    public void testDuplicateKeyRejected() throws Exception {
+        dao.addKey("req-2", 1);
+        dao.addKey("req-2", 1);
+    }
+    @Test
+    public void testPurgeKeysByAge() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.executeUpdate("INSERT INTO IdempotencyKeys (idemKey, bookingId, createdAt) VALUES ('req-old', 1, 1000)");
+        }
+        dao.addKey("req-new", 1);
+
+        Assert.assertEquals(1, dao.purgeKeys(System.currentTimeMillis() - 60_000));
+        Assert.assertNull(dao.findBooking("req-old"));
+        Assert.assertNotNull(dao.findBooking("req-new"));
+    }
+}
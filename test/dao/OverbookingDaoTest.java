@@ -0,0 +1,91 @@
+package test.dao;
+
+import analytics.FlightLoad;
+import dao.FlightDao;
+import dao.OverbookingDao;
+import dao.SchemaMigrator;
+import model.DeniedBoarding;
+import model.Flight;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.List;
+
+public class OverbookingDaoTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 1);
+    private static Connection connection;
+    private static FlightDao flightDao;
+    private static OverbookingDao dao;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        flightDao = new FlightDao(connection);
+        dao = new OverbookingDao(connection);
+        flightDao.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "10:00", "12:00", 1, 100.0));
+        flightDao.addFlight(new Flight(2, "PK002", "Karachi", "Lahore", DAY, "18:00", "20:00", 1, 100.0));
+        flightDao.addFlight(new Flight(3, "PK003", "Lahore", "Karachi", DAY, "09:00", "11:00", 1, 80.0));
+        dao.setRouteLimit("Karachi", "Lahore", 2);
+        dao.setFlightLimit(2, 0);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testRouteLimitAllowsOverselling() throws Exception {
+        Assert.assertEquals(2, dao.getEffectiveLimit(1));
+        Assert.assertTrue(flightDao.adjustSeats(1, -1));
+        Assert.assertTrue(flightDao.adjustSeats(1, -1));
+        Assert.assertTrue(flightDao.adjustSeats(1, -1));
+        Assert.assertFalse(flightDao.adjustSeats(1, -1));
+        Assert.assertEquals(-2, (int) flightDao.getFlightById(1).getSeatCount());
+        Assert.assertTrue(flightDao.adjustSeats(1, 1));
+        Assert.assertTrue(flightDao.adjustSeats(1, -1));
+    }
+    @Test
+    public void testFlightLimitOverridesRoute() throws Exception {
+        Assert.assertEquals(0, dao.getEffectiveLimit(2));
+        Assert.assertTrue(flightDao.adjustSeats(2, -1));
+        Assert.assertFalse(flightDao.adjustSeats(2, -1));
+        Assert.assertEquals(0, dao.getEffectiveLimit(3));
+        Assert.assertTrue(flightDao.adjustSeats(3, -1));
+        Assert.assertFalse(flightDao.adjustSeats(3, -1));
+    }
+    @Test
+    public void testDeniedBoardings() throws Exception {
+        Assert.assertTrue(dao.addDeniedBoarding(new DeniedBoarding(null, 5, 15, 1, true, 300.0, DAY)));
+        List<DeniedBoarding> denied = dao.getDeniedBoardingsByFlightId(1);
+        Assert.assertEquals(1, denied.size());
+        Assert.assertTrue(denied.get(0).isVoluntary());
+        Assert.assertEquals(300.0, denied.get(0).getCompensation(), 1e-9);
+        Assert.assertEquals(DAY, denied.get(0).getDeniedDate());
+    }
+    @Test
+    public void testOversoldFlightKeepsNegativeSeats() throws Exception {
+        flightDao.addFlight(new Flight(4, "PK004", "Karachi", "Lahore", DAY, "21:00", "23:00", 1, 100.0));
+        Assert.assertTrue(flightDao.adjustSeats(4, -2));
+        flightDao.streamFlights(16, batch -> {
+            for (int i = 0; i < batch.size(); i++) {
+                if (batch.getId(i) == 4) {
+                    Assert.assertEquals(-1, batch.getSeatCount(i));
+                    Assert.assertEquals(-1, (int) batch.toFlight(i).getSeatCount());
+                }
+            }
+        });
+
+        // Editing the flight must not give back the oversold seats
+        Flight edited = flightDao.getFlightById(4);
+        Assert.assertEquals(-1, (int) edited.getSeatCount());
+        edited.setPrice(120.0);
+        edited.setSeatCount(0);
+        Assert.assertTrue(flightDao.updateFlight(edited));
+        Assert.assertEquals(-1, (int) flightDao.getFlightById(4).getSeatCount());
+        Assert.assertEquals(120.0, flightDao.getFlightById(4).getPrice(), 1e-9);
+
+        FlightLoad load = new FlightLoad(4, "PK004", "Karachi", "Lahore", DAY, 103, -3, 0);
+        Assert.assertEquals(100, load.getCapacity());
+        Assert.assertEquals(1.03, load.getLoadFactor(), 1e-9);
+    }
+}
@@ -1,9 +1,12 @@
 package test.dao;
 
 import dao.PassengerDao;
+import dao.SchemaMigrator;
 import model.Passenger;
 import org.junit.*;
 import java.sql.*;
+import java.util.Arrays;
+import java.util.HashSet;
 
 public class PassengerDaoTest {
     private static Connection connection;
@@ -12,8 +15,7 @@ public class PassengerDaoTest {
     @BeforeClass
     public static void setupClass() throws Exception {
         connection = DriverManager.getConnection("jdbc:sqlite::memory:");
-        Statement st = connection.createStatement();
-        st.executeUpdate("CREATE TABLE Passengers (passID INT PRIMARY KEY, pName TEXT, Gender TEXT, passNum TEXT, nationality TEXT, Pfrom TEXT, Pto TEXT, flightId INT, amountPaid REAL, status TEXT)");
+        new SchemaMigrator().migrate(connection);
         dao = new PassengerDao(connection);
     }
     @AfterClass
@@ -29,4 +31,16 @@ public class PassengerDaoTest {
         Assert.assertEquals("Male", fetched.getGender());
         Assert.assertEquals("PK", fetched.getNationality());
     }
+    @Test
+    public void testGetExistingIdsAndUpdateBookedFlights() throws Exception {
+        dao.addPassenger(new Passenger(11, "Sara", "Female", "PK", "PK211", "Karachi", "Lahore", null, null, "Unpaid"));
+        dao.addPassenger(new Passenger(12, "Omar", "Male", "PK", "PK212", "Karachi", "Lahore", null, null, "Unpaid"));
+        Assert.assertEquals(new HashSet<>(Arrays.asList(11, 12)), dao.getExistingIds(Arrays.asList(11, 12, 99)));
+
+        Assert.assertEquals(2, dao.updateBookedFlights(Arrays.asList(11, 12), 7, 120.0, "Paid"));
+        Passenger fetched = dao.getPassengerById(12);
+        Assert.assertEquals("Paid", fetched.getStatus());
+        Assert.assertEquals(Integer.valueOf(7), fetched.getFlightId());
+        Assert.assertEquals(120.0, fetched.getAmountPaid(), 1e-9);
+    }
 }
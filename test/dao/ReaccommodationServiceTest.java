@@ -0,0 +1,116 @@
+package test.dao;
+
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.PassengerDao;
+import dao.SchemaMigrator;
+import model.Booking;
+import model.Flight;
+import model.Passenger;
+import model.Reaccommodation;
+import model.ReaccommodationResult;
+import org.junit.*;
+import service.BookingService;
+import service.ReaccommodationService;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class ReaccommodationServiceTest {
+    private static final LocalDate DAY = LocalDate.now().plusDays(30);
+    private static final LocalDate FIRST_SALE = LocalDate.now().minusDays(10);
+    private static final LocalDate SECOND_SALE = LocalDate.now().minusDays(5);
+    private static Connection connection;
+    private static BookingDao bookingDao;
+    private static FlightDao flightDao;
+    private static PassengerDao passengerDao;
+    private static ReaccommodationService service;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        System.setProperty("reaccommodation.window.days", "2");
+        System.setProperty("reaccommodation.batch.size", "1");
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        bookingDao = new BookingDao(connection);
+        flightDao = new FlightDao(connection);
+        passengerDao = new PassengerDao(connection);
+        for (int id = 1; id <= 5; id++) {
+            passengerDao.addPassenger(new Passenger(id, "Passenger " + id, "Male", "PK", "PK10" + id,
+                    "Karachi", "Lahore", null, null, "Unpaid"));
+        }
+        service = new ReaccommodationService(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        System.clearProperty("reaccommodation.window.days");
+        System.clearProperty("reaccommodation.batch.size");
+        connection.close();
+    }
+    @Test
+    public void testPlanByPriorityWithinWindow() throws Exception {
+        flightDao.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "10:00", "12:00", 10, 100.0));
+        // Also disrupted, and the earliest flight with seats
+        flightDao.addFlight(new Flight(4, "PK004", "Karachi", "Lahore", DAY, "06:00", "08:00", 10, 100.0));
+        flightDao.addFlight(new Flight(2, "PK002", "Karachi", "Lahore", DAY.plusDays(1), "10:00", "12:00", 1, 100.0));
+        flightDao.addFlight(new Flight(6, "PK006", "Karachi", "Lahore", DAY.plusDays(2), "10:00", "12:00", 1, 100.0));
+        // Outside the two-day window
+        flightDao.addFlight(new Flight(3, "PK003", "Karachi", "Lahore", DAY.plusDays(3), "10:00", "12:00", 10, 100.0));
+        bookingDao.addBookings(Arrays.asList(
+                new Booking(1, 1, 1, 100.0, BookingService.STATUS_CONFIRMED, FIRST_SALE),
+                new Booking(2, 2, 1, 100.0, BookingService.STATUS_CONFIRMED, SECOND_SALE),
+                new Booking(3, 3, 1, 100.0, BookingService.STATUS_CONFIRMED, FIRST_SALE)));
+        passengerDao.updateBookedFlights(Arrays.asList(1), 1, 100.0, BookingService.PASSENGER_STATUS_UNPAID);
+        passengerDao.updateBookedFlights(Arrays.asList(2, 3), 1, 100.0, BookingService.PASSENGER_STATUS_PAID);
+
+        ReaccommodationResult result = service.reaccommodate(Arrays.asList(1, 4));
+
+        // Paid passengers go first, the earlier booking to the earlier flight
+        List<Reaccommodation> moved = result.getMoved();
+        Assert.assertEquals(3, result.getAffected());
+        Assert.assertEquals(2, moved.size());
+        Assert.assertEquals(3, moved.get(0).getBookingId());
+        Assert.assertEquals(2, moved.get(0).getToFlightId());
+        Assert.assertEquals(2, moved.get(1).getBookingId());
+        Assert.assertEquals(6, moved.get(1).getToFlightId());
+        Assert.assertEquals(1, result.getUnaccommodated().size());
+        Assert.assertEquals(1, (int) result.getUnaccommodated().get(0).getId());
+
+        Assert.assertEquals(1, (int) bookingDao.getBookingById(1).getFlightId());
+        Assert.assertEquals(2, (int) bookingDao.getBookingById(3).getFlightId());
+        Assert.assertEquals(Integer.valueOf(6), passengerDao.getPassengerById(2).getFlightId());
+        Assert.assertEquals(0, (int) flightDao.getFlightById(2).getSeatCount());
+        Assert.assertEquals(0, (int) flightDao.getFlightById(6).getSeatCount());
+        Assert.assertEquals(10, (int) flightDao.getFlightById(3).getSeatCount());
+        Assert.assertEquals(10, (int) flightDao.getFlightById(4).getSeatCount());
+    }
+    @Test
+    public void testSeatSoldBeforeCommitLeavesBookingUnaccommodated() throws Exception {
+        flightDao.addFlight(new Flight(11, "QT011", "Multan", "Quetta", DAY, "10:00", "11:30", 10, 100.0));
+        flightDao.addFlight(new Flight(12, "QT012", "Multan", "Quetta", DAY.plusDays(1), "08:00", "09:30", 1, 100.0));
+        flightDao.addFlight(new Flight(13, "QT013", "Multan", "Quetta", DAY.plusDays(1), "18:00", "19:30", 1, 100.0));
+        bookingDao.addBookings(Arrays.asList(
+                new Booking(11, 4, 11, 100.0, BookingService.STATUS_CONFIRMED, FIRST_SALE),
+                new Booking(12, 5, 11, 100.0, BookingService.STATUS_CONFIRMED, SECOND_SALE)));
+        passengerDao.updateBookedFlights(Arrays.asList(4, 5), 11, 100.0, BookingService.PASSENGER_STATUS_PAID);
+        try (Statement st = connection.createStatement()) {
+            // Flight 13 may be overbooked, which a planned move must still not do
+            st.executeUpdate("INSERT INTO OverbookingLimits (flightId, extraSeats) VALUES (13, 5)");
+            // The last seat of flight 13 sells once the first batch has moved booking 11
+            st.executeUpdate("CREATE TRIGGER trg_sell_last_seat AFTER UPDATE OF flightId ON Bookings"
+                    + " WHEN NEW.id = 11 BEGIN UPDATE Flights SET Seats = Seats - 1 WHERE FlightId = 13; END");
+        }
+
+        ReaccommodationResult result = service.reaccommodate(Arrays.asList(11));
+
+        Assert.assertEquals(2, result.getBatches());
+        Assert.assertEquals(1, result.getMoved().size());
+        Assert.assertEquals(12, result.getMoved().get(0).getToFlightId());
+        Assert.assertEquals(1, result.getUnaccommodated().size());
+        Assert.assertEquals(12, (int) result.getUnaccommodated().get(0).getId());
+        Assert.assertEquals(11, (int) bookingDao.getBookingById(12).getFlightId());
+        Assert.assertEquals(Integer.valueOf(11), passengerDao.getPassengerById(5).getFlightId());
+        Assert.assertEquals(0, (int) flightDao.getFlightById(13).getSeatCount());
+    }
+}
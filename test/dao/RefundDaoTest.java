@@ -0,0 +1,43 @@
+package test.dao;
+
+import dao.RefundDao;
+import dao.SchemaMigrator;
+import model.Refund;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+public class RefundDaoTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 5, 1);
+    private static Connection connection;
+    private static RefundDao dao;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        dao = new RefundDao(connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testAddAndFetchRefunds() throws Exception {
+        Assert.assertEquals(2, dao.addRefunds(Arrays.asList(
+                new Refund(null, 1, 11, 7, 60.0, "FLIGHT_CANCELLED", DAY),
+                new Refund(null, 2, 12, 7, 70.0, "FLIGHT_CANCELLED", DAY))));
+        List<Refund> refunds = dao.getRefundsByFlightId(7);
+        Assert.assertEquals(2, refunds.size());
+        Assert.assertEquals(12, refunds.get(1).getPassengerId());
+        Assert.assertEquals(70.0, refunds.get(1).getAmount(), 1e-9);
+        Assert.assertEquals(DAY, refunds.get(1).getRefundDate());
+    }
+    @Test(expected = SQLException.class)
+    public void testBookingRefundedOnce() throws Exception {
+        dao.addRefunds(Arrays.asList(new Refund(null, 3, 13, 8, 80.0, "CUSTOMER", DAY)));
+        dao.addRefunds(Arrays.asList(new Refund(null, 3, 13, 8, 80.0, "CUSTOMER", DAY)));
+    }
+}
@@ -0,0 +1,37 @@
+package test.dao;
+
+import dao.SchemaMigrator;
+import org.junit.*;
+import java.sql.*;
+
+public class SchemaMigratorTest {
+    private static Connection connection;
+    private static SchemaMigrator migrator;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        migrator = new SchemaMigrator();
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testMigrateIsIdempotent() throws Exception {
+        migrator.migrate(connection);
+        Assert.assertEquals(migrator.getTargetVersion(), migrator.getCurrentVersion(connection));
+        Assert.assertEquals(0, migrator.migrate(connection));
+        Assert.assertTrue(SchemaMigrator.columnExists(connection, "Bookings", "passengerId"));
+    }
+    @Test
+    public void testLookupIndexesCreated() throws Exception {
+        migrator.migrate(connection);
+        try (Statement st = connection.createStatement();
+             ResultSet rs = st.executeQuery("SELECT COUNT(*) FROM sqlite_master WHERE type = 'index' AND name IN "
+                     + "('idx_bookings_passenger', 'idx_bookings_flight', 'idx_passengers_status', 'idx_flights_code')")) {
+            rs.next();
+            Assert.assertEquals(4, rs.getInt(1));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package test.dao;
+
+import dao.BookingCounterDao;
+import dao.BookingDao;
+import dao.FlightDao;
+import dao.IdempotencyDao;
+import dao.PassengerDao;
+import dao.SchemaMigrator;
+import model.Flight;
+import model.Passenger;
+import model.SeatHold;
+import org.junit.*;
+import service.BookingService;
+import service.IdempotencyCache;
+import service.SeatHoldService;
+import service.exception.ValidationException;
+import java.sql.*;
+import java.time.LocalDate;
+
+public class SeatHoldServiceTest {
+    private static final LocalDate DAY = LocalDate.of(2030, 7, 1);
+    private static Connection connection;
+    private static FlightDao flightDao;
+    private static SeatHoldService holds;
+    private static BookingService service;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        flightDao = new FlightDao(connection);
+        flightDao.addFlight(new Flight(1, "PK001", "Karachi", "Lahore", DAY, "10:00", "12:00", 1, 100.0));
+        flightDao.addFlight(new Flight(2, "PK002", "Karachi", "Lahore", DAY, "18:00", "20:00", 1, 100.0));
+        PassengerDao passengerDao = new PassengerDao(connection);
+        passengerDao.addPassenger(new Passenger(1, "Ali", "Male", "PK", "PK101", "Karachi", "Lahore", null, null, "Unpaid"));
+        passengerDao.addPassenger(new Passenger(2, "Sara", "Female", "PK", "PK102", "Karachi", "Lahore", null, null, "Unpaid"));
+        holds = new SeatHoldService(60_000);
+        service = new BookingService(new BookingDao(connection), flightDao, passengerDao,
+                new BookingCounterDao(connection), new IdempotencyDao(connection), new IdempotencyCache(16),
+                holds, connection);
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testNonHolderCannotTakeHeldSeat() throws Exception {
+        SeatHold hold = holds.placeHold(1, 1, 1);
+        try {
+            service.createBooking(null, 2, 1, 10_000.0, null);
+            Assert.fail("Booked the last seat while it was held");
+        } catch (ValidationException expected) {
+            Assert.assertEquals(1, holds.getHeldSeats(1));
+        }
+
+        service.createBooking(null, 1, 1, 10_000.0, hold.getId());
+        Assert.assertEquals(0, holds.getHeldSeats(1));
+        Assert.assertEquals(0, (int) flightDao.getFlightById(1).getSeatCount());
+    }
+    @Test
+    public void testFailedBookingKeepsHold() throws Exception {
+        SeatHold hold = holds.placeHold(2, 1, 1);
+        try {
+            service.createBooking(null, 1, 2, 1.0, hold.getId());
+            Assert.fail("Booked below the fare");
+        } catch (ValidationException expected) {
+            Assert.assertEquals(1, holds.getHeldSeats(2));
+        }
+
+        service.createBooking(null, 1, 2, 10_000.0, hold.getId());
+        Assert.assertEquals(0, holds.getHeldSeats(2));
+    }
+}
@@ -0,0 +1,67 @@
+package test.dao;
+
+import dao.FlightDao;
+import dao.SchemaMigrator;
+import dao.SeatMapDao;
+import model.Flight;
+import model.SeatLayout;
+import model.SeatMap;
+import org.junit.*;
+import java.sql.*;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SeatMapDaoTest {
+    private static Connection connection;
+    private static SeatMapDao dao;
+
+    @BeforeClass
+    public static void setupClass() throws Exception {
+        connection = DriverManager.getConnection("jdbc:sqlite::memory:");
+        new SchemaMigrator().migrate(connection);
+        dao = new SeatMapDao(connection);
+        new FlightDao(connection).addFlight(new Flight(1, "PK001", "Karachi", "Lahore", LocalDate.of(2030, 5, 1),
+                "10:00", "12:00", 130, 100.0));
+    }
+    @AfterClass
+    public static void tearDownClass() throws Exception {
+        connection.close();
+    }
+    @Test
+    public void testSeatMapRoundTrip() throws Exception {
+        Assert.assertEquals(130, (int) dao.getCapacity(1));
+        Assert.assertNull(dao.getCapacity(99));
+        SeatMap map = new SeatMap(SeatLayout.of(130, 6, "BUSINESS:3"));
+        Assert.assertTrue(map.tryAssign(5));
+        Assert.assertFalse(map.tryAssign(5));
+        Assert.assertEquals(18, map.claimAdjacent(6, map.getLayout().getZone("ECONOMY")));
+        dao.saveSeatMap(1, map);
+        SeatMap loaded = dao.getSeatMap(1);
+        Assert.assertEquals(map.getLayout().encode(), loaded.getLayout().encode());
+        Assert.assertEquals(7, loaded.getTaken());
+        Assert.assertTrue(loaded.isTaken(5));
+        Assert.assertTrue(loaded.isTaken(23));
+        Assert.assertEquals("4F", loaded.getLayout().label(23));
+    }
+    @Test
+    public void testAssignments() throws Exception {
+        Map<Integer, Integer> seats = new LinkedHashMap<>();
+        seats.put(10, 0);
+        seats.put(11, 1);
+        Assert.assertEquals(2, dao.addAssignments(2, seats));
+        long[] totals = dao.getAssignmentTotals(2);
+        Assert.assertEquals(2, totals[0]);
+        Assert.assertEquals(1, totals[1]);
+        Assert.assertEquals(Integer.valueOf(1), dao.getSeats(Arrays.asList(11, 12)).get(11));
+        Assert.assertEquals(1, dao.deleteAssignments(Arrays.asList(10, 12)));
+        Assert.assertEquals(1, dao.getAssignments(2).size());
+    }
+    @Test(expected = SQLException.class)
+    public void testSeatAssignedOnce() throws Exception {
+        dao.addAssignments(3, Collections.singletonMap(20, 4));
+        dao.addAssignments(3, Collections.singletonMap(21, 4));
+    }
+}
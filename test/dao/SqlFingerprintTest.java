@@ -0,0 +1,24 @@
+package test.dao;
+
+import dao.SqlFingerprint;
+import org.junit.*;
+
+public class SqlFingerprintTest {
+    @Test
+    public void testLiteralsAndSpacingNormalized() {
+        String a = SqlFingerprint.of("SELECT * FROM Flights WHERE FCode = 'PK 301' AND Seats > 10");
+        String b = SqlFingerprint.of("select  *  from flights where fcode='X''y' and seats>200 -- note");
+        Assert.assertEquals(a, b);
+        Assert.assertEquals("select * from flights where fcode=? and seats>?", a);
+    }
+    @Test
+    public void testInListsCollapse() {
+        Assert.assertEquals(SqlFingerprint.of("SELECT id FROM Bookings WHERE id IN (1, 2, 3)"),
+                SqlFingerprint.of("SELECT id FROM Bookings WHERE id IN (?,?)"));
+    }
+    @Test
+    public void testIdentifiersWithDigitsKept() {
+        Assert.assertEquals("select col1 from t2 where flightid=?",
+                SqlFingerprint.of("SELECT col1 FROM t2 /* hint */ WHERE FlightId = 42"));
+    }
+}